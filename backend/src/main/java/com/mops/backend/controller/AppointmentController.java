@@ -1,9 +1,12 @@
 package com.mops.backend.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -13,14 +16,25 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.mops.backend.dto.AppointmentSearchCriteria;
+import com.mops.backend.dto.AppointmentSeriesRequestDTO;
+import com.mops.backend.dto.AppointmentSeriesResultDTO;
+import com.mops.backend.dto.SlotHoldDTO;
+import com.mops.backend.dto.StatusTransitionRequestDTO;
+import com.mops.backend.dto.StatusTransitionResultDTO;
+import com.mops.backend.dto.SweepStatsDTO;
 import com.mops.backend.model.Appointment;
 import com.mops.backend.model.Doctor;
 import com.mops.backend.model.User;
 import com.mops.backend.service.AppointmentService;
 import com.mops.backend.service.DoctorService;
+import com.mops.backend.service.IdempotencyService;
+import com.mops.backend.service.PendingAppointmentSweeper;
 import com.mops.backend.service.UserService;
 
 @RestController
@@ -36,6 +50,12 @@ public class AppointmentController {
     
     @Autowired
     private DoctorService doctorService;
+
+    @Autowired
+    private PendingAppointmentSweeper pendingAppointmentSweeper;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
     
     
     @GetMapping
@@ -82,98 +102,267 @@ public class AppointmentController {
         return appointmentService.getAppointmentsByStatus(status);
     }
     
+    @GetMapping("/search")
+    public ResponseEntity<?> searchAppointments(
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) Long patientId,
+            @RequestParam(required = false) Long specialtyId,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        AppointmentSearchCriteria criteria = new AppointmentSearchCriteria();
+        criteria.setDoctorId(doctorId);
+        criteria.setPatientId(patientId);
+        criteria.setSpecialtyId(specialtyId);
+        criteria.setStatuses(status);
+        criteria.setFrom(from);
+        criteria.setTo(to);
+        criteria.setText(q);
+        criteria.setSort(sort);
+        criteria.setLimit(limit);
+        criteria.setCursor(cursor);
+        try {
+            return ResponseEntity.ok(appointmentService.search(criteria));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/search/counts")
+    public ResponseEntity<?> countAppointmentsByStatus(
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) Long patientId) {
+        try {
+            return ResponseEntity.ok(appointmentService.countByStatus(doctorId, patientId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/sweeper/stats")
+    public SweepStatsDTO getSweeperStats() {
+        return pendingAppointmentSweeper.getStats();
+    }
+    
     @PostMapping
-    public ResponseEntity<Appointment> createAppointment(@RequestBody Appointment appointment) {
-        // Load full patient and doctor entities from database
-        if (appointment.getPatient() != null && appointment.getPatient().getId() != null) {
-            Optional<User> patient = userService.getUserById(appointment.getPatient().getId());
-            if (patient.isPresent()) {
-                appointment.setPatient(patient.get());
-            } else {
-                return ResponseEntity.badRequest().build();
-            }
+    public ResponseEntity<?> createAppointment(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody Appointment appointment) {
+        String fingerprint = (appointment.getPatient() != null ? appointment.getPatient().getId() : null) + ":"
+                + (appointment.getDoctor() != null ? appointment.getDoctor().getId() : null) + ":"
+                + appointment.getAppointmentDate();
+        try {
+            return idempotencyService.execute(idempotencyKey, "create-appointment", fingerprint, () -> {
+                if (!loadParticipants(appointment)) {
+                    return ResponseEntity.badRequest().build();
+                }
+
+                try {
+                    Appointment createdAppointment = appointmentService.createAppointment(appointment);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(createdAppointment);
+                } catch (IllegalStateException e) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(Map.of("message", e.getMessage()));
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/series")
+    public ResponseEntity<?> createSeries(@RequestBody AppointmentSeriesRequestDTO request) {
+        Optional<User> patient = request.getPatientId() != null ? userService.getUserById(request.getPatientId()) : Optional.empty();
+        Optional<Doctor> doctor = request.getDoctorId() != null ? doctorService.getDoctorById(request.getDoctorId()) : Optional.empty();
+        if (patient.isEmpty() || doctor.isEmpty()) {
+            return ResponseEntity.badRequest().build();
         }
 
-        if (appointment.getDoctor() != null && appointment.getDoctor().getId() != null) {
-            Optional<Doctor> doctor = doctorService.getDoctorById(appointment.getDoctor().getId());
-            if (doctor.isPresent()) {
-                appointment.setDoctor(doctor.get());
-            } else {
-                return ResponseEntity.badRequest().build();
+        try {
+            AppointmentSeriesResultDTO result = appointmentService.createSeries(patient.get(), doctor.get(), request);
+            // Nothing booked means the client has to pick other dates; the conflicts tell it which ones
+            if (result.getCreated().isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
             }
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
+    }
 
-        Appointment createdAppointment = appointmentService.createAppointment(appointment);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdAppointment);
+    @GetMapping("/series/{seriesId}")
+    public ResponseEntity<List<Appointment>> getSeries(@PathVariable String seriesId) {
+        List<Appointment> appointments = appointmentService.getSeries(seriesId);
+        if (appointments.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(appointments);
+    }
+
+    // Checkout flow: the slot is held in memory and only becomes an appointment once payment confirms
+    @PostMapping("/holds")
+    public ResponseEntity<?> holdSlot(@RequestBody Appointment appointment) {
+        if (!loadParticipants(appointment)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            SlotHoldDTO hold = appointmentService.holdSlot(appointment);
+            return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/holds/{token}/confirm-payment")
+    public ResponseEntity<?> confirmHeldPayment(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @PathVariable String token) {
+        try {
+            return idempotencyService.execute(idempotencyKey, "confirm-held-payment", token, () -> {
+                try {
+                    Appointment appointment = appointmentService.confirmHeldPayment(token);
+                    return ResponseEntity.ok(appointment);
+                } catch (IllegalStateException e) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(Map.of("message", e.getMessage()));
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/holds/{token}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String token) {
+        appointmentService.releaseHold(token);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @PostMapping("/transitions")
+    public ResponseEntity<?> transitionStatuses(@RequestBody StatusTransitionRequestDTO request) {
+        try {
+            StatusTransitionResultDTO result = appointmentService.transitionStatuses(request.getIds(), request.getStatus());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
     
     @PutMapping("/{id}/confirm")
-    public ResponseEntity<Appointment> confirmAppointment(@PathVariable Long id) {
+    public ResponseEntity<?> confirmAppointment(@PathVariable Long id) {
         try {
             Appointment appointment = appointmentService.confirmAppointment(id);
             return ResponseEntity.ok(appointment);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PutMapping("/{id}/confirm-payment")
-    public ResponseEntity<Appointment> confirmPaymentAppointment(@PathVariable Long id) {
+    public ResponseEntity<?> confirmPaymentAppointment(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @PathVariable Long id) {
         try {
-            Appointment appointment = appointmentService.confirmPaymentAppointment(id);
-            return ResponseEntity.ok(appointment);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+            return idempotencyService.execute(idempotencyKey, "confirm-payment", String.valueOf(id), () -> {
+                // Only a missing appointment is a stored 404; any other failure is forgotten so a retry runs again
+                Optional<Appointment> found = appointmentService.getAppointmentById(id);
+                if (found.isEmpty()) {
+                    return ResponseEntity.notFound().build();
+                }
+                try {
+                    Appointment appointment = appointmentService.confirmPaymentAppointment(found.get());
+                    return ResponseEntity.ok(appointment);
+                } catch (IllegalStateException e) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(Map.of("message", e.getMessage()));
+                } catch (RuntimeException e) {
+                    idempotencyService.discard(idempotencyKey, "confirm-payment");
+                    return ResponseEntity.notFound().build();
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
     }
     
     @PutMapping("/{id}/reject")
-    public ResponseEntity<Appointment> rejectAppointment(@PathVariable Long id) {
+    public ResponseEntity<?> rejectAppointment(@PathVariable Long id) {
         try {
             Appointment appointment = appointmentService.rejectAppointment(id);
             return ResponseEntity.ok(appointment);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
     @PutMapping("/{id}/cancel")
-    public ResponseEntity<Appointment> cancelAppointment(@PathVariable Long id) {
+    public ResponseEntity<?> cancelAppointment(@PathVariable Long id) {
         try {
             Appointment appointment = appointmentService.cancelAppointment(id);
             return ResponseEntity.ok(appointment);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
     @PutMapping("/{id}/complete")
-    public ResponseEntity<Appointment> completeAppointment(@PathVariable Long id) {
+    public ResponseEntity<?> completeAppointment(@PathVariable Long id) {
         try {
             Appointment appointment = appointmentService.completeAppointment(id);
             return ResponseEntity.ok(appointment);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PutMapping("/{id}/pending")
-    public ResponseEntity<Appointment> setPendingAppointment(@PathVariable Long id) {
+    public ResponseEntity<?> setPendingAppointment(@PathVariable Long id) {
         try {
             Appointment appointment = appointmentService.setPendingAppointment(id);
             return ResponseEntity.ok(appointment);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Appointment> updateAppointment(
+    public ResponseEntity<?> updateAppointment(
             @PathVariable Long id,
             @RequestBody Appointment appointmentDetails) {
         try {
             Appointment updatedAppointment = appointmentService.updateAppointment(id, appointmentDetails);
             return ResponseEntity.ok(updatedAppointment);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -184,4 +373,24 @@ public class AppointmentController {
         appointmentService.deleteAppointment(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Load full patient and doctor entities from database
+    private boolean loadParticipants(Appointment appointment) {
+        if (appointment.getPatient() != null && appointment.getPatient().getId() != null) {
+            Optional<User> patient = userService.getUserById(appointment.getPatient().getId());
+            if (patient.isEmpty()) {
+                return false;
+            }
+            appointment.setPatient(patient.get());
+        }
+
+        if (appointment.getDoctor() != null && appointment.getDoctor().getId() != null) {
+            Optional<Doctor> doctor = doctorService.getDoctorById(appointment.getDoctor().getId());
+            if (doctor.isEmpty()) {
+                return false;
+            }
+            appointment.setDoctor(doctor.get());
+        }
+        return true;
+    }
 }
\ No newline at end of file
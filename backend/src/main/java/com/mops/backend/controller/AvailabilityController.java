@@ -1,9 +1,12 @@
 package com.mops.backend.controller;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -14,12 +17,22 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.mops.backend.dto.FreeSlotDTO;
+import com.mops.backend.dto.SlotSeatsDTO;
 import com.mops.backend.model.Availability;
+import com.mops.backend.model.AvailabilityOverride;
 import com.mops.backend.model.Doctor;
+import com.mops.backend.model.Specialty;
+import com.mops.backend.service.AvailabilityImpactService;
+import com.mops.backend.service.AvailabilityOverrideService;
 import com.mops.backend.service.AvailabilityService;
 import com.mops.backend.service.DoctorService;
+import com.mops.backend.service.SlotSeatService;
+import com.mops.backend.service.SlotService;
+import com.mops.backend.service.SpecialtyService;
 
 @RestController
 @RequestMapping("/api/availability")
@@ -32,6 +45,21 @@ public class AvailabilityController {
     @Autowired
     private DoctorService doctorService;
     
+    @Autowired
+    private SlotService slotService;
+    
+    @Autowired
+    private SpecialtyService specialtyService;
+    
+    @Autowired
+    private AvailabilityOverrideService overrideService;
+    
+    @Autowired
+    private AvailabilityImpactService impactService;
+    
+    @Autowired
+    private SlotSeatService slotSeatService;
+    
     @GetMapping
     public List<Availability> getAllAvailabilities() {
         return availabilityService.getAllAvailabilities();
@@ -72,34 +100,236 @@ public class AvailabilityController {
         }
     }
     
+    @GetMapping("/slots")
+    public ResponseEntity<?> getFreeSlots(
+            @RequestParam Long doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        
+        Optional<Doctor> doctor = doctorService.getDoctorById(doctorId);
+        if (doctor.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(13);
+        try {
+            List<FreeSlotDTO> slots = slotService.getFreeSlots(doctor.get(), start, end);
+            return ResponseEntity.ok(slots);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    // Booked and remaining seats of group sessions; sessions nobody has booked yet have no entry
+    @GetMapping("/seats")
+    public ResponseEntity<?> getSeats(
+            @RequestParam Long doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(13);
+        try {
+            List<SlotSeatsDTO> seats = slotSeatService.getSeats(doctorId, start, end);
+            return ResponseEntity.ok(seats);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/next-slot")
+    public ResponseEntity<?> getNextFreeSlots(
+            @RequestParam(required = false) List<Long> doctorIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false, defaultValue = "60") int days) {
+        
+        List<Doctor> doctors = doctorIds == null || doctorIds.isEmpty()
+                ? doctorService.getActiveDoctors()
+                : doctorService.getDoctorsByIds(doctorIds);
+        try {
+            Map<Long, FreeSlotDTO> nextSlots = slotService.getNextFreeSlots(
+                    doctors, from != null ? from : LocalDate.now(), days);
+            return ResponseEntity.ok(nextSlots);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/specialty/{specialtyId}/first-available")
+    public ResponseEntity<?> getFirstAvailableInSpecialty(
+            @PathVariable Long specialtyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false, defaultValue = "10") int limit,
+            @RequestParam(required = false, defaultValue = "60") int days) {
+        
+        Optional<Specialty> specialty = specialtyService.getSpecialtyById(specialtyId);
+        if (specialty.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        try {
+            List<FreeSlotDTO> slots = slotService.getFirstAvailableInSpecialty(
+                    specialty.get(), from != null ? from : LocalDate.now(), limit, days);
+            return ResponseEntity.ok(slots);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/overrides/doctor/{doctorId}")
+    public ResponseEntity<List<AvailabilityOverride>> getOverridesByDoctor(@PathVariable Long doctorId) {
+        Optional<Doctor> doctor = doctorService.getDoctorById(doctorId);
+        
+        if (doctor.isPresent()) {
+            return ResponseEntity.ok(overrideService.getOverridesByDoctor(doctor.get()));
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PostMapping("/overrides")
+    public ResponseEntity<?> createOverride(@RequestBody AvailabilityOverride override) {
+        try {
+            AvailabilityOverride createdOverride = overrideService.createOverride(override);
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdOverride);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @PutMapping("/overrides/{id}")
+    public ResponseEntity<?> updateOverride(@PathVariable Long id, @RequestBody AvailabilityOverride override) {
+        try {
+            AvailabilityOverride updatedOverride = overrideService.updateOverride(id, override);
+            return ResponseEntity.ok(updatedOverride);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @DeleteMapping("/overrides/{id}")
+    public ResponseEntity<Void> deleteOverride(@PathVariable Long id) {
+        overrideService.deleteOverride(id);
+        return ResponseEntity.noContent().build();
+    }
+    
     @PostMapping
-    public ResponseEntity<Availability> createAvailability(@RequestBody Availability availability) {
-        Availability createdAvailability = availabilityService.createAvailability(availability);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdAvailability);
+    public ResponseEntity<?> createAvailability(
+            @RequestBody Availability availability,
+            @RequestParam(required = false, defaultValue = "reject") String onOverlap) {
+        try {
+            Availability createdAvailability = availabilityService.createAvailability(availability, isMerge(onOverlap));
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdAvailability);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
     
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createAvailabilities(
+            @RequestBody List<Availability> availabilities,
+            @RequestParam(required = false, defaultValue = "reject") String onOverlap) {
+        try {
+            List<Availability> createdAvailabilities = availabilityService.createAvailabilities(availabilities, isMerge(onOverlap));
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdAvailabilities);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    // impact=preview reports the upcoming bookings the change would strand without changing anything;
+    // impact=reschedule applies it and moves those bookings to NEEDS_RESCHEDULE
     @PutMapping("/{id}")
-    public ResponseEntity<Availability> updateAvailability(@PathVariable Long id, @RequestBody Availability availability) {
+    public ResponseEntity<?> updateAvailability(
+            @PathVariable Long id,
+            @RequestBody Availability availability,
+            @RequestParam(required = false, defaultValue = "ignore") String impact) {
         try {
+            ImpactMode mode = impactMode(impact);
+            if (mode == ImpactMode.PREVIEW) {
+                return ResponseEntity.ok(impactService.previewUpdate(id, availability));
+            }
+            if (mode == ImpactMode.RESCHEDULE) {
+                return ResponseEntity.ok(impactService.applyUpdate(id, availability));
+            }
             Availability updatedAvailability = availabilityService.updateAvailability(id, availability);
             return ResponseEntity.ok(updatedAvailability);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
     @PutMapping("/{id}/toggle-status")
-    public ResponseEntity<Availability> toggleAvailabilityStatus(@PathVariable Long id) {
+    public ResponseEntity<?> toggleAvailabilityStatus(
+            @PathVariable Long id,
+            @RequestParam(required = false, defaultValue = "ignore") String impact) {
         try {
+            ImpactMode mode = impactMode(impact);
+            if (mode == ImpactMode.PREVIEW) {
+                return ResponseEntity.ok(impactService.previewToggle(id));
+            }
+            if (mode == ImpactMode.RESCHEDULE) {
+                return ResponseEntity.ok(impactService.applyToggle(id));
+            }
             Availability availability = availabilityService.toggleAvailabilityStatus(id);
             return ResponseEntity.ok(availability);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
+    private enum ImpactMode { IGNORE, PREVIEW, RESCHEDULE }
+    
+    private static ImpactMode impactMode(String impact) {
+        for (ImpactMode mode : ImpactMode.values()) {
+            if (mode.name().equalsIgnoreCase(impact)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("impact must be 'ignore', 'preview' or 'reschedule'");
+    }
+    
+    private static boolean isMerge(String onOverlap) {
+        if ("merge".equalsIgnoreCase(onOverlap)) {
+            return true;
+        }
+        if ("reject".equalsIgnoreCase(onOverlap)) {
+            return false;
+        }
+        throw new IllegalArgumentException("onOverlap must be 'reject' or 'merge'");
+    }
+    
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteAvailability(@PathVariable Long id) {
+    public ResponseEntity<?> deleteAvailability(
+            @PathVariable Long id,
+            @RequestParam(required = false, defaultValue = "ignore") String impact) {
+        try {
+            ImpactMode mode = impactMode(impact);
+            if (mode == ImpactMode.PREVIEW) {
+                return ResponseEntity.ok(impactService.previewDelete(id));
+            }
+            if (mode == ImpactMode.RESCHEDULE) {
+                return ResponseEntity.ok(impactService.applyDelete(id));
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
         availabilityService.deleteAvailability(id);
         return ResponseEntity.noContent().build();
     }
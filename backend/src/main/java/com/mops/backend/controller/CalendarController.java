@@ -0,0 +1,64 @@
+package com.mops.backend.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.mops.backend.repository.CalendarFeedRepository.FeedOwner;
+import com.mops.backend.service.CalendarFeedService;
+
+@RestController
+@RequestMapping("/api/calendar")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://localhost:5173"})
+public class CalendarController {
+
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
+    @GetMapping("/doctors/{doctorId}/appointments.ics")
+    public ResponseEntity<StreamingResponseBody> getDoctorFeed(@PathVariable Long doctorId,
+                                                               @RequestParam(required = false) String token,
+                                                               WebRequest request) {
+        return feed(FeedOwner.DOCTOR, doctorId, token, request);
+    }
+
+    @GetMapping("/patients/{patientId}/appointments.ics")
+    public ResponseEntity<StreamingResponseBody> getPatientFeed(@PathVariable Long patientId,
+                                                                @RequestParam(required = false) String token,
+                                                                WebRequest request) {
+        return feed(FeedOwner.PATIENT, patientId, token, request);
+    }
+
+    private ResponseEntity<StreamingResponseBody> feed(FeedOwner owner, Long ownerId, String token, WebRequest request) {
+        if (!calendarFeedService.isValidToken(owner, ownerId, token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        LocalDate today = LocalDate.now();
+        String etag = calendarFeedService.etag(owner, ownerId, today);
+        // Sets the 304 status and ETag header itself when the client's copy is current
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(0, TimeUnit.SECONDS).cachePrivate().mustRevalidate())
+                .body(out -> calendarFeedService.writeFeed(owner, ownerId, today, out));
+    }
+}
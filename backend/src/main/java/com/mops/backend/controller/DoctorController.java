@@ -1,8 +1,14 @@
 package com.mops.backend.controller;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,11 +20,20 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.mops.backend.dto.CatalogCacheStatsDTO;
+import com.mops.backend.dto.DoctorDeactivationResultDTO;
+import com.mops.backend.dto.OccupancyStatsDTO;
 import com.mops.backend.model.Doctor;
 import com.mops.backend.model.Specialty;
+import com.mops.backend.service.AppointmentService;
+import com.mops.backend.service.CatalogCache;
+import com.mops.backend.service.CatalogResponseCache;
+import com.mops.backend.service.DoctorLeaderboard;
 import com.mops.backend.service.DoctorService;
+import com.mops.backend.service.OccupancyCalendar;
 import com.mops.backend.service.SpecialtyService;
 
 @RestController
@@ -29,12 +44,28 @@ public class DoctorController {
     @Autowired
     private DoctorService doctorService;
     
+    @Autowired
+    private AppointmentService appointmentService;
+    
     @Autowired
     private SpecialtyService specialtyService;
     
+    @Autowired
+    private OccupancyCalendar occupancyCalendar;
+    
+    @Autowired
+    private DoctorLeaderboard doctorLeaderboard;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+    
+    // Written straight from the pre-encoded JSON, same body as serializing doctorService.getAllDoctors()
     @GetMapping
-    public List<Doctor> getAllDoctors() {
-        return doctorService.getAllDoctors();
+    public void getAllDoctors(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        catalogResponseCache.write(catalogResponseCache.allDoctors(), request, response);
     }
     
     @GetMapping("/{id}")
@@ -44,6 +75,29 @@ public class DoctorController {
                     .orElse(ResponseEntity.notFound().build());
     }
     
+    @GetMapping("/{id}/occupancy")
+    public ResponseEntity<?> getDoctorOccupancy(@PathVariable Long id,
+                                                @RequestParam(defaultValue = "4") int weeks) {
+        if (weeks < 1 || weeks > 52) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Weeks must be between 1 and 52"));
+        }
+        Optional<Doctor> doctor = doctorService.getDoctorById(id);
+        if (doctor.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(occupancyCalendar.getHeatmap(doctor.get(), LocalDate.now(), weeks));
+    }
+    
+    @GetMapping("/occupancy/stats")
+    public OccupancyStatsDTO getOccupancyStats() {
+        return occupancyCalendar.getStats();
+    }
+    
+    @GetMapping("/catalog/stats")
+    public CatalogCacheStatsDTO getCatalogCacheStats() {
+        return catalogCache.getStats();
+    }
+    
     @GetMapping("/user/{userId}")
     public ResponseEntity<Doctor> getDoctorByUserId(@PathVariable Long userId) {
         Optional<Doctor> doctor = doctorService.getDoctorByUserId(userId);
@@ -52,8 +106,8 @@ public class DoctorController {
     }
     
     @GetMapping("/active")
-    public List<Doctor> getActiveDoctors() {
-        return doctorService.getActiveDoctors();
+    public void getActiveDoctors(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        catalogResponseCache.write(catalogResponseCache.activeDoctors(), request, response);
     }
     
     @GetMapping("/specialty/{specialtyId}")
@@ -68,6 +122,18 @@ public class DoctorController {
         }
     }
     
+    // Ranks only, answered from memory; offset/limit page through the specialty's active doctors
+    @GetMapping("/specialty/{specialtyId}/leaderboard")
+    public ResponseEntity<?> getSpecialtyLeaderboard(@PathVariable Long specialtyId,
+                                                     @RequestParam(defaultValue = "0") int offset,
+                                                     @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(doctorLeaderboard.getPage(specialtyId, offset, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
     @PostMapping
     public ResponseEntity<Doctor> createDoctor(@RequestBody Doctor doctor) {
         Doctor createdDoctor = doctorService.createDoctor(doctor);
@@ -94,6 +160,18 @@ public class DoctorController {
         }
     }
     
+    // Unlike toggle-status this only ever deactivates, and can cancel the doctor's upcoming appointments with it
+    @PutMapping("/{id}/deactivate")
+    public ResponseEntity<DoctorDeactivationResultDTO> deactivateDoctor(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean cancelAppointments) {
+        try {
+            return ResponseEntity.ok(appointmentService.deactivateDoctor(id, cancelAppointments));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteDoctor(@PathVariable Long id) {
         doctorService.deleteDoctor(id);
@@ -0,0 +1,61 @@
+package com.mops.backend.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.mops.backend.dto.FollowUpRunDTO;
+import com.mops.backend.model.FollowUpSuggestion;
+import com.mops.backend.service.FollowUpSuggestionService;
+
+@RestController
+@RequestMapping("/api/follow-ups")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://localhost:5173"})
+public class FollowUpController {
+
+    @Autowired
+    private FollowUpSuggestionService followUpSuggestionService;
+
+    @GetMapping("/patient/{patientId}")
+    public List<FollowUpSuggestion> getPatientSuggestions(@PathVariable Long patientId) {
+        return followUpSuggestionService.getOpenSuggestionsForPatient(patientId);
+    }
+
+    @GetMapping("/doctor/{doctorId}")
+    public List<FollowUpSuggestion> getDoctorSuggestions(@PathVariable Long doctorId) {
+        return followUpSuggestionService.getOpenSuggestionsForDoctor(doctorId);
+    }
+
+    @PutMapping("/{id}/dismiss")
+    public ResponseEntity<?> dismiss(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(followUpSuggestionService.dismiss(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Runs the nightly pass on demand, e.g. after importing reports
+    @PostMapping("/run")
+    public Map<String, Integer> run() {
+        return Map.of("suggested", followUpSuggestionService.run(LocalDate.now()));
+    }
+
+    @GetMapping("/stats")
+    public FollowUpRunDTO getStats() {
+        return followUpSuggestionService.getStats();
+    }
+}
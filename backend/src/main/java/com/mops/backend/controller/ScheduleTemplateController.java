@@ -0,0 +1,88 @@
+package com.mops.backend.controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.mops.backend.dto.TemplateApplyRequestDTO;
+import com.mops.backend.dto.TemplateApplyResultDTO;
+import com.mops.backend.model.ScheduleTemplate;
+import com.mops.backend.service.ScheduleTemplateService;
+
+@RestController
+@RequestMapping("/api/schedule-templates")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://localhost:5173"})
+public class ScheduleTemplateController {
+
+    @Autowired
+    private ScheduleTemplateService scheduleTemplateService;
+
+    @GetMapping
+    public List<ScheduleTemplate> getAllTemplates() {
+        return scheduleTemplateService.getAllTemplates();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ScheduleTemplate> getTemplateById(@PathVariable Long id) {
+        Optional<ScheduleTemplate> template = scheduleTemplateService.getTemplateById(id);
+        return template.map(ResponseEntity::ok)
+                       .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createTemplate(@RequestBody ScheduleTemplate template) {
+        try {
+            ScheduleTemplate createdTemplate = scheduleTemplateService.createTemplate(template);
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdTemplate);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateTemplate(@PathVariable Long id, @RequestBody ScheduleTemplate template) {
+        try {
+            ScheduleTemplate updatedTemplate = scheduleTemplateService.updateTemplate(id, template);
+            return ResponseEntity.ok(updatedTemplate);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteTemplate(@PathVariable Long id) {
+        scheduleTemplateService.deleteTemplate(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/{id}/apply")
+    public ResponseEntity<?> applyTemplate(@PathVariable Long id, @RequestBody TemplateApplyRequestDTO request) {
+        try {
+            TemplateApplyResultDTO result = scheduleTemplateService.applyTemplate(id, request);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.mops.backend.controller;
 
-import java.util.List;
+import java.io.IOException;
 import java.util.Map;
 import java.util.Optional;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.mops.backend.model.Specialty;
+import com.mops.backend.service.CatalogResponseCache;
 import com.mops.backend.service.SpecialtyService;
 
 @RestController
@@ -28,9 +32,12 @@ public class SpecialtyController {
     @Autowired
     private SpecialtyService specialtyService;
     
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+    
     @GetMapping
-    public List<Specialty> getAllSpecialties() {
-        return specialtyService.getAllSpecialties();
+    public void getAllSpecialties(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        catalogResponseCache.write(catalogResponseCache.allSpecialties(), request, response);
     }
     
     @GetMapping("/{id}")
@@ -18,6 +18,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.mops.backend.model.User;
+import com.mops.backend.repository.CalendarFeedRepository.FeedOwner;
+import com.mops.backend.service.CalendarFeedService;
+import com.mops.backend.service.DoctorService;
 import com.mops.backend.service.EmailService;
 import com.mops.backend.service.UserService;
 
@@ -31,6 +34,12 @@ public class UserController {
 
     @Autowired
     private EmailService emailService;
+
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
+    @Autowired
+    private DoctorService doctorService;
     
     @GetMapping
     public List<User> getAllUsers() {
@@ -77,6 +86,7 @@ public class UserController {
         try {
             Optional<User> user = userService.login(email, password);
             if (user.isPresent()) {
+                user.get().setCalendarFeedPath(calendarFeedPath(user.get()));
                 return ResponseEntity.ok(user.get());
             } else {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -161,4 +171,14 @@ public class UserController {
                     .body(Map.of("message", e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // A doctor subscribes to their schedule, everyone else to the appointments they booked
+    private String calendarFeedPath(User user) {
+        if ("DOCTOR".equals(user.getRole())) {
+            return doctorService.getDoctorByUserId(user.getId())
+                    .map(doctor -> calendarFeedService.feedPath(FeedOwner.DOCTOR, doctor.getId()))
+                    .orElse(null);
+        }
+        return calendarFeedService.feedPath(FeedOwner.PATIENT, user.getId());
+    }
+}
@@ -0,0 +1,124 @@
+package com.mops.backend.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.mops.backend.dto.WaitlistEntryDTO;
+import com.mops.backend.dto.WaitlistOfferDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.User;
+import com.mops.backend.service.AppointmentService;
+import com.mops.backend.service.DoctorService;
+import com.mops.backend.service.UserService;
+import com.mops.backend.service.WaitlistService;
+
+@RestController
+@RequestMapping("/api/waitlist")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://localhost:5173"})
+public class WaitlistController {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private UserService userService;
+
+    @PostMapping
+    public ResponseEntity<?> joinWaitlist(@RequestBody WaitlistEntryDTO request) {
+        if (request.getDoctorId() == null || request.getPatientId() == null || request.getDate() == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "doctorId, patientId and date are required"));
+        }
+        Optional<Doctor> doctor = doctorService.getDoctorById(request.getDoctorId());
+        Optional<User> patient = userService.getUserById(request.getPatientId());
+        if (doctor.isEmpty() || patient.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            WaitlistEntryDTO entry = waitlistService.join(doctor.get(), patient.get(), request.getDate());
+            return ResponseEntity.status(HttpStatus.CREATED).body(entry);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{entryId}")
+    public ResponseEntity<Void> leaveWaitlist(@PathVariable Long entryId) {
+        try {
+            waitlistService.leave(entryId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/doctor/{doctorId}")
+    public List<WaitlistEntryDTO> getDoctorWaitlist(
+            @PathVariable Long doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return waitlistService.getQueue(doctorId, date);
+    }
+
+    @GetMapping("/patient/{patientId}")
+    public List<WaitlistEntryDTO> getPatientEntries(@PathVariable Long patientId) {
+        return waitlistService.getEntriesByPatient(patientId);
+    }
+
+    @GetMapping("/patient/{patientId}/offers")
+    public List<WaitlistOfferDTO> getPatientOffers(@PathVariable Long patientId) {
+        return waitlistService.getOffersByPatient(patientId);
+    }
+
+    @PostMapping("/offers/{offerId}/claim")
+    public ResponseEntity<?> claimOffer(@PathVariable Long offerId, @RequestParam Long patientId) {
+        try {
+            Appointment appointment = appointmentService.claimWaitlistOffer(offerId, patientId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(appointment);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/offers/{offerId}/decline")
+    public ResponseEntity<?> declineOffer(@PathVariable Long offerId, @RequestParam Long patientId) {
+        try {
+            waitlistService.declineOffer(offerId, patientId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.mops.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class AppointmentSearchCriteria {
+    private Long doctorId;
+    private Long patientId;
+    private Long specialtyId;
+    private List<String> statuses;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String text;
+    // "asc" (oldest first) or "desc" (newest first)
+    private String sort;
+    private Integer limit;
+    private String cursor;
+}
@@ -0,0 +1,19 @@
+package com.mops.backend.dto;
+
+import java.util.List;
+
+import com.mops.backend.model.Appointment;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSearchResultDTO {
+    private List<Appointment> items;
+    // Opaque; pass it back as cursor to fetch the next page. Null on the last page.
+    private String nextCursor;
+    private boolean hasMore;
+}
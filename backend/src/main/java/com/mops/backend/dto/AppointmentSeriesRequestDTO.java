@@ -0,0 +1,22 @@
+package com.mops.backend.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSeriesRequestDTO {
+    private Long patientId;
+    private Long doctorId;
+    private LocalDateTime firstAppointment;
+    private Integer intervalWeeks;
+    private Integer occurrences;
+    private String notes;
+    private Double cost;
+    // When false a single conflict rejects the whole series; when true the free occurrences are still booked
+    private Boolean skipConflicts;
+}
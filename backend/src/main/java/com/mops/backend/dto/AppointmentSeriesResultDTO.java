@@ -0,0 +1,19 @@
+package com.mops.backend.dto;
+
+import java.util.List;
+
+import com.mops.backend.model.Appointment;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSeriesResultDTO {
+    private String seriesId;
+    private int requested;
+    private List<Appointment> created;
+    private List<SeriesConflictDTO> conflicts;
+}
@@ -0,0 +1,23 @@
+package com.mops.backend.dto;
+
+import java.util.List;
+
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityImpactDTO {
+    private Long availabilityId;
+    // false for a dry run: nothing was changed and the affected appointments keep their status
+    private boolean applied;
+    // The window after the change, or null when it was deleted
+    private Availability availability;
+    private int affectedCount;
+    private List<Appointment> affected;
+}
@@ -0,0 +1,17 @@
+package com.mops.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DayOccupancyDTO {
+    private LocalDate date;
+    private int availableMinutes;
+    private int bookedMinutes;
+    private int occupancyPercent;
+}
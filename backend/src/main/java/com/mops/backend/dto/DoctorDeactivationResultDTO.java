@@ -0,0 +1,18 @@
+package com.mops.backend.dto;
+
+import java.util.List;
+
+import com.mops.backend.model.Doctor;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorDeactivationResultDTO {
+    private Doctor doctor;
+    private int cancelled;
+    private List<Long> cancelledAppointmentIds;
+}
@@ -0,0 +1,23 @@
+package com.mops.backend.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowUpRunDTO {
+    private int lookaheadDays;
+    private int chunkSize;
+    private LocalDateTime lastRunAt;
+    private long lastScanned;
+    private long lastSuggested;
+    private long lastAlreadyBooked;
+    private long lastChunks;
+    private long lastDurationMs;
+    private long totalRuns;
+    private long totalSuggested;
+}
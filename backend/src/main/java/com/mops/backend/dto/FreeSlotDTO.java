@@ -0,0 +1,16 @@
+package com.mops.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeSlotDTO {
+    private Long doctorId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -0,0 +1,17 @@
+package com.mops.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyStatsDTO {
+    private int trackedDoctors;
+    private int maxDoctors;
+    private int horizonDays;
+    private long estimatedBytes;
+    private long loads;
+    private long evictions;
+}
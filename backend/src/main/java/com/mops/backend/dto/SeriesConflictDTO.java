@@ -0,0 +1,15 @@
+package com.mops.backend.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeriesConflictDTO {
+    private LocalDateTime appointmentDate;
+    private String reason;
+}
@@ -0,0 +1,18 @@
+package com.mops.backend.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotHoldDTO {
+    private String token;
+    private Long doctorId;
+    private Long patientId;
+    private LocalDateTime slotStart;
+    private LocalDateTime expiresAt;
+}
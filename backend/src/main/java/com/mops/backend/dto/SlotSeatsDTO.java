@@ -0,0 +1,18 @@
+package com.mops.backend.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotSeatsDTO {
+    private Long doctorId;
+    private LocalDateTime slotStart;
+    private int capacity;
+    private int booked;
+    private int remaining;
+}
@@ -0,0 +1,15 @@
+package com.mops.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusTransitionRequestDTO {
+    private List<Long> ids;
+    private String status;
+}
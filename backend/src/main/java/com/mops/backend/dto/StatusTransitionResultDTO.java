@@ -0,0 +1,17 @@
+package com.mops.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusTransitionResultDTO {
+    private String status;
+    private int applied;
+    private int failed;
+    private List<TransitionOutcomeDTO> results;
+}
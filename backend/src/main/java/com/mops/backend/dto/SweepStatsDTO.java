@@ -0,0 +1,22 @@
+package com.mops.backend.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweepStatsDTO {
+    private long paymentDeadlineMinutes;
+    private int chunkSize;
+    private LocalDateTime lastRunAt;
+    private long lastSwept;
+    private long lastChunks;
+    private long lastDurationMs;
+    private long totalRuns;
+    private long totalSwept;
+    private long maxDurationMs;
+}
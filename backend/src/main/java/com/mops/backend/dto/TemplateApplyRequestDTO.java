@@ -0,0 +1,18 @@
+package com.mops.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TemplateApplyRequestDTO {
+    private List<Long> doctorIds;
+    private Long specialtyId;
+    // "add" (the default) keeps the doctors' schedule and skips overlapping windows, "replace" swaps out
+    // the whole schedule and flags the bookings it strands
+    private String mode;
+}
@@ -0,0 +1,18 @@
+package com.mops.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TemplateApplyResultDTO {
+    private Long templateId;
+    private int doctors;
+    private int created;
+    private int replaced;
+    private int skipped;
+    // Upcoming bookings the replaced schedule no longer covers, moved to NEEDS_RESCHEDULE
+    private int needsReschedule;
+}
@@ -0,0 +1,16 @@
+package com.mops.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransitionOutcomeDTO {
+    private Long id;
+    private boolean applied;
+    // Status after the request: the new one when applied, otherwise whatever the appointment still has
+    private String status;
+    private String message;
+}
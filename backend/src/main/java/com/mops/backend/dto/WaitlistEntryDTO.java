@@ -0,0 +1,20 @@
+package com.mops.backend.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntryDTO {
+    private Long id;
+    private Long doctorId;
+    private Long patientId;
+    private LocalDate date;
+    private LocalDateTime joinedAt;
+    private int position;
+}
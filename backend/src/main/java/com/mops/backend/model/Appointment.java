@@ -7,12 +7,17 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "appointments")
+// Doctor and patient histories are read newest or oldest first with id as the keyset tiebreak
+@Table(name = "appointments", indexes = {
+    @Index(name = "idx_appointments_doctor_date", columnList = "doctor_id, appointment_date, id"),
+    @Index(name = "idx_appointments_patient_date", columnList = "patient_id, appointment_date, id")
+})
 public class Appointment {
     
     @Id
@@ -39,6 +44,18 @@ public class Appointment {
     @Column
     private Double cost;
 
+    // Shared by every occurrence booked through one recurring series request
+    @Column
+    private String seriesId;
+
+    // Seat in a multi-capacity window; several of these can share one doctor and start time
+    @Column
+    private Boolean groupSession = false;
+
+    // What a NEEDS_RESCHEDULE booking was before the doctor's hours changed; the reschedule goes back to it
+    @Column
+    private String previousStatus;
+
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
     
@@ -76,6 +93,15 @@ public class Appointment {
     public Double getCost() { return cost; }
     public void setCost(Double cost) { this.cost = cost; }
 
+    public String getSeriesId() { return seriesId; }
+    public void setSeriesId(String seriesId) { this.seriesId = seriesId; }
+
+    public Boolean getGroupSession() { return groupSession; }
+    public void setGroupSession(Boolean groupSession) { this.groupSession = groupSession; }
+
+    public String getPreviousStatus() { return previousStatus; }
+    public void setPreviousStatus(String previousStatus) { this.previousStatus = previousStatus; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
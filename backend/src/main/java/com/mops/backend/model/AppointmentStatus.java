@@ -0,0 +1,66 @@
+package com.mops.backend.model;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public final class AppointmentStatus {
+
+    public static final String PENDING = "PENDING";
+    public static final String CONFIRMED = "CONFIRMED";
+    public static final String REJECTED = "REJECTED";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String COMPLETED = "COMPLETED";
+    // Set by the sweeper on PENDING appointments that were never paid or confirmed in time
+    public static final String EXPIRED = "EXPIRED";
+    // Set when the doctor's hours change underneath a booking; the patient has to pick a new time
+    public static final String NEEDS_RESCHEDULE = "NEEDS_RESCHEDULE";
+
+    // Statuses that give the time slot back to the doctor's calendar
+    public static final Set<String> RELEASED = Set.of(CANCELLED, REJECTED, EXPIRED);
+
+    // Allowed transitions by current status; COMPLETED, CANCELLED, REJECTED and EXPIRED are final
+    private static final Map<String, Set<String>> TRANSITIONS = Map.of(
+            PENDING, Set.of(CONFIRMED, REJECTED, CANCELLED, COMPLETED, EXPIRED, NEEDS_RESCHEDULE),
+            CONFIRMED, Set.of(PENDING, CANCELLED, COMPLETED, NEEDS_RESCHEDULE),
+            NEEDS_RESCHEDULE, Set.of(PENDING, CONFIRMED, CANCELLED),
+            COMPLETED, Set.of(),
+            CANCELLED, Set.of(),
+            REJECTED, Set.of(),
+            EXPIRED, Set.of());
+
+    // Inverse of TRANSITIONS, used as the IN list of the conditional update
+    private static final Map<String, Set<String>> SOURCES = Map.of(
+            PENDING, sourcesOf(PENDING),
+            CONFIRMED, sourcesOf(CONFIRMED),
+            NEEDS_RESCHEDULE, sourcesOf(NEEDS_RESCHEDULE),
+            COMPLETED, sourcesOf(COMPLETED),
+            CANCELLED, sourcesOf(CANCELLED),
+            REJECTED, sourcesOf(REJECTED),
+            EXPIRED, sourcesOf(EXPIRED));
+
+    private AppointmentStatus() {}
+
+    public static boolean isKnown(String status) {
+        return status != null && TRANSITIONS.containsKey(status);
+    }
+
+    public static boolean canTransition(String from, String to) {
+        return isKnown(from) && TRANSITIONS.get(from).contains(to);
+    }
+
+    public static Set<String> allowedSources(String to) {
+        return SOURCES.getOrDefault(to, Set.of());
+    }
+
+    private static Set<String> sourcesOf(String to) {
+        return TRANSITIONS.entrySet().stream()
+                .filter(entry -> entry.getValue().contains(to))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public static boolean holdsSlot(String status) {
+        return status != null && !RELEASED.contains(status);
+    }
+}
@@ -1,5 +1,6 @@
 package com.mops.backend.model;
 
+import java.time.DayOfWeek;
 import java.time.LocalTime;
 
 import jakarta.persistence.Column;
@@ -35,6 +36,11 @@ public class Availability {
     @Column(nullable = false)
     private Boolean isActive = true;
 
+    // Patients per slot; above 1 the window is a group session with seats instead of a single booking.
+    // Left null until the service fills it in, so an update that omits it keeps the stored value.
+    @Column(nullable = false, columnDefinition = "integer default 1")
+    private Integer capacity;
+
     public Availability() {}
     
     public Availability(Doctor doctor, String dayOfWeek, LocalTime startTime, LocalTime endTime) {
@@ -61,4 +67,28 @@ public class Availability {
     
     public Boolean getIsActive() { return isActive; }
     public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    public Integer getCapacity() { return capacity; }
+    public void setCapacity(Integer capacity) { this.capacity = capacity; }
+
+    public DayOfWeek resolveDayOfWeek() {
+        return parseDayOfWeek(dayOfWeek);
+    }
+
+    // dayOfWeek is stored either as the frontend's 0-6 index (0 = Sunday) or as a day name
+    public static DayOfWeek parseDayOfWeek(String dayOfWeek) {
+        if (dayOfWeek == null || dayOfWeek.isBlank()) {
+            return null;
+        }
+        String value = dayOfWeek.trim();
+        try {
+            if (Character.isDigit(value.charAt(0))) {
+                int index = Integer.parseInt(value);
+                return index == 0 ? DayOfWeek.SUNDAY : DayOfWeek.of(index);
+            }
+            return DayOfWeek.valueOf(value.toUpperCase());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
 }
\ No newline at end of file
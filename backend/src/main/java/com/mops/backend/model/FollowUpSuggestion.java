@@ -0,0 +1,90 @@
+package com.mops.backend.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// Nudge for a patient whose medical report asks for a follow-up that has not been booked yet. One row per
+// report at most: the unique report id keeps the nightly job idempotent when it reruns over the same window.
+@Entity
+@Table(name = "follow_up_suggestions", indexes = {
+    @Index(name = "idx_follow_up_suggestions_patient", columnList = "patient_id, status, follow_up_date")
+})
+public class FollowUpSuggestion {
+
+    public static final String OPEN = "OPEN";
+    public static final String BOOKED = "BOOKED";
+    public static final String DISMISSED = "DISMISSED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "medical_report_id", nullable = false, unique = true)
+    private Long medicalReportId;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(nullable = false)
+    private LocalDate followUpDate;
+
+    // First free slot of the same doctor from the follow-up date on, if one was found
+    @Column
+    private LocalDateTime suggestedStart;
+
+    @Column(nullable = false)
+    private String status = OPEN;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column
+    private LocalDateTime updatedAt;
+
+    public FollowUpSuggestion() {}
+
+    public FollowUpSuggestion(Long medicalReportId, Long patientId, Long doctorId, LocalDate followUpDate) {
+        this.medicalReportId = medicalReportId;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.followUpDate = followUpDate;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getMedicalReportId() { return medicalReportId; }
+    public void setMedicalReportId(Long medicalReportId) { this.medicalReportId = medicalReportId; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public LocalDate getFollowUpDate() { return followUpDate; }
+    public void setFollowUpDate(LocalDate followUpDate) { this.followUpDate = followUpDate; }
+
+    public LocalDateTime getSuggestedStart() { return suggestedStart; }
+    public void setSuggestedStart(LocalDateTime suggestedStart) { this.suggestedStart = suggestedStart; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
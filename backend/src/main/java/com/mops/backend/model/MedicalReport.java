@@ -11,13 +11,17 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "medical_reports")
+// The follow-up job walks reports by (follow_up_date, id), a range scan however many years are stored
+@Table(name = "medical_reports", indexes = {
+    @Index(name = "idx_medical_reports_follow_up", columnList = "follow_up_date, id")
+})
 public class MedicalReport {
 
     @Id
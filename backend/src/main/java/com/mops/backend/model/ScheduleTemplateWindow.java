@@ -0,0 +1,50 @@
+package com.mops.backend.model;
+
+import java.time.LocalTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+@Embeddable
+public class ScheduleTemplateWindow {
+
+    @Column(nullable = false)
+    private String dayOfWeek;
+
+    @Column(nullable = false)
+    private LocalTime startTime;
+
+    @Column(nullable = false)
+    private LocalTime endTime;
+
+    // Patients per slot in the windows the template creates, as on Availability
+    @Column(nullable = false, columnDefinition = "integer default 1")
+    private Integer capacity = 1;
+
+    public ScheduleTemplateWindow() {}
+
+    public ScheduleTemplateWindow(String dayOfWeek, LocalTime startTime, LocalTime endTime) {
+        this.dayOfWeek = dayOfWeek;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public String getDayOfWeek() { return dayOfWeek; }
+    public void setDayOfWeek(String dayOfWeek) { this.dayOfWeek = dayOfWeek; }
+
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+
+    public LocalTime getEndTime() { return endTime; }
+    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+
+    public Integer getCapacity() { return capacity; }
+    public void setCapacity(Integer capacity) { this.capacity = capacity; }
+
+    public Availability toAvailability(Doctor doctor) {
+        Availability availability = new Availability(doctor, dayOfWeek, startTime, endTime);
+        availability.setIsActive(true);
+        availability.setCapacity(capacity);
+        return availability;
+    }
+}
@@ -0,0 +1,53 @@
+package com.mops.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+// Seat counter of one group session instance. booked only moves through conditional UPDATEs that check it
+// against capacity, so concurrent bookings cannot overfill the session and reads never count appointments.
+@Entity
+@Table(name = "slot_seats", uniqueConstraints = {
+    @UniqueConstraint(name = "uq_slot_seats_doctor_start", columnNames = {"doctor_id", "slot_start"})
+})
+public class SlotSeats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(nullable = false)
+    private LocalDateTime slotStart;
+
+    @Column(nullable = false)
+    private Integer capacity;
+
+    @Column(nullable = false)
+    private Integer booked = 0;
+
+    public SlotSeats() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public LocalDateTime getSlotStart() { return slotStart; }
+    public void setSlotStart(LocalDateTime slotStart) { this.slotStart = slotStart; }
+
+    public Integer getCapacity() { return capacity; }
+    public void setCapacity(Integer capacity) { this.capacity = capacity; }
+
+    public Integer getBooked() { return booked; }
+    public void setBooked(Integer booked) { this.booked = booked; }
+}
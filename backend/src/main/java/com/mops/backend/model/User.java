@@ -8,6 +8,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
 @Table(name = "users")
@@ -52,6 +53,10 @@ public class User {
 
     @Column
     private String verificationToken;
+
+    // Only filled in on the login response, so the feed link is handed to its owner alone
+    @Transient
+    private String calendarFeedPath;
     
     
     public User() {}
@@ -106,6 +111,9 @@ public class User {
     public String getVerificationToken() { return verificationToken; }
     public void setVerificationToken(String verificationToken) { this.verificationToken = verificationToken; }
 
+    public String getCalendarFeedPath() { return calendarFeedPath; }
+    public void setCalendarFeedPath(String calendarFeedPath) { this.calendarFeedPath = calendarFeedPath; }
+
     public String getFullName() {
         return firstName + " " + lastName;
     }
@@ -0,0 +1,70 @@
+package com.mops.backend.repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.mops.backend.model.Appointment;
+
+// Same reasoning as AvailabilityBatchRepository: IDENTITY ids keep Hibernate from batching inserts
+@Repository
+public class AppointmentBatchRepository {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO appointments (patient_id, doctor_id, appointment_date, status, notes, cost, series_id, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public int insertAll(List<Appointment> appointments) {
+        if (appointments.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, appointments, BATCH_SIZE, (statement, appointment) -> {
+            statement.setLong(1, appointment.getPatient().getId());
+            statement.setLong(2, appointment.getDoctor().getId());
+            statement.setTimestamp(3, Timestamp.valueOf(appointment.getAppointmentDate()));
+            statement.setString(4, appointment.getStatus());
+            statement.setString(5, appointment.getNotes());
+            if (appointment.getCost() != null) {
+                statement.setDouble(6, appointment.getCost());
+            } else {
+                statement.setNull(6, Types.DOUBLE);
+            }
+            statement.setString(7, appointment.getSeriesId());
+            statement.setTimestamp(8, Timestamp.valueOf(appointment.getCreatedAt()));
+            statement.setTimestamp(9, appointment.getUpdatedAt() != null ? Timestamp.valueOf(appointment.getUpdatedAt()) : null);
+        });
+        return appointments.size();
+    }
+
+    // One statement moves every upcoming appointment of the doctor out of the given statuses and reports
+    // which rows it touched, so the caller never works from a list that went stale between read and write
+    public List<Long> transitionUpcomingForDoctor(Long doctorId, LocalDateTime after, Collection<String> from,
+            String status, LocalDateTime updatedAt) {
+        if (from.isEmpty()) {
+            return List.of();
+        }
+        String sql = "UPDATE appointments SET status = ?, updated_at = ? "
+                + "WHERE doctor_id = ? AND appointment_date > ? AND status IN ("
+                + String.join(", ", Collections.nCopies(from.size(), "?")) + ") RETURNING id";
+        List<Object> args = new ArrayList<>();
+        args.add(status);
+        args.add(Timestamp.valueOf(updatedAt));
+        args.add(doctorId);
+        args.add(Timestamp.valueOf(after));
+        args.addAll(from);
+        return jdbcTemplate.queryForList(sql, Long.class, args.toArray());
+    }
+}
@@ -1,17 +1,28 @@
 package com.mops.backend.repository;
 
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.mops.backend.model.Appointment;
 import com.mops.backend.model.Doctor;
 import com.mops.backend.model.User;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, JpaSpecificationExecutor<Appointment> {
     
     List<Appointment> findByPatient(User patient);
     
@@ -29,10 +40,135 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
         LocalDateTime end
     );
     
+    List<Appointment> findByDoctorInAndAppointmentDateBetween(
+        List<Doctor> doctors,
+        LocalDateTime start,
+        LocalDateTime end
+    );
+    
     List<Appointment> findByPatientOrderByAppointmentDateDesc(User patient);
     
     List<Appointment> findByDoctorOrderByAppointmentDateAsc(Doctor doctor);
 
+    boolean existsByDoctorAndAppointmentDateAndStatusNotIn(
+        Doctor doctor,
+        LocalDateTime appointmentDate,
+        Collection<String> statuses
+    );
+    
+    boolean existsByDoctorAndAppointmentDateAndStatusNotInAndIdNot(
+        Doctor doctor,
+        LocalDateTime appointmentDate,
+        Collection<String> statuses,
+        Long id
+    );
+
+    List<Appointment> findByDoctorAndAppointmentDateInAndStatusNotIn(
+        Doctor doctor,
+        Collection<LocalDateTime> appointmentDates,
+        Collection<String> statuses
+    );
+
+    List<Appointment> findBySeriesIdOrderByAppointmentDateAsc(String seriesId);
+
+    // Compare-and-set in one statement: returns 0 when the row is missing or no longer in an allowed status
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Appointment a SET a.status = :status, a.updatedAt = :updatedAt WHERE a.id = :id AND a.status IN :from")
+    int transitionStatus(
+        @Param("id") Long id,
+        @Param("from") Collection<String> from,
+        @Param("status") String status,
+        @Param("updatedAt") LocalDateTime updatedAt
+    );
+
+    // Edits the bookable fields only while the row still has the status they were read with
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Appointment a SET a.doctor = :doctor, a.appointmentDate = :appointmentDate, a.notes = :notes,"
+            + " a.cost = :cost, a.updatedAt = :updatedAt WHERE a.id = :id AND a.status = :status")
+    int updateDetails(
+        @Param("id") Long id,
+        @Param("status") String status,
+        @Param("doctor") Doctor doctor,
+        @Param("appointmentDate") LocalDateTime appointmentDate,
+        @Param("notes") String notes,
+        @Param("cost") Double cost,
+        @Param("updatedAt") LocalDateTime updatedAt
+    );
+
+    // Set-based variant for bulk transitions; callers lock the rows first so the count matches the ids
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Appointment a SET a.status = :status, a.updatedAt = :updatedAt WHERE a.id IN :ids AND a.status IN :from")
+    int transitionStatuses(
+        @Param("ids") Collection<Long> ids,
+        @Param("from") Collection<String> from,
+        @Param("status") String status,
+        @Param("updatedAt") LocalDateTime updatedAt
+    );
+
+    // Flags bookings an availability change stranded and keeps the status each one had, in one statement
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Appointment a SET a.previousStatus = a.status, a.status = :status, a.updatedAt = :updatedAt"
+            + " WHERE a.id IN :ids AND a.status IN :from")
+    int markNeedsReschedule(
+        @Param("ids") Collection<Long> ids,
+        @Param("from") Collection<String> from,
+        @Param("status") String status,
+        @Param("updatedAt") LocalDateTime updatedAt
+    );
+
+    // Upcoming bookings inside one weekly window: the index narrows to the doctor's future rows and the
+    // weekday and time-of-day filters run on those only
+    @Query(value = "SELECT * FROM appointments a WHERE a.doctor_id = :doctorId AND a.appointment_date > :after "
+            + "AND EXTRACT(ISODOW FROM a.appointment_date) = :isoDayOfWeek "
+            + "AND CAST(a.appointment_date AS time) >= :startTime AND CAST(a.appointment_date AS time) < :endTime "
+            + "AND a.status IN (:statuses) ORDER BY a.appointment_date, a.id", nativeQuery = true)
+    List<Appointment> findUpcomingInWeeklyWindow(
+        @Param("doctorId") Long doctorId,
+        @Param("after") LocalDateTime after,
+        @Param("isoDayOfWeek") int isoDayOfWeek,
+        @Param("startTime") LocalTime startTime,
+        @Param("endTime") LocalTime endTime,
+        @Param("statuses") Collection<String> statuses
+    );
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Appointment> findByIdIn(Collection<Long> ids);
+
+    // Keyset page on (createdAt, id) so every chunk is an index range scan, however far the sweep has gone.
+    // Series occurrences are booked PENDING weeks ahead and are not waiting on a checkout, so they never go stale.
+    @Query("SELECT a FROM Appointment a WHERE a.status = :status AND a.createdAt < :cutoff AND a.seriesId IS NULL"
+            + " AND (a.createdAt > :afterCreatedAt OR (a.createdAt = :afterCreatedAt AND a.id > :afterId))"
+            + " ORDER BY a.createdAt, a.id")
+    List<Appointment> findStaleAfter(
+        @Param("status") String status,
+        @Param("cutoff") LocalDateTime cutoff,
+        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+        @Param("afterId") Long afterId,
+        Pageable page
+    );
+
+    // Bookings of a chunk of patients after a given time, read once per follow-up chunk
+    @Query("SELECT a FROM Appointment a WHERE a.patient.id IN :patientIds AND a.appointmentDate > :after"
+            + " AND a.status NOT IN :released")
+    List<Appointment> findByPatientIdsAfter(
+        @Param("patientIds") Collection<Long> patientIds,
+        @Param("after") LocalDateTime after,
+        @Param("released") Collection<String> released
+    );
+
     long countByDoctor(Doctor doctor);
+
+    // Booking count of every doctor in one grouped scan: rows of (doctor id, count)
+    @Query("SELECT a.doctor.id, COUNT(a) FROM Appointment a WHERE a.status NOT IN :released GROUP BY a.doctor.id")
+    List<Object[]> countByDoctorExcludingStatuses(@Param("released") Collection<String> released);
+
+    // A doctor's or a patient's whole history counted per status in one grouped scan: rows of (status, count)
+    @Query("SELECT a.status, COUNT(a) FROM Appointment a WHERE a.doctor.id = :doctorId GROUP BY a.status")
+    List<Object[]> countByStatusForDoctor(@Param("doctorId") Long doctorId);
+
+    @Query("SELECT a.status, COUNT(a) FROM Appointment a WHERE a.patient.id = :patientId GROUP BY a.status")
+    List<Object[]> countByStatusForPatient(@Param("patientId") Long patientId);
     List<Appointment> findByAppointmentDateBetween(LocalDateTime start, LocalDateTime end);
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.mops.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.mops.backend.model.Appointment;
+
+// Composable filters for the appointment search; each one is null-safe so callers can chain them freely
+public final class AppointmentSpecifications {
+
+    private AppointmentSpecifications() {}
+
+    public static Specification<Appointment> forDoctor(Long doctorId) {
+        return (root, query, cb) -> doctorId == null ? null : cb.equal(root.get("doctor").get("id"), doctorId);
+    }
+
+    public static Specification<Appointment> forPatient(Long patientId) {
+        return (root, query, cb) -> patientId == null ? null : cb.equal(root.get("patient").get("id"), patientId);
+    }
+
+    public static Specification<Appointment> inSpecialty(Long specialtyId) {
+        return (root, query, cb) -> specialtyId == null
+                ? null
+                : cb.equal(root.join("doctor").get("specialty").get("id"), specialtyId);
+    }
+
+    public static Specification<Appointment> statusIn(Collection<String> statuses) {
+        return (root, query, cb) -> statuses == null || statuses.isEmpty() ? null : root.get("status").in(statuses);
+    }
+
+    public static Specification<Appointment> onOrAfter(LocalDateTime from) {
+        return (root, query, cb) -> from == null ? null : cb.greaterThanOrEqualTo(root.get("appointmentDate"), from);
+    }
+
+    public static Specification<Appointment> before(LocalDateTime to) {
+        return (root, query, cb) -> to == null ? null : cb.lessThan(root.get("appointmentDate"), to);
+    }
+
+    public static Specification<Appointment> notesContain(String text) {
+        return (root, query, cb) -> text == null || text.isBlank()
+                ? null
+                : cb.like(cb.lower(root.get("notes")), "%" + escapeLike(text.trim().toLowerCase()) + "%", '\\');
+    }
+
+    // Rows strictly after the cursor in (appointmentDate, id) order, in either direction
+    public static Specification<Appointment> afterCursor(LocalDateTime date, Long id, boolean descending) {
+        return (root, query, cb) -> {
+            if (date == null || id == null) {
+                return null;
+            }
+            if (descending) {
+                return cb.or(cb.lessThan(root.get("appointmentDate"), date),
+                        cb.and(cb.equal(root.get("appointmentDate"), date), cb.lessThan(root.get("id"), id)));
+            }
+            return cb.or(cb.greaterThan(root.get("appointmentDate"), date),
+                    cb.and(cb.equal(root.get("appointmentDate"), date), cb.greaterThan(root.get("id"), id)));
+        };
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,40 @@
+package com.mops.backend.repository;
+
+import java.sql.Time;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.mops.backend.model.Availability;
+
+// Availability ids are IDENTITY columns, which stops Hibernate from batching inserts,
+// so bulk inserts go straight through JDBC batches
+@Repository
+public class AvailabilityBatchRepository {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO availability (doctor_id, day_of_week, start_time, end_time, is_active, capacity)"
+            + " VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public int insertAll(List<Availability> availabilities) {
+        if (availabilities.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, availabilities, BATCH_SIZE, (statement, availability) -> {
+            statement.setLong(1, availability.getDoctor().getId());
+            statement.setString(2, availability.getDayOfWeek());
+            statement.setTime(3, Time.valueOf(availability.getStartTime()));
+            statement.setTime(4, Time.valueOf(availability.getEndTime()));
+            statement.setBoolean(5, Boolean.TRUE.equals(availability.getIsActive()));
+            statement.setInt(6, availability.getCapacity() != null ? availability.getCapacity() : 1);
+        });
+        return availabilities.size();
+    }
+}
@@ -0,0 +1,19 @@
+package com.mops.backend.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.mops.backend.model.AvailabilityOverride;
+import com.mops.backend.model.Doctor;
+
+@Repository
+public interface AvailabilityOverrideRepository extends JpaRepository<AvailabilityOverride, Long> {
+
+    List<AvailabilityOverride> findByDoctorOrderByStartDateAsc(Doctor doctor);
+
+    List<AvailabilityOverride> findByDoctorId(Long doctorId);
+
+    List<AvailabilityOverride> findByDoctorIn(List<Doctor> doctors);
+}
@@ -3,6 +3,9 @@ package com.mops.backend.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.mops.backend.model.Availability;
@@ -18,4 +21,11 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Long
     List<Availability> findByDoctorAndDayOfWeek(Doctor doctor, String dayOfWeek);
     
     List<Availability> findByDoctorAndDayOfWeekAndIsActiveTrue(Doctor doctor, String dayOfWeek);
+
+    List<Availability> findByDoctorInAndIsActiveTrue(List<Doctor> doctors);
+
+    // Single bulk delete; the derived deleteBy variant would load and remove rows one by one
+    @Modifying
+    @Query("DELETE FROM Availability a WHERE a.doctor IN :doctors")
+    int deleteByDoctorIn(@Param("doctors") List<Doctor> doctors);
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.mops.backend.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.mops.backend.model.AppointmentStatus;
+
+// Read side of the .ics feeds. Events are read with plain JDBC and a small fetch size so Postgres hands
+// them over through a cursor and the feed is written row by row, never holding the window in memory.
+@Repository
+public class CalendarFeedRepository {
+
+    static final int FETCH_SIZE = 200;
+
+    public enum FeedOwner {
+        DOCTOR("a.doctor_id"),
+        PATIENT("a.patient_id");
+
+        private final String column;
+
+        FeedOwner(String column) {
+            this.column = column;
+        }
+    }
+
+    public record CalendarEventRow(Long id, LocalDateTime start, String status, LocalDateTime lastModified,
+                                   String doctorFirstName, String doctorLastName, String specialty,
+                                   String patientFirstName, String patientLastName) {}
+
+    private static final String RELEASED_IN =
+            String.join(", ", Collections.nCopies(AppointmentStatus.RELEASED.size(), "?"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Cheap summary of the window: any booking, cancellation or status change moves one of these values,
+    // so it can stand in for the feed body when answering If-None-Match
+    public String fingerprint(FeedOwner owner, Long ownerId, LocalDateTime from, LocalDateTime to) {
+        String sql = "SELECT COUNT(*), COUNT(*) FILTER (WHERE a.status NOT IN (" + RELEASED_IN + ")), "
+                + "MAX(COALESCE(a.updated_at, a.created_at)), COALESCE(SUM(a.id), 0) "
+                + "FROM appointments a WHERE " + owner.column + " = ? "
+                + "AND a.appointment_date >= ? AND a.appointment_date < ?";
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> rs.getLong(1) + ":" + rs.getLong(2) + ":"
+                + rs.getTimestamp(3) + ":" + rs.getLong(4), args(true, ownerId, from, to).toArray());
+    }
+
+    // Must run inside a transaction: the Postgres driver only uses a cursor when autocommit is off
+    public void streamEvents(FeedOwner owner, Long ownerId, LocalDateTime from, LocalDateTime to,
+                             Consumer<CalendarEventRow> consumer) {
+        String sql = "SELECT a.id, a.appointment_date, a.status, COALESCE(a.updated_at, a.created_at), "
+                + "du.first_name, du.last_name, s.name, pu.first_name, pu.last_name "
+                + "FROM appointments a "
+                + "JOIN doctors d ON d.id = a.doctor_id "
+                + "JOIN users du ON du.id = d.user_id "
+                + "JOIN specialties s ON s.id = d.specialty_id "
+                + "JOIN users pu ON pu.id = a.patient_id "
+                + "WHERE " + owner.column + " = ? AND a.appointment_date >= ? AND a.appointment_date < ? "
+                + "AND a.status NOT IN (" + RELEASED_IN + ") "
+                + "ORDER BY a.appointment_date, a.id";
+        List<Object> args = args(false, ownerId, from, to);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, rs -> {
+            Timestamp lastModified = rs.getTimestamp(4);
+            consumer.accept(new CalendarEventRow(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(),
+                    rs.getString(3), lastModified != null ? lastModified.toLocalDateTime() : null,
+                    rs.getString(5), rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9)));
+        });
+    }
+
+    // The status list sits before the owner in the fingerprint (FILTER clause) and after it in the event query
+    private static List<Object> args(boolean releasedFirst, Long ownerId, LocalDateTime from, LocalDateTime to) {
+        List<Object> args = new ArrayList<>();
+        if (releasedFirst) {
+            args.addAll(AppointmentStatus.RELEASED);
+        }
+        args.add(ownerId);
+        args.add(Timestamp.valueOf(from));
+        args.add(Timestamp.valueOf(to));
+        if (!releasedFirst) {
+            args.addAll(AppointmentStatus.RELEASED);
+        }
+        return args;
+    }
+}
@@ -0,0 +1,32 @@
+package com.mops.backend.repository;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Popularity scores are written as one JDBC batch of single-column updates instead of saving whole entities
+@Repository
+public class DoctorBatchRepository {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final String UPDATE_POPULARITY_SQL = "UPDATE doctors SET popularity = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public int updatePopularity(Map<Long, Integer> popularityByDoctor) {
+        if (popularityByDoctor.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_POPULARITY_SQL, new ArrayList<>(popularityByDoctor.entrySet()), BATCH_SIZE,
+                (statement, entry) -> {
+                    statement.setInt(1, entry.getValue());
+                    statement.setLong(2, entry.getKey());
+                });
+        return popularityByDoctor.size();
+    }
+}
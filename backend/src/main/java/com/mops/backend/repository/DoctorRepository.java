@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.mops.backend.model.Doctor;
@@ -24,4 +25,12 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     List<Doctor> findByIsActiveTrue();
     
     List<Doctor> findBySpecialtyAndIsActiveTrueOrderByPopularityDesc(Specialty specialty);
+
+    // Just the columns the popularity score needs: id, experience years and the stored score
+    @Query("SELECT d.id, d.experienceYears, d.popularity FROM Doctor d")
+    List<Object[]> findPopularityInputs();
+
+    // Active doctors as id, specialty id and stored score, for the in-memory leaderboard
+    @Query("SELECT d.id, d.specialty.id, d.popularity FROM Doctor d WHERE d.isActive = true")
+    List<Object[]> findLeaderboardInputs();
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.mops.backend.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.mops.backend.model.FollowUpSuggestion;
+
+@Repository
+public interface FollowUpSuggestionRepository extends JpaRepository<FollowUpSuggestion, Long> {
+
+    List<FollowUpSuggestion> findByPatientIdAndStatusOrderByFollowUpDateAsc(Long patientId, String status);
+
+    List<FollowUpSuggestion> findByDoctorIdAndStatusOrderByFollowUpDateAsc(Long doctorId, String status);
+
+    // Keyset chunks over the open suggestions for the nightly close pass
+    List<FollowUpSuggestion> findByStatusAndIdGreaterThanOrderByIdAsc(String status, Long afterId, Pageable pageable);
+}
@@ -1,9 +1,13 @@
 package com.mops.backend.repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.mops.backend.model.Appointment;
@@ -20,4 +24,19 @@ public interface MedicalReportRepository extends JpaRepository<MedicalReport, Lo
     List<MedicalReport> findByAppointmentDoctorIdOrderByCreatedDateDesc(Long doctorId);
 
     boolean existsByAppointment(Appointment appointment);
+
+    // Keyset page over the follow-up window; reports that already have a suggestion are skipped, so a run
+    // that stopped half way picks up where it left off
+    @Query("SELECT r FROM MedicalReport r JOIN FETCH r.appointment a"
+            + " WHERE r.followUpDate BETWEEN :from AND :to"
+            + " AND (r.followUpDate > :afterDate OR (r.followUpDate = :afterDate AND r.id > :afterId))"
+            + " AND NOT EXISTS (SELECT s.id FROM FollowUpSuggestion s WHERE s.medicalReportId = r.id)"
+            + " ORDER BY r.followUpDate, r.id")
+    List<MedicalReport> findFollowUpsAfter(
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to,
+        @Param("afterDate") LocalDate afterDate,
+        @Param("afterId") Long afterId,
+        Pageable page
+    );
 }
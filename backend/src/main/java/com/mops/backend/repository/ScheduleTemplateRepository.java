@@ -0,0 +1,14 @@
+package com.mops.backend.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.mops.backend.model.ScheduleTemplate;
+
+@Repository
+public interface ScheduleTemplateRepository extends JpaRepository<ScheduleTemplate, Long> {
+
+    Optional<ScheduleTemplate> findByName(String name);
+}
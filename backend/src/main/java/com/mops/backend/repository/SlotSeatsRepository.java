@@ -0,0 +1,43 @@
+package com.mops.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.mops.backend.model.SlotSeats;
+
+@Repository
+public interface SlotSeatsRepository extends JpaRepository<SlotSeats, Long> {
+
+    List<SlotSeats> findByDoctorIdAndSlotStartBetweenOrderBySlotStartAsc(Long doctorId, LocalDateTime from, LocalDateTime to);
+
+    // Creates the counter the first time a session is booked, seeded from bookings that predate it, and
+    // keeps its capacity in step with the window afterwards
+    @Modifying
+    @Query(value = "INSERT INTO slot_seats (doctor_id, slot_start, capacity, booked) "
+            + "SELECT :doctorId, :slotStart, :capacity, COUNT(*) FROM appointments "
+            + "WHERE doctor_id = :doctorId AND appointment_date = :slotStart AND status NOT IN (:released) "
+            + "ON CONFLICT (doctor_id, slot_start) DO UPDATE SET capacity = EXCLUDED.capacity", nativeQuery = true)
+    int ensureSeats(
+        @Param("doctorId") Long doctorId,
+        @Param("slotStart") LocalDateTime slotStart,
+        @Param("capacity") int capacity,
+        @Param("released") Collection<String> released
+    );
+
+    @Modifying
+    @Query("UPDATE SlotSeats s SET s.booked = s.booked + 1 "
+            + "WHERE s.doctorId = :doctorId AND s.slotStart = :slotStart AND s.booked < s.capacity")
+    int takeSeat(@Param("doctorId") Long doctorId, @Param("slotStart") LocalDateTime slotStart);
+
+    @Modifying
+    @Query("UPDATE SlotSeats s SET s.booked = CASE WHEN s.booked > :seats THEN s.booked - :seats ELSE 0 END "
+            + "WHERE s.doctorId = :doctorId AND s.slotStart = :slotStart")
+    int releaseSeats(@Param("doctorId") Long doctorId, @Param("slotStart") LocalDateTime slotStart, @Param("seats") int seats);
+}
@@ -1,42 +1,299 @@
 package com.mops.backend.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.mops.backend.dto.AppointmentSearchCriteria;
+import com.mops.backend.dto.AppointmentSearchResultDTO;
+import com.mops.backend.dto.AppointmentSeriesRequestDTO;
+import com.mops.backend.dto.AppointmentSeriesResultDTO;
+import com.mops.backend.dto.DoctorDeactivationResultDTO;
+import com.mops.backend.dto.SeriesConflictDTO;
+import com.mops.backend.dto.SlotHoldDTO;
+import com.mops.backend.dto.StatusTransitionResultDTO;
+import com.mops.backend.dto.TransitionOutcomeDTO;
 import com.mops.backend.model.Appointment;
+import com.mops.backend.model.AppointmentStatus;
 import com.mops.backend.model.Doctor;
 import com.mops.backend.model.User;
+import com.mops.backend.repository.AppointmentBatchRepository;
 import com.mops.backend.repository.AppointmentRepository;
+import com.mops.backend.repository.AppointmentSpecifications;
 
 @Service
 public class AppointmentService {
 
+    static final int MAX_SERIES_OCCURRENCES = 52;
+    static final int MAX_SERIES_INTERVAL_WEEKS = 12;
+    static final int MAX_BULK_TRANSITIONS = 500;
+    static final int DEFAULT_SEARCH_LIMIT = 20;
+    static final int MAX_SEARCH_LIMIT = 100;
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private AppointmentBatchRepository appointmentBatchRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Autowired
     private DoctorService doctorService;
 
     @Autowired
     private EmailService emailService;
+
+    @Autowired
+    private SlotLockRegistry slotLockRegistry;
+
+    @Autowired
+    private OccupancyCalendar occupancyCalendar;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private SlotHoldService slotHoldService;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private SlotSeatService slotSeatService;
+
+    @Autowired
+    private PopularityEngine popularityEngine;
     
     public Appointment createAppointment(Appointment appointment) {
         appointment.setCreatedAt(LocalDateTime.now());
         appointment.setStatus("PENDING");
 
-        doctorService.incrementPopularity(appointment.getDoctor().getId());
+        Appointment savedAppointment = slotLockRegistry.withDoctorLock(
+                appointment.getDoctor().getId(), () -> reserveSlot(appointment));
 
-        Appointment savedAppointment = appointmentRepository.save(appointment);
+        popularityEngine.recordBookings(savedAppointment.getDoctor().getId(), 1);
 
         // Send email notification to patient
         emailService.sendAppointmentConfirmation(savedAppointment);
 
         return savedAppointment;
     }
+
+    // Must run under the doctor's slot lock; the partial unique index is the backstop across instances
+    private Appointment reserveSlot(Appointment appointment) {
+        int capacity = slotSeatService.capacityAt(appointment.getDoctor(), appointment.getAppointmentDate());
+        if (capacity > 1) {
+            return reserveSeat(appointment, capacity);
+        }
+        checkSlotFree(appointment);
+        try {
+            Appointment saved = appointmentRepository.save(appointment);
+            occupancyCalendar.markBooked(saved);
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("This time slot is already booked");
+        }
+    }
+    
+    // Group sessions skip the single-booking checks; the seat counter is taken in the insert's transaction
+    private Appointment reserveSeat(Appointment appointment, int capacity) {
+        appointment.setGroupSession(true);
+        try {
+            Appointment saved = transactionTemplate.execute(status -> {
+                slotSeatService.takeSeat(appointment.getDoctor().getId(), appointment.getAppointmentDate(), capacity);
+                return appointmentRepository.save(appointment);
+            });
+            occupancyCalendar.markBooked(saved);
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("You already have a seat in this group session");
+        }
+    }
+    
+    private void checkSlotFree(Appointment appointment) {
+        Long patientId = appointment.getPatient() != null ? appointment.getPatient().getId() : null;
+        String conflict = reservedElsewhere(appointment.getDoctor().getId(), appointment.getAppointmentDate(), patientId);
+        if (conflict != null) {
+            throw new IllegalStateException(conflict);
+        }
+        // The bitmap answers most conflicts without a round trip; the database stays authoritative
+        if (occupancyCalendar.isBooked(appointment.getDoctor(), appointment.getAppointmentDate())
+                || appointmentRepository.existsByDoctorAndAppointmentDateAndStatusNotIn(
+                        appointment.getDoctor(), appointment.getAppointmentDate(), AppointmentStatus.RELEASED)) {
+            throw new IllegalStateException("This time slot is already booked");
+        }
+    }
+
+    // Slots reserved in memory rather than by a stored appointment
+    private String reservedElsewhere(Long doctorId, LocalDateTime start, Long patientId) {
+        if (waitlistService.isOfferedToOther(doctorId, start, patientId)) {
+            return "This time slot is being offered to a waitlisted patient";
+        }
+        if (slotHoldService.isHeldByOther(doctorId, start, patientId)) {
+            return "This time slot is being held for another checkout";
+        }
+        return null;
+    }
+
+    // Books the same weekly slot for a run of weeks: one conflict query, one batched insert and one email
+    public AppointmentSeriesResultDTO createSeries(User patient, Doctor doctor, AppointmentSeriesRequestDTO request) {
+        int occurrences = request.getOccurrences() != null ? request.getOccurrences() : 0;
+        int intervalWeeks = request.getIntervalWeeks() != null ? request.getIntervalWeeks() : 1;
+        if (request.getFirstAppointment() == null || !request.getFirstAppointment().isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("The first appointment must be in the future");
+        }
+        if (occurrences < 1 || occurrences > MAX_SERIES_OCCURRENCES) {
+            throw new IllegalArgumentException("A series must have between 1 and " + MAX_SERIES_OCCURRENCES + " occurrences");
+        }
+        if (intervalWeeks < 1 || intervalWeeks > MAX_SERIES_INTERVAL_WEEKS) {
+            throw new IllegalArgumentException("The interval must be between 1 and " + MAX_SERIES_INTERVAL_WEEKS + " weeks");
+        }
+
+        // Every occurrence falls in the same weekly window; a group session is booked one seat at a time
+        if (slotSeatService.capacityAt(doctor, request.getFirstAppointment()) > 1) {
+            throw new IllegalArgumentException("A series cannot be booked into a group session");
+        }
+
+        List<LocalDateTime> dates = new ArrayList<>(occurrences);
+        for (int i = 0; i < occurrences; i++) {
+            dates.add(request.getFirstAppointment().plusWeeks((long) i * intervalWeeks));
+        }
+        boolean skipConflicts = Boolean.TRUE.equals(request.getSkipConflicts());
+        String seriesId = UUID.randomUUID().toString();
+
+        AppointmentSeriesResultDTO result = slotLockRegistry.withDoctorLock(doctor.getId(), () -> {
+            Set<LocalDateTime> taken = new HashSet<>();
+            for (Appointment existing : appointmentRepository.findByDoctorAndAppointmentDateInAndStatusNotIn(
+                    doctor, dates, AppointmentStatus.RELEASED)) {
+                taken.add(existing.getAppointmentDate());
+            }
+
+            List<Appointment> pending = new ArrayList<>();
+            List<SeriesConflictDTO> conflicts = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
+            for (LocalDateTime date : dates) {
+                String conflict = taken.contains(date)
+                        ? "This time slot is already booked"
+                        : reservedElsewhere(doctor.getId(), date, patient.getId());
+                if (conflict != null) {
+                    conflicts.add(new SeriesConflictDTO(date, conflict));
+                    continue;
+                }
+                Appointment occurrence = new Appointment(patient, doctor, date);
+                occurrence.setStatus(AppointmentStatus.PENDING);
+                occurrence.setNotes(request.getNotes());
+                occurrence.setCost(request.getCost());
+                occurrence.setSeriesId(seriesId);
+                occurrence.setCreatedAt(now);
+                pending.add(occurrence);
+            }
+            if (pending.isEmpty() || (!conflicts.isEmpty() && !skipConflicts)) {
+                return new AppointmentSeriesResultDTO(null, occurrences, List.of(), conflicts);
+            }
+
+            try {
+                transactionTemplate.execute(status -> appointmentBatchRepository.insertAll(pending));
+            } catch (DataIntegrityViolationException e) {
+                // Another instance booked one of the slots after our check; the batch was rolled back as a whole
+                throw new IllegalStateException("One of the time slots was booked meanwhile, please try again");
+            }
+            List<Appointment> created = appointmentRepository.findBySeriesIdOrderByAppointmentDateAsc(seriesId);
+            created.forEach(occupancyCalendar::markBooked);
+            return new AppointmentSeriesResultDTO(seriesId, occurrences, created, conflicts);
+        });
+
+        if (!result.getCreated().isEmpty()) {
+            popularityEngine.recordBookings(doctor.getId(), result.getCreated().size());
+            emailService.sendSeriesConfirmation(patient, doctor, result.getCreated(), result.getConflicts());
+        }
+        return result;
+    }
+
+    public List<Appointment> getSeries(String seriesId) {
+        return appointmentRepository.findBySeriesIdOrderByAppointmentDateAsc(seriesId);
+    }
+
+    // Holds the slot in memory during checkout; nothing is stored unless payment confirms
+    public SlotHoldDTO holdSlot(Appointment appointment) {
+        if (appointment.getDoctor() == null || appointment.getAppointmentDate() == null) {
+            throw new IllegalArgumentException("Doctor and appointment date are required");
+        }
+        if (!appointment.getAppointmentDate().isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Cannot hold a time slot in the past");
+        }
+        return slotLockRegistry.withDoctorLock(appointment.getDoctor().getId(), () -> {
+            int capacity = slotSeatService.capacityAt(appointment.getDoctor(), appointment.getAppointmentDate());
+            if (capacity > 1) {
+                // Holds on a group session do not take a seat; payment confirmation does, if one is left
+                if (!slotSeatService.hasFreeSeat(appointment.getDoctor().getId(), appointment.getAppointmentDate(), capacity)) {
+                    throw new IllegalStateException("This group session is full");
+                }
+                return SlotHoldService.toDTO(slotHoldService.place(appointment, true));
+            }
+            checkSlotFree(appointment);
+            return SlotHoldService.toDTO(slotHoldService.place(appointment));
+        });
+    }
+
+    public void releaseHold(String token) {
+        slotHoldService.release(token);
+    }
+
+    // A hold that expired while the patient was paying no longer reserves the slot, so it books only if
+    // the slot is still free
+    public Appointment confirmHeldPayment(String token) {
+        SlotHoldService.SlotHold hold = slotHoldService.find(token);
+        Appointment appointment = hold.getAppointment();
+
+        Appointment savedAppointment = slotLockRegistry.withDoctorLock(appointment.getDoctor().getId(), () -> {
+            slotHoldService.take(token);
+            LocalDateTime now = LocalDateTime.now();
+            appointment.setCreatedAt(now);
+            appointment.setUpdatedAt(now);
+            appointment.setStatus(AppointmentStatus.CONFIRMED);
+            return reserveSlot(appointment);
+        });
+
+        popularityEngine.recordBookings(savedAppointment.getDoctor().getId(), 1);
+        emailService.sendPaymentConfirmation(savedAppointment);
+        return savedAppointment;
+    }
+    
+    // The offer keeps the slot held until the booking is saved, so no one else can take it in between
+    public Appointment claimWaitlistOffer(Long offerId, Long patientId) {
+        WaitlistService.SlotOffer offer = waitlistService.claimOffer(offerId, patientId);
+        Appointment booked;
+        try {
+            booked = createAppointment(new Appointment(offer.getPatient(), offer.getDoctor(), offer.getSlotStart()));
+        } catch (RuntimeException e) {
+            // Nothing was booked, so the slot goes to the next patient in line instead of back to the calendar
+            waitlistService.abandonClaim(offer);
+            throw e;
+        }
+        waitlistService.completeClaim(offer);
+        return booked;
+    }
     
     public List<Appointment> getAllAppointments() {
         return appointmentRepository.findAll();
@@ -70,22 +327,225 @@ public class AppointmentService {
         return appointmentRepository.findByDoctorAndStatus(doctor, status);
     }
     
+    // Keyset pagination on (appointmentDate, id): every page is an index range scan, however deep the
+    // client pages, and no count query runs. One extra row is fetched to tell whether another page exists.
+    public AppointmentSearchResultDTO search(AppointmentSearchCriteria criteria) {
+        boolean descending = parseSortDirection(criteria.getSort());
+        int limit = criteria.getLimit() != null ? criteria.getLimit() : DEFAULT_SEARCH_LIMIT;
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        if (criteria.getStatuses() != null) {
+            for (String status : criteria.getStatuses()) {
+                if (!AppointmentStatus.isKnown(status)) {
+                    throw new IllegalArgumentException("Unknown appointment status: " + status);
+                }
+            }
+        }
+        if (criteria.getFrom() != null && criteria.getTo() != null && !criteria.getFrom().isBefore(criteria.getTo())) {
+            throw new IllegalArgumentException("The start of the date range must be before its end");
+        }
+
+        Specification<Appointment> spec = Specification.allOf(
+                AppointmentSpecifications.forDoctor(criteria.getDoctorId()),
+                AppointmentSpecifications.forPatient(criteria.getPatientId()),
+                AppointmentSpecifications.inSpecialty(criteria.getSpecialtyId()),
+                AppointmentSpecifications.statusIn(criteria.getStatuses()),
+                AppointmentSpecifications.onOrAfter(criteria.getFrom()),
+                AppointmentSpecifications.before(criteria.getTo()),
+                AppointmentSpecifications.notesContain(criteria.getText()));
+        if (criteria.getCursor() != null && !criteria.getCursor().isBlank()) {
+            Cursor cursor = decodeCursor(criteria.getCursor());
+            spec = spec.and(AppointmentSpecifications.afterCursor(cursor.appointmentDate(), cursor.id(), descending));
+        }
+
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, "appointmentDate").and(Sort.by(direction, "id"));
+        List<Appointment> rows = appointmentRepository.findBy(spec, query -> query.sortBy(sort).limit(limit + 1).all());
+
+        boolean hasMore = rows.size() > limit;
+        List<Appointment> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? encodeCursor(items.get(items.size() - 1)) : null;
+        return new AppointmentSearchResultDTO(new ArrayList<>(items), nextCursor, hasMore);
+    }
+
+    // Totals a paged search cannot give, such as the dashboard cards, without loading the rows
+    public Map<String, Long> countByStatus(Long doctorId, Long patientId) {
+        if ((doctorId == null) == (patientId == null)) {
+            throw new IllegalArgumentException("Give either a doctorId or a patientId");
+        }
+        List<Object[]> rows = doctorId != null
+                ? appointmentRepository.countByStatusForDoctor(doctorId)
+                : appointmentRepository.countByStatusForPatient(patientId);
+        Map<String, Long> counts = new TreeMap<>();
+        for (Object[] row : rows) {
+            counts.put((String) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    private record Cursor(LocalDateTime appointmentDate, Long id) {}
+
+    private static boolean parseSortDirection(String sort) {
+        if (sort == null || sort.isBlank() || sort.equalsIgnoreCase("asc")) {
+            return false;
+        }
+        if (sort.equalsIgnoreCase("desc")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Sort must be asc or desc");
+    }
+
+    static String encodeCursor(Appointment last) {
+        String raw = last.getAppointmentDate() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+    }
+
     public Appointment updateAppointmentStatus(Long id, String status) {
+        if (!AppointmentStatus.isKnown(status)) {
+            throw new IllegalArgumentException("Unknown appointment status: " + status);
+        }
         Appointment appointment = appointmentRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
-        
+        return updateAppointmentStatus(appointment, status);
+    }
+
+    // One conditional UPDATE on the status that was read decides the race: when two staff members act at once
+    // exactly one wins. The caller's entity is reused, so a won transition costs that single statement.
+    private Appointment updateAppointmentStatus(Appointment appointment, String status) {
+        String current = appointment.getStatus();
+        checkTransition(appointment, status);
+        LocalDateTime now = LocalDateTime.now();
+        if (appointmentRepository.transitionStatus(appointment.getId(), List.of(current), status, now) == 0) {
+            String latest = appointmentRepository.findById(appointment.getId())
+                    .map(Appointment::getStatus)
+                    .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + appointment.getId()));
+            throw new IllegalStateException("Cannot change appointment from " + latest + " to " + status);
+        }
         appointment.setStatus(status);
-        appointment.setUpdatedAt(LocalDateTime.now());
-        
-        return appointmentRepository.save(appointment);
+        appointment.setUpdatedAt(now);
+
+        occupancyCalendar.apply(appointment);
+        // Every status that can move to a released one holds its slot, so this is the moment it frees up
+        if (!AppointmentStatus.holdsSlot(status)) {
+            slotSeatService.releaseSeats(List.of(appointment));
+            popularityEngine.recordReleased(List.of(appointment));
+            waitlistService.offerReleasedSlot(appointment);
+        }
+        return appointment;
+    }
+    
+    // Front-desk bulk actions: the rows are locked and updated with one statement, then notified in one batch
+    public StatusTransitionResultDTO transitionStatuses(List<Long> ids, String status) {
+        if (!AppointmentStatus.isKnown(status)) {
+            throw new IllegalArgumentException("Unknown appointment status: " + status);
+        }
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BULK_TRANSITIONS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_BULK_TRANSITIONS + " appointment ids are required");
+        }
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+
+        Map<Long, Appointment> current = new HashMap<>();
+        List<Appointment> changed = new ArrayList<>();
+        transactionTemplate.execute(transaction -> {
+            for (Appointment appointment : appointmentRepository.findByIdIn(distinctIds)) {
+                current.put(appointment.getId(), appointment);
+            }
+            List<Long> eligible = new ArrayList<>();
+            for (Long id : distinctIds) {
+                Appointment appointment = current.get(id);
+                if (appointment != null && canTransition(appointment, status)) {
+                    eligible.add(id);
+                }
+            }
+            if (eligible.isEmpty()) {
+                return 0;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            appointmentRepository.transitionStatuses(eligible, AppointmentStatus.allowedSources(status), status, now);
+            for (Long id : eligible) {
+                Appointment appointment = current.get(id);
+                appointment.setStatus(status);
+                appointment.setUpdatedAt(now);
+                changed.add(appointment);
+            }
+            return eligible.size();
+        });
+
+        Set<Long> appliedIds = new HashSet<>();
+        changed.forEach(appointment -> appliedIds.add(appointment.getId()));
+        List<TransitionOutcomeDTO> results = new ArrayList<>(distinctIds.size());
+        for (Long id : distinctIds) {
+            Appointment appointment = current.get(id);
+            if (appointment == null) {
+                results.add(new TransitionOutcomeDTO(id, false, null, "Appointment not found"));
+            } else if (appliedIds.contains(id)) {
+                results.add(new TransitionOutcomeDTO(id, true, status, null));
+            } else {
+                results.add(new TransitionOutcomeDTO(id, false, appointment.getStatus(),
+                        "Cannot change appointment from " + appointment.getStatus() + " to " + status));
+            }
+        }
+
+        changed.forEach(occupancyCalendar::apply);
+        if (!AppointmentStatus.holdsSlot(status)) {
+            slotSeatService.releaseSeats(changed);
+            popularityEngine.recordReleased(changed);
+            waitlistService.offerReleasedSlots(changed);
+        }
+        notificationDispatcher.dispatchStatusChanges(changed, status);
+        return new StatusTransitionResultDTO(status, changed.size(), distinctIds.size() - changed.size(), results);
     }
     
+    // Taking a doctor off the schedule can cancel all of their upcoming bookings with one UPDATE. The slots are
+    // not offered to the waitlist because the doctor is no longer bookable; patients hear about it in one
+    // queued email batch instead of one blocking send per appointment.
+    public DoctorDeactivationResultDTO deactivateDoctor(Long doctorId, boolean cancelAppointments) {
+        return slotLockRegistry.withDoctorLock(doctorId, () -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> cancelledIds = new ArrayList<>();
+            Doctor doctor = transactionTemplate.execute(transaction -> {
+                Doctor deactivated = doctorService.setDoctorActive(doctorId, false);
+                if (cancelAppointments) {
+                    cancelledIds.addAll(appointmentBatchRepository.transitionUpcomingForDoctor(doctorId, now,
+                            AppointmentStatus.allowedSources(AppointmentStatus.CANCELLED), AppointmentStatus.CANCELLED, now));
+                }
+                return deactivated;
+            });
+
+            if (!cancelledIds.isEmpty()) {
+                List<Appointment> cancelled = appointmentRepository.findAllById(cancelledIds);
+                cancelled.forEach(occupancyCalendar::markReleased);
+                slotSeatService.releaseSeats(cancelled);
+                popularityEngine.recordReleased(cancelled);
+                notificationDispatcher.dispatchStatusChanges(cancelled, AppointmentStatus.CANCELLED);
+            }
+            return new DoctorDeactivationResultDTO(doctor, cancelledIds.size(), cancelledIds);
+        });
+    }
+
     public Appointment confirmAppointment(Long id) {
         return updateAppointmentStatus(id, "CONFIRMED");
     }
 
     public Appointment confirmPaymentAppointment(Long id) {
-        Appointment appointment = updateAppointmentStatus(id, "CONFIRMED");
+        Appointment appointment = appointmentRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
+        return confirmPaymentAppointment(appointment);
+    }
+
+    public Appointment confirmPaymentAppointment(Appointment appointment) {
+        updateAppointmentStatus(appointment, "CONFIRMED");
 
         // Send payment confirmation email to patient
         emailService.sendPaymentConfirmation(appointment);
@@ -115,7 +575,15 @@ public class AppointmentService {
     }
 
     public void deleteAppointment(Long id) {
+        Optional<Appointment> appointment = appointmentRepository.findById(id);
+        appointment.ifPresent(occupancyCalendar::markReleased);
         appointmentRepository.deleteById(id);
+        appointment.filter(a -> AppointmentStatus.holdsSlot(a.getStatus()))
+                .ifPresent(a -> {
+                    slotSeatService.releaseSeats(List.of(a));
+                    popularityEngine.recordReleased(List.of(a));
+                    waitlistService.offerReleasedSlot(a);
+                });
     }
     
     public List<Appointment> getDoctorAppointmentsBetweenDates(
@@ -127,17 +595,149 @@ public class AppointmentService {
     }
 
 
+    // Field edits are written by a statement guarded on the status that was read, so they never overwrite a
+    // concurrent transition; a status change then goes through the same conditional UPDATE as the endpoints
     public Appointment updateAppointment(Long id, Appointment appointmentDetails) {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
-        
-        appointment.setDoctor(appointmentDetails.getDoctor());
-        appointment.setAppointmentDate(appointmentDetails.getAppointmentDate());
-        appointment.setNotes(appointmentDetails.getNotes());
-        appointment.setStatus(appointmentDetails.getStatus());
-        appointment.setCost(appointmentDetails.getCost());
-        appointment.setUpdatedAt(LocalDateTime.now());
-
-        return appointmentRepository.save(appointment);
+        String current = appointment.getStatus();
+        String target = appointmentDetails.getStatus() != null ? appointmentDetails.getStatus() : current;
+        if (!target.equals(current) && !AppointmentStatus.isKnown(target)) {
+            throw new IllegalArgumentException("Unknown appointment status: " + target);
+        }
+        if (appointmentDetails.getDoctor() == null) {
+            appointmentDetails.setDoctor(appointment.getDoctor());
+        }
+        if (appointmentDetails.getAppointmentDate() == null) {
+            appointmentDetails.setAppointmentDate(appointment.getAppointmentDate());
+        }
+
+        // A cancelled, rejected or expired appointment stays in the history; a new time is a new booking that
+        // has to go through checkout, or it would sit unpaid until the sweeper expires it
+        if (!AppointmentStatus.holdsSlot(current) && AppointmentStatus.holdsSlot(target)
+                && !AppointmentStatus.COMPLETED.equals(target)) {
+            throw new IllegalStateException("A " + current.toLowerCase()
+                    + " appointment cannot be rescheduled; book and pay for a new time instead");
+        }
+        if (!target.equals(current)) {
+            checkTransition(appointment, target);
+        }
+        // A seat belongs to its session; moving one goes through a new booking instead
+        if (Boolean.TRUE.equals(appointment.getGroupSession()) && movesSlot(appointment, appointmentDetails)) {
+            throw new IllegalStateException("A group session seat cannot be moved; cancel it and book a new seat");
+        }
+
+        if (target.equals(current)) {
+            return updateDetails(appointment, appointmentDetails);
+        }
+        if (!AppointmentStatus.holdsSlot(target)) {
+            // Released first, so the old slot is the one handed back and the edit cannot collide with it
+            Appointment released = updateAppointmentStatus(appointment, target);
+            return updateDetails(released, appointmentDetails);
+        }
+        updateDetails(appointment, appointmentDetails);
+        return updateAppointmentStatus(appointment, target);
+    }
+
+    private static void checkTransition(Appointment appointment, String target) {
+        if (!canTransition(appointment, target)) {
+            throw new IllegalStateException("Cannot change appointment from " + appointment.getStatus() + " to " + target);
+        }
+    }
+
+    // A booking waiting for a new time goes back to what it was, so it is never confirmed without a payment
+    private static boolean canTransition(Appointment appointment, String target) {
+        String current = appointment.getStatus();
+        if (!AppointmentStatus.canTransition(current, target)) {
+            return false;
+        }
+        if (AppointmentStatus.NEEDS_RESCHEDULE.equals(current) && AppointmentStatus.holdsSlot(target)) {
+            String previous = appointment.getPreviousStatus();
+            return target.equals(previous != null ? previous : AppointmentStatus.PENDING);
+        }
+        return true;
+    }
+
+    private Appointment updateDetails(Appointment appointment, Appointment details) {
+        boolean moving = movesSlot(appointment, details);
+        if (moving && appointment.getDoctor() != null) {
+            occupancyCalendar.invalidate(appointment.getDoctor().getId());
+        }
+        // The slot being moved away from, offered to the waitlist once the change is saved
+        Appointment previousSlot = moving && AppointmentStatus.holdsSlot(appointment.getStatus())
+                ? new Appointment(appointment.getPatient(), appointment.getDoctor(), appointment.getAppointmentDate())
+                : null;
+
+        Appointment updated;
+        if (previousSlot == null || details.getDoctor() == null) {
+            updated = writeDetails(appointment, details);
+        } else {
+            updated = slotLockRegistry.withDoctorLock(details.getDoctor().getId(), () -> {
+                if (slotSeatService.capacityAt(details.getDoctor(), details.getAppointmentDate()) > 1) {
+                    throw new IllegalStateException("An appointment cannot be moved into a group session; book a seat instead");
+                }
+                String conflict = reservedElsewhere(details.getDoctor().getId(), details.getAppointmentDate(),
+                        appointment.getPatient() != null ? appointment.getPatient().getId() : null);
+                if (conflict != null) {
+                    throw new IllegalStateException(conflict);
+                }
+                if (appointmentRepository.existsByDoctorAndAppointmentDateAndStatusNotInAndIdNot(
+                        details.getDoctor(), details.getAppointmentDate(), AppointmentStatus.RELEASED,
+                        appointment.getId())) {
+                    throw new IllegalStateException("This time slot is already booked");
+                }
+                Appointment saved = writeDetails(appointment, details);
+                occupancyCalendar.invalidate(saved.getDoctor().getId());
+                return saved;
+            });
+        }
+        // A booking moved to another doctor counts for the new one instead
+        if (previousSlot != null && previousSlot.getDoctor() != null && updated.getDoctor() != null
+                && !previousSlot.getDoctor().getId().equals(updated.getDoctor().getId())) {
+            popularityEngine.recordReleased(List.of(previousSlot));
+            popularityEngine.recordBookings(updated.getDoctor().getId(), 1);
+        }
+        offerIfMoved(previousSlot, updated);
+        return updated;
+    }
+
+    private Appointment writeDetails(Appointment appointment, Appointment details) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated;
+        try {
+            updated = appointmentRepository.updateDetails(appointment.getId(), appointment.getStatus(),
+                    details.getDoctor(), details.getAppointmentDate(), details.getNotes(), details.getCost(), now);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("This time slot is already booked");
+        }
+        if (updated == 0) {
+            throw new IllegalStateException("The appointment was changed meanwhile, please reload it and try again");
+        }
+        appointment.setDoctor(details.getDoctor());
+        appointment.setAppointmentDate(details.getAppointmentDate());
+        appointment.setNotes(details.getNotes());
+        appointment.setCost(details.getCost());
+        appointment.setUpdatedAt(now);
+        return appointment;
+    }
+
+    private static boolean movesSlot(Appointment appointment, Appointment details) {
+        Long doctorId = appointment.getDoctor() != null ? appointment.getDoctor().getId() : null;
+        Long newDoctorId = details.getDoctor() != null ? details.getDoctor().getId() : null;
+        return !Objects.equals(doctorId, newDoctorId)
+                || !Objects.equals(appointment.getAppointmentDate(), details.getAppointmentDate());
+    }
+
+    private void offerIfMoved(Appointment previousSlot, Appointment saved) {
+        if (previousSlot == null || previousSlot.getDoctor() == null) {
+            return;
+        }
+        boolean sameSlot = AppointmentStatus.holdsSlot(saved.getStatus())
+                && saved.getDoctor() != null
+                && previousSlot.getDoctor().getId().equals(saved.getDoctor().getId())
+                && previousSlot.getAppointmentDate().equals(saved.getAppointmentDate());
+        if (!sameSlot) {
+            waitlistService.offerReleasedSlot(previousSlot);
+        }
     }
 }
\ No newline at end of file
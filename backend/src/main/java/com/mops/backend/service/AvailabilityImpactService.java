@@ -0,0 +1,227 @@
+package com.mops.backend.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mops.backend.dto.AvailabilityImpactDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.AppointmentStatus;
+import com.mops.backend.model.Availability;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.repository.AppointmentRepository;
+
+// Finds the upcoming bookings an edit, removal or deactivation of a weekly window would strand outside the
+// doctor's hours. Only the window's own weekday is queried, restricted to its time range, so the cost follows
+// the bookings in that window rather than the doctor's history. Apply mode makes the change and moves the
+// stranded bookings to NEEDS_RESCHEDULE in one statement, under the doctor's lock and in one transaction.
+@Service
+public class AvailabilityImpactService {
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private AvailabilityOverrideService overrideService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private SlotLockRegistry slotLockRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public AvailabilityImpactDTO previewUpdate(Long id, Availability details) {
+        Availability current = load(id);
+        return withLock(current, () -> result(id, false, null, affectedBy(current, proposed(current, details))));
+    }
+
+    public AvailabilityImpactDTO previewDelete(Long id) {
+        Availability current = load(id);
+        return withLock(current, () -> result(id, false, null, affectedBy(current, null)));
+    }
+
+    public AvailabilityImpactDTO previewToggle(Long id) {
+        Availability current = load(id);
+        return withLock(current, () -> result(id, false, null, affectedBy(current, toggled(current))));
+    }
+
+    public AvailabilityImpactDTO applyUpdate(Long id, Availability details) {
+        Availability current = load(id);
+        return withLock(current, () -> {
+            List<Appointment> affected = affectedBy(current, proposed(current, details));
+            Availability saved = transactionTemplate.execute(status -> {
+                Availability updated = availabilityService.updateAvailability(id, details);
+                markNeedsReschedule(affected);
+                return updated;
+            });
+            return result(id, true, saved, affected);
+        });
+    }
+
+    public AvailabilityImpactDTO applyDelete(Long id) {
+        Availability current = load(id);
+        return withLock(current, () -> {
+            List<Appointment> affected = affectedBy(current, null);
+            transactionTemplate.execute(status -> {
+                availabilityService.deleteAvailability(id);
+                return markNeedsReschedule(affected);
+            });
+            return result(id, true, null, affected);
+        });
+    }
+
+    public AvailabilityImpactDTO applyToggle(Long id) {
+        Availability current = load(id);
+        return withLock(current, () -> {
+            List<Appointment> affected = affectedBy(current, toggled(current));
+            Availability saved = transactionTemplate.execute(status -> {
+                Availability toggled = availabilityService.toggleAvailabilityStatus(id);
+                markNeedsReschedule(affected);
+                return toggled;
+            });
+            return result(id, true, saved, affected);
+        });
+    }
+
+    // Bookings inside the window as it is now that no active window or extra session covers once it changes
+    List<Appointment> affectedBy(Availability current, Availability after) {
+        DayOfWeek day = current.resolveDayOfWeek();
+        if (!Boolean.TRUE.equals(current.getIsActive()) || day == null) {
+            return new ArrayList<>();
+        }
+
+        List<Appointment> candidates = appointmentRepository.findUpcomingInWeeklyWindow(
+                current.getDoctor().getId(), LocalDateTime.now(), day.getValue(),
+                current.getStartTime(), current.getEndTime(),
+                AppointmentStatus.allowedSources(AppointmentStatus.NEEDS_RESCHEDULE));
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        List<Availability> remaining = new ArrayList<>();
+        for (Availability window : availabilityService.getActiveAvailabilitiesByDoctor(current.getDoctor())) {
+            if (!window.getId().equals(current.getId()) && day.equals(window.resolveDayOfWeek())) {
+                remaining.add(window);
+            }
+        }
+        if (after != null && Boolean.TRUE.equals(after.getIsActive()) && day.equals(after.resolveDayOfWeek())) {
+            remaining.add(after);
+        }
+        OverrideIndex overrides = overrideService.getIndex(current.getDoctor());
+
+        List<Appointment> affected = new ArrayList<>();
+        for (Appointment appointment : candidates) {
+            if (!isCovered(appointment.getAppointmentDate(), remaining, overrides)) {
+                affected.add(appointment);
+            }
+        }
+        return affected;
+    }
+
+    // Bookings inside the doctor's current windows that a whole new weekly schedule no longer covers
+    List<Appointment> affectedByReplacing(Doctor doctor, List<Availability> current, List<Availability> replacement) {
+        List<Appointment> affected = new ArrayList<>();
+        OverrideIndex overrides = null;
+        for (Availability window : current) {
+            DayOfWeek day = window.resolveDayOfWeek();
+            if (!Boolean.TRUE.equals(window.getIsActive()) || day == null) {
+                continue;
+            }
+            List<Appointment> candidates = appointmentRepository.findUpcomingInWeeklyWindow(
+                    doctor.getId(), LocalDateTime.now(), day.getValue(),
+                    window.getStartTime(), window.getEndTime(),
+                    AppointmentStatus.allowedSources(AppointmentStatus.NEEDS_RESCHEDULE));
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            List<Availability> remaining = new ArrayList<>();
+            for (Availability after : replacement) {
+                if (Boolean.TRUE.equals(after.getIsActive()) && day.equals(after.resolveDayOfWeek())) {
+                    remaining.add(after);
+                }
+            }
+            if (overrides == null) {
+                overrides = overrideService.getIndex(doctor);
+            }
+            for (Appointment appointment : candidates) {
+                if (!isCovered(appointment.getAppointmentDate(), remaining, overrides)) {
+                    affected.add(appointment);
+                }
+            }
+        }
+        return affected;
+    }
+
+    private static boolean isCovered(LocalDateTime start, List<Availability> windows, OverrideIndex overrides) {
+        LocalTime time = start.toLocalTime();
+        for (Availability window : windows) {
+            if (!time.isBefore(window.getStartTime()) && time.isBefore(window.getEndTime())) {
+                return true;
+            }
+        }
+        for (Map.Entry<LocalDateTime, LocalDateTime> extra : overrides.extrasOn(start.toLocalDate())) {
+            if (!start.isBefore(extra.getKey()) && start.isBefore(extra.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int markNeedsReschedule(List<Appointment> affected) {
+        if (affected.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = affected.stream().map(Appointment::getId).toList();
+        int updated = appointmentRepository.markNeedsReschedule(ids,
+                AppointmentStatus.allowedSources(AppointmentStatus.NEEDS_RESCHEDULE), AppointmentStatus.NEEDS_RESCHEDULE, now);
+        for (Appointment appointment : affected) {
+            appointment.setPreviousStatus(appointment.getStatus());
+            appointment.setStatus(AppointmentStatus.NEEDS_RESCHEDULE);
+            appointment.setUpdatedAt(now);
+        }
+        return updated;
+    }
+
+    private Availability load(Long id) {
+        return availabilityService.getAvailabilityById(id)
+            .orElseThrow(() -> new RuntimeException("Availability not found with id: " + id));
+    }
+
+    // The preview and the change see the same bookings because both run under the doctor's lock
+    private <T> T withLock(Availability availability, Supplier<T> action) {
+        return slotLockRegistry.withDoctorLock(availability.getDoctor().getId(), action);
+    }
+
+    private static Availability proposed(Availability current, Availability details) {
+        Availability after = new Availability(current.getDoctor(), details.getDayOfWeek(),
+                details.getStartTime(), details.getEndTime());
+        after.setId(current.getId());
+        after.setIsActive(details.getIsActive());
+        return after;
+    }
+
+    private static Availability toggled(Availability current) {
+        Availability after = new Availability(current.getDoctor(), current.getDayOfWeek(),
+                current.getStartTime(), current.getEndTime());
+        after.setId(current.getId());
+        after.setIsActive(!Boolean.TRUE.equals(current.getIsActive()));
+        return after;
+    }
+
+    private static AvailabilityImpactDTO result(Long id, boolean applied, Availability availability,
+                                                List<Appointment> affected) {
+        return new AvailabilityImpactDTO(id, applied, availability, affected.size(), affected);
+    }
+}
@@ -0,0 +1,153 @@
+package com.mops.backend.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.mops.backend.model.Availability;
+
+// Each doctor's weekly windows per day as disjoint intervals keyed by start time. Finding the
+// windows that overlap a new one is a walk down from the last start before its end, so checking
+// a batch of n windows costs O(n log n) after one load of the existing rows.
+final class AvailabilityIntervalSet {
+
+    private final Map<Long, Map<DayOfWeek, TreeMap<LocalTime, Availability>>> byDoctor = new HashMap<>();
+    // Rows that need saving, and persisted rows swallowed by a merge that need deleting
+    private final Map<Availability, Integer> changed = new IdentityHashMap<>();
+    private int sequence;
+    private final List<Availability> absorbed = new ArrayList<>();
+    // Stored rows that already overlapped when seeded, keyed by the copy whose interval covers them
+    private final Map<Availability, List<Availability>> folded = new IdentityHashMap<>();
+
+    // Seeds detached copies, so the loaded (possibly managed) rows are never modified. Stored rows that
+    // already overlap are folded into one interval but stay untouched unless a new window merges into them.
+    void seed(List<Availability> existing) {
+        for (Availability window : existing) {
+            if (window.resolveDayOfWeek() != null && hasValidTimes(window)) {
+                insert(copyOf(window), true, false);
+            }
+        }
+    }
+
+    // Returns the row that now holds the window: the window itself, or the row it was merged into
+    Availability add(Availability window, boolean merge) {
+        if (window.getDoctor() == null || window.getDoctor().getId() == null) {
+            throw new IllegalArgumentException("Doctor is required");
+        }
+        if (window.resolveDayOfWeek() == null) {
+            throw new IllegalArgumentException("Invalid day of week: " + window.getDayOfWeek());
+        }
+        if (!hasValidTimes(window)) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+        return insert(window, merge, true);
+    }
+
+    boolean overlaps(Availability window) {
+        Map<DayOfWeek, TreeMap<LocalTime, Availability>> days = byDoctor.get(window.getDoctor().getId());
+        TreeMap<LocalTime, Availability> day = days == null ? null : days.get(window.resolveDayOfWeek());
+        if (day == null) {
+            return false;
+        }
+        Map.Entry<LocalTime, Availability> entry = day.lowerEntry(window.getEndTime());
+        return entry != null && entry.getValue().getEndTime().isAfter(window.getStartTime());
+    }
+
+    List<Availability> getChanged() {
+        List<Availability> rows = new ArrayList<>(changed.keySet());
+        rows.sort(Comparator.comparing(changed::get));
+        return rows;
+    }
+
+    List<Availability> getAbsorbed() {
+        return absorbed;
+    }
+
+    private Availability insert(Availability window, boolean merge, boolean track) {
+        TreeMap<LocalTime, Availability> day = byDoctor
+                .computeIfAbsent(window.getDoctor().getId(), id -> new EnumMap<>(DayOfWeek.class))
+                .computeIfAbsent(window.resolveDayOfWeek(), d -> new TreeMap<>());
+
+        // Intervals are disjoint, so the overlapping ones are consecutive below the new end
+        List<Availability> overlapping = new ArrayList<>();
+        Map.Entry<LocalTime, Availability> entry = day.lowerEntry(window.getEndTime());
+        while (entry != null && entry.getValue().getEndTime().isAfter(window.getStartTime())) {
+            overlapping.add(entry.getValue());
+            entry = day.lowerEntry(entry.getKey());
+        }
+        Collections.reverse(overlapping);
+
+        if (overlapping.isEmpty()) {
+            day.put(window.getStartTime(), window);
+            if (track) {
+                changed.putIfAbsent(window, sequence++);
+            }
+            return window;
+        }
+        if (!merge) {
+            Availability existing = overlapping.get(0);
+            throw new IllegalStateException("Window " + window.getStartTime() + "-" + window.getEndTime()
+                    + " on " + window.getDayOfWeek() + " overlaps " + existing.getStartTime() + "-" + existing.getEndTime());
+        }
+
+        // Prefer the earliest persisted row as the survivor so merges update rows instead of replacing them
+        Availability carrier = overlapping.stream().filter(w -> w.getId() != null).findFirst().orElse(overlapping.get(0));
+        LocalTime start = window.getStartTime();
+        LocalTime end = window.getEndTime();
+        for (Availability other : overlapping) {
+            day.remove(other.getStartTime());
+            start = other.getStartTime().isBefore(start) ? other.getStartTime() : start;
+            end = other.getEndTime().isAfter(end) ? other.getEndTime() : end;
+            if (other == carrier) {
+                continue;
+            }
+            if (track) {
+                changed.remove(other);
+                if (other.getId() != null) {
+                    absorbed.add(other);
+                }
+                absorbed.addAll(folded.getOrDefault(other, List.of()));
+                folded.remove(other);
+            } else {
+                List<Availability> members = folded.computeIfAbsent(carrier, c -> new ArrayList<>());
+                members.add(other);
+                members.addAll(folded.getOrDefault(other, List.of()));
+                folded.remove(other);
+            }
+        }
+        if (!track) {
+            // A seeded row swallowed by an earlier one is remembered, not dropped
+            folded.computeIfAbsent(carrier, c -> new ArrayList<>()).add(window);
+        } else if (!start.equals(carrier.getStartTime()) || !end.equals(carrier.getEndTime())) {
+            changed.putIfAbsent(carrier, sequence++);
+            // The carrier is saved with the whole union, so the rows it already covered are deleted
+            absorbed.addAll(folded.getOrDefault(carrier, List.of()));
+            folded.remove(carrier);
+        }
+        carrier.setStartTime(start);
+        carrier.setEndTime(end);
+        day.put(start, carrier);
+        return carrier;
+    }
+
+    private static Availability copyOf(Availability row) {
+        Availability copy = new Availability(row.getDoctor(), row.getDayOfWeek(), row.getStartTime(), row.getEndTime());
+        copy.setId(row.getId());
+        copy.setIsActive(row.getIsActive());
+        copy.setCapacity(row.getCapacity());
+        return copy;
+    }
+
+    private static boolean hasValidTimes(Availability window) {
+        return window.getStartTime() != null && window.getEndTime() != null
+                && window.getEndTime().isAfter(window.getStartTime());
+    }
+}
@@ -0,0 +1,148 @@
+package com.mops.backend.service;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.mops.backend.model.AvailabilityOverride;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.repository.AvailabilityOverrideRepository;
+
+@Service
+public class AvailabilityOverrideService {
+
+    // Timed rules are expanded per day in the index, so their span is capped
+    static final int MAX_TIMED_RULE_DAYS = 366;
+
+    @Autowired
+    private AvailabilityOverrideRepository overrideRepository;
+
+    // Compiled per doctor on first use and dropped whenever one of that doctor's rules changes
+    private final ConcurrentHashMap<Long, OverrideIndex> indexes = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public List<AvailabilityOverride> getOverridesByDoctor(Doctor doctor) {
+        return overrideRepository.findByDoctorOrderByStartDateAsc(doctor);
+    }
+
+    public Optional<AvailabilityOverride> getOverrideById(Long id) {
+        return overrideRepository.findById(id);
+    }
+
+    public AvailabilityOverride createOverride(AvailabilityOverride override) {
+        validate(override);
+        AvailabilityOverride saved = overrideRepository.save(override);
+        evict(saved.getDoctor().getId());
+        return saved;
+    }
+
+    public AvailabilityOverride updateOverride(Long id, AvailabilityOverride overrideDetails) {
+        AvailabilityOverride override = overrideRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Availability override not found with id: " + id));
+
+        override.setType(overrideDetails.getType());
+        override.setStartDate(overrideDetails.getStartDate());
+        override.setEndDate(overrideDetails.getEndDate());
+        override.setStartTime(overrideDetails.getStartTime());
+        override.setEndTime(overrideDetails.getEndTime());
+        override.setReason(overrideDetails.getReason());
+        validate(override);
+
+        AvailabilityOverride saved = overrideRepository.save(override);
+        evict(saved.getDoctor().getId());
+        return saved;
+    }
+
+    public void deleteOverride(Long id) {
+        Optional<AvailabilityOverride> override = overrideRepository.findById(id);
+        overrideRepository.deleteById(id);
+        override.ifPresent(o -> evict(o.getDoctor().getId()));
+    }
+
+    public OverrideIndex getIndex(Doctor doctor) {
+        return indexes.computeIfAbsent(doctor.getId(),
+                id -> OverrideIndex.compile(overrideRepository.findByDoctorId(id)));
+    }
+
+    // Compiles every missing index from a single query
+    public Map<Long, OverrideIndex> getIndexes(List<Doctor> doctors) {
+        Map<Long, OverrideIndex> result = new HashMap<>();
+        List<Doctor> missing = new ArrayList<>();
+        for (Doctor doctor : doctors) {
+            OverrideIndex index = indexes.get(doctor.getId());
+            if (index != null) {
+                result.put(doctor.getId(), index);
+            } else {
+                missing.add(doctor);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long loadedAt = generation.get();
+        Map<Long, List<AvailabilityOverride>> rulesByDoctor = overrideRepository.findByDoctorIn(missing)
+                .stream()
+                .collect(Collectors.groupingBy(override -> override.getDoctor().getId()));
+        // A rule changed while the rows were loading; serve what was read but do not cache it
+        boolean cacheable = generation.get() == loadedAt;
+        for (Doctor doctor : missing) {
+            OverrideIndex index = OverrideIndex.compile(rulesByDoctor.getOrDefault(doctor.getId(), List.of()));
+            result.put(doctor.getId(), cacheable ? indexes.computeIfAbsent(doctor.getId(), id -> index) : index);
+        }
+        return result;
+    }
+
+    // Returns the cached index without compiling one, so callers can tell when theirs went stale
+    OverrideIndex peekIndex(Long doctorId) {
+        return indexes.get(doctorId);
+    }
+
+    private void evict(Long doctorId) {
+        generation.incrementAndGet();
+        indexes.remove(doctorId);
+    }
+
+    private void validate(AvailabilityOverride override) {
+        if (override.getDoctor() == null || override.getDoctor().getId() == null) {
+            throw new IllegalArgumentException("Doctor is required");
+        }
+        if (!AvailabilityOverride.BLOCKED.equals(override.getType())
+                && !AvailabilityOverride.EXTRA.equals(override.getType())) {
+            throw new IllegalArgumentException("Type must be BLOCKED or EXTRA");
+        }
+        if (override.getStartDate() == null) {
+            throw new IllegalArgumentException("Start date is required");
+        }
+        if (override.getEndDate() == null) {
+            override.setEndDate(override.getStartDate());
+        }
+        if (override.getEndDate().isBefore(override.getStartDate())) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if ((override.getStartTime() == null) != (override.getEndTime() == null)) {
+            throw new IllegalArgumentException("Start and end time must be given together");
+        }
+        if (override.isWholeDay()) {
+            if (AvailabilityOverride.EXTRA.equals(override.getType())) {
+                throw new IllegalArgumentException("Extra sessions need a start and end time");
+            }
+            return;
+        }
+        if (!override.getEndTime().isAfter(override.getStartTime())) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+        if (ChronoUnit.DAYS.between(override.getStartDate(), override.getEndDate()) >= MAX_TIMED_RULE_DAYS) {
+            throw new IllegalArgumentException("Timed rules cannot span more than " + MAX_TIMED_RULE_DAYS + " days");
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.mops.backend.service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,11 +16,53 @@ import com.mops.backend.repository.AvailabilityRepository;
 @Service
 public class AvailabilityService {
     
+    static final int MAX_CAPACITY = 200;
+    
     @Autowired
     private AvailabilityRepository availabilityRepository;
     
+    @Autowired
+    private OccupancyCalendar occupancyCalendar;
+    
+    @Autowired
+    private SlotLockRegistry slotLockRegistry;
+    
     public Availability createAvailability(Availability availability) {
-        return availabilityRepository.save(availability);
+        return createAvailability(availability, false);
+    }
+    
+    // With mergeOverlaps the window is folded into the doctor's overlapping windows instead of rejected
+    public Availability createAvailability(Availability availability, boolean mergeOverlaps) {
+        validateCapacity(availability);
+        return slotLockRegistry.withDoctorLocks(doctorIds(List.of(availability)), () -> {
+            AvailabilityIntervalSet intervals = intervalsFor(List.of(availability), null);
+            Availability holder = intervals.add(availability, mergeOverlaps);
+            if (intervals.getChanged().isEmpty() && intervals.getAbsorbed().isEmpty()) {
+                return holder;
+            }
+            
+            Availability saved = availabilityRepository.save(holder);
+            availabilityRepository.deleteAll(intervals.getAbsorbed());
+            invalidateCalendar(saved);
+            return saved;
+        });
+    }
+    
+    // Validates the whole batch against one load of the doctors' active windows before writing anything
+    public List<Availability> createAvailabilities(List<Availability> availabilities, boolean mergeOverlaps) {
+        availabilities.forEach(AvailabilityService::validateCapacity);
+        return slotLockRegistry.withDoctorLocks(doctorIds(availabilities), () -> {
+            AvailabilityIntervalSet intervals = intervalsFor(availabilities, null);
+            for (Availability availability : availabilities) {
+                intervals.add(availability, mergeOverlaps);
+            }
+            
+            List<Availability> saved = availabilityRepository.saveAll(intervals.getChanged());
+            availabilityRepository.deleteAll(intervals.getAbsorbed());
+            saved.forEach(this::invalidateCalendar);
+            intervals.getAbsorbed().forEach(this::invalidateCalendar);
+            return saved;
+        });
     }
     
     public List<Availability> getAllAvailabilities() {
@@ -36,6 +81,10 @@ public class AvailabilityService {
         return availabilityRepository.findByDoctorAndIsActiveTrue(doctor);
     }
     
+    public List<Availability> getActiveAvailabilitiesByDoctors(List<Doctor> doctors) {
+        return availabilityRepository.findByDoctorInAndIsActiveTrue(doctors);
+    }
+    
     public List<Availability> getAvailabilitiesByDoctorAndDay(Doctor doctor, String dayOfWeek) {
         return availabilityRepository.findByDoctorAndDayOfWeek(doctor, dayOfWeek);
     }
@@ -52,11 +101,16 @@ public class AvailabilityService {
         availability.setStartTime(availabilityDetails.getStartTime());
         availability.setEndTime(availabilityDetails.getEndTime());
         availability.setIsActive(availabilityDetails.getIsActive());
+        if (availabilityDetails.getCapacity() != null) {
+            availability.setCapacity(availabilityDetails.getCapacity());
+        }
+        validateCapacity(availability);
         
-        return availabilityRepository.save(availability);
+        return saveValidated(availability);
     }
     
     public void deleteAvailability(Long id) {
+        availabilityRepository.findById(id).ifPresent(this::invalidateCalendar);
         availabilityRepository.deleteById(id);
     }
     
@@ -65,6 +119,64 @@ public class AvailabilityService {
             .orElseThrow(() -> new RuntimeException("Availability not found with id: " + id));
         
         availability.setIsActive(!availability.getIsActive());
-        return availabilityRepository.save(availability);
+        return saveValidated(availability);
+    }
+    
+    // An edited or re-activated window must not overlap the doctor's other active windows
+    private Availability saveValidated(Availability availability) {
+        return slotLockRegistry.withDoctorLocks(doctorIds(List.of(availability)), () -> {
+            if (Boolean.TRUE.equals(availability.getIsActive())) {
+                intervalsFor(List.of(availability), availability.getId()).add(availability, false);
+            }
+            Availability saved = availabilityRepository.save(availability);
+            invalidateCalendar(saved);
+            return saved;
+        });
+    }
+    
+    private static void validateCapacity(Availability availability) {
+        if (availability.getCapacity() == null) {
+            availability.setCapacity(1);
+        } else if (availability.getCapacity() < 1 || availability.getCapacity() > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY);
+        }
+    }
+    
+    private static List<Long> doctorIds(List<Availability> availabilities) {
+        List<Long> ids = new ArrayList<>();
+        for (Availability availability : availabilities) {
+            if (availability.getDoctor() != null && availability.getDoctor().getId() != null) {
+                ids.add(availability.getDoctor().getId());
+            }
+        }
+        return ids;
+    }
+    
+    // Active windows of every doctor in the batch, minus the row being edited
+    private AvailabilityIntervalSet intervalsFor(List<Availability> availabilities, Long excludedId) {
+        Map<Long, Doctor> doctors = new LinkedHashMap<>();
+        for (Availability availability : availabilities) {
+            if (availability.getDoctor() != null && availability.getDoctor().getId() != null) {
+                doctors.putIfAbsent(availability.getDoctor().getId(), availability.getDoctor());
+            }
+        }
+        
+        AvailabilityIntervalSet intervals = new AvailabilityIntervalSet();
+        if (!doctors.isEmpty()) {
+            List<Availability> existing = new ArrayList<>();
+            for (Availability window : availabilityRepository.findByDoctorInAndIsActiveTrue(new ArrayList<>(doctors.values()))) {
+                if (window.getId() == null || !window.getId().equals(excludedId)) {
+                    existing.add(window);
+                }
+            }
+            intervals.seed(existing);
+        }
+        return intervals;
+    }
+    
+    private void invalidateCalendar(Availability availability) {
+        if (availability != null && availability.getDoctor() != null) {
+            occupancyCalendar.invalidate(availability.getDoctor().getId());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,197 @@
+package com.mops.backend.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.HexFormat;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mops.backend.model.AppointmentStatus;
+import com.mops.backend.repository.CalendarFeedRepository;
+import com.mops.backend.repository.CalendarFeedRepository.CalendarEventRow;
+import com.mops.backend.repository.CalendarFeedRepository.FeedOwner;
+
+// Subscribable iCalendar feeds of a doctor's or patient's appointments. A feed URL carries an HMAC of the
+// owner, so nothing has to be stored per subscription and a guessed id is useless without the secret. URLs
+// are only handed out to their owner at login, and the secret is required at startup so they survive restarts.
+// Only a rolling window around today is published; calendar apps poll, so the ETag is derived from a
+// one-row summary of the window and an unchanged calendar is answered without reading any events.
+@Service
+public class CalendarFeedService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final DateTimeFormatter UTC_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final int MAX_LINE_OCTETS = 75;
+
+    @Value("${app.calendar.feed-secret:}")
+    private String feedSecret = "";
+
+    @Value("${app.calendar.past-days:30}")
+    private int pastDays = 30;
+
+    @Value("${app.calendar.future-days:180}")
+    private int futureDays = 180;
+
+    @Value("${app.calendar.event-minutes:30}")
+    private int eventMinutes = 30;
+
+    @Autowired
+    private CalendarFeedRepository calendarFeedRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private SecretKeySpec key;
+
+    @PostConstruct
+    public void init() {
+        if (feedSecret == null || feedSecret.isBlank()) {
+            throw new IllegalStateException("app.calendar.feed-secret (CALENDAR_FEED_SECRET) must be set");
+        }
+        key = new SecretKeySpec(feedSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+    }
+
+    public String feedPath(FeedOwner owner, Long ownerId) {
+        String base = owner == FeedOwner.DOCTOR ? "/api/calendar/doctors/" : "/api/calendar/patients/";
+        return base + ownerId + "/appointments.ics?token=" + feedToken(owner, ownerId);
+    }
+
+    public String feedToken(FeedOwner owner, Long ownerId) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal((owner.name() + ":" + ownerId).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Calendar feed tokens are unavailable", e);
+        }
+    }
+
+    public boolean isValidToken(FeedOwner owner, Long ownerId, String token) {
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        // Constant-time comparison so the token cannot be recovered byte by byte from response timings
+        return MessageDigest.isEqual(feedToken(owner, ownerId).getBytes(StandardCharsets.US_ASCII),
+                token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // The window start is part of the tag, so the feed is refetched once a day as old events roll out
+    public String etag(FeedOwner owner, Long ownerId, LocalDate today) {
+        LocalDateTime from = today.minusDays(pastDays).atStartOfDay();
+        LocalDateTime to = today.plusDays(futureDays + 1L).atStartOfDay();
+        String summary = calendarFeedRepository.fingerprint(owner, ownerId, from, to);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+                    (owner + ":" + ownerId + ":" + from + ":" + eventMinutes + ":" + summary)
+                            .getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is unavailable", e);
+        }
+    }
+
+    public void writeFeed(FeedOwner owner, Long ownerId, LocalDate today, OutputStream out) throws IOException {
+        LocalDateTime from = today.minusDays(pastDays).atStartOfDay();
+        LocalDateTime to = today.plusDays(futureDays + 1L).atStartOfDay();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        String stamp = utc(LocalDateTime.now());
+
+        line(writer, "BEGIN:VCALENDAR");
+        line(writer, "VERSION:2.0");
+        line(writer, "PRODID:-//MOPS//Appointments//EN");
+        line(writer, "CALSCALE:GREGORIAN");
+        line(writer, "METHOD:PUBLISH");
+        line(writer, "X-WR-CALNAME:" + escape(owner == FeedOwner.DOCTOR ? "MOPS schedule" : "MOPS appointments"));
+        line(writer, "REFRESH-INTERVAL;VALUE=DURATION:PT1H");
+        line(writer, "X-PUBLISHED-TTL:PT1H");
+        try {
+            transactionTemplate.execute(status -> {
+                calendarFeedRepository.streamEvents(owner, ownerId, from, to, row -> writeEvent(writer, owner, row, stamp));
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            // The calendar client went away mid-stream; the cursor is already closed with the transaction
+            throw e.getCause();
+        }
+        line(writer, "END:VCALENDAR");
+        writer.flush();
+    }
+
+    private void writeEvent(Writer writer, FeedOwner owner, CalendarEventRow row, String stamp) {
+        String summary = owner == FeedOwner.DOCTOR
+                ? "Appointment with " + row.patientFirstName() + " " + row.patientLastName()
+                : "Appointment with Dr. " + row.doctorFirstName() + " " + row.doctorLastName();
+        try {
+            line(writer, "BEGIN:VEVENT");
+            line(writer, "UID:appointment-" + row.id() + "@mops");
+            line(writer, "DTSTAMP:" + stamp);
+            line(writer, "DTSTART:" + utc(row.start()));
+            line(writer, "DTEND:" + utc(row.start().plusMinutes(eventMinutes)));
+            if (row.lastModified() != null) {
+                line(writer, "LAST-MODIFIED:" + utc(row.lastModified()));
+            }
+            line(writer, "SUMMARY:" + escape(summary));
+            if (row.specialty() != null) {
+                line(writer, "CATEGORIES:" + escape(row.specialty()));
+            }
+            line(writer, "STATUS:" + eventStatus(row.status()));
+            line(writer, "END:VEVENT");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String eventStatus(String status) {
+        return AppointmentStatus.CONFIRMED.equals(status) || AppointmentStatus.COMPLETED.equals(status)
+                ? "CONFIRMED" : "TENTATIVE";
+    }
+
+    private static String utc(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).format(UTC_STAMP);
+    }
+
+    static String escape(String text) {
+        return text.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,")
+                .replace("\r\n", "\\n").replace("\n", "\\n").replace("\r", "\\n");
+    }
+
+    // RFC 5545 content lines end in CRLF and are folded after 75 octets, never inside a UTF-8 sequence
+    static void line(Writer writer, String content) throws IOException {
+        int octets = 0;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int width = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (octets + width > MAX_LINE_OCTETS) {
+                writer.write("\r\n ");
+                // The leading space of a continuation line counts towards its length
+                octets = 1;
+            }
+            writer.write(Character.toChars(codePoint));
+            octets += width;
+            i += Character.charCount(codePoint);
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,143 @@
+package com.mops.backend.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.mops.backend.dto.CatalogCacheStatsDTO;
+
+// Holds the doctor and specialty listings that nearly every page reads but that change a few times a week.
+// Entries are weighed by the entities they hold (a doctor carries its user and specialty) and the least
+// recently used ones are evicted once the total passes app.catalog-cache.max-weight. Mutators name the exact
+// keys they affect; inside a transaction the keys are dropped again after commit, and a load that overlapped
+// any invalidation is returned but not stored, so a reader never re-caches the pre-change rows.
+@Service
+public class CatalogCache {
+
+    static final String ALL_DOCTORS = "doctors:all";
+    static final String ACTIVE_DOCTORS = "doctors:active";
+    static final String ALL_SPECIALTIES = "specialties:all";
+    private static final String SPECIALTY_PREFIX = "specialty:";
+
+    static final int DOCTOR_WEIGHT = 3;
+    static final int SPECIALTY_WEIGHT = 1;
+
+    @Value("${app.catalog-cache.max-weight:30000}")
+    private long maxWeight = 30000;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    private record Entry(Object value, long weight) {
+    }
+
+    public <T> List<T> getList(String key, Supplier<List<T>> loader, int weightPerItem) {
+        return get(key, () -> List.copyOf(loader.get()), list -> (long) list.size() * weightPerItem + 1);
+    }
+
+    // Misses are not cached, so an id that does not exist yet is found as soon as it is created
+    public <T> Optional<T> getOne(String key, Supplier<Optional<T>> loader, int weight) {
+        return get(key, loader, value -> (long) weight);
+    }
+
+    public static String specialtyKey(Long specialtyId) {
+        return SPECIALTY_PREFIX + specialtyId;
+    }
+
+    public void invalidateDoctors() {
+        invalidate(ALL_DOCTORS, ACTIVE_DOCTORS);
+    }
+
+    public void invalidateSpecialtyList() {
+        invalidate(ALL_SPECIALTIES);
+    }
+
+    public void invalidateSpecialty(Long specialtyId) {
+        invalidate(ALL_SPECIALTIES, specialtyKey(specialtyId));
+    }
+
+    public synchronized CatalogCacheStatsDTO getStats() {
+        return new CatalogCacheStatsDTO(entries.size(), weight, maxWeight, hits, misses, evictions, invalidations);
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(String key, Supplier<T> loader, ToLongFunction<T> weigher) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return (T) entry.value();
+            }
+        }
+        return load(key, loader, weigher);
+    }
+
+    private <T> T load(String key, Supplier<T> loader, ToLongFunction<T> weigher) {
+        long loadGeneration;
+        synchronized (this) {
+            misses++;
+            loadGeneration = generation;
+        }
+        T value = loader.get();
+        boolean present = !(value instanceof Optional<?> optional) || optional.isPresent();
+        long entryWeight = weigher.applyAsLong(value);
+        synchronized (this) {
+            if (present && loadGeneration == generation && entryWeight <= maxWeight) {
+                Entry previous = entries.put(key, new Entry(value, entryWeight));
+                weight += entryWeight - (previous != null ? previous.weight() : 0);
+                evictOverflow();
+            }
+        }
+        return value;
+    }
+
+    private void invalidate(String... keys) {
+        evict(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(keys);
+                }
+            });
+        }
+    }
+
+    private synchronized void evict(String... keys) {
+        generation++;
+        invalidations++;
+        for (String key : keys) {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                weight -= removed.weight();
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            weight -= iterator.next().weight();
+            iterator.remove();
+            evictions++;
+        }
+    }
+}
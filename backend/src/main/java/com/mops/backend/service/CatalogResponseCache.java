@@ -0,0 +1,157 @@
+package com.mops.backend.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Serves the hottest catalog listings as JSON encoded once per CatalogCache generation. The plain and gzip
+// bodies and their ETags are built together on the first request after a change; every later request only
+// copies a shared byte array to the servlet output stream, skipping Jackson and the Doctor -> User ->
+// Specialty graph. Entries are tagged with the generation read before loading, so a change that raced the
+// load is simply encoded again on the next request.
+@Service
+public class CatalogResponseCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private SpecialtyService specialtyService;
+
+    public record EncodedResponse(long generation, byte[] json, byte[] gzip, String etag, String gzipEtag) {
+    }
+
+    private final ConcurrentHashMap<String, EncodedResponse> responses = new ConcurrentHashMap<>();
+
+    public EncodedResponse allDoctors() {
+        return get(CatalogCache.ALL_DOCTORS, doctorService::getAllDoctors);
+    }
+
+    public EncodedResponse activeDoctors() {
+        return get(CatalogCache.ACTIVE_DOCTORS, doctorService::getActiveDoctors);
+    }
+
+    public EncodedResponse allSpecialties() {
+        return get(CatalogCache.ALL_SPECIALTIES, specialtyService::getAllSpecialties);
+    }
+
+    EncodedResponse get(String key, Supplier<?> body) {
+        long generation = catalogCache.generation();
+        EncodedResponse cached = responses.get(key);
+        if (cached != null && cached.generation() == generation) {
+            return cached;
+        }
+        EncodedResponse encoded = encode(generation, body.get());
+        responses.merge(key, encoded, (old, fresh) -> fresh.generation() >= old.generation() ? fresh : old);
+        return encoded;
+    }
+
+    // Each encoding has its own strong ETag; Vary tells shared caches the body depends on Accept-Encoding
+    public void write(EncodedResponse encoded, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? encoded.gzipEtag() : encoded.etag();
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        byte[] body = gzip ? encoded.gzip() : encoded.json();
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private EncodedResponse encode(long generation, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            String tag = HexFormat.of().formatHex(digest, 0, 16);
+            return new EncodedResponse(generation, json, compressed.toByteArray(), "\"" + tag + "\"",
+                    "\"" + tag + "-gzip\"");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is unavailable", e);
+        }
+    }
+
+    // "gzip" or "*" without q=0, scanned in place so the hit path does not split the header
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        int start = 0;
+        while (start < acceptEncoding.length()) {
+            int end = acceptEncoding.indexOf(',', start);
+            if (end < 0) {
+                end = acceptEncoding.length();
+            }
+            int params = acceptEncoding.indexOf(';', start);
+            int tokenEnd = params >= 0 && params < end ? params : end;
+            int tokenStart = start;
+            while (tokenStart < tokenEnd && acceptEncoding.charAt(tokenStart) == ' ') {
+                tokenStart++;
+            }
+            while (tokenEnd > tokenStart && acceptEncoding.charAt(tokenEnd - 1) == ' ') {
+                tokenEnd--;
+            }
+            int length = tokenEnd - tokenStart;
+            boolean named = (length == 4 && acceptEncoding.regionMatches(true, tokenStart, "gzip", 0, 4))
+                    || (length == 1 && acceptEncoding.charAt(tokenStart) == '*');
+            if (named && !rejected(acceptEncoding, tokenEnd, end)) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    private static boolean rejected(String header, int from, int to) {
+        int q = header.indexOf("q=", from);
+        if (q < 0 || q >= to) {
+            return false;
+        }
+        for (int i = q + 2; i < to; i++) {
+            char c = header.charAt(i);
+            if (c >= '1' && c <= '9') {
+                return false;
+            }
+            if (c != '0' && c != '.') {
+                break;
+            }
+        }
+        return true;
+    }
+}
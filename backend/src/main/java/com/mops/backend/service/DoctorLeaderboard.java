@@ -0,0 +1,156 @@
+package com.mops.backend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.mops.backend.dto.LeaderboardEntryDTO;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.repository.DoctorRepository;
+
+// Ranks the active doctors of each specialty by popularity in memory, so a patient page view never runs
+// an ORDER BY. Each specialty is a ConcurrentSkipListSet ordered by (score desc, id asc) that readers walk
+// without locking; the few writers (popularity flushes and doctor edits) serialize on this object and move
+// a doctor by removing and re-adding its entry. Every popularity recompute rebuilds the board from the
+// database, which also repairs it after an edit whose transaction rolled back.
+@Service
+public class DoctorLeaderboard {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingInt(Entry::popularity).reversed()
+            .thenComparingLong(Entry::doctorId);
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    record Entry(long doctorId, long specialtyId, int popularity) {
+    }
+
+    private static final class Board {
+        private final ConcurrentHashMap<Long, ConcurrentSkipListSet<Entry>> bySpecialty = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, Entry> byDoctor = new ConcurrentHashMap<>();
+
+        private void add(Entry entry) {
+            Entry previous = byDoctor.put(entry.doctorId(), entry);
+            if (previous != null) {
+                ranking(previous.specialtyId()).remove(previous);
+            }
+            ranking(entry.specialtyId()).add(entry);
+        }
+
+        private void remove(Long doctorId) {
+            Entry previous = byDoctor.remove(doctorId);
+            if (previous != null) {
+                ranking(previous.specialtyId()).remove(previous);
+            }
+        }
+
+        private ConcurrentSkipListSet<Entry> ranking(long specialtyId) {
+            return bySpecialty.computeIfAbsent(specialtyId, id -> new ConcurrentSkipListSet<>(RANKING));
+        }
+    }
+
+    private volatile Board board;
+
+    public List<Long> getRankedDoctorIds(Long specialtyId) {
+        ConcurrentSkipListSet<Entry> ranking = board().bySpecialty.get(specialtyId);
+        List<Long> doctorIds = new ArrayList<>();
+        if (ranking != null) {
+            for (Entry entry : ranking) {
+                doctorIds.add(entry.doctorId());
+            }
+        }
+        return doctorIds;
+    }
+
+    public List<LeaderboardEntryDTO> getPage(Long specialtyId, int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<LeaderboardEntryDTO> page = new ArrayList<>();
+        ConcurrentSkipListSet<Entry> ranking = board().bySpecialty.get(specialtyId);
+        if (ranking == null) {
+            return page;
+        }
+        int rank = 0;
+        for (Entry entry : ranking) {
+            rank++;
+            if (rank <= offset) {
+                continue;
+            }
+            page.add(new LeaderboardEntryDTO(rank, entry.doctorId(), entry.popularity()));
+            if (page.size() == limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    public synchronized void rebuild() {
+        Board fresh = new Board();
+        for (Object[] row : doctorRepository.findLeaderboardInputs()) {
+            int popularity = row[2] != null ? (Integer) row[2] : 0;
+            fresh.add(new Entry((Long) row[0], (Long) row[1], popularity));
+        }
+        board = fresh;
+    }
+
+    // Only moves doctors already on the board; inactive ones pick up their stored score when reactivated
+    public synchronized void updateScores(Map<Long, Integer> popularityByDoctor) {
+        Board current = board;
+        if (current == null) {
+            return;
+        }
+        popularityByDoctor.forEach((doctorId, popularity) -> {
+            Entry entry = current.byDoctor.get(doctorId);
+            if (entry != null && entry.popularity() != popularity) {
+                current.add(new Entry(doctorId, entry.specialtyId(), popularity));
+            }
+        });
+    }
+
+    // Follows a saved doctor's specialty, active flag and score
+    public synchronized void put(Doctor doctor) {
+        Board current = board;
+        if (current == null) {
+            return;
+        }
+        if (Boolean.TRUE.equals(doctor.getIsActive()) && doctor.getSpecialty() != null
+                && doctor.getSpecialty().getId() != null) {
+            int popularity = doctor.getPopularity() != null ? doctor.getPopularity() : 0;
+            current.add(new Entry(doctor.getId(), doctor.getSpecialty().getId(), popularity));
+        } else {
+            current.remove(doctor.getId());
+        }
+    }
+
+    public synchronized void remove(Long doctorId) {
+        Board current = board;
+        if (current != null) {
+            current.remove(doctorId);
+        }
+    }
+
+    private Board board() {
+        Board current = board;
+        if (current == null) {
+            synchronized (this) {
+                if (board == null) {
+                    rebuild();
+                }
+                current = board;
+            }
+        }
+        return current;
+    }
+}
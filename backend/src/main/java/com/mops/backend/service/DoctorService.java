@@ -1,10 +1,12 @@
 package com.mops.backend.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import com.mops.backend.repository.AppointmentRepository;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -20,21 +22,35 @@ public class DoctorService {
     private DoctorRepository doctorRepository;
 
     @Autowired
-    private AppointmentRepository appointmentRepository;
+    private PopularityEngine popularityEngine;
+
+    @Autowired
+    private DoctorLeaderboard doctorLeaderboard;
+
+    @Autowired
+    private CatalogCache catalogCache;
     
     public Doctor createDoctor(Doctor doctor) {
-        return doctorRepository.save(doctor);
+        Doctor saved = doctorRepository.save(doctor);
+        popularityEngine.refreshDoctor(saved);
+        doctorLeaderboard.put(saved);
+        catalogCache.invalidateDoctors();
+        return saved;
     }
     
+    // Listings only read the stored score; PopularityEngine keeps it current
     public List<Doctor> getAllDoctors() {
-        recalculatePopularityForAllDoctors();
-        return doctorRepository.findAll();
+        return catalogCache.getList(CatalogCache.ALL_DOCTORS, doctorRepository::findAll, CatalogCache.DOCTOR_WEIGHT);
     }
     
     public Optional<Doctor> getDoctorById(Long id) {
         return doctorRepository.findById(id);
     }
     
+    public List<Doctor> getDoctorsByIds(List<Long> ids) {
+        return doctorRepository.findAllById(ids);
+    }
+    
     public Optional<Doctor> getDoctorByUser(User user) {
         return doctorRepository.findByUser(user);
     }
@@ -48,17 +64,30 @@ public class DoctorService {
     }
     
     public List<Doctor> getDoctorsBySpecialtyOrderedByPopularity(Specialty specialty) {
-        recalculatePopularityForAllDoctors();
         return doctorRepository.findBySpecialtyOrderByPopularityDesc(specialty);
     }
     
     public List<Doctor> getActiveDoctors() {
-        return doctorRepository.findByIsActiveTrue();
+        return catalogCache.getList(CatalogCache.ACTIVE_DOCTORS, doctorRepository::findByIsActiveTrue,
+            CatalogCache.DOCTOR_WEIGHT);
     }
     
+    // The ranking comes from DoctorLeaderboard and the doctors from the cached active listing
     public List<Doctor> getActiveDoctorsBySpecialtyOrderedByPopularity(Specialty specialty) {
-        recalculatePopularityForAllDoctors();
-        return doctorRepository.findBySpecialtyAndIsActiveTrueOrderByPopularityDesc(specialty);
+        List<Long> rankedIds = doctorLeaderboard.getRankedDoctorIds(specialty.getId());
+        if (rankedIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Doctor> doctorsById = getActiveDoctors().stream()
+            .collect(Collectors.toMap(Doctor::getId, Function.identity()));
+        List<Doctor> ranked = new ArrayList<>();
+        for (Long doctorId : rankedIds) {
+            Doctor doctor = doctorsById.get(doctorId);
+            if (doctor != null) {
+                ranked.add(doctor);
+            }
+        }
+        return ranked;
     }
     
     public Doctor updateDoctor(Long id, Doctor doctorDetails) {
@@ -70,19 +99,17 @@ public class DoctorService {
         doctor.setExperienceYears(doctorDetails.getExperienceYears());
         doctor.setIsActive(doctorDetails.getIsActive());
         
-        return doctorRepository.save(doctor);
+        Doctor saved = doctorRepository.save(doctor);
+        popularityEngine.refreshDoctor(saved);
+        doctorLeaderboard.put(saved);
+        catalogCache.invalidateDoctors();
+        return saved;
     }
     
     public void deleteDoctor(Long id) {
         doctorRepository.deleteById(id);
-    }
-    
-    public void incrementPopularity(Long doctorId) {
-        Doctor doctor = doctorRepository.findById(doctorId)
-            .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + doctorId));
-        
-        doctor.setPopularity(doctor.getPopularity() + 1);
-        doctorRepository.save(doctor);
+        doctorLeaderboard.remove(id);
+        catalogCache.invalidateDoctors();
     }
     
     public Doctor toggleDoctorStatus(Long id) {
@@ -90,52 +117,20 @@ public class DoctorService {
             .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + id));
         
         doctor.setIsActive(!doctor.getIsActive());
-        return doctorRepository.save(doctor);
+        Doctor saved = doctorRepository.save(doctor);
+        doctorLeaderboard.put(saved);
+        catalogCache.invalidateDoctors();
+        return saved;
     }
 
-    @Transactional
-    public void recalculatePopularityForAllDoctors()
-    {
-        List<Doctor> doctors = doctorRepository.findAll();
-        if (doctors.isEmpty()) {
-            return;
-        }
-        int maxExperienceYears = 0;
-        long maxConsultations = 0L;
-
-        for (Doctor d : doctors) {
-            Integer exp = d.getExperienceYears();
-            if (exp != null && exp > maxExperienceYears) {
-                maxExperienceYears = exp;
-            }
-
-            long consultations = appointmentRepository.countByDoctor(d);
-            if (consultations > maxConsultations) {
-                maxConsultations = consultations;
-            }
-        }
-        if (maxExperienceYears == 0) {
-            maxExperienceYears = 1;
-        }
-        if (maxConsultations == 0) {
-            maxConsultations = 1;
-        }
-        double experienceWeight = 0.6;     // 60% experience
-        double consultationsWeight = 0.4;  // 40% consultations
-        for (Doctor d : doctors) {
-            int expYears = (d.getExperienceYears() != null) ? d.getExperienceYears() : 0;
-            long consultCount = appointmentRepository.countByDoctor(d);
-
-            double experienceScore = (double) expYears / maxExperienceYears;        // 0..1
-            double consultationsScore = (double) consultCount / maxConsultations;  // 0..1
-
-            double finalScore0to1 =
-                    experienceScore * experienceWeight +
-                            consultationsScore * consultationsWeight;
+    public Doctor setDoctorActive(Long id, boolean active) {
+        Doctor doctor = doctorRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + id));
 
-            int popularity = (int) Math.round(finalScore0to1 * 100.0); // 0..100
-            d.setPopularity(popularity);
-        }
-        doctorRepository.saveAll(doctors);
+        doctor.setIsActive(active);
+        Doctor saved = doctorRepository.save(doctor);
+        doctorLeaderboard.put(saved);
+        catalogCache.invalidateDoctors();
+        return saved;
     }
 }
\ No newline at end of file
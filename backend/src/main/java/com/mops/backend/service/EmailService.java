@@ -1,6 +1,9 @@
 package com.mops.backend.service;
 
+import com.mops.backend.dto.SeriesConflictDTO;
 import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.User;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,7 +13,9 @@ import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 @Service
 public class EmailService {
@@ -126,6 +131,86 @@ public class EmailService {
         return templateEngine.process("appointment-cancellation", context);
     }
 
+    public void sendWaitlistOffer(User patient, Doctor doctor, LocalDateTime slotStart, LocalDateTime expiresAt) {
+        if (patient == null || patient.getEmail() == null || patient.getEmail().isEmpty()) {
+            System.err.println("Cannot send waitlist offer email: Patient or patient email is null or empty");
+            return;
+        }
+
+        try {
+            MimeMessage mimeMessage = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+
+            helper.setFrom(fromEmail);
+            helper.setTo(patient.getEmail());
+            helper.setSubject("A slot opened up for you - " + clinicName);
+
+            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("EEEE, MMMM dd, yyyy 'at' hh:mm a");
+            DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("hh:mm a");
+
+            Context context = new Context();
+            context.setVariable("clinicName", clinicName);
+            context.setVariable("firstName", patient.getFirstName());
+            context.setVariable("doctorName", "Dr. " + doctor.getUser().getFirstName() + " " + doctor.getUser().getLastName());
+            context.setVariable("appointmentDate", slotStart.format(dateFormatter));
+            context.setVariable("expiresAt", expiresAt.format(timeFormatter));
+
+            String htmlContent = templateEngine.process("waitlist-offer", context);
+            helper.setText(htmlContent, true);
+
+            mailSender.send(mimeMessage);
+            System.out.println("Waitlist offer email sent to: " + patient.getEmail());
+        } catch (MessagingException e) {
+            System.err.println("Failed to send waitlist offer email: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("Unexpected error sending waitlist offer email: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // One summary for a whole recurring series instead of an email per occurrence
+    public void sendSeriesConfirmation(User patient, Doctor doctor, List<Appointment> appointments, List<SeriesConflictDTO> conflicts) {
+        if (patient == null || patient.getEmail() == null || patient.getEmail().isEmpty()) {
+            System.err.println("Cannot send series confirmation email: Patient or patient email is null or empty");
+            return;
+        }
+
+        try {
+            MimeMessage mimeMessage = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+
+            helper.setFrom(fromEmail);
+            helper.setTo(patient.getEmail());
+            helper.setSubject("Recurring Appointments Scheduled - " + clinicName);
+
+            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("EEEE, MMMM dd, yyyy 'at' hh:mm a");
+
+            Context context = new Context();
+            context.setVariable("clinicName", clinicName);
+            context.setVariable("firstName", patient.getFirstName());
+            context.setVariable("doctorName", "Dr. " + doctor.getUser().getFirstName() + " " + doctor.getUser().getLastName());
+            context.setVariable("appointmentDates", appointments.stream()
+                    .map(appointment -> appointment.getAppointmentDate().format(dateFormatter))
+                    .toList());
+            context.setVariable("conflictDates", conflicts.stream()
+                    .map(conflict -> conflict.getAppointmentDate().format(dateFormatter))
+                    .toList());
+
+            String htmlContent = templateEngine.process("appointment-series", context);
+            helper.setText(htmlContent, true);
+
+            mailSender.send(mimeMessage);
+            System.out.println("Series confirmation email sent to: " + patient.getEmail());
+        } catch (MessagingException e) {
+            System.err.println("Failed to send series confirmation email: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("Unexpected error sending series confirmation email: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
     public void sendVerificationEmail(String toEmail, String firstName, String verifyLink) {
         try {
             MimeMessage mimeMessage = mailSender.createMimeMessage();
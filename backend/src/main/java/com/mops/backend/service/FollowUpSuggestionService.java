@@ -0,0 +1,266 @@
+package com.mops.backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mops.backend.dto.FollowUpRunDTO;
+import com.mops.backend.dto.FreeSlotDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.AppointmentStatus;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.FollowUpSuggestion;
+import com.mops.backend.model.MedicalReport;
+import com.mops.backend.repository.AppointmentRepository;
+import com.mops.backend.repository.FollowUpSuggestionRepository;
+import com.mops.backend.repository.MedicalReportRepository;
+
+// Nightly pass over medical reports whose follow-up date falls in the next few days. Reports are read in
+// keyset chunks over (follow_up_date, id); each chunk checks the patients' bookings with one query and
+// stores its suggestions in one transaction. Reports that already got a suggestion are excluded by the
+// read itself, so a run that died half way simply continues on the next start. Each run first closes the
+// open suggestions the patient has since booked, so reading them never writes.
+@Service
+public class FollowUpSuggestionService {
+
+    private static final LocalDate CURSOR_START = LocalDate.of(1970, 1, 1);
+
+    @Autowired
+    private MedicalReportRepository medicalReportRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private FollowUpSuggestionRepository followUpSuggestionRepository;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.follow-ups.lookahead-days:14}")
+    private int lookaheadDays = 14;
+
+    @Value("${app.follow-ups.chunk-size:200}")
+    private int chunkSize = 200;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private LocalDateTime lastRunAt;
+    private long lastScanned;
+    private long lastSuggested;
+    private long lastAlreadyBooked;
+    private long lastChunks;
+    private long lastDurationMs;
+    private long totalRuns;
+    private long totalSuggested;
+
+    @Scheduled(cron = "${app.follow-ups.cron:0 30 2 * * *}")
+    public void suggestFollowUps() {
+        run(LocalDate.now());
+    }
+
+    public int run(LocalDate today) {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            closeBooked();
+            return scanChunks(today);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int scanChunks(LocalDate today) {
+        long started = System.nanoTime();
+        LocalDate to = today.plusDays(lookaheadDays);
+        LocalDate afterDate = CURSOR_START;
+        Long afterId = 0L;
+        int scanned = 0;
+        int suggested = 0;
+        int chunks = 0;
+
+        List<MedicalReport> chunk;
+        do {
+            chunk = medicalReportRepository.findFollowUpsAfter(today, to, afterDate, afterId,
+                    PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            chunks++;
+            scanned += chunk.size();
+            suggested += suggest(chunk);
+            MedicalReport last = chunk.get(chunk.size() - 1);
+            afterDate = last.getFollowUpDate();
+            afterId = last.getId();
+        } while (chunk.size() == chunkSize);
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        record(scanned, suggested, chunks, durationMs);
+        return suggested;
+    }
+
+    private int suggest(List<MedicalReport> chunk) {
+        Set<Long> patientIds = new HashSet<>();
+        LocalDateTime earliestVisit = null;
+        for (MedicalReport report : chunk) {
+            Appointment visit = report.getAppointment();
+            patientIds.add(visit.getPatient().getId());
+            if (earliestVisit == null || visit.getAppointmentDate().isBefore(earliestVisit)) {
+                earliestVisit = visit.getAppointmentDate();
+            }
+        }
+
+        // A later, still active booking with the same doctor counts as the follow-up
+        Map<String, LocalDateTime> latestBooking = new HashMap<>();
+        for (Appointment appointment : appointmentRepository.findByPatientIdsAfter(patientIds, earliestVisit,
+                AppointmentStatus.RELEASED)) {
+            latestBooking.merge(pairKey(appointment), appointment.getAppointmentDate(),
+                    (a, b) -> a.isAfter(b) ? a : b);
+        }
+
+        List<FollowUpSuggestion> suggestions = new ArrayList<>();
+        Map<LocalDate, Map<Long, Doctor>> doctorsByDate = new LinkedHashMap<>();
+        for (MedicalReport report : chunk) {
+            Appointment visit = report.getAppointment();
+            LocalDateTime latest = latestBooking.get(pairKey(visit));
+            if (latest != null && latest.isAfter(visit.getAppointmentDate())) {
+                continue;
+            }
+            suggestions.add(new FollowUpSuggestion(report.getId(), visit.getPatient().getId(),
+                    visit.getDoctor().getId(), report.getFollowUpDate()));
+            doctorsByDate.computeIfAbsent(report.getFollowUpDate(), date -> new LinkedHashMap<>())
+                    .putIfAbsent(visit.getDoctor().getId(), visit.getDoctor());
+        }
+        if (suggestions.isEmpty()) {
+            return 0;
+        }
+
+        // The chunk is ordered by follow-up date, so this is a handful of batched slot lookups
+        Map<String, LocalDateTime> firstFree = new LinkedHashMap<>();
+        doctorsByDate.forEach((date, doctors) -> slotService
+                .getNextFreeSlots(new ArrayList<>(doctors.values()), date, lookaheadDays)
+                .forEach((doctorId, slot) -> firstFree.put(date + ":" + doctorId, startOf(slot))));
+        for (FollowUpSuggestion suggestion : suggestions) {
+            suggestion.setSuggestedStart(firstFree.get(suggestion.getFollowUpDate() + ":" + suggestion.getDoctorId()));
+        }
+
+        transactionTemplate.execute(status -> followUpSuggestionRepository.saveAll(suggestions));
+        return suggestions.size();
+    }
+
+    private static String pairKey(Appointment appointment) {
+        return appointment.getPatient().getId() + ":" + appointment.getDoctor().getId();
+    }
+
+    private static LocalDateTime startOf(FreeSlotDTO slot) {
+        return slot != null ? slot.getStart() : null;
+    }
+
+    private void closeBooked() {
+        Long afterId = 0L;
+        List<FollowUpSuggestion> chunk;
+        do {
+            chunk = followUpSuggestionRepository.findByStatusAndIdGreaterThanOrderByIdAsc(FollowUpSuggestion.OPEN,
+                    afterId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+            List<FollowUpSuggestion> closed = booked(chunk);
+            if (!closed.isEmpty()) {
+                LocalDateTime now = LocalDateTime.now();
+                for (FollowUpSuggestion suggestion : closed) {
+                    suggestion.setStatus(FollowUpSuggestion.BOOKED);
+                    suggestion.setUpdatedAt(now);
+                }
+                transactionTemplate.execute(status -> followUpSuggestionRepository.saveAll(closed));
+            }
+        } while (chunk.size() == chunkSize);
+    }
+
+    // A suggestion counts as booked once an active booking with its doctor falls after the suggestion itself
+    private List<FollowUpSuggestion> booked(List<FollowUpSuggestion> suggestions) {
+        Set<Long> patientIds = new HashSet<>();
+        LocalDateTime earliest = null;
+        for (FollowUpSuggestion suggestion : suggestions) {
+            patientIds.add(suggestion.getPatientId());
+            if (earliest == null || suggestion.getCreatedAt().isBefore(earliest)) {
+                earliest = suggestion.getCreatedAt();
+            }
+        }
+        Map<String, LocalDateTime> latestBooking = new HashMap<>();
+        for (Appointment appointment : appointmentRepository.findByPatientIdsAfter(patientIds, earliest,
+                AppointmentStatus.RELEASED)) {
+            latestBooking.merge(pairKey(appointment), appointment.getAppointmentDate(),
+                    (a, b) -> a.isAfter(b) ? a : b);
+        }
+        List<FollowUpSuggestion> booked = new ArrayList<>();
+        for (FollowUpSuggestion suggestion : suggestions) {
+            LocalDateTime latest = latestBooking.get(suggestion.getPatientId() + ":" + suggestion.getDoctorId());
+            if (latest != null && latest.isAfter(suggestion.getCreatedAt())) {
+                booked.add(suggestion);
+            }
+        }
+        return booked;
+    }
+
+    // Hides what the patient booked since the last run; the nightly job is what closes them
+    public List<FollowUpSuggestion> getOpenSuggestionsForPatient(Long patientId) {
+        List<FollowUpSuggestion> open = followUpSuggestionRepository
+                .findByPatientIdAndStatusOrderByFollowUpDateAsc(patientId, FollowUpSuggestion.OPEN);
+        if (open.isEmpty()) {
+            return open;
+        }
+        List<FollowUpSuggestion> stillOpen = new ArrayList<>(open);
+        stillOpen.removeAll(booked(open));
+        return stillOpen;
+    }
+
+    public List<FollowUpSuggestion> getOpenSuggestionsForDoctor(Long doctorId) {
+        return followUpSuggestionRepository.findByDoctorIdAndStatusOrderByFollowUpDateAsc(doctorId, FollowUpSuggestion.OPEN);
+    }
+
+    public FollowUpSuggestion dismiss(Long id) {
+        FollowUpSuggestion suggestion = followUpSuggestionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Follow-up suggestion not found with id: " + id));
+        if (!FollowUpSuggestion.OPEN.equals(suggestion.getStatus())) {
+            throw new IllegalStateException("Follow-up suggestion is already " + suggestion.getStatus());
+        }
+        suggestion.setStatus(FollowUpSuggestion.DISMISSED);
+        suggestion.setUpdatedAt(LocalDateTime.now());
+        return followUpSuggestionRepository.save(suggestion);
+    }
+
+    private synchronized void record(int scanned, int suggested, int chunks, long durationMs) {
+        lastRunAt = LocalDateTime.now();
+        lastScanned = scanned;
+        lastSuggested = suggested;
+        lastAlreadyBooked = scanned - suggested;
+        lastChunks = chunks;
+        lastDurationMs = durationMs;
+        totalRuns++;
+        totalSuggested += suggested;
+    }
+
+    public synchronized FollowUpRunDTO getStats() {
+        return new FollowUpRunDTO(lookaheadDays, chunkSize, lastRunAt, lastScanned, lastSuggested,
+                lastAlreadyBooked, lastChunks, lastDurationMs, totalRuns, totalSuggested);
+    }
+}
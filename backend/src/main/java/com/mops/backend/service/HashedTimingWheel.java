@@ -0,0 +1,102 @@
+package com.mops.backend.service;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+// Hashed timing wheel: timeouts are hashed into a fixed ring of buckets by deadline tick, so scheduling
+// and cancelling are O(1) and each advance only visits the buckets whose ticks have passed.
+// Deadlines further out than one revolution share a bucket with nearer ones and are skipped until their tick comes.
+final class HashedTimingWheel<T> {
+
+    private final long tickMillis;
+    private final ArrayDeque<Timeout<T>>[] buckets;
+    private final int mask;
+    private long currentTick;
+    private int pending;
+
+    @SuppressWarnings("unchecked")
+    HashedTimingWheel(long tickMillis, int ticksPerWheel, long startMillis) {
+        if (tickMillis <= 0 || ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+        // Round the wheel up to a power of two so the bucket index is a mask instead of a modulo
+        int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayDeque[Math.max(size, 1)];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = buckets.length - 1;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    static final class Timeout<T> {
+        private final T item;
+        private final long deadlineTick;
+        private boolean cancelled;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    synchronized Timeout<T> schedule(T item, long deadlineMillis) {
+        // A deadline that already passed fires on the next advance
+        long deadlineTick = Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        Timeout<T> timeout = new Timeout<>(item, deadlineTick);
+        buckets[(int) (deadlineTick & mask)].add(timeout);
+        pending++;
+        return timeout;
+    }
+
+    // Cancelled timeouts are only flagged; they are dropped when their bucket is next visited
+    synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.cancelled) {
+            return false;
+        }
+        timeout.cancelled = true;
+        pending--;
+        return true;
+    }
+
+    // Fires every timeout whose deadline tick has passed; callbacks run after the wheel lock is released
+    int advance(long nowMillis, Consumer<T> onExpired) {
+        ArrayDeque<T> expired = new ArrayDeque<>();
+        synchronized (this) {
+            long targetTick = nowMillis / tickMillis;
+            // After a long pause there is no point spinning more than one revolution
+            long firstTick = Math.max(currentTick + 1, targetTick - buckets.length + 1);
+            for (long tick = firstTick; tick <= targetTick; tick++) {
+                expireBucket(tick, targetTick, expired);
+            }
+            currentTick = Math.max(currentTick, targetTick);
+        }
+        expired.forEach(onExpired);
+        return expired.size();
+    }
+
+    synchronized int size() {
+        return pending;
+    }
+
+    private void expireBucket(long tick, long targetTick, ArrayDeque<T> expired) {
+        Iterator<Timeout<T>> iterator = buckets[(int) (tick & mask)].iterator();
+        while (iterator.hasNext()) {
+            Timeout<T> timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.deadlineTick <= targetTick) {
+                iterator.remove();
+                timeout.cancelled = true;
+                pending--;
+                expired.add(timeout.item);
+            }
+        }
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+}
@@ -0,0 +1,143 @@
+package com.mops.backend.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+// Remembers the response of a request sent with an Idempotency-Key so a client retry gets the same answer
+// back without booking, counting or emailing twice. Keys live for a fixed TTL in insertion order, so expiry
+// only looks at the oldest entries, and the store is capped so a flood of keys cannot grow it without bound.
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${app.idempotency.ttl-minutes:1440}")
+    private long ttlMinutes = 1440;
+
+    @Value("${app.idempotency.max-keys:10000}")
+    private int maxKeys = 10000;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final long expiresAtMillis;
+        // Null while the first request is still running
+        private ResponseEntity<?> response;
+
+        private Entry(String fingerprint, long expiresAtMillis) {
+            this.fingerprint = fingerprint;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    // The fingerprint identifies what the key was first used for; reusing a key for a different request is a
+    // client bug and is rejected rather than answered with an unrelated stored response
+    public ResponseEntity<?> execute(String key, String operation, String fingerprint,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String scopedKey = operation + ":" + key;
+        Entry entry;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            purgeExpired(now);
+            Entry existing = entries.get(scopedKey);
+            if (existing != null) {
+                if (!existing.fingerprint.equals(fingerprint)) {
+                    throw new IllegalArgumentException("This " + HEADER + " was already used for a different request");
+                }
+                if (existing.response == null) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(Map.of("message", "A request with this " + HEADER + " is still being processed"));
+                }
+                return replay(existing.response);
+            }
+            entry = new Entry(fingerprint, now + ttlMinutes * 60_000);
+            entries.put(scopedKey, entry);
+            evictOverflow();
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            forget(scopedKey, entry);
+            throw e;
+        }
+        // Server errors are worth retrying for real, so they are not remembered
+        if (response.getStatusCode().is5xxServerError()) {
+            forget(scopedKey, entry);
+            return response;
+        }
+        synchronized (this) {
+            entry.response = response;
+        }
+        return response;
+    }
+
+    // Lets a running action keep its answer out of the store, so a retry with the same key runs again
+    public synchronized void discard(String key, String operation) {
+        if (key == null || key.isBlank()) {
+            return;
+        }
+        String scopedKey = operation + ":" + key;
+        Entry entry = entries.get(scopedKey);
+        if (entry != null && entry.response == null) {
+            entries.remove(scopedKey, entry);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized int purgeExpired(long nowMillis) {
+        int purged = 0;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAtMillis > nowMillis) {
+                break;
+            }
+            iterator.remove();
+            purged++;
+        }
+        return purged;
+    }
+
+    // Requests still running keep their entry, otherwise a retry arriving meanwhile would run a second time
+    private void evictOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxKeys && iterator.hasNext()) {
+            if (iterator.next().response != null) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private synchronized void forget(String scopedKey, Entry entry) {
+        entries.remove(scopedKey, entry);
+    }
+
+    private static ResponseEntity<?> replay(ResponseEntity<?> stored) {
+        return ResponseEntity.status(stored.getStatusCode())
+                .headers(stored.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.getBody());
+    }
+}
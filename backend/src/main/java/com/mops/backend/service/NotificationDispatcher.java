@@ -0,0 +1,52 @@
+package com.mops.backend.service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.AppointmentStatus;
+
+import jakarta.annotation.PreDestroy;
+
+// Sends the emails for bulk operations off the request thread. A whole batch is one queued task,
+// so a request that touches hundreds of appointments returns without waiting on SMTP.
+@Component
+public class NotificationDispatcher {
+
+    @Autowired
+    private EmailService emailService;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public void dispatchStatusChanges(List<Appointment> appointments, String status) {
+        if (appointments.isEmpty() || !AppointmentStatus.CANCELLED.equals(status)) {
+            // Only cancellations have a patient email today
+            return;
+        }
+        List<Appointment> batch = List.copyOf(appointments);
+        executor.execute(() -> batch.forEach(emailService::sendAppointmentCancellation));
+    }
+
+    // The offer window is already running, so the emails go out as soon as the queue reaches them
+    public void dispatchWaitlistOffers(List<WaitlistService.SlotOffer> offers) {
+        if (offers.isEmpty()) {
+            return;
+        }
+        List<WaitlistService.SlotOffer> batch = List.copyOf(offers);
+        executor.execute(() -> batch.forEach(offer -> emailService.sendWaitlistOffer(
+                offer.getPatient(), offer.getDoctor(), offer.getSlotStart(), offer.getExpiresAt())));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
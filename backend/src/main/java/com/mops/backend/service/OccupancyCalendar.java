@@ -0,0 +1,316 @@
+package com.mops.backend.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.mops.backend.dto.DayOccupancyDTO;
+import com.mops.backend.dto.OccupancyStatsDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.AppointmentStatus;
+import com.mops.backend.model.Availability;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.repository.AppointmentRepository;
+import com.mops.backend.repository.AvailabilityRepository;
+
+// Per-doctor occupancy bitmaps, one bit per 15 minute unit from today up to the configured horizon.
+// A calendar is built on first use from two queries and then kept in sync by the appointment
+// status transitions, so slot checks and heatmaps do not go back to the database.
+@Component
+public class OccupancyCalendar {
+
+    static final int UNIT_MINUTES = 15;
+    static final int UNITS_PER_DAY = 24 * 60 / UNIT_MINUTES;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AvailabilityOverrideService overrideService;
+
+    @Value("${app.occupancy.horizon-days:365}")
+    private int horizonDays = 365;
+
+    @Value("${app.occupancy.max-doctors:1000}")
+    private int maxDoctors = 1000;
+
+    private long loads;
+    private long evictions;
+    private final Map<Long, Long> versions = new HashMap<>();
+
+    // Access-ordered so the least recently used doctor is dropped once maxDoctors is exceeded
+    private final LinkedHashMap<Long, DoctorOccupancy> calendars = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, DoctorOccupancy> eldest) {
+            if (size() > maxDoctors) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public boolean isBooked(Doctor doctor, LocalDateTime start) {
+        DoctorOccupancy occupancy = cached(doctor.getId());
+        return occupancy != null && occupancy.isBooked(start);
+    }
+
+    public boolean isFree(Doctor doctor, LocalDateTime start, LocalDateTime end) {
+        return calendarFor(doctor).isFree(start, end);
+    }
+
+    public List<DayOccupancyDTO> getHeatmap(Doctor doctor, LocalDate from, int weeks) {
+        DoctorOccupancy occupancy = calendarFor(doctor);
+        List<DayOccupancyDTO> days = new ArrayList<>(weeks * 7);
+        for (LocalDate date = from; date.isBefore(from.plusWeeks(weeks)); date = date.plusDays(1)) {
+            days.add(occupancy.summarize(date));
+        }
+        return days;
+    }
+
+    // Only calendars that are already loaded are touched; anything else is built lazily on next read
+    public void markBooked(Appointment appointment) {
+        DoctorOccupancy occupancy = touch(appointment.getDoctor().getId());
+        if (occupancy != null) {
+            occupancy.setBooked(appointment.getAppointmentDate(), true);
+        }
+    }
+
+    public void markReleased(Appointment appointment) {
+        // Other seats of a group session may still be booked; the rebuilt calendar reads them from the database
+        if (Boolean.TRUE.equals(appointment.getGroupSession())) {
+            invalidate(appointment.getDoctor().getId());
+            return;
+        }
+        DoctorOccupancy occupancy = touch(appointment.getDoctor().getId());
+        if (occupancy != null) {
+            occupancy.setBooked(appointment.getAppointmentDate(), false);
+        }
+    }
+
+    public void apply(Appointment appointment) {
+        if (AppointmentStatus.holdsSlot(appointment.getStatus())) {
+            markBooked(appointment);
+        } else {
+            markReleased(appointment);
+        }
+    }
+
+    public synchronized void invalidate(Long doctorId) {
+        versions.merge(doctorId, 1L, Long::sum);
+        calendars.remove(doctorId);
+    }
+
+    public synchronized OccupancyStatsDTO getStats() {
+        long bytes = 0;
+        for (DoctorOccupancy occupancy : calendars.values()) {
+            bytes += occupancy.estimatedBytes();
+        }
+        return new OccupancyStatsDTO(calendars.size(), maxDoctors, horizonDays, bytes, loads, evictions);
+    }
+
+    // Every change bumps the doctor's version so a calendar built concurrently from older rows is never kept
+    private synchronized DoctorOccupancy touch(Long doctorId) {
+        versions.merge(doctorId, 1L, Long::sum);
+        return cached(doctorId);
+    }
+
+    private synchronized long versionOf(Long doctorId) {
+        return versions.getOrDefault(doctorId, 0L);
+    }
+
+    private synchronized DoctorOccupancy cached(Long doctorId) {
+        DoctorOccupancy occupancy = calendars.get(doctorId);
+        // Also drop calendars compiled against override rules that have since changed
+        if (occupancy != null && (occupancy.firstDay.isBefore(LocalDate.now())
+                || occupancy.overrides != overrideService.peekIndex(doctorId))) {
+            calendars.remove(doctorId);
+            return null;
+        }
+        return occupancy;
+    }
+
+    private DoctorOccupancy calendarFor(Doctor doctor) {
+        DoctorOccupancy occupancy = cached(doctor.getId());
+        if (occupancy != null) {
+            return occupancy;
+        }
+
+        long version = versionOf(doctor.getId());
+        LocalDate firstDay = LocalDate.now();
+        DoctorOccupancy built = new DoctorOccupancy(firstDay, horizonDays,
+                SlotService.groupByDay(availabilityRepository.findByDoctorAndIsActiveTrue(doctor)),
+                overrideService.getIndex(doctor));
+        for (Appointment appointment : appointmentRepository.findByDoctorAndAppointmentDateBetween(
+                doctor, firstDay.atStartOfDay(), firstDay.plusDays(horizonDays - 1L).atTime(LocalTime.MAX))) {
+            if (AppointmentStatus.holdsSlot(appointment.getStatus())) {
+                built.setBooked(appointment.getAppointmentDate(), true);
+            }
+        }
+
+        synchronized (this) {
+            loads++;
+            if (versionOf(doctor.getId()) != version) {
+                return built;
+            }
+            // Another thread may have built the same calendar meanwhile; keep the first one
+            return calendars.computeIfAbsent(doctor.getId(), id -> built);
+        }
+    }
+
+    static final class DoctorOccupancy {
+
+        private final LocalDate firstDay;
+        private final int days;
+        private final OverrideIndex overrides;
+        private final BitSet available;
+        private final BitSet booked;
+        private final Map<DayOfWeek, int[][]> windowUnits = new EnumMap<>(DayOfWeek.class);
+        // Extra sessions by absolute start unit, mapped to their end unit
+        private final TreeMap<Integer, Integer> extraWindows = new TreeMap<>();
+
+        DoctorOccupancy(LocalDate firstDay, int days, Map<DayOfWeek, List<Availability>> weekly, OverrideIndex overrides) {
+            this.firstDay = firstDay;
+            this.days = days;
+            this.overrides = overrides;
+            this.available = new BitSet(days * UNITS_PER_DAY);
+            this.booked = new BitSet(days * UNITS_PER_DAY);
+
+            weekly.forEach((day, windows) -> {
+                int[][] units = new int[windows.size()][];
+                for (int i = 0; i < windows.size(); i++) {
+                    units[i] = new int[] {
+                            unitOf(windows.get(i).getStartTime()),
+                            unitCeil(windows.get(i).getEndTime())
+                    };
+                }
+                windowUnits.put(day, units);
+            });
+            for (int offset = 0; offset < days; offset++) {
+                int[][] units = windowUnits.get(firstDay.plusDays(offset).getDayOfWeek());
+                if (units == null) {
+                    continue;
+                }
+                for (int[] window : units) {
+                    available.set(offset * UNITS_PER_DAY + window[0], offset * UNITS_PER_DAY + window[1]);
+                }
+            }
+
+            LocalDateTime horizonStart = firstDay.atStartOfDay();
+            LocalDateTime horizonEnd = firstDay.plusDays(days).atStartOfDay();
+            for (Map.Entry<LocalDateTime, LocalDateTime> extra : overrides.extrasBetween(horizonStart, horizonEnd)) {
+                int from = absoluteUnit(extra.getKey(), false);
+                int to = absoluteUnit(extra.getValue(), true);
+                available.set(from, to);
+                extraWindows.put(from, to);
+            }
+            for (Map.Entry<LocalDateTime, LocalDateTime> blocked : overrides.blockedBetween(horizonStart, horizonEnd)) {
+                available.clear(absoluteUnit(blocked.getKey(), false), absoluteUnit(blocked.getValue(), true));
+            }
+        }
+
+        // Position of a timestamp in the bitmaps, clamped to the horizon
+        private int absoluteUnit(LocalDateTime time, boolean roundUp) {
+            long offset = ChronoUnit.DAYS.between(firstDay, time.toLocalDate());
+            if (offset < 0) {
+                return 0;
+            }
+            if (offset >= days) {
+                return days * UNITS_PER_DAY;
+            }
+            LocalTime timeOfDay = time.toLocalTime();
+            return (int) offset * UNITS_PER_DAY + (roundUp ? unitCeil(timeOfDay) : unitOf(timeOfDay));
+        }
+
+        private static int unitOf(LocalTime time) {
+            return (time.getHour() * 60 + time.getMinute()) / UNIT_MINUTES;
+        }
+
+        private static int unitCeil(LocalTime time) {
+            int minutes = time.getHour() * 60 + time.getMinute();
+            return (minutes + UNIT_MINUTES - 1) / UNIT_MINUTES;
+        }
+
+        private int dayOffset(LocalDate date) {
+            long offset = ChronoUnit.DAYS.between(firstDay, date);
+            return offset < 0 || offset >= days ? -1 : (int) offset;
+        }
+
+        synchronized boolean isBooked(LocalDateTime start) {
+            int offset = dayOffset(start.toLocalDate());
+            return offset >= 0 && booked.get(offset * UNITS_PER_DAY + unitOf(start.toLocalTime()));
+        }
+
+        synchronized boolean isFree(LocalDateTime start, LocalDateTime end) {
+            int offset = dayOffset(start.toLocalDate());
+            if (offset < 0 || !end.toLocalDate().equals(start.toLocalDate())) {
+                return false;
+            }
+            int from = offset * UNITS_PER_DAY + unitOf(start.toLocalTime());
+            int to = offset * UNITS_PER_DAY + unitCeil(end.toLocalTime());
+            int firstBooked = booked.nextSetBit(from);
+            return available.nextClearBit(from) >= to && (firstBooked < 0 || firstBooked >= to);
+        }
+
+        // An appointment occupies the rest of the availability window it starts in, or one unit otherwise
+        synchronized void setBooked(LocalDateTime start, boolean value) {
+            int offset = dayOffset(start.toLocalDate());
+            if (offset < 0) {
+                return;
+            }
+            int unit = unitOf(start.toLocalTime());
+            int absolute = offset * UNITS_PER_DAY + unit;
+            Map.Entry<Integer, Integer> extra = extraWindows.floorEntry(absolute);
+            if (extra != null && extra.getValue() > absolute) {
+                booked.set(absolute, extra.getValue(), value);
+                return;
+            }
+            int end = unit + 1;
+            int[][] units = windowUnits.get(start.getDayOfWeek());
+            if (units != null) {
+                for (int[] window : units) {
+                    if (window[0] <= unit && unit < window[1]) {
+                        end = window[1];
+                        break;
+                    }
+                }
+            }
+            booked.set(offset * UNITS_PER_DAY + unit, offset * UNITS_PER_DAY + end, value);
+        }
+
+        synchronized DayOccupancyDTO summarize(LocalDate date) {
+            int offset = dayOffset(date);
+            if (offset < 0) {
+                return new DayOccupancyDTO(date, 0, 0, 0);
+            }
+            int from = offset * UNITS_PER_DAY;
+            int to = from + UNITS_PER_DAY;
+            int availableUnits = available.get(from, to).cardinality();
+            int bookedUnits = booked.get(from, to).cardinality();
+            int percent = availableUnits == 0 ? 0 : Math.min(100, bookedUnits * 100 / availableUnits);
+            return new DayOccupancyDTO(date, availableUnits * UNIT_MINUTES, bookedUnits * UNIT_MINUTES, percent);
+        }
+
+        // BitSet words plus a rough allowance for object headers and the window tables
+        synchronized long estimatedBytes() {
+            return available.size() / 8 + booked.size() / 8 + extraWindows.size() * 48L + 128;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.mops.backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.mops.backend.model.AvailabilityOverride;
+
+// Immutable view of one doctor's override rules. Blocked time is merged into disjoint intervals and
+// extra sessions are expanded per day, both keyed by start, so a lookup is one tree descent no matter
+// how many rules have accumulated.
+public final class OverrideIndex {
+
+    static final OverrideIndex EMPTY = new OverrideIndex(new TreeMap<>(), new TreeMap<>());
+
+    private final NavigableMap<LocalDateTime, LocalDateTime> blocked;
+    private final NavigableMap<LocalDateTime, LocalDateTime> extras;
+
+    private OverrideIndex(TreeMap<LocalDateTime, LocalDateTime> blocked, TreeMap<LocalDateTime, LocalDateTime> extras) {
+        this.blocked = Collections.unmodifiableNavigableMap(blocked);
+        this.extras = Collections.unmodifiableNavigableMap(extras);
+    }
+
+    static OverrideIndex compile(List<AvailabilityOverride> rules) {
+        if (rules.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<LocalDateTime[]> blockedIntervals = new ArrayList<>();
+        TreeMap<LocalDateTime, LocalDateTime> extras = new TreeMap<>();
+        for (AvailabilityOverride rule : rules) {
+            boolean isBlocked = AvailabilityOverride.BLOCKED.equals(rule.getType());
+            if (rule.isWholeDay()) {
+                if (isBlocked) {
+                    blockedIntervals.add(new LocalDateTime[] {
+                            rule.getStartDate().atStartOfDay(), rule.getEndDate().plusDays(1).atStartOfDay() });
+                }
+                continue;
+            }
+            for (LocalDate date = rule.getStartDate(); !date.isAfter(rule.getEndDate()); date = date.plusDays(1)) {
+                LocalDateTime start = date.atTime(rule.getStartTime());
+                LocalDateTime end = date.atTime(rule.getEndTime());
+                if (isBlocked) {
+                    blockedIntervals.add(new LocalDateTime[] { start, end });
+                } else {
+                    extras.merge(start, end, (a, b) -> a.isAfter(b) ? a : b);
+                }
+            }
+        }
+
+        blockedIntervals.sort((a, b) -> a[0].compareTo(b[0]));
+        TreeMap<LocalDateTime, LocalDateTime> merged = new TreeMap<>();
+        LocalDateTime[] current = null;
+        for (LocalDateTime[] interval : blockedIntervals) {
+            if (current != null && !interval[0].isAfter(current[1])) {
+                if (interval[1].isAfter(current[1])) {
+                    current[1] = interval[1];
+                }
+                continue;
+            }
+            if (current != null) {
+                merged.put(current[0], current[1]);
+            }
+            current = new LocalDateTime[] { interval[0], interval[1] };
+        }
+        if (current != null) {
+            merged.put(current[0], current[1]);
+        }
+        return new OverrideIndex(merged, extras);
+    }
+
+    // Intervals are disjoint, so only the last one starting before 'end' can overlap [start, end)
+    public boolean isBlocked(LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> candidate = blocked.lowerEntry(end);
+        return candidate != null && candidate.getValue().isAfter(start);
+    }
+
+    public Collection<Map.Entry<LocalDateTime, LocalDateTime>> blockedBetween(LocalDateTime from, LocalDateTime to) {
+        Map.Entry<LocalDateTime, LocalDateTime> first = blocked.lowerEntry(from);
+        LocalDateTime fromKey = first != null && first.getValue().isAfter(from) ? first.getKey() : from;
+        return blocked.subMap(fromKey, true, to, false).entrySet();
+    }
+
+    public Collection<Map.Entry<LocalDateTime, LocalDateTime>> extrasBetween(LocalDateTime from, LocalDateTime to) {
+        return extras.subMap(from, true, to, false).entrySet();
+    }
+
+    public Collection<Map.Entry<LocalDateTime, LocalDateTime>> extrasOn(LocalDate date) {
+        return extrasBetween(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+
+    public boolean hasExtrasBetween(LocalDate from, LocalDate to) {
+        return !extrasBetween(from.atStartOfDay(), to.plusDays(1).atStartOfDay()).isEmpty();
+    }
+
+    public int size() {
+        return blocked.size() + extras.size();
+    }
+}
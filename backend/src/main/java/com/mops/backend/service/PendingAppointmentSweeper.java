@@ -0,0 +1,157 @@
+package com.mops.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mops.backend.dto.SweepStatsDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.AppointmentStatus;
+import com.mops.backend.repository.AppointmentRepository;
+
+// Expires PENDING appointments that outlived the payment deadline. The sweep walks a keyset cursor in
+// small chunks and each chunk is its own short transaction, so it never holds locks on a large part of
+// the appointments table. The UPDATE only matches rows that are still PENDING, so a payment that lands
+// mid-sweep wins over the sweeper.
+@Component
+public class PendingAppointmentSweeper {
+
+    private static final LocalDateTime CURSOR_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OccupancyCalendar occupancyCalendar;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private SlotSeatService slotSeatService;
+
+    @Autowired
+    private PopularityEngine popularityEngine;
+
+    @Value("${app.appointments.payment-deadline-minutes:1440}")
+    private long paymentDeadlineMinutes = 1440;
+
+    @Value("${app.appointments.sweep-chunk-size:200}")
+    private int chunkSize = 200;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private LocalDateTime lastRunAt;
+    private long lastSwept;
+    private long lastChunks;
+    private long lastDurationMs;
+    private long totalRuns;
+    private long totalSwept;
+    private long maxDurationMs;
+
+    @Scheduled(fixedDelayString = "${app.appointments.sweep-interval-ms:300000}")
+    public void sweep() {
+        sweep(LocalDateTime.now());
+    }
+
+    int sweep(LocalDateTime now) {
+        // Only one sweep walks the table at a time
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            return sweepChunks(now);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int sweepChunks(LocalDateTime now) {
+        long started = System.nanoTime();
+        LocalDateTime cutoff = now.minusMinutes(paymentDeadlineMinutes);
+        LocalDateTime afterCreatedAt = CURSOR_START;
+        Long afterId = 0L;
+        int swept = 0;
+        int chunks = 0;
+
+        List<Appointment> chunk;
+        do {
+            chunk = appointmentRepository.findStaleAfter(AppointmentStatus.PENDING, cutoff,
+                    afterCreatedAt, afterId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            chunks++;
+            swept += expire(chunk, now);
+            Appointment last = chunk.get(chunk.size() - 1);
+            afterCreatedAt = last.getCreatedAt();
+            afterId = last.getId();
+        } while (chunk.size() == chunkSize);
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        record(now, swept, chunks, durationMs);
+        return swept;
+    }
+
+    private synchronized void record(LocalDateTime now, int swept, int chunks, long durationMs) {
+        lastRunAt = now;
+        lastSwept = swept;
+        lastChunks = chunks;
+        lastDurationMs = durationMs;
+        totalRuns++;
+        totalSwept += swept;
+        maxDurationMs = Math.max(maxDurationMs, durationMs);
+    }
+
+    private int expire(List<Appointment> rows, LocalDateTime now) {
+        // The query already leaves series occurrences out; this keeps a stale read from expiring one
+        List<Appointment> chunk = rows.stream().filter(appointment -> appointment.getSeriesId() == null).toList();
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = chunk.stream().map(Appointment::getId).toList();
+        Integer updated = transactionTemplate.execute(status -> appointmentRepository.transitionStatuses(
+                ids, Set.of(AppointmentStatus.PENDING), AppointmentStatus.EXPIRED, now));
+        if (updated == null || updated == 0) {
+            return 0;
+        }
+
+        List<Appointment> expired;
+        if (updated == chunk.size()) {
+            expired = chunk;
+        } else {
+            // Some rows changed since they were read; only the ones that are expired now release their slot
+            expired = new ArrayList<>();
+            for (Appointment appointment : appointmentRepository.findAllById(ids)) {
+                if (AppointmentStatus.EXPIRED.equals(appointment.getStatus())) {
+                    expired.add(appointment);
+                }
+            }
+        }
+        for (Appointment appointment : expired) {
+            appointment.setStatus(AppointmentStatus.EXPIRED);
+            appointment.setUpdatedAt(now);
+            occupancyCalendar.markReleased(appointment);
+        }
+        slotSeatService.releaseSeats(expired);
+        popularityEngine.recordReleased(expired);
+        waitlistService.offerReleasedSlots(expired);
+        return updated;
+    }
+
+    public synchronized SweepStatsDTO getStats() {
+        return new SweepStatsDTO(paymentDeadlineMinutes, chunkSize, lastRunAt, lastSwept, lastChunks,
+                lastDurationMs, totalRuns, totalSwept, maxDurationMs);
+    }
+}
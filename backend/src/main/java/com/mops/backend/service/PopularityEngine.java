@@ -0,0 +1,239 @@
+package com.mops.backend.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.AppointmentStatus;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.repository.AppointmentRepository;
+import com.mops.backend.repository.DoctorBatchRepository;
+import com.mops.backend.repository.DoctorRepository;
+
+// Keeps Doctor.popularity (0..100: 60% experience, 40% bookings, each relative to the best doctor) up to date
+// without touching the doctor listings. A full recompute runs on a schedule from one grouped count query.
+// In between, bookings and releases only add to a per-doctor LongAdder, so the booking path takes no lock
+// and does no I/O; a write-behind flush every few seconds (and on shutdown) drains the adders, rescores the
+// touched doctors (all of them when the best doctor's count grew) and writes the scores that moved in one
+// batch. A best doctor losing bookings waits for the next recompute, which also rebuilds DoctorLeaderboard.
+@Service
+public class PopularityEngine {
+
+    static final double EXPERIENCE_WEIGHT = 0.6;
+    static final double CONSULTATIONS_WEIGHT = 0.4;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorBatchRepository doctorBatchRepository;
+
+    @Autowired
+    private DoctorLeaderboard doctorLeaderboard;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    // Flushes and recomputes never interleave, so a drained delta is applied to exactly one stats snapshot
+    private final Object flushLock = new Object();
+
+    private final Map<Long, DoctorStats> stats = new HashMap<>();
+    private int maxExperience = 1;
+    private long maxConsultations = 1;
+
+    private static final class DoctorStats {
+        private int experience;
+        private long consultations;
+        private int popularity;
+
+        private DoctorStats(int experience, long consultations, int popularity) {
+            this.experience = experience;
+            this.consultations = consultations;
+            this.popularity = popularity;
+        }
+    }
+
+    // Also runs once at startup, so the in-memory counts exist before the first booking
+    @Scheduled(fixedDelayString = "${app.popularity.recompute-interval-ms:900000}")
+    public void recompute() {
+        synchronized (flushLock) {
+            // The counts read below already include every booking recorded so far
+            drain();
+            recomputeCounts();
+        }
+    }
+
+    private void recomputeCounts() {
+        Map<Long, Long> consultations = new HashMap<>();
+        for (Object[] row : appointmentRepository.countByDoctorExcludingStatuses(AppointmentStatus.RELEASED)) {
+            consultations.put((Long) row[0], (Long) row[1]);
+        }
+
+        Map<Long, DoctorStats> fresh = new HashMap<>();
+        int maxExp = 1;
+        long maxCount = 1;
+        for (Object[] row : doctorRepository.findPopularityInputs()) {
+            Long doctorId = (Long) row[0];
+            int experience = row[1] != null ? (Integer) row[1] : 0;
+            int stored = row[2] != null ? (Integer) row[2] : 0;
+            long count = consultations.getOrDefault(doctorId, 0L);
+            fresh.put(doctorId, new DoctorStats(experience, count, stored));
+            maxExp = Math.max(maxExp, experience);
+            maxCount = Math.max(maxCount, count);
+        }
+
+        Map<Long, Integer> changed = new LinkedHashMap<>();
+        for (Map.Entry<Long, DoctorStats> entry : fresh.entrySet()) {
+            DoctorStats doctorStats = entry.getValue();
+            int popularity = score(doctorStats.experience, doctorStats.consultations, maxExp, maxCount);
+            if (popularity != doctorStats.popularity) {
+                doctorStats.popularity = popularity;
+                changed.put(entry.getKey(), popularity);
+            }
+        }
+        // A booking recorded between the drain and the count query is counted twice until the next recompute
+        synchronized (this) {
+            stats.clear();
+            stats.putAll(fresh);
+            maxExperience = maxExp;
+            maxConsultations = maxCount;
+        }
+        if (doctorBatchRepository.updatePopularity(changed) > 0) {
+            catalogCache.invalidateDoctors();
+        }
+        doctorLeaderboard.rebuild();
+    }
+
+    public void recordBookings(Long doctorId, int bookings) {
+        counter(doctorId).add(bookings);
+    }
+
+    // Appointments that just gave their slot back no longer count as bookings of their doctor
+    public void recordReleased(Collection<Appointment> released) {
+        for (Appointment appointment : released) {
+            if (appointment.getDoctor() != null) {
+                counter(appointment.getDoctor().getId()).decrement();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.popularity.flush-interval-ms:5000}",
+            initialDelayString = "${app.popularity.flush-interval-ms:5000}")
+    public int flush() {
+        synchronized (flushLock) {
+            Map<Long, Long> deltas = drain();
+            return deltas.isEmpty() ? 0 : adjust(deltas);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private LongAdder counter(Long doctorId) {
+        LongAdder adder = pending.get(doctorId);
+        return adder != null ? adder : pending.computeIfAbsent(doctorId, id -> new LongAdder());
+    }
+
+    // Subtracts what was read instead of resetting, so an add racing with the drain is kept for the next one
+    private Map<Long, Long> drain() {
+        Map<Long, Long> deltas = new HashMap<>();
+        pending.forEach((doctorId, adder) -> {
+            long delta = adder.sum();
+            if (delta != 0) {
+                adder.add(-delta);
+                deltas.put(doctorId, delta);
+            }
+        });
+        return deltas;
+    }
+
+    // Picks up a new doctor or a change of experience years right away
+    public void refreshDoctor(Doctor doctor) {
+        int experience = doctor.getExperienceYears() != null ? doctor.getExperienceYears() : 0;
+        Integer popularity;
+        synchronized (this) {
+            DoctorStats doctorStats = stats.computeIfAbsent(doctor.getId(),
+                    id -> new DoctorStats(experience, 0, doctor.getPopularity() != null ? doctor.getPopularity() : 0));
+            doctorStats.experience = experience;
+            maxExperience = Math.max(maxExperience, experience);
+            popularity = rescore(doctorStats);
+        }
+        if (popularity != null) {
+            doctor.setPopularity(popularity);
+            write(Map.of(doctor.getId(), popularity));
+        }
+    }
+
+    public synchronized Integer getPopularity(Long doctorId) {
+        DoctorStats doctorStats = stats.get(doctorId);
+        return doctorStats != null ? doctorStats.popularity : null;
+    }
+
+    private int adjust(Map<Long, Long> deltas) {
+        Map<Long, Integer> changed = new LinkedHashMap<>();
+        synchronized (this) {
+            long previousMax = maxConsultations;
+            deltas.forEach((doctorId, delta) -> {
+                DoctorStats doctorStats = stats.get(doctorId);
+                if (doctorStats == null) {
+                    // Not loaded yet; the next recompute counts it from the database
+                    return;
+                }
+                doctorStats.consultations = Math.max(0, doctorStats.consultations + delta);
+                maxConsultations = Math.max(maxConsultations, doctorStats.consultations);
+            });
+            // A new best doctor moves every score, not only the ones with a delta
+            Collection<Long> touched = maxConsultations != previousMax ? stats.keySet() : deltas.keySet();
+            for (Long doctorId : touched) {
+                DoctorStats doctorStats = stats.get(doctorId);
+                Integer popularity = doctorStats != null ? rescore(doctorStats) : null;
+                if (popularity != null) {
+                    changed.put(doctorId, popularity);
+                }
+            }
+        }
+        return write(changed);
+    }
+
+    private int write(Map<Long, Integer> changed) {
+        int written = doctorBatchRepository.updatePopularity(changed);
+        doctorLeaderboard.updateScores(changed);
+        if (written > 0) {
+            // Doctor listings show the score, so they are reloaded only when a rounded score actually moved
+            catalogCache.invalidateDoctors();
+        }
+        return written;
+    }
+
+    // Returns the new score only when it differs from the stored one
+    private Integer rescore(DoctorStats doctorStats) {
+        int popularity = score(doctorStats.experience, doctorStats.consultations, maxExperience, maxConsultations);
+        if (popularity == doctorStats.popularity) {
+            return null;
+        }
+        doctorStats.popularity = popularity;
+        return popularity;
+    }
+
+    static int score(int experience, long consultations, int maxExperience, long maxConsultations) {
+        double experienceScore = (double) experience / Math.max(maxExperience, 1);
+        double consultationsScore = (double) consultations / Math.max(maxConsultations, 1);
+        return (int) Math.round((experienceScore * EXPERIENCE_WEIGHT + consultationsScore * CONSULTATIONS_WEIGHT) * 100.0);
+    }
+}
@@ -0,0 +1,222 @@
+package com.mops.backend.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mops.backend.dto.TemplateApplyRequestDTO;
+import com.mops.backend.dto.TemplateApplyResultDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Availability;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.ScheduleTemplate;
+import com.mops.backend.model.ScheduleTemplateWindow;
+import com.mops.backend.model.Specialty;
+import com.mops.backend.repository.AvailabilityBatchRepository;
+import com.mops.backend.repository.AvailabilityRepository;
+import com.mops.backend.repository.DoctorRepository;
+import com.mops.backend.repository.ScheduleTemplateRepository;
+
+@Service
+public class ScheduleTemplateService {
+
+    @Autowired
+    private ScheduleTemplateRepository scheduleTemplateRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AvailabilityBatchRepository availabilityBatchRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private SpecialtyService specialtyService;
+
+    @Autowired
+    private AvailabilityImpactService impactService;
+
+    @Autowired
+    private OccupancyCalendar occupancyCalendar;
+
+    @Autowired
+    private SlotLockRegistry slotLockRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public List<ScheduleTemplate> getAllTemplates() {
+        return scheduleTemplateRepository.findAll();
+    }
+
+    public Optional<ScheduleTemplate> getTemplateById(Long id) {
+        return scheduleTemplateRepository.findById(id);
+    }
+
+    public ScheduleTemplate createTemplate(ScheduleTemplate template) {
+        validate(template);
+        ensureUniqueName(template.getName(), null);
+        template.setCreatedAt(LocalDateTime.now());
+        return scheduleTemplateRepository.save(template);
+    }
+
+    public ScheduleTemplate updateTemplate(Long id, ScheduleTemplate templateDetails) {
+        ScheduleTemplate template = scheduleTemplateRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Schedule template not found with id: " + id));
+
+        template.setName(templateDetails.getName());
+        template.setDescription(templateDetails.getDescription());
+        template.setWindows(templateDetails.getWindows());
+        validate(template);
+        ensureUniqueName(template.getName(), id);
+        template.setUpdatedAt(LocalDateTime.now());
+
+        return scheduleTemplateRepository.save(template);
+    }
+
+    public void deleteTemplate(Long id) {
+        scheduleTemplateRepository.deleteById(id);
+    }
+
+    // One bulk delete (replace mode) and one batched insert for all target doctors, in a single
+    // transaction held under the doctors' slot locks. Replacing moves the upcoming bookings the new
+    // schedule leaves uncovered to NEEDS_RESCHEDULE in the same transaction.
+    public TemplateApplyResultDTO applyTemplate(Long templateId, TemplateApplyRequestDTO request) {
+        ScheduleTemplate template = scheduleTemplateRepository.findById(templateId)
+            .orElseThrow(() -> new RuntimeException("Schedule template not found with id: " + templateId));
+        boolean replace = isReplace(request.getMode());
+        List<Doctor> doctors = resolveDoctors(request);
+        if (doctors.isEmpty()) {
+            throw new IllegalArgumentException("No doctors selected");
+        }
+
+        List<Long> doctorIds = doctors.stream().map(Doctor::getId).toList();
+        TemplateApplyResultDTO result = slotLockRegistry.withDoctorLocks(doctorIds,
+                () -> transactionTemplate.execute(status -> apply(template, doctors, replace)));
+        doctorIds.forEach(occupancyCalendar::invalidate);
+        return result;
+    }
+
+    private TemplateApplyResultDTO apply(ScheduleTemplate template, List<Doctor> doctors, boolean replace) {
+        List<Availability> current = availabilityRepository.findByDoctorInAndIsActiveTrue(doctors);
+        AvailabilityIntervalSet existing = new AvailabilityIntervalSet();
+        Map<Long, List<Availability>> currentByDoctor = new HashMap<>();
+        if (replace) {
+            for (Availability window : current) {
+                currentByDoctor.computeIfAbsent(window.getDoctor().getId(), id -> new ArrayList<>()).add(window);
+            }
+        } else {
+            existing.seed(current);
+        }
+
+        List<Availability> rows = new ArrayList<>(doctors.size() * template.getWindows().size());
+        List<Appointment> stranded = new ArrayList<>();
+        int skipped = 0;
+        for (Doctor doctor : doctors) {
+            List<Availability> doctorRows = new ArrayList<>(template.getWindows().size());
+            for (ScheduleTemplateWindow window : template.getWindows()) {
+                Availability row = window.toAvailability(doctor);
+                if (existing.overlaps(row)) {
+                    skipped++;
+                } else {
+                    doctorRows.add(row);
+                }
+            }
+            if (replace) {
+                stranded.addAll(impactService.affectedByReplacing(doctor,
+                        currentByDoctor.getOrDefault(doctor.getId(), List.of()), doctorRows));
+            }
+            rows.addAll(doctorRows);
+        }
+
+        int replaced = replace ? availabilityRepository.deleteByDoctorIn(doctors) : 0;
+        int created = availabilityBatchRepository.insertAll(rows);
+        impactService.markNeedsReschedule(stranded);
+        return new TemplateApplyResultDTO(template.getId(), doctors.size(), created, replaced, skipped,
+                stranded.size());
+    }
+
+    private List<Doctor> resolveDoctors(TemplateApplyRequestDTO request) {
+        Map<Long, Doctor> doctors = new LinkedHashMap<>();
+        if (request.getSpecialtyId() != null) {
+            Specialty specialty = specialtyService.getSpecialtyById(request.getSpecialtyId())
+                .orElseThrow(() -> new RuntimeException("Specialty not found with id: " + request.getSpecialtyId()));
+            for (Doctor doctor : doctorRepository.findBySpecialtyAndIsActiveTrueOrderByPopularityDesc(specialty)) {
+                doctors.putIfAbsent(doctor.getId(), doctor);
+            }
+        }
+        if (request.getDoctorIds() != null && !request.getDoctorIds().isEmpty()) {
+            for (Doctor doctor : doctorRepository.findAllById(request.getDoctorIds())) {
+                doctors.putIfAbsent(doctor.getId(), doctor);
+            }
+        }
+        return new ArrayList<>(doctors.values());
+    }
+
+    private void ensureUniqueName(String name, Long ownId) {
+        scheduleTemplateRepository.findByName(name)
+            .filter(other -> !other.getId().equals(ownId))
+            .ifPresent(other -> {
+                throw new IllegalStateException("A schedule template named '" + name + "' already exists");
+            });
+    }
+
+    private static boolean isReplace(String mode) {
+        // Replacing wipes the doctors' schedule, so it is never the default
+        if (mode == null || "add".equalsIgnoreCase(mode)) {
+            return false;
+        }
+        if ("replace".equalsIgnoreCase(mode)) {
+            return true;
+        }
+        throw new IllegalArgumentException("Mode must be 'replace' or 'add'");
+    }
+
+    private void validate(ScheduleTemplate template) {
+        if (template.getName() == null || template.getName().isBlank()) {
+            throw new IllegalArgumentException("Template name is required");
+        }
+        if (template.getWindows() == null || template.getWindows().isEmpty()) {
+            throw new IllegalArgumentException("Template needs at least one window");
+        }
+
+        Map<DayOfWeek, List<ScheduleTemplateWindow>> byDay = new EnumMap<>(DayOfWeek.class);
+        for (ScheduleTemplateWindow window : template.getWindows()) {
+            DayOfWeek day = Availability.parseDayOfWeek(window.getDayOfWeek());
+            if (day == null) {
+                throw new IllegalArgumentException("Invalid day of week: " + window.getDayOfWeek());
+            }
+            if (window.getStartTime() == null || window.getEndTime() == null
+                    || !window.getEndTime().isAfter(window.getStartTime())) {
+                throw new IllegalArgumentException("End time must be after start time");
+            }
+            if (window.getCapacity() == null) {
+                window.setCapacity(1);
+            } else if (window.getCapacity() < 1 || window.getCapacity() > AvailabilityService.MAX_CAPACITY) {
+                throw new IllegalArgumentException("Capacity must be between 1 and " + AvailabilityService.MAX_CAPACITY);
+            }
+            byDay.computeIfAbsent(day, d -> new ArrayList<>()).add(window);
+        }
+        for (List<ScheduleTemplateWindow> windows : byDay.values()) {
+            windows.sort(Comparator.comparing(ScheduleTemplateWindow::getStartTime));
+            for (int i = 1; i < windows.size(); i++) {
+                if (windows.get(i).getStartTime().isBefore(windows.get(i - 1).getEndTime())) {
+                    throw new IllegalArgumentException("Template windows overlap on " + windows.get(i).getDayOfWeek());
+                }
+            }
+        }
+    }
+}
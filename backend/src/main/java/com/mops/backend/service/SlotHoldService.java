@@ -0,0 +1,198 @@
+package com.mops.backend.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mops.backend.dto.SlotHoldDTO;
+import com.mops.backend.model.Appointment;
+
+// Short-lived, in-memory holds on a slot while the patient is in checkout. Nothing is written until
+// payment confirms, so abandoned checkouts leave no rows behind. Expiry runs on a hashed timing wheel
+// advanced once per tick rather than a timer per hold or a database poll. An expired hold frees its slot
+// but keeps its booking for a while, so a payment that finished late can still book the slot if it is free.
+@Service
+public class SlotHoldService {
+
+    static final long TICK_MILLIS = 1000;
+    static final int TICKS_PER_WHEEL = 1024;
+
+    @Value("${app.holds.minutes:30}")
+    private long holdMinutes = 30;
+
+    @Value("${app.holds.late-payment-minutes:1440}")
+    private long latePaymentMinutes = 1440;
+
+    private final ConcurrentHashMap<String, SlotHold> holds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SlotHold> lapsed = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<SlotKey, SlotHold> holdsBySlot = new ConcurrentHashMap<>();
+    private final HashedTimingWheel<SlotHold> wheel =
+            new HashedTimingWheel<>(TICK_MILLIS, TICKS_PER_WHEEL, System.currentTimeMillis());
+
+    // patientId is only set for holds on a group session, where every patient holds their own seat
+    private record SlotKey(Long doctorId, LocalDateTime start, Long patientId) {}
+
+    public static final class SlotHold {
+        private final String token;
+        private final Appointment appointment;
+        private final long expiresAtMillis;
+        private boolean shared;
+        private volatile boolean expired;
+        private HashedTimingWheel.Timeout<SlotHold> timeout;
+
+        SlotHold(String token, Appointment appointment, long expiresAtMillis) {
+            this.token = token;
+            this.appointment = appointment;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public String getToken() { return token; }
+        public Appointment getAppointment() { return appointment; }
+
+        public LocalDateTime getExpiresAt() {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMillis), ZoneId.systemDefault());
+        }
+
+        private SlotKey slotKey() {
+            Long patientId = shared && appointment.getPatient() != null ? appointment.getPatient().getId() : null;
+            return new SlotKey(appointment.getDoctor().getId(), appointment.getAppointmentDate(), patientId);
+        }
+
+        private boolean isExpired(long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+    }
+
+    // Callers hold the doctor's slot lock and have already checked the slot against stored appointments
+    public SlotHold place(Appointment appointment) {
+        return place(appointment, false);
+    }
+
+    // A shared hold is one patient's claim on a group session and does not block other patients
+    public SlotHold place(Appointment appointment, boolean shared) {
+        long now = System.currentTimeMillis();
+        SlotHold hold = new SlotHold(UUID.randomUUID().toString(), appointment, now + holdMinutes * 60_000);
+        hold.shared = shared;
+
+        SlotHold existing = holdsBySlot.putIfAbsent(hold.slotKey(), hold);
+        if (existing != null) {
+            if (!existing.isExpired(now)) {
+                throw new IllegalStateException("This time slot is being held for another checkout");
+            }
+            // The wheel has not reached the stale hold yet; drop it now instead of waiting for the tick
+            remove(existing);
+            if (holdsBySlot.putIfAbsent(hold.slotKey(), hold) != null) {
+                throw new IllegalStateException("This time slot is being held for another checkout");
+            }
+        }
+        holds.put(hold.token, hold);
+        hold.timeout = wheel.schedule(hold, hold.expiresAtMillis);
+        return hold;
+    }
+
+    public boolean isHeldByOther(Long doctorId, LocalDateTime start, Long patientId) {
+        SlotHold hold = holdsBySlot.get(new SlotKey(doctorId, start, null));
+        return hold != null && !hold.isExpired(System.currentTimeMillis())
+                && (hold.appointment.getPatient() == null || !hold.appointment.getPatient().getId().equals(patientId));
+    }
+
+    public SlotHold getHold(String token) {
+        SlotHold hold = holds.get(token);
+        if (hold == null || hold.isExpired(System.currentTimeMillis())) {
+            throw new IllegalStateException("This slot hold has expired, please choose the time again");
+        }
+        return hold;
+    }
+
+    // A live hold or one that expired recently, for a payment that has to be turned into a booking
+    public SlotHold find(String token) {
+        SlotHold hold = holds.get(token);
+        if (hold == null) {
+            hold = lapsed.get(token);
+        }
+        if (hold == null) {
+            throw new IllegalStateException("This slot hold has expired, please choose the time again");
+        }
+        return hold;
+    }
+
+    // Removes the hold so the caller can turn it into a real appointment; only one caller can win. An expired
+    // hold no longer reserves its slot, so the caller has to check the slot is still free.
+    public SlotHold take(String token) {
+        SlotHold hold = holds.get(token);
+        if (hold != null && remove(hold)) {
+            return hold;
+        }
+        hold = lapsed.remove(token);
+        if (hold == null) {
+            throw new IllegalStateException("This slot hold has expired, please choose the time again");
+        }
+        wheel.cancel(hold.timeout);
+        return hold;
+    }
+
+    public boolean release(String token) {
+        SlotHold hold = holds.get(token);
+        if (hold != null && remove(hold)) {
+            return true;
+        }
+        hold = lapsed.remove(token);
+        if (hold != null) {
+            wheel.cancel(hold.timeout);
+        }
+        return hold != null;
+    }
+
+    public int getActiveHolds() {
+        return holds.size();
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void tick() {
+        expireHolds(System.currentTimeMillis());
+    }
+
+    int expireHolds(long nowMillis) {
+        return wheel.advance(nowMillis, this::expire);
+    }
+
+    // First firing frees the slot and keeps the booking for late payments; the second one forgets it
+    private void expire(SlotHold hold) {
+        if (hold.expired) {
+            lapsed.remove(hold.token, hold);
+            return;
+        }
+        // Kept before the slot is freed, so a payment confirming at this moment finds it either way
+        hold.expired = true;
+        lapsed.put(hold.token, hold);
+        if (!remove(hold)) {
+            lapsed.remove(hold.token, hold);
+            return;
+        }
+        hold.timeout = wheel.schedule(hold, hold.expiresAtMillis + latePaymentMinutes * 60_000);
+    }
+
+    private boolean remove(SlotHold hold) {
+        if (!holds.remove(hold.token, hold)) {
+            return false;
+        }
+        holdsBySlot.remove(hold.slotKey(), hold);
+        if (hold.timeout != null) {
+            wheel.cancel(hold.timeout);
+        }
+        return true;
+    }
+
+    public static SlotHoldDTO toDTO(SlotHold hold) {
+        Appointment appointment = hold.appointment;
+        return new SlotHoldDTO(hold.token, appointment.getDoctor().getId(),
+                appointment.getPatient() != null ? appointment.getPatient().getId() : null,
+                appointment.getAppointmentDate(), hold.getExpiresAt());
+    }
+}
@@ -0,0 +1,41 @@
+package com.mops.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+// One lock per doctor: bookings for the same doctor are serialized, different doctors never wait on each other
+@Component
+public class SlotLockRegistry {
+
+    private final ConcurrentHashMap<Long, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    public <T> T withDoctorLock(Long doctorId, Supplier<T> action) {
+        ReentrantLock lock = locks.computeIfAbsent(doctorId, id -> new ReentrantLock());
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Locks are always taken in ascending doctor id order so overlapping batches cannot deadlock
+    public <T> T withDoctorLocks(Collection<Long> doctorIds, Supplier<T> action) {
+        List<Long> ordered = new ArrayList<>(new TreeSet<>(doctorIds));
+        return withDoctorLocks(ordered, 0, action);
+    }
+
+    private <T> T withDoctorLocks(List<Long> ordered, int index, Supplier<T> action) {
+        if (index == ordered.size()) {
+            return action.get();
+        }
+        return withDoctorLock(ordered.get(index), () -> withDoctorLocks(ordered, index + 1, action));
+    }
+}
@@ -0,0 +1,102 @@
+package com.mops.backend.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mops.backend.dto.SlotSeatsDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.AppointmentStatus;
+import com.mops.backend.model.Availability;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.SlotSeats;
+import com.mops.backend.repository.SlotSeatsRepository;
+
+// Seats of multi-capacity windows (group therapy, vaccination drives). Each session instance has one
+// counter row; taking a seat is a single conditional UPDATE, so the database serializes concurrent takers
+// on that row and a full session simply updates nothing.
+@Service
+public class SlotSeatService {
+
+    static final int MAX_RANGE_DAYS = 62;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private SlotSeatsRepository slotSeatsRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private record SlotKey(Long doctorId, LocalDateTime start) {}
+
+    // Capacity of the active weekly window starting at this time; 1 for an ordinary single-patient slot
+    public int capacityAt(Doctor doctor, LocalDateTime start) {
+        DayOfWeek day = start.getDayOfWeek();
+        LocalTime time = start.toLocalTime();
+        for (Availability window : availabilityService.getActiveAvailabilitiesByDoctor(doctor)) {
+            if (day.equals(window.resolveDayOfWeek()) && time.equals(window.getStartTime())) {
+                return window.getCapacity() != null ? window.getCapacity() : 1;
+            }
+        }
+        return 1;
+    }
+
+    // Must run inside the transaction that inserts the appointment, so a failed insert gives the seat back
+    public void takeSeat(Long doctorId, LocalDateTime start, int capacity) {
+        slotSeatsRepository.ensureSeats(doctorId, start, capacity, AppointmentStatus.RELEASED);
+        if (slotSeatsRepository.takeSeat(doctorId, start) == 0) {
+            throw new IllegalStateException("This group session is full");
+        }
+    }
+
+    // A quick read for checkout; takeSeat stays the authority when the booking is saved
+    public boolean hasFreeSeat(Long doctorId, LocalDateTime start, int capacity) {
+        List<SlotSeats> seats = slotSeatsRepository.findByDoctorIdAndSlotStartBetweenOrderBySlotStartAsc(doctorId, start, start);
+        return seats.isEmpty() || seats.get(0).getBooked() < capacity;
+    }
+
+    // Gives back the seats of group bookings that were cancelled, rejected, expired or deleted
+    public int releaseSeats(Collection<Appointment> appointments) {
+        Map<SlotKey, Integer> seatsBySlot = new LinkedHashMap<>();
+        for (Appointment appointment : appointments) {
+            if (Boolean.TRUE.equals(appointment.getGroupSession()) && appointment.getDoctor() != null) {
+                seatsBySlot.merge(new SlotKey(appointment.getDoctor().getId(), appointment.getAppointmentDate()), 1, Integer::sum);
+            }
+        }
+        if (seatsBySlot.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.execute(status -> {
+            seatsBySlot.forEach((slot, seats) -> slotSeatsRepository.releaseSeats(slot.doctorId(), slot.start(), seats));
+            return null;
+        });
+        return seatsBySlot.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public List<SlotSeatsDTO> getSeats(Long doctorId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+        return slotSeatsRepository.findByDoctorIdAndSlotStartBetweenOrderBySlotStartAsc(
+                        doctorId, from.atStartOfDay(), to.atTime(LocalTime.MAX))
+                .stream()
+                .map(seats -> new SlotSeatsDTO(seats.getDoctorId(), seats.getSlotStart(), seats.getCapacity(),
+                        seats.getBooked(), Math.max(seats.getCapacity() - seats.getBooked(), 0)))
+                .toList();
+    }
+}
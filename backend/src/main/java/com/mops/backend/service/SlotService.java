@@ -0,0 +1,319 @@
+package com.mops.backend.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.mops.backend.dto.FreeSlotDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.AppointmentStatus;
+import com.mops.backend.model.Availability;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.Specialty;
+import com.mops.backend.repository.AppointmentRepository;
+import com.mops.backend.repository.DoctorRepository;
+
+@Service
+public class SlotService {
+
+    static final int MAX_RANGE_DAYS = 62;
+    static final int MAX_HORIZON_DAYS = 180;
+    static final int NEXT_SLOT_CHUNK_DAYS = 7;
+    static final int MAX_SPECIALTY_RESULTS = 100;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AvailabilityOverrideService overrideService;
+
+    public List<FreeSlotDTO> getFreeSlots(Doctor doctor, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+
+        Map<DayOfWeek, List<Availability>> weekly = groupByDay(availabilityService.getActiveAvailabilitiesByDoctor(doctor));
+        return collectFreeSlots(doctor, weekly, overrideService.getIndex(doctor), from, to, LocalDateTime.now());
+    }
+
+    public Map<Long, FreeSlotDTO> getNextFreeSlots(List<Doctor> doctors, LocalDate from, int horizonDays) {
+        if (horizonDays < 1 || horizonDays > MAX_HORIZON_DAYS) {
+            throw new IllegalArgumentException("Horizon must be between 1 and " + MAX_HORIZON_DAYS + " days");
+        }
+
+        Map<Long, List<Availability>> availabilityByDoctor = availabilityService.getActiveAvailabilitiesByDoctors(doctors)
+                .stream()
+                .collect(Collectors.groupingBy(availability -> availability.getDoctor().getId()));
+        Map<Long, OverrideIndex> overridesByDoctor = overrideService.getIndexes(doctors);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate last = from.plusDays(horizonDays - 1L);
+        Map<Long, FreeSlotDTO> nextSlots = new LinkedHashMap<>();
+
+        for (Doctor doctor : doctors) {
+            Map<DayOfWeek, List<Availability>> weekly = groupByDay(availabilityByDoctor.getOrDefault(doctor.getId(), List.of()));
+            OverrideIndex overrides = overridesByDoctor.getOrDefault(doctor.getId(), OverrideIndex.EMPTY);
+            if (!hasSchedule(weekly, overrides, from, last)) {
+                continue;
+            }
+
+            // Scan a week at a time so a doctor with an early opening costs a single appointment query
+            LocalDate chunkStart = from;
+            while (!chunkStart.isAfter(last)) {
+                LocalDate chunkEnd = chunkStart.plusDays(NEXT_SLOT_CHUNK_DAYS - 1L);
+                if (chunkEnd.isAfter(last)) {
+                    chunkEnd = last;
+                }
+                List<FreeSlotDTO> free = collectFreeSlots(doctor, weekly, overrides, chunkStart, chunkEnd, now);
+                if (!free.isEmpty()) {
+                    nextSlots.put(doctor.getId(), free.get(0));
+                    break;
+                }
+                chunkStart = chunkEnd.plusDays(1);
+            }
+        }
+        return nextSlots;
+    }
+
+    private static boolean hasSchedule(Map<DayOfWeek, List<Availability>> weekly, OverrideIndex overrides,
+                                       LocalDate from, LocalDate to) {
+        return !weekly.isEmpty() || overrides.hasExtrasBetween(from, to);
+    }
+
+    private List<FreeSlotDTO> collectFreeSlots(Doctor doctor, Map<DayOfWeek, List<Availability>> weekly,
+                                               OverrideIndex overrides, LocalDate from, LocalDate to,
+                                               LocalDateTime notBefore) {
+        if (!hasSchedule(weekly, overrides, from, to)) {
+            return new ArrayList<>();
+        }
+
+        List<Appointment> appointments = appointmentRepository.findByDoctorAndAppointmentDateBetween(
+                doctor, from.atStartOfDay(), to.atTime(LocalTime.MAX));
+        return freeSlotsBetween(doctor.getId(), weekly, overrides, from, to, notBefore, bookedStarts(appointments));
+    }
+
+    // Bookings per start time; group sessions stay free until every seat is taken
+    private static TreeMap<LocalDateTime, Integer> bookedStarts(List<Appointment> appointments) {
+        TreeMap<LocalDateTime, Integer> booked = new TreeMap<>();
+        for (Appointment appointment : appointments) {
+            if (AppointmentStatus.holdsSlot(appointment.getStatus())) {
+                booked.merge(appointment.getAppointmentDate(), 1, Integer::sum);
+            }
+        }
+        return booked;
+    }
+
+    private static List<FreeSlotDTO> freeSlotsBetween(Long doctorId, Map<DayOfWeek, List<Availability>> weekly,
+                                                      OverrideIndex overrides, LocalDate from, LocalDate to,
+                                                      LocalDateTime notBefore, TreeMap<LocalDateTime, Integer> bookedStarts) {
+        List<FreeSlotDTO> freeSlots = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            // Weekly windows plus that day's extra sessions, ordered by start; an extra matching a
+            // weekly window is the same slot
+            TreeMap<LocalDateTime, LocalDateTime> dayWindows = new TreeMap<>();
+            Map<LocalDateTime, Integer> capacities = new HashMap<>();
+            for (Availability window : weekly.getOrDefault(date.getDayOfWeek(), List.of())) {
+                dayWindows.put(date.atTime(window.getStartTime()), date.atTime(window.getEndTime()));
+                if (window.getCapacity() != null && window.getCapacity() > 1) {
+                    capacities.put(date.atTime(window.getStartTime()), window.getCapacity());
+                }
+            }
+            for (Map.Entry<LocalDateTime, LocalDateTime> extra : overrides.extrasOn(date)) {
+                dayWindows.putIfAbsent(extra.getKey(), extra.getValue());
+            }
+
+            for (Map.Entry<LocalDateTime, LocalDateTime> window : dayWindows.entrySet()) {
+                LocalDateTime start = window.getKey();
+                LocalDateTime end = window.getValue();
+                if (start.isBefore(notBefore) || overrides.isBlocked(start, end)) {
+                    continue;
+                }
+                Integer capacity = capacities.get(start);
+                if (capacity != null) {
+                    if (bookedStarts.getOrDefault(start, 0) < capacity) {
+                        freeSlots.add(new FreeSlotDTO(doctorId, start, end));
+                    }
+                    continue;
+                }
+                LocalDateTime firstBooking = bookedStarts.ceilingKey(start);
+                if (firstBooking != null && firstBooking.isBefore(end)) {
+                    continue;
+                }
+                freeSlots.add(new FreeSlotDTO(doctorId, start, end));
+            }
+        }
+        return freeSlots;
+    }
+
+    public List<FreeSlotDTO> getFirstAvailableInSpecialty(Specialty specialty, LocalDate from, int limit, int horizonDays) {
+        if (limit < 1 || limit > MAX_SPECIALTY_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SPECIALTY_RESULTS);
+        }
+        if (horizonDays < 1 || horizonDays > MAX_HORIZON_DAYS) {
+            throw new IllegalArgumentException("Horizon must be between 1 and " + MAX_HORIZON_DAYS + " days");
+        }
+
+        List<Doctor> doctors = doctorRepository.findBySpecialtyAndIsActiveTrueOrderByPopularityDesc(specialty);
+        if (doctors.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, List<Availability>> availabilityByDoctor = availabilityService.getActiveAvailabilitiesByDoctors(doctors)
+                .stream()
+                .collect(Collectors.groupingBy(availability -> availability.getDoctor().getId()));
+        Map<Long, OverrideIndex> overridesByDoctor = overrideService.getIndexes(doctors);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate last = from.plusDays(horizonDays - 1L);
+        LocalDate firstChunkEnd = from.plusDays(NEXT_SLOT_CHUNK_DAYS - 1L);
+        if (firstChunkEnd.isAfter(last)) {
+            firstChunkEnd = last;
+        }
+
+        List<Doctor> scheduled = new ArrayList<>();
+        Map<Long, Map<DayOfWeek, List<Availability>>> weeklyByDoctor = new HashMap<>();
+        for (Doctor doctor : doctors) {
+            Map<DayOfWeek, List<Availability>> weekly = groupByDay(availabilityByDoctor.getOrDefault(doctor.getId(), List.of()));
+            if (hasSchedule(weekly, overridesByDoctor.getOrDefault(doctor.getId(), OverrideIndex.EMPTY), from, last)) {
+                scheduled.add(doctor);
+                weeklyByDoctor.put(doctor.getId(), weekly);
+            }
+        }
+        if (scheduled.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // The first week of every doctor is loaded with a single query; later weeks are only
+        // fetched for the doctors whose slots are actually consumed by the merge.
+        Map<Long, List<Appointment>> firstChunkAppointments = appointmentRepository
+                .findByDoctorInAndAppointmentDateBetween(scheduled, from.atStartOfDay(), firstChunkEnd.atTime(LocalTime.MAX))
+                .stream()
+                .collect(Collectors.groupingBy(appointment -> appointment.getDoctor().getId()));
+
+        PriorityQueue<DoctorSlotCursor> queue = new PriorityQueue<>();
+        for (int rank = 0; rank < scheduled.size(); rank++) {
+            Doctor doctor = scheduled.get(rank);
+            Map<DayOfWeek, List<Availability>> weekly = weeklyByDoctor.get(doctor.getId());
+            OverrideIndex overrides = overridesByDoctor.getOrDefault(doctor.getId(), OverrideIndex.EMPTY);
+            List<FreeSlotDTO> firstChunk = freeSlotsBetween(doctor.getId(), weekly, overrides, from, firstChunkEnd, now,
+                    bookedStarts(firstChunkAppointments.getOrDefault(doctor.getId(), List.of())));
+            DoctorSlotCursor cursor = new DoctorSlotCursor(doctor, rank, weekly, overrides, firstChunk,
+                    firstChunkEnd.plusDays(1), last, now);
+            if (!cursor.isExhausted()) {
+                queue.add(cursor);
+            }
+        }
+
+        // A cursor with an empty buffer is keyed by the start of its next unloaded week, so a
+        // doctor's later weeks are only queried once every other doctor's earlier slots are used up.
+        List<FreeSlotDTO> result = new ArrayList<>(limit);
+        while (result.size() < limit && !queue.isEmpty()) {
+            DoctorSlotCursor cursor = queue.poll();
+            if (cursor.hasBufferedSlot()) {
+                result.add(cursor.poll());
+            } else {
+                cursor.loadNextChunk();
+            }
+            if (!cursor.isExhausted()) {
+                queue.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    // Walks one doctor's free slots a week at a time, in chronological order
+    private class DoctorSlotCursor implements Comparable<DoctorSlotCursor> {
+
+        private final Doctor doctor;
+        private final int rank;
+        private final Map<DayOfWeek, List<Availability>> weekly;
+        private final OverrideIndex overrides;
+        private final LocalDate last;
+        private final LocalDateTime notBefore;
+        private final ArrayDeque<FreeSlotDTO> buffer;
+        private LocalDate nextChunkStart;
+
+        DoctorSlotCursor(Doctor doctor, int rank, Map<DayOfWeek, List<Availability>> weekly, OverrideIndex overrides,
+                         List<FreeSlotDTO> firstChunk, LocalDate nextChunkStart, LocalDate last, LocalDateTime notBefore) {
+            this.doctor = doctor;
+            this.rank = rank;
+            this.weekly = weekly;
+            this.overrides = overrides;
+            this.buffer = new ArrayDeque<>(firstChunk);
+            this.nextChunkStart = nextChunkStart;
+            this.last = last;
+            this.notBefore = notBefore;
+        }
+
+        boolean hasBufferedSlot() {
+            return !buffer.isEmpty();
+        }
+
+        boolean isExhausted() {
+            return buffer.isEmpty() && nextChunkStart.isAfter(last);
+        }
+
+        FreeSlotDTO poll() {
+            return buffer.poll();
+        }
+
+        void loadNextChunk() {
+            LocalDate chunkEnd = nextChunkStart.plusDays(NEXT_SLOT_CHUNK_DAYS - 1L);
+            if (chunkEnd.isAfter(last)) {
+                chunkEnd = last;
+            }
+            buffer.addAll(collectFreeSlots(doctor, weekly, overrides, nextChunkStart, chunkEnd, notBefore));
+            nextChunkStart = chunkEnd.plusDays(1);
+        }
+
+        private LocalDateTime earliestPossibleStart() {
+            return buffer.isEmpty() ? nextChunkStart.atStartOfDay() : buffer.peek().getStart();
+        }
+
+        // Ties go to the more popular doctor
+        @Override
+        public int compareTo(DoctorSlotCursor other) {
+            int byStart = earliestPossibleStart().compareTo(other.earliestPossibleStart());
+            return byStart != 0 ? byStart : Integer.compare(rank, other.rank);
+        }
+    }
+
+    static Map<DayOfWeek, List<Availability>> groupByDay(List<Availability> availabilities) {
+        Map<DayOfWeek, List<Availability>> weekly = new EnumMap<>(DayOfWeek.class);
+        for (Availability availability : availabilities) {
+            DayOfWeek day = availability.resolveDayOfWeek();
+            if (day == null || availability.getStartTime() == null || availability.getEndTime() == null
+                    || !availability.getEndTime().isAfter(availability.getStartTime())) {
+                continue;
+            }
+            weekly.computeIfAbsent(day, d -> new ArrayList<>()).add(availability);
+        }
+        weekly.values().forEach(windows -> windows.sort(Comparator.comparing(Availability::getStartTime)));
+        return weekly;
+    }
+}
@@ -14,17 +14,24 @@ public class SpecialtyService {
     
     @Autowired
     private SpecialtyRepository specialtyRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
     
     public Specialty createSpecialty(Specialty specialty) {
-        return specialtyRepository.save(specialty);
+        Specialty saved = specialtyRepository.save(specialty);
+        catalogCache.invalidateSpecialtyList();
+        return saved;
     }
     
     public List<Specialty> getAllSpecialties() {
-        return specialtyRepository.findAll();
+        return catalogCache.getList(CatalogCache.ALL_SPECIALTIES, specialtyRepository::findAll,
+            CatalogCache.SPECIALTY_WEIGHT);
     }
     
     public Optional<Specialty> getSpecialtyById(Long id) {
-        return specialtyRepository.findById(id);
+        return catalogCache.getOne(CatalogCache.specialtyKey(id), () -> specialtyRepository.findById(id),
+            CatalogCache.SPECIALTY_WEIGHT);
     }
     
     public Optional<Specialty> getSpecialtyByName(String name) {
@@ -38,11 +45,16 @@ public class SpecialtyService {
         specialty.setName(specialtyDetails.getName());
         specialty.setDescription(specialtyDetails.getDescription());
         
-        return specialtyRepository.save(specialty);
+        Specialty saved = specialtyRepository.save(specialty);
+        catalogCache.invalidateSpecialty(id);
+        // Every doctor listing embeds the doctor's specialty
+        catalogCache.invalidateDoctors();
+        return saved;
     }
     
     public void deleteSpecialty(Long id) {
         specialtyRepository.deleteById(id);
+        catalogCache.invalidateSpecialty(id);
     }
     
     public boolean specialtyExists(String name) {
@@ -15,6 +15,9 @@ public class UserService {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
     
     public User createUser(User user) {
         user.setEmail(user.getEmail().toLowerCase());
@@ -30,7 +33,7 @@ public class UserService {
         user.setVerified(true);
         user.setVerificationToken(null);
         user.setUpdatedAt(LocalDateTime.now());
-        return userRepository.save(user);
+        return save(user);
     }
 
     public String resendVerification(String email) {
@@ -41,7 +44,7 @@ public class UserService {
         }
         String token = java.util.UUID.randomUUID().toString();
         user.setVerificationToken(token);
-        userRepository.save(user);
+        save(user);
         return token;
     }
     
@@ -72,11 +75,12 @@ public class UserService {
         user.setRole(userDetails.getRole());
         user.setUpdatedAt(LocalDateTime.now());
         
-        return userRepository.save(user);
+        return save(user);
     }
     
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        catalogCache.invalidateDoctors();
     }
     
     public boolean emailExists(String email) {
@@ -94,7 +98,7 @@ public class UserService {
         String token = java.util.UUID.randomUUID().toString();
         user.setResetToken(token);
         user.setResetTokenExpiry(LocalDateTime.now().plusMinutes(5));
-        userRepository.save(user);
+        save(user);
         return token;
     }
 
@@ -110,7 +114,7 @@ public class UserService {
         user.setResetToken(null);
         user.setResetTokenExpiry(null);
         user.setUpdatedAt(LocalDateTime.now());
-        return userRepository.save(user);
+        return save(user);
     }
     
     public Optional<User> login(String email, String password) {
@@ -124,4 +128,11 @@ public class UserService {
         }
         return Optional.empty();
     }
+
+    // Doctor listings embed the doctor's user row, so any saved user may change a cached listing
+    private User save(User user) {
+        User saved = userRepository.save(user);
+        catalogCache.invalidateDoctors();
+        return saved;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,338 @@
+package com.mops.backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mops.backend.dto.WaitlistEntryDTO;
+import com.mops.backend.dto.WaitlistOfferDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.User;
+
+// Per-doctor, per-day waitlists. A released slot is offered to the first patient still waiting for
+// that day; the offer holds the slot for a limited time and then falls through to the next patient.
+// Queues and offer state only use lock-free structures and CAS, so a burst of cancellations is
+// offered in one pass without threads waiting on each other.
+@Service
+public class WaitlistService {
+
+    static final String OPEN = "OPEN";
+    static final String CLAIMED = "CLAIMED";
+    static final String EXPIRED = "EXPIRED";
+    static final String DECLINED = "DECLINED";
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Value("${app.waitlist.offer-minutes:15}")
+    private long offerMinutes = 15;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<QueueKey, ConcurrentLinkedQueue<WaitlistEntry>> queues = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, WaitlistEntry> entries = new ConcurrentHashMap<>();
+    private final Set<String> memberships = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Long, SlotOffer> offers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<SlotKey, SlotOffer> offersBySlot = new ConcurrentHashMap<>();
+    // Every offer lives for the same time, so creation order is also expiry order
+    private final ConcurrentLinkedQueue<SlotOffer> offersByExpiry = new ConcurrentLinkedQueue<>();
+
+    private record QueueKey(Long doctorId, LocalDate date) {}
+
+    private record SlotKey(Long doctorId, LocalDateTime start) {}
+
+    static final class WaitlistEntry {
+        private final long id;
+        private final User patient;
+        private final Doctor doctor;
+        private final LocalDate date;
+        private final LocalDateTime joinedAt = LocalDateTime.now();
+        // Cleared when the patient leaves or is offered a slot; stale queue nodes are skipped on poll
+        private final AtomicBoolean waiting = new AtomicBoolean(true);
+
+        WaitlistEntry(long id, User patient, Doctor doctor, LocalDate date) {
+            this.id = id;
+            this.patient = patient;
+            this.doctor = doctor;
+            this.date = date;
+        }
+    }
+
+    public static final class SlotOffer {
+        private final long id;
+        private final WaitlistEntry entry;
+        private final LocalDateTime slotStart;
+        private final LocalDateTime expiresAt;
+        private final AtomicReference<String> status = new AtomicReference<>(OPEN);
+
+        SlotOffer(long id, WaitlistEntry entry, LocalDateTime slotStart, LocalDateTime expiresAt) {
+            this.id = id;
+            this.entry = entry;
+            this.slotStart = slotStart;
+            this.expiresAt = expiresAt;
+        }
+
+        public User getPatient() { return entry.patient; }
+        public Doctor getDoctor() { return entry.doctor; }
+        public LocalDateTime getSlotStart() { return slotStart; }
+        public LocalDateTime getExpiresAt() { return expiresAt; }
+    }
+
+    public WaitlistEntryDTO join(Doctor doctor, User patient, LocalDate date) {
+        if (date.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Cannot join the waitlist for a past day");
+        }
+        if (!memberships.add(membershipKey(patient.getId(), doctor.getId(), date))) {
+            throw new IllegalStateException("Patient is already on this waitlist");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry(sequence.incrementAndGet(), patient, doctor, date);
+        entries.put(entry.id, entry);
+        queues.computeIfAbsent(new QueueKey(doctor.getId(), date), key -> new ConcurrentLinkedQueue<>()).add(entry);
+        return toDTO(entry);
+    }
+
+    public void leave(Long entryId) {
+        WaitlistEntry entry = entries.remove(entryId);
+        if (entry == null) {
+            throw new RuntimeException("Waitlist entry not found with id: " + entryId);
+        }
+        retire(entry);
+    }
+
+    public List<WaitlistEntryDTO> getQueue(Long doctorId, LocalDate date) {
+        ConcurrentLinkedQueue<WaitlistEntry> queue = queues.get(new QueueKey(doctorId, date));
+        List<WaitlistEntryDTO> result = new ArrayList<>();
+        if (queue != null) {
+            for (WaitlistEntry entry : queue) {
+                if (entry.waiting.get()) {
+                    WaitlistEntryDTO dto = toDTO(entry);
+                    dto.setPosition(result.size() + 1);
+                    result.add(dto);
+                }
+            }
+        }
+        return result;
+    }
+
+    public List<WaitlistEntryDTO> getEntriesByPatient(Long patientId) {
+        List<WaitlistEntryDTO> result = new ArrayList<>();
+        for (WaitlistEntry entry : entries.values()) {
+            if (entry.waiting.get() && entry.patient.getId().equals(patientId)) {
+                result.add(toDTO(entry));
+            }
+        }
+        return result;
+    }
+
+    public List<WaitlistOfferDTO> getOffersByPatient(Long patientId) {
+        List<WaitlistOfferDTO> result = new ArrayList<>();
+        for (SlotOffer offer : offers.values()) {
+            if (offer.entry.patient.getId().equals(patientId)) {
+                result.add(toDTO(offer));
+            }
+        }
+        return result;
+    }
+
+    public void offerReleasedSlot(Appointment appointment) {
+        offerReleasedSlots(List.of(appointment));
+    }
+
+    // One pass over a batch of freed slots, e.g. a bulk cancellation or a sweep; the offer emails of the
+    // whole batch are queued as one task, so the caller never waits on SMTP
+    public int offerReleasedSlots(Collection<Appointment> appointments) {
+        LocalDateTime now = LocalDateTime.now();
+        List<SlotOffer> made = new ArrayList<>();
+        for (Appointment appointment : appointments) {
+            // A freed group seat leaves the session bookable as it is; there is no whole slot to offer
+            if (Boolean.TRUE.equals(appointment.getGroupSession())) {
+                continue;
+            }
+            if (appointment.getDoctor() != null && appointment.getAppointmentDate() != null
+                    && appointment.getAppointmentDate().isAfter(now)) {
+                SlotOffer offer = place(appointment.getDoctor().getId(), appointment.getAppointmentDate());
+                if (offer != null) {
+                    made.add(offer);
+                }
+            }
+        }
+        if (!made.isEmpty()) {
+            notificationDispatcher.dispatchWaitlistOffers(made);
+        }
+        return made.size();
+    }
+
+    // True while the slot is held by an offer made to someone else
+    public boolean isOfferedToOther(Long doctorId, LocalDateTime start, Long patientId) {
+        SlotOffer offer = offersBySlot.get(new SlotKey(doctorId, start));
+        if (offer == null || offer.entry.patient.getId().equals(patientId)) {
+            return false;
+        }
+        return CLAIMED.equals(offer.status.get())
+                || (OPEN.equals(offer.status.get()) && offer.expiresAt.isAfter(LocalDateTime.now()));
+    }
+
+    // Moves the offer to CLAIMED; the slot stays held until completeClaim so nobody books it meanwhile
+    public SlotOffer claimOffer(Long offerId, Long patientId) {
+        SlotOffer offer = findOffer(offerId, patientId);
+        if (!offer.expiresAt.isAfter(LocalDateTime.now())) {
+            expire(offer);
+            throw new IllegalStateException("This offer has expired");
+        }
+        if (!offer.status.compareAndSet(OPEN, CLAIMED)) {
+            throw new IllegalStateException("This offer is no longer available");
+        }
+        return offer;
+    }
+
+    public void completeClaim(SlotOffer offer) {
+        finish(offer);
+    }
+
+    // The booking behind a claim failed; the slot moves on to the next patient as if the offer was declined
+    public void abandonClaim(SlotOffer offer) {
+        if (offer.status.compareAndSet(CLAIMED, DECLINED)) {
+            finish(offer);
+            offerNext(offer.entry.doctor.getId(), offer.slotStart);
+        }
+    }
+
+    public void declineOffer(Long offerId, Long patientId) {
+        SlotOffer offer = findOffer(offerId, patientId);
+        if (!offer.status.compareAndSet(OPEN, DECLINED)) {
+            throw new IllegalStateException("This offer is no longer available");
+        }
+        finish(offer);
+        offerNext(offer.entry.doctor.getId(), offer.slotStart);
+    }
+
+    @Scheduled(fixedDelayString = "${app.waitlist.sweep-interval-ms:10000}")
+    public void expireOffers() {
+        expireOffers(LocalDateTime.now());
+    }
+
+    void expireOffers(LocalDateTime now) {
+        SlotOffer head;
+        // Only the scheduler polls this queue, so the peeked head is the one polled
+        while ((head = offersByExpiry.peek()) != null && !head.expiresAt.isAfter(now)) {
+            offersByExpiry.poll();
+            expire(head);
+        }
+
+        // Waitlists for days that are over can no longer receive offers
+        LocalDate today = now.toLocalDate();
+        queues.entrySet().removeIf(queue -> {
+            if (!queue.getKey().date().isBefore(today)) {
+                return false;
+            }
+            queue.getValue().forEach(entry -> {
+                entries.remove(entry.id);
+                retire(entry);
+            });
+            return true;
+        });
+    }
+
+    private void expire(SlotOffer offer) {
+        if (offer.status.compareAndSet(OPEN, EXPIRED)) {
+            finish(offer);
+            offerNext(offer.entry.doctor.getId(), offer.slotStart);
+        }
+    }
+
+    private SlotOffer offerNext(Long doctorId, LocalDateTime slotStart) {
+        SlotOffer offer = place(doctorId, slotStart);
+        if (offer != null) {
+            notificationDispatcher.dispatchWaitlistOffers(List.of(offer));
+        }
+        return offer;
+    }
+
+    // Makes the offer without notifying anyone; callers queue the email
+    private SlotOffer place(Long doctorId, LocalDateTime slotStart) {
+        if (!slotStart.isAfter(LocalDateTime.now())) {
+            return null;
+        }
+        SlotKey slotKey = new SlotKey(doctorId, slotStart);
+        if (offersBySlot.containsKey(slotKey)) {
+            return null;
+        }
+        ConcurrentLinkedQueue<WaitlistEntry> queue = queues.get(new QueueKey(doctorId, slotStart.toLocalDate()));
+        if (queue == null) {
+            return null;
+        }
+
+        WaitlistEntry entry;
+        while ((entry = queue.poll()) != null) {
+            // Winning this CAS makes the entry ours even if the patient is leaving concurrently
+            if (entry.waiting.compareAndSet(true, false)) {
+                break;
+            }
+        }
+        if (entry == null) {
+            return null;
+        }
+
+        SlotOffer offer = new SlotOffer(sequence.incrementAndGet(), entry, slotStart,
+                LocalDateTime.now().plusMinutes(offerMinutes));
+        if (offersBySlot.putIfAbsent(slotKey, offer) != null) {
+            // Another release of the same slot won the race; give the patient their place back
+            entry.waiting.set(true);
+            queue.add(entry);
+            return null;
+        }
+        offers.put(offer.id, offer);
+        offersByExpiry.add(offer);
+        return offer;
+    }
+
+    private void finish(SlotOffer offer) {
+        offersBySlot.remove(new SlotKey(offer.entry.doctor.getId(), offer.slotStart), offer);
+        offers.remove(offer.id);
+        entries.remove(offer.entry.id);
+        retire(offer.entry);
+    }
+
+    private void retire(WaitlistEntry entry) {
+        entry.waiting.set(false);
+        memberships.remove(membershipKey(entry.patient.getId(), entry.doctor.getId(), entry.date));
+    }
+
+    private SlotOffer findOffer(Long offerId, Long patientId) {
+        SlotOffer offer = offers.get(offerId);
+        if (offer == null) {
+            throw new RuntimeException("Waitlist offer not found with id: " + offerId);
+        }
+        if (!offer.entry.patient.getId().equals(patientId)) {
+            throw new IllegalArgumentException("This offer belongs to another patient");
+        }
+        return offer;
+    }
+
+    private static String membershipKey(Long patientId, Long doctorId, LocalDate date) {
+        return patientId + ":" + doctorId + ":" + date;
+    }
+
+    private static WaitlistEntryDTO toDTO(WaitlistEntry entry) {
+        return new WaitlistEntryDTO(entry.id, entry.doctor.getId(), entry.patient.getId(), entry.date, entry.joinedAt, 0);
+    }
+
+    private static WaitlistOfferDTO toDTO(SlotOffer offer) {
+        return new WaitlistOfferDTO(offer.id, offer.entry.doctor.getId(), offer.entry.patient.getId(),
+                offer.slotStart, offer.expiresAt, offer.status.get());
+    }
+}
@@ -0,0 +1,20 @@
+-- Runs after Hibernate has updated the schema (spring.jpa.defer-datasource-initialization=true)
+
+-- At most one appointment that still holds its slot per doctor and start time, group session seats aside.
+-- Replaces uq_appointments_doctor_slot_active (predates EXPIRED) and uq_appointments_doctor_slot_held
+-- (predates group sessions).
+DROP INDEX IF EXISTS uq_appointments_doctor_slot_active;
+DROP INDEX IF EXISTS uq_appointments_doctor_slot_held;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_appointments_doctor_slot_single
+    ON appointments (doctor_id, appointment_date)
+    WHERE status NOT IN ('CANCELLED', 'REJECTED', 'EXPIRED') AND group_session IS NOT TRUE;
+
+-- Group sessions: the seat counter in slot_seats caps the total, this keeps it to one seat per patient
+CREATE UNIQUE INDEX IF NOT EXISTS uq_appointments_group_seat
+    ON appointments (doctor_id, appointment_date, patient_id)
+    WHERE status NOT IN ('CANCELLED', 'REJECTED', 'EXPIRED') AND group_session;
+
+-- Keyset order of the stale PENDING sweeper; only pending rows are indexed
+CREATE INDEX IF NOT EXISTS idx_appointments_pending_created
+    ON appointments (created_at, id)
+    WHERE status = 'PENDING';
@@ -0,0 +1,179 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.User;
+import com.mops.backend.repository.AppointmentRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentBookingStressTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 500;
+    private static final int SLOTS = 40;
+
+    @Mock(stubOnly = true)
+    private AppointmentRepository appointmentRepository;
+
+    @Mock(stubOnly = true)
+    private DoctorService doctorService;
+
+    @Mock(stubOnly = true)
+    private EmailService emailService;
+
+    @Spy
+    private SlotLockRegistry slotLockRegistry = new SlotLockRegistry();
+
+    @Mock(stubOnly = true)
+    private OccupancyCalendar occupancyCalendar;
+
+    @Mock(stubOnly = true)
+    private WaitlistService waitlistService;
+
+    @Mock(stubOnly = true)
+    private SlotHoldService slotHoldService;
+
+    @Mock(stubOnly = true)
+    private SlotSeatService slotSeatService;
+
+    @Mock(stubOnly = true)
+    private PopularityEngine popularityEngine;
+
+    @InjectMocks
+    private AppointmentService appointmentService;
+
+    // Plays the role of the appointments table, deliberately without any uniqueness constraint
+    private final Map<String, AtomicInteger> rowsPerSlot = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private static String key(Appointment appointment) {
+        return appointment.getDoctor().getId() + "@" + appointment.getAppointmentDate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(appointmentRepository.existsByDoctorAndAppointmentDateAndStatusNotIn(any(), any(), any()))
+            .thenAnswer(invocation -> {
+                Doctor doctor = invocation.getArgument(0);
+                LocalDateTime date = invocation.getArgument(1);
+                AtomicInteger rows = rowsPerSlot.get(doctor.getId() + "@" + date);
+                return rows != null && rows.get() > 0;
+            });
+        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(invocation -> {
+            Appointment appointment = invocation.getArgument(0);
+            // Widen the check-then-insert window so a missing lock shows up as double bookings
+            Thread.yield();
+            rowsPerSlot.computeIfAbsent(key(appointment), k -> new AtomicInteger()).incrementAndGet();
+            appointment.setId(ids.incrementAndGet());
+            return appointment;
+        });
+    }
+
+    private Appointment request(Doctor doctor, LocalDateTime date) {
+        User patient = new User();
+        patient.setId(ThreadLocalRandom.current().nextLong(1, 10_000));
+        return new Appointment(patient, doctor, date);
+    }
+
+    @Test
+    void concurrentBookingsOnOnePopularDoctor_ShouldNeverDoubleBook() throws Exception {
+        Doctor doctor = new Doctor();
+        doctor.setId(1L);
+        LocalDateTime firstSlot = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Runnable> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    LocalDateTime slot = firstSlot.plusMinutes(30L * ThreadLocalRandom.current().nextInt(SLOTS));
+                    try {
+                        appointmentService.createAppointment(request(doctor, slot));
+                        booked.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+        }
+        workers.forEach(pool::submit);
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+        System.out.printf("[bench] %d threads, %d attempts on one doctor: %d booked, %d rejected, %.0f requests/s%n",
+            THREADS, THREADS * ATTEMPTS_PER_THREAD, booked.get(), rejected.get(),
+            THREADS * ATTEMPTS_PER_THREAD / seconds);
+
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD, booked.get() + rejected.get());
+        assertEquals(SLOTS, booked.get());
+        assertTrue(rowsPerSlot.values().stream().allMatch(rows -> rows.get() == 1));
+    }
+
+    @Test
+    void bookingForOneDoctor_ShouldNotWaitForAnotherDoctorsLock() throws Exception {
+        Doctor busy = new Doctor();
+        busy.setId(1L);
+        Doctor other = new Doctor();
+        other.setId(2L);
+
+        CountDownLatch busyLockHeld = new CountDownLatch(1);
+        CountDownLatch releaseBusy = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        pool.submit(() -> slotLockRegistry.withDoctorLock(busy.getId(), () -> {
+            busyLockHeld.countDown();
+            try {
+                releaseBusy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(busyLockHeld.await(5, TimeUnit.SECONDS));
+
+        Appointment created = appointmentService.createAppointment(request(other, LocalDateTime.now().plusDays(2)));
+
+        assertNotNull(created.getId());
+        releaseBusy.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
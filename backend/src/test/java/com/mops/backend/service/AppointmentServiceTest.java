@@ -2,23 +2,43 @@ package com.mops.backend.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mops.backend.dto.AppointmentSearchCriteria;
+import com.mops.backend.dto.AppointmentSearchResultDTO;
+import com.mops.backend.dto.AppointmentSeriesRequestDTO;
+import com.mops.backend.dto.AppointmentSeriesResultDTO;
+import com.mops.backend.dto.DoctorDeactivationResultDTO;
+import com.mops.backend.dto.StatusTransitionResultDTO;
 import com.mops.backend.model.Appointment;
+import com.mops.backend.model.AppointmentStatus;
 import com.mops.backend.model.Doctor;
 import com.mops.backend.model.User;
+import com.mops.backend.repository.AppointmentBatchRepository;
 import com.mops.backend.repository.AppointmentRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +53,36 @@ class AppointmentServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Spy
+    private SlotLockRegistry slotLockRegistry = new SlotLockRegistry();
+
+    @Mock
+    private OccupancyCalendar occupancyCalendar;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private SlotHoldService slotHoldService;
+
+    @Mock
+    private AppointmentBatchRepository appointmentBatchRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
+    @Mock
+    private SlotSeatService slotSeatService;
+
+    @Mock
+    private PopularityEngine popularityEngine;
+
+    @Captor
+    private ArgumentCaptor<List<Appointment>> inserted;
+
     @InjectMocks
     private AppointmentService appointmentService;
 
@@ -65,10 +115,72 @@ class AppointmentServiceTest {
 
         assertEquals("PENDING", created.getStatus());
         assertNotNull(created.getCreatedAt());
-        verify(doctorService, times(1)).incrementPopularity(1L);
+        verify(popularityEngine, times(1)).recordBookings(1L, 1);
         verify(emailService, times(1)).sendAppointmentConfirmation(any(Appointment.class));
     }
 
+    @Test
+    void createAppointment_InGroupSession_ShouldTakeASeatInsteadOfTheWholeSlot() {
+        runTransactionsInline();
+        appointment.setAppointmentDate(LocalDateTime.now().plusDays(1).withNano(0));
+        when(slotSeatService.capacityAt(doctor, appointment.getAppointmentDate())).thenReturn(8);
+        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        Appointment created = appointmentService.createAppointment(appointment);
+
+        assertTrue(created.getGroupSession());
+        verify(slotSeatService).takeSeat(1L, appointment.getAppointmentDate(), 8);
+        verify(appointmentRepository, never()).existsByDoctorAndAppointmentDateAndStatusNotIn(any(), any(), any());
+        verify(slotHoldService, never()).isHeldByOther(any(), any(), any());
+    }
+
+    @Test
+    void createAppointment_InFullGroupSession_ShouldNotSaveAnything() {
+        runTransactionsInline();
+        appointment.setAppointmentDate(LocalDateTime.now().plusDays(1).withNano(0));
+        when(slotSeatService.capacityAt(doctor, appointment.getAppointmentDate())).thenReturn(8);
+        doThrow(new IllegalStateException("This group session is full"))
+            .when(slotSeatService).takeSeat(1L, appointment.getAppointmentDate(), 8);
+
+        assertThrows(IllegalStateException.class, () -> appointmentService.createAppointment(appointment));
+
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+        verify(emailService, never()).sendAppointmentConfirmation(any(Appointment.class));
+    }
+
+    @Test
+    void cancelAppointment_InGroupSession_ShouldGiveTheSeatBack() {
+        stubTransitions();
+        appointment.setGroupSession(true);
+
+        appointmentService.cancelAppointment(1L);
+
+        verify(slotSeatService).releaseSeats(List.of(appointment));
+    }
+
+    @Test
+    void createAppointment_ShouldRejectSlotThatIsAlreadyBooked() {
+        appointment.setAppointmentDate(LocalDateTime.now().plusDays(1).withNano(0));
+        when(appointmentRepository.existsByDoctorAndAppointmentDateAndStatusNotIn(
+            eq(doctor), eq(appointment.getAppointmentDate()), any())).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> appointmentService.createAppointment(appointment));
+
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+        verify(popularityEngine, never()).recordBookings(any(), anyInt());
+        verify(emailService, never()).sendAppointmentConfirmation(any(Appointment.class));
+    }
+
+    @Test
+    void createAppointment_ShouldTranslateUniqueIndexViolation() {
+        when(appointmentRepository.save(any(Appointment.class)))
+            .thenThrow(new DataIntegrityViolationException("uq_appointments_doctor_slot_held"));
+
+        assertThrows(IllegalStateException.class, () -> appointmentService.createAppointment(appointment));
+
+        verify(emailService, never()).sendAppointmentConfirmation(any(Appointment.class));
+    }
+
     @Test
     void getAllAppointments_ShouldReturnAllAppointments() {
         List<Appointment> appointments = Arrays.asList(appointment, new Appointment());
@@ -154,10 +266,24 @@ class AppointmentServiceTest {
         verify(appointmentRepository, times(1)).findByDoctorAndStatus(doctor, "CONFIRMED");
     }
 
+    // Mimics the conditional UPDATE against the in-memory appointment
+    @SuppressWarnings("unchecked")
+    private void stubTransitions() {
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
+        when(appointmentRepository.transitionStatus(eq(1L), any(), any(), any())).thenAnswer(i -> {
+            Collection<String> from = i.getArgument(1);
+            if (!from.contains(appointment.getStatus())) {
+                return 0;
+            }
+            appointment.setStatus(i.getArgument(2));
+            appointment.setUpdatedAt(i.getArgument(3));
+            return 1;
+        });
+    }
+
     @Test
     void confirmAppointment_ShouldChangeStatusToConfirmed() {
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
-        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(i -> i.getArguments()[0]);
+        stubTransitions();
 
         Appointment result = appointmentService.confirmAppointment(1L);
 
@@ -167,8 +293,7 @@ class AppointmentServiceTest {
 
     @Test
     void rejectAppointment_ShouldChangeStatusToRejected() {
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
-        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(i -> i.getArguments()[0]);
+        stubTransitions();
 
         Appointment result = appointmentService.rejectAppointment(1L);
 
@@ -178,21 +303,304 @@ class AppointmentServiceTest {
 
     @Test
     void cancelAppointment_ShouldChangeStatusAndSendEmail() {
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
-        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(i -> i.getArguments()[0]);
+        stubTransitions();
 
         Appointment result = appointmentService.cancelAppointment(1L);
 
         assertEquals("CANCELLED", result.getStatus());
         verify(emailService, times(1)).sendAppointmentCancellation(result);
-        verify(appointmentRepository, times(1)).save(any(Appointment.class));
+        verify(appointmentRepository, times(1)).transitionStatus(eq(1L), any(), eq("CANCELLED"), any());
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+        verify(waitlistService, times(1)).offerReleasedSlot(result);
+        verify(popularityEngine, times(1)).recordReleased(List.of(result));
     }
 
     @Test
-    void completeAppointment_ShouldChangeStatusToCompleted() {
+    void updateAppointmentStatus_ShouldLetOnlyOneConcurrentTransitionWin() {
+        stubTransitions();
+
+        appointmentService.confirmAppointment(1L);
+
+        assertThrows(IllegalStateException.class, () -> appointmentService.rejectAppointment(1L));
+        assertEquals("CONFIRMED", appointment.getStatus());
+        verify(emailService, never()).sendAppointmentCancellation(any());
+        verify(waitlistService, never()).offerReleasedSlot(any());
+    }
+
+    @Test
+    void updateAppointmentStatus_ShouldRejectTransitionsOutOfFinalStatuses() {
+        appointment.setStatus("COMPLETED");
         when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
+
+        assertThrows(IllegalStateException.class, () -> appointmentService.setPendingAppointment(1L));
+        assertThrows(IllegalStateException.class, () -> appointmentService.cancelAppointment(1L));
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.updateAppointmentStatus(1L, "ARCHIVED"));
+        assertEquals("COMPLETED", appointment.getStatus());
+        // Refused from what was read, without writing
+        verify(appointmentRepository, never()).transitionStatus(any(), any(), any(), any());
+    }
+
+    @Test
+    void updateAppointmentStatus_ShouldOnlyResumeTheStatusBeforeTheReschedule() {
+        appointment.setStatus("NEEDS_RESCHEDULE");
+        appointment.setPreviousStatus("PENDING");
+        stubTransitions();
+
+        // An unpaid booking that lost its hours cannot come back confirmed
+        assertThrows(IllegalStateException.class, () -> appointmentService.confirmAppointment(1L));
+        assertEquals("PENDING", appointmentService.setPendingAppointment(1L).getStatus());
+
+        appointment.setStatus("NEEDS_RESCHEDULE");
+        appointment.setPreviousStatus("CONFIRMED");
+        assertThrows(IllegalStateException.class, () -> appointmentService.setPendingAppointment(1L));
+        assertEquals("CONFIRMED", appointmentService.confirmAppointment(1L).getStatus());
+    }
+
+    @Test
+    void updateAppointmentStatus_ShouldReuseTheReadRowAndWriteOnce() {
+        stubTransitions();
+
+        appointmentService.confirmAppointment(1L);
+
+        verify(appointmentRepository, times(1)).findById(1L);
+        verify(appointmentRepository, times(1)).transitionStatus(1L, List.of("PENDING"), "CONFIRMED",
+            appointment.getUpdatedAt());
+    }
+
+    @Test
+    void updateAppointmentStatus_ShouldReportTheStatusThatWonARace() {
+        Appointment latest = new Appointment(patient, doctor, appointment.getAppointmentDate());
+        latest.setId(1L);
+        latest.setStatus("CANCELLED");
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment), Optional.of(latest));
+        when(appointmentRepository.transitionStatus(eq(1L), any(), eq("CONFIRMED"), any())).thenReturn(0);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+            () -> appointmentService.confirmAppointment(1L));
+
+        assertEquals("Cannot change appointment from CANCELLED to CONFIRMED", error.getMessage());
+        assertEquals("PENDING", appointment.getStatus());
+        verify(waitlistService, never()).offerReleasedSlot(any());
+    }
+
+    @Test
+    void createAppointment_ShouldRejectSlotOfferedToWaitlistedPatient() {
+        appointment.setAppointmentDate(LocalDateTime.now().plusDays(1));
+        when(waitlistService.isOfferedToOther(1L, appointment.getAppointmentDate(), 1L)).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> appointmentService.createAppointment(appointment));
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    @Test
+    void createAppointment_ShouldRejectSlotHeldForAnotherCheckout() {
+        appointment.setAppointmentDate(LocalDateTime.now().plusDays(1));
+        when(slotHoldService.isHeldByOther(1L, appointment.getAppointmentDate(), 1L)).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> appointmentService.createAppointment(appointment));
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    private AppointmentSeriesRequestDTO weeklySeries(LocalDateTime first, int occurrences, boolean skipConflicts) {
+        return new AppointmentSeriesRequestDTO(1L, 1L, first, 1, occurrences, "Physiotherapy", 120.0, skipConflicts);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void createSeries_ShouldBatchInsertAllOccurrencesAndSendOneEmail() {
+        LocalDateTime first = LocalDateTime.now().plusDays(1).withNano(0);
+        runTransactionsInline();
+        when(appointmentRepository.findBySeriesIdOrderByAppointmentDateAsc(any()))
+            .thenAnswer(i -> List.of(new Appointment(patient, doctor, first), new Appointment(patient, doctor, first.plusWeeks(1))));
+
+        AppointmentSeriesResultDTO result = appointmentService.createSeries(patient, doctor, weeklySeries(first, 12, false));
+
+        verify(appointmentBatchRepository).insertAll(inserted.capture());
+        assertEquals(12, inserted.getValue().size());
+        assertEquals(first.plusWeeks(11), inserted.getValue().get(11).getAppointmentDate());
+        assertTrue(inserted.getValue().stream().allMatch(a -> a.getSeriesId().equals(result.getSeriesId())));
+        verify(appointmentRepository, times(1)).findByDoctorAndAppointmentDateInAndStatusNotIn(eq(doctor), any(), any());
+        verify(appointmentRepository, never()).save(any());
+        verify(popularityEngine).recordBookings(1L, 2);
+        verify(emailService, times(1)).sendSeriesConfirmation(eq(patient), eq(doctor), any(), any());
+        verify(emailService, never()).sendAppointmentConfirmation(any());
+    }
+
+    @Test
+    void createSeries_ShouldRejectWholeSeriesOnConflictUnlessSkipping() {
+        LocalDateTime first = LocalDateTime.now().plusDays(1).withNano(0);
+        Appointment taken = new Appointment(patient, doctor, first.plusWeeks(2));
+        when(appointmentRepository.findByDoctorAndAppointmentDateInAndStatusNotIn(eq(doctor), any(), any()))
+            .thenReturn(List.of(taken));
+
+        AppointmentSeriesResultDTO rejected = appointmentService.createSeries(patient, doctor, weeklySeries(first, 4, false));
+
+        assertTrue(rejected.getCreated().isEmpty());
+        assertEquals(1, rejected.getConflicts().size());
+        assertEquals(first.plusWeeks(2), rejected.getConflicts().get(0).getAppointmentDate());
+        verifyNoInteractions(appointmentBatchRepository, emailService);
+
+        runTransactionsInline();
+        when(appointmentRepository.findBySeriesIdOrderByAppointmentDateAsc(any()))
+            .thenReturn(List.of(new Appointment(patient, doctor, first)));
+        AppointmentSeriesResultDTO partial = appointmentService.createSeries(patient, doctor, weeklySeries(first, 4, true));
+
+        verify(appointmentBatchRepository).insertAll(inserted.capture());
+        assertEquals(3, inserted.getValue().size());
+        assertEquals(1, partial.getConflicts().size());
+    }
+
+    @Test
+    void createSeries_ShouldValidateRequest() {
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.createSeries(patient, doctor,
+            weeklySeries(LocalDateTime.now().minusDays(1), 4, false)));
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.createSeries(patient, doctor,
+            weeklySeries(LocalDateTime.now().plusDays(1), AppointmentService.MAX_SERIES_OCCURRENCES + 1, false)));
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    @Test
+    void createSeries_ShouldRejectGroupSessionWindows() {
+        LocalDateTime first = LocalDateTime.now().plusDays(1).withNano(0);
+        when(slotSeatService.capacityAt(doctor, first)).thenReturn(8);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> appointmentService.createSeries(patient, doctor, weeklySeries(first, 4, false)));
+        verifyNoInteractions(appointmentRepository, appointmentBatchRepository);
+    }
+
+    @Test
+    void holdSlot_ShouldNotWriteAnything() {
+        appointment.setAppointmentDate(LocalDateTime.now().plusDays(1));
+        SlotHoldService.SlotHold hold = new SlotHoldService.SlotHold("token", appointment, System.currentTimeMillis() + 60_000);
+        when(slotHoldService.place(appointment)).thenReturn(hold);
+
+        assertEquals("token", appointmentService.holdSlot(appointment).getToken());
+        verify(appointmentRepository, never()).save(any());
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void confirmHeldPayment_ShouldStoreConfirmedAppointment() {
+        appointment.setId(null);
+        appointment.setAppointmentDate(LocalDateTime.now().plusDays(1));
+        SlotHoldService.SlotHold hold = new SlotHoldService.SlotHold("token", appointment, System.currentTimeMillis() + 60_000);
+        when(slotHoldService.find("token")).thenReturn(hold);
         when(appointmentRepository.save(any(Appointment.class))).thenAnswer(i -> i.getArguments()[0]);
 
+        Appointment confirmed = appointmentService.confirmHeldPayment("token");
+
+        assertEquals("CONFIRMED", confirmed.getStatus());
+        verify(slotHoldService).take("token");
+        verify(occupancyCalendar).markBooked(confirmed);
+        verify(emailService).sendPaymentConfirmation(confirmed);
+        verify(emailService, never()).sendAppointmentConfirmation(any());
+    }
+
+    @Test
+    void confirmHeldPayment_AfterTheHoldExpired_ShouldNotTakeASlotBookedMeanwhile() {
+        appointment.setId(null);
+        appointment.setAppointmentDate(LocalDateTime.now().plusDays(1));
+        SlotHoldService.SlotHold hold = new SlotHoldService.SlotHold("token", appointment, System.currentTimeMillis() - 60_000);
+        when(slotHoldService.find("token")).thenReturn(hold);
+        when(appointmentRepository.existsByDoctorAndAppointmentDateAndStatusNotIn(any(), any(), any())).thenReturn(true);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> appointmentService.confirmHeldPayment("token"));
+
+        assertEquals("This time slot is already booked", e.getMessage());
+        verify(appointmentRepository, never()).save(any());
+        verifyNoInteractions(emailService);
+    }
+
+    private Appointment withStatus(long id, String status) {
+        Appointment bulk = new Appointment(patient, doctor, LocalDateTime.now().plusDays(id));
+        bulk.setId(id);
+        bulk.setStatus(status);
+        return bulk;
+    }
+
+    @Test
+    void transitionStatuses_ShouldUpdateEligibleRowsInOneStatementAndReportEachId() {
+        runTransactionsInline();
+        Appointment pending = withStatus(1L, "PENDING");
+        Appointment confirmed = withStatus(2L, "CONFIRMED");
+        Appointment completed = withStatus(3L, "COMPLETED");
+        when(appointmentRepository.findByIdIn(List.of(1L, 2L, 3L, 4L))).thenReturn(List.of(pending, confirmed, completed));
+        when(appointmentRepository.transitionStatuses(eq(List.of(1L, 2L)), any(), eq("CANCELLED"), any())).thenReturn(2);
+
+        StatusTransitionResultDTO result = appointmentService.transitionStatuses(List.of(1L, 2L, 3L, 4L, 1L), "CANCELLED");
+
+        assertEquals(2, result.getApplied());
+        assertEquals(2, result.getFailed());
+        assertTrue(result.getResults().get(0).isApplied());
+        assertTrue(result.getResults().get(1).isApplied());
+        assertEquals("COMPLETED", result.getResults().get(2).getStatus());
+        assertFalse(result.getResults().get(2).isApplied());
+        assertEquals("Appointment not found", result.getResults().get(3).getMessage());
+        verify(appointmentRepository, times(1)).transitionStatuses(any(), any(), any(), any());
+        verify(appointmentRepository, never()).save(any());
+        verify(waitlistService).offerReleasedSlots(List.of(pending, confirmed));
+        verify(notificationDispatcher, times(1)).dispatchStatusChanges(List.of(pending, confirmed), "CANCELLED");
+        verify(emailService, never()).sendAppointmentCancellation(any());
+    }
+
+    @Test
+    void transitionStatuses_ShouldSkipUpdateWhenNothingIsEligible() {
+        runTransactionsInline();
+        when(appointmentRepository.findByIdIn(List.of(1L))).thenReturn(List.of(withStatus(1L, "COMPLETED")));
+
+        StatusTransitionResultDTO result = appointmentService.transitionStatuses(List.of(1L), "CONFIRMED");
+
+        assertEquals(0, result.getApplied());
+        verify(appointmentRepository, never()).transitionStatuses(any(), any(), any(), any());
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.transitionStatuses(List.of(), "CONFIRMED"));
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.transitionStatuses(List.of(1L), "DONE"));
+    }
+
+    @Test
+    void deactivateDoctor_ShouldCancelUpcomingAppointmentsInOneStatementAndNotifyOnce() {
+        runTransactionsInline();
+        doctor.setIsActive(false);
+        Appointment first = withStatus(1L, "CANCELLED");
+        Appointment second = withStatus(2L, "CANCELLED");
+        when(doctorService.setDoctorActive(1L, false)).thenReturn(doctor);
+        when(appointmentBatchRepository.transitionUpcomingForDoctor(eq(1L), any(),
+            eq(Set.of("PENDING", "CONFIRMED", "NEEDS_RESCHEDULE")), eq("CANCELLED"), any())).thenReturn(List.of(1L, 2L));
+        when(appointmentRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+        DoctorDeactivationResultDTO result = appointmentService.deactivateDoctor(1L, true);
+
+        assertFalse(result.getDoctor().getIsActive());
+        assertEquals(2, result.getCancelled());
+        verify(occupancyCalendar).markReleased(first);
+        verify(occupancyCalendar).markReleased(second);
+        verify(notificationDispatcher, times(1)).dispatchStatusChanges(List.of(first, second), "CANCELLED");
+        verify(waitlistService, never()).offerReleasedSlots(any());
+        verify(emailService, never()).sendAppointmentCancellation(any());
+    }
+
+    @Test
+    void deactivateDoctor_WithoutCascade_ShouldLeaveAppointmentsAlone() {
+        runTransactionsInline();
+        when(doctorService.setDoctorActive(1L, false)).thenReturn(doctor);
+
+        DoctorDeactivationResultDTO result = appointmentService.deactivateDoctor(1L, false);
+
+        assertEquals(0, result.getCancelled());
+        verify(appointmentBatchRepository, never()).transitionUpcomingForDoctor(any(), any(), any(), any(), any());
+        verify(notificationDispatcher, never()).dispatchStatusChanges(any(), any());
+    }
+
+    @Test
+    void completeAppointment_ShouldChangeStatusToCompleted() {
+        stubTransitions();
+
         Appointment result = appointmentService.completeAppointment(1L);
 
         assertEquals("COMPLETED", result.getStatus());
@@ -201,9 +609,8 @@ class AppointmentServiceTest {
 
     @Test
     void setPendingAppointment_ShouldChangeStatusToPending() {
-        appointment.setStatus("COMPLETED");
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
-        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(i -> i.getArguments()[0]);
+        appointment.setStatus("CONFIRMED");
+        stubTransitions();
 
         Appointment result = appointmentService.setPendingAppointment(1L);
 
@@ -241,12 +648,46 @@ class AppointmentServiceTest {
         verify(appointmentRepository, times(1)).findByDoctorAndAppointmentDateBetween(doctor, start, end);
     }
 
+    private WaitlistService.SlotOffer claimedOffer() {
+        LocalDateTime slotStart = LocalDateTime.now().plusDays(1).withNano(0);
+        WaitlistService.SlotOffer offer = new WaitlistService.SlotOffer(7L,
+            new WaitlistService.WaitlistEntry(8L, patient, doctor, slotStart.toLocalDate()), slotStart,
+            LocalDateTime.now().plusMinutes(15));
+        when(waitlistService.claimOffer(7L, 1L)).thenReturn(offer);
+        return offer;
+    }
+
+    @Test
+    void claimWaitlistOffer_ShouldBookTheOfferedSlotAndCloseTheOffer() {
+        WaitlistService.SlotOffer offer = claimedOffer();
+        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        Appointment booked = appointmentService.claimWaitlistOffer(7L, 1L);
+
+        assertEquals(offer.getSlotStart(), booked.getAppointmentDate());
+        verify(waitlistService).completeClaim(offer);
+        verify(waitlistService, never()).abandonClaim(any());
+    }
+
+    @Test
+    void claimWaitlistOffer_ShouldPassTheSlotOnWhenTheBookingFails() {
+        WaitlistService.SlotOffer offer = claimedOffer();
+        when(appointmentRepository.save(any(Appointment.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThrows(IllegalStateException.class, () -> appointmentService.claimWaitlistOffer(7L, 1L));
+
+        verify(waitlistService).abandonClaim(offer);
+        verify(waitlistService, never()).completeClaim(any());
+        verify(popularityEngine, never()).recordBookings(any(), anyInt());
+    }
+
     @Test
     void updateAppointment_ShouldModifyAllSpecifiedFields() {
-        Appointment existingApp = new Appointment();
-        existingApp.setId(1L);
-        existingApp.setStatus("PENDING");
-        existingApp.setNotes("Old note");
+        stubTransitions();
+        appointment.setNotes("Old note");
+        when(appointmentRepository.updateDetails(eq(1L), eq("PENDING"), any(), any(), any(), any(), any()))
+            .thenReturn(1);
 
         Doctor newDoctor = new Doctor();
         newDoctor.setId(2L);
@@ -258,9 +699,6 @@ class AppointmentServiceTest {
         details.setStatus("CONFIRMED");
         details.setCost(150.0);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(existingApp));
-        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(i -> i.getArguments()[0]);
-
         Appointment updated = appointmentService.updateAppointment(1L, details);
 
         assertNotNull(updated);
@@ -269,7 +707,82 @@ class AppointmentServiceTest {
         assertEquals(2L, updated.getDoctor().getId());
         assertEquals(150.0, updated.getCost());
         assertNotNull(updated.getUpdatedAt());
-        verify(appointmentRepository, times(1)).save(any(Appointment.class));
+        verify(appointmentRepository).transitionStatus(eq(1L), any(), eq("CONFIRMED"), any());
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+        // The booking moved from doctor 1 to doctor 2
+        verify(popularityEngine).recordReleased(argThat(released -> released.size() == 1
+            && released.iterator().next().getDoctor().getId().equals(1L)));
+        verify(popularityEngine).recordBookings(2L, 1);
+    }
+
+    @Test
+    void updateAppointment_ShouldNotMoveASingleBookingIntoAGroupSession() {
+        appointment.setAppointmentDate(LocalDateTime.now().plusDays(1).withNano(0));
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
+        LocalDateTime groupSession = appointment.getAppointmentDate().plusHours(2);
+        when(slotSeatService.capacityAt(doctor, groupSession)).thenReturn(8);
+
+        assertThrows(IllegalStateException.class,
+            () -> appointmentService.updateAppointment(1L, new Appointment(patient, doctor, groupSession)));
+        verify(appointmentRepository, never()).updateDetails(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void updateAppointment_ShouldNotOverwriteAStatusChangedMeanwhile() {
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
+        when(appointmentRepository.updateDetails(eq(1L), eq("PENDING"), any(), any(), any(), any(), any()))
+            .thenReturn(0);
+        Appointment details = new Appointment(patient, doctor, null);
+        details.setNotes("Edited");
+
+        assertThrows(IllegalStateException.class, () -> appointmentService.updateAppointment(1L, details));
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+        verify(appointmentRepository, never()).transitionStatus(any(), any(), any(), any());
+    }
+
+    @Test
+    void updateAppointment_ShouldCancelThroughTheConditionalTransition() {
+        stubTransitions();
+        when(appointmentRepository.updateDetails(eq(1L), eq("CANCELLED"), any(), any(), any(), any(), any()))
+            .thenReturn(1);
+        appointment.setAppointmentDate(LocalDateTime.now().plusDays(2).withNano(0));
+        Appointment details = new Appointment(patient, doctor, appointment.getAppointmentDate());
+        details.setStatus("CANCELLED");
+
+        Appointment updated = appointmentService.updateAppointment(1L, details);
+
+        assertEquals("CANCELLED", updated.getStatus());
+        verify(popularityEngine).recordReleased(List.of(appointment));
+        verify(slotSeatService).releaseSeats(List.of(appointment));
+        verify(waitlistService).offerReleasedSlot(appointment);
+    }
+
+    @Test
+    void updateAppointment_ShouldSendAReleasedAppointmentBackThroughCheckout() {
+        appointment.setStatus("CANCELLED");
+        LocalDateTime newDate = LocalDateTime.now().plusDays(3).withNano(0);
+        Appointment details = new Appointment(patient, doctor, newDate);
+        details.setStatus("CONFIRMED");
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> appointmentService.updateAppointment(1L, details));
+
+        assertTrue(e.getMessage().contains("book and pay for a new time"));
+        assertEquals("CANCELLED", appointment.getStatus());
+        verify(appointmentRepository, never()).save(any());
+        verify(appointmentRepository, never()).updateDetails(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void updateAppointment_ShouldNotReopenCompletedAppointment() {
+        appointment.setStatus("COMPLETED");
+        Appointment details = new Appointment(patient, doctor, LocalDateTime.now().plusDays(3));
+        details.setStatus("CONFIRMED");
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
+
+        assertThrows(IllegalStateException.class, () -> appointmentService.updateAppointment(1L, details));
+        verify(appointmentRepository, never()).save(any(Appointment.class));
     }
 
     @Test
@@ -280,4 +793,71 @@ class AppointmentServiceTest {
             appointmentService.updateAppointment(99L, new Appointment());
         });
     }
+
+    private Appointment appointmentAt(long id, LocalDateTime date) {
+        Appointment row = new Appointment(patient, doctor, date);
+        row.setId(id);
+        return row;
+    }
+
+    private static Specification<Appointment> anySpecification() {
+        return any();
+    }
+
+    @Test
+    void search_ShouldReturnOnePageAndACursorWhenMoreRowsExist() {
+        LocalDateTime start = LocalDateTime.of(2026, 3, 2, 9, 0);
+        List<Appointment> rows = Arrays.asList(appointmentAt(4L, start), appointmentAt(7L, start.plusHours(1)),
+            appointmentAt(9L, start.plusHours(2)));
+        when(appointmentRepository.findBy(anySpecification(), any())).thenReturn(rows);
+        AppointmentSearchCriteria criteria = new AppointmentSearchCriteria();
+        criteria.setDoctorId(1L);
+        criteria.setLimit(2);
+
+        AppointmentSearchResultDTO page = appointmentService.search(criteria);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(AppointmentService.encodeCursor(rows.get(1)), page.getNextCursor());
+
+        // The cursor goes back in unchanged and the last page carries no cursor
+        when(appointmentRepository.findBy(anySpecification(), any())).thenReturn(List.of(rows.get(2)));
+        criteria.setCursor(page.getNextCursor());
+        AppointmentSearchResultDTO last = appointmentService.search(criteria);
+
+        assertEquals(1, last.getItems().size());
+        assertFalse(last.isHasMore());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void search_ShouldRejectBadParametersBeforeQuerying() {
+        AppointmentSearchCriteria tooMany = new AppointmentSearchCriteria();
+        tooMany.setLimit(AppointmentService.MAX_SEARCH_LIMIT + 1);
+        AppointmentSearchCriteria badCursor = new AppointmentSearchCriteria();
+        badCursor.setCursor("not-a-cursor");
+        AppointmentSearchCriteria badStatus = new AppointmentSearchCriteria();
+        badStatus.setStatuses(List.of("ARCHIVED"));
+        AppointmentSearchCriteria badSort = new AppointmentSearchCriteria();
+        badSort.setSort("sideways");
+
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.search(tooMany));
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.search(badCursor));
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.search(badStatus));
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.search(badSort));
+        verify(appointmentRepository, never()).findBy(anySpecification(), any());
+    }
+
+    @Test
+    void countByStatus_ShouldReturnTheGroupedCountsOfOneDoctor() {
+        when(appointmentRepository.countByStatusForDoctor(1L)).thenReturn(List.of(
+            new Object[] {"COMPLETED", 12L}, new Object[] {"CANCELLED", 3L}));
+
+        Map<String, Long> counts = appointmentService.countByStatus(1L, null);
+
+        assertEquals(Map.of("COMPLETED", 12L, "CANCELLED", 3L), counts);
+        verify(appointmentRepository, never()).findBy(anySpecification(), any());
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.countByStatus(null, null));
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.countByStatus(1L, 2L));
+    }
 }
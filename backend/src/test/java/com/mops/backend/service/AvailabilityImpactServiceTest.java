@@ -0,0 +1,171 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mops.backend.dto.AvailabilityImpactDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Availability;
+import com.mops.backend.model.AvailabilityOverride;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.User;
+import com.mops.backend.repository.AppointmentRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityImpactServiceTest {
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private AvailabilityOverrideService overrideService;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Spy
+    private SlotLockRegistry slotLockRegistry = new SlotLockRegistry();
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private AvailabilityImpactService impactService;
+
+    private Doctor doctor;
+    private Availability monday;
+    private LocalDate nextMonday;
+    private Appointment morning;
+    private Appointment afternoon;
+
+    @BeforeEach
+    void setUp() {
+        doctor = new Doctor();
+        doctor.setId(1L);
+
+        monday = new Availability(doctor, "1", LocalTime.of(9, 0), LocalTime.of(17, 0));
+        monday.setId(10L);
+        lenient().when(availabilityService.getAvailabilityById(10L)).thenReturn(Optional.of(monday));
+        lenient().when(overrideService.getIndex(doctor)).thenReturn(OverrideIndex.EMPTY);
+
+        nextMonday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        morning = booking(1L, nextMonday.atTime(10, 0).toLocalTime());
+        afternoon = booking(2L, nextMonday.atTime(15, 0).toLocalTime());
+    }
+
+    private Appointment booking(Long id, LocalTime time) {
+        User patient = new User();
+        patient.setId(id + 100);
+        Appointment appointment = new Appointment(patient, doctor, nextMonday.atTime(time));
+        appointment.setId(id);
+        appointment.setStatus("CONFIRMED");
+        return appointment;
+    }
+
+    private void stubBookingsInWindow(List<Appointment> bookings) {
+        when(appointmentRepository.findUpcomingInWeeklyWindow(eq(1L), any(), eq(1),
+            eq(LocalTime.of(9, 0)), eq(LocalTime.of(17, 0)), any())).thenReturn(bookings);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void previewUpdate_ShouldReportBookingsOutsideTheShorterWindowWithoutChangingAnything() {
+        stubBookingsInWindow(List.of(morning, afternoon));
+        when(availabilityService.getActiveAvailabilitiesByDoctor(doctor)).thenReturn(List.of(monday));
+        Availability shorter = new Availability(doctor, "1", LocalTime.of(9, 0), LocalTime.of(12, 0));
+
+        AvailabilityImpactDTO impact = impactService.previewUpdate(10L, shorter);
+
+        assertFalse(impact.isApplied());
+        assertEquals(List.of(afternoon), impact.getAffected());
+        assertEquals("CONFIRMED", afternoon.getStatus());
+        verify(availabilityService, never()).updateAvailability(any(), any());
+        verify(appointmentRepository, never()).markNeedsReschedule(any(), any(), any(), any());
+    }
+
+    @Test
+    void applyDelete_ShouldKeepBookingsCoveredElsewhereAndFlagTheRestInOneUpdate() {
+        runTransactionsInline();
+        stubBookingsInWindow(List.of(morning, afternoon));
+        Availability otherMondayWindow = new Availability(doctor, "MONDAY", LocalTime.of(14, 0), LocalTime.of(18, 0));
+        otherMondayWindow.setId(11L);
+        Availability tuesday = new Availability(doctor, "2", LocalTime.of(9, 0), LocalTime.of(17, 0));
+        tuesday.setId(12L);
+        when(availabilityService.getActiveAvailabilitiesByDoctor(doctor)).thenReturn(List.of(monday, otherMondayWindow, tuesday));
+        when(appointmentRepository.markNeedsReschedule(eq(List.of(1L)), any(), eq("NEEDS_RESCHEDULE"), any())).thenReturn(1);
+
+        AvailabilityImpactDTO impact = impactService.applyDelete(10L);
+
+        assertTrue(impact.isApplied());
+        assertEquals(1, impact.getAffectedCount());
+        assertEquals("NEEDS_RESCHEDULE", morning.getStatus());
+        assertEquals("CONFIRMED", afternoon.getStatus());
+        assertEquals("CONFIRMED", morning.getPreviousStatus());
+        verify(availabilityService).deleteAvailability(10L);
+        verify(appointmentRepository, times(1)).markNeedsReschedule(any(), any(), any(), any());
+    }
+
+    @Test
+    void applyToggle_ShouldTreatAnExtraSessionAsCover() {
+        runTransactionsInline();
+        stubBookingsInWindow(List.of(morning));
+        when(availabilityService.getActiveAvailabilitiesByDoctor(doctor)).thenReturn(List.of(monday));
+        when(overrideService.getIndex(doctor)).thenReturn(OverrideIndex.compile(List.of(new AvailabilityOverride(
+            doctor, AvailabilityOverride.EXTRA, nextMonday, nextMonday, LocalTime.of(10, 0), LocalTime.of(11, 0)))));
+        when(availabilityService.toggleAvailabilityStatus(10L)).thenReturn(monday);
+
+        AvailabilityImpactDTO impact = impactService.applyToggle(10L);
+
+        assertEquals(0, impact.getAffectedCount());
+        verify(appointmentRepository, never()).markNeedsReschedule(any(), any(), any(), any());
+    }
+
+    @Test
+    void affectedByReplacing_ShouldKeepBookingsTheNewScheduleStillCovers() {
+        stubBookingsInWindow(List.of(morning, afternoon));
+        Availability newMorning = new Availability(doctor, "MONDAY", LocalTime.of(8, 0), LocalTime.of(12, 0));
+        Availability newTuesday = new Availability(doctor, "2", LocalTime.of(13, 0), LocalTime.of(17, 0));
+
+        List<Appointment> affected = impactService.affectedByReplacing(doctor, List.of(monday),
+            List.of(newMorning, newTuesday));
+
+        assertEquals(List.of(afternoon), affected);
+        assertEquals("CONFIRMED", afternoon.getStatus());
+        verify(appointmentRepository, never()).markNeedsReschedule(any(), any(), any(), any());
+    }
+
+    @Test
+    void inactiveWindow_ShouldNotQueryAppointments() {
+        monday.setIsActive(false);
+
+        AvailabilityImpactDTO impact = impactService.previewToggle(10L);
+
+        assertEquals(0, impact.getAffectedCount());
+        verify(appointmentRepository, never()).findUpcomingInWeeklyWindow(any(), any(), anyInt(), any(), any(), any());
+    }
+}
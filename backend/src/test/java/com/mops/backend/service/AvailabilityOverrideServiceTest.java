@@ -0,0 +1,152 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.mops.backend.model.AvailabilityOverride;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.repository.AvailabilityOverrideRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityOverrideServiceTest {
+
+    @Mock
+    private AvailabilityOverrideRepository overrideRepository;
+
+    @InjectMocks
+    private AvailabilityOverrideService overrideService;
+
+    private Doctor doctor;
+    private LocalDate day;
+
+    @BeforeEach
+    void setUp() {
+        doctor = new Doctor();
+        doctor.setId(1L);
+
+        day = LocalDate.of(2030, 3, 4);
+    }
+
+    private AvailabilityOverride blocked(LocalDate from, LocalDate to) {
+        return new AvailabilityOverride(doctor, AvailabilityOverride.BLOCKED, from, to, null, null);
+    }
+
+    private AvailabilityOverride timed(String type, LocalDate date, int startHour, int endHour) {
+        return new AvailabilityOverride(doctor, type, date, date, LocalTime.of(startHour, 0), LocalTime.of(endHour, 0));
+    }
+
+    @Test
+    void createOverride_ShouldSaveAndDefaultEndDate() {
+        AvailabilityOverride override = blocked(day, null);
+        when(overrideRepository.save(override)).thenReturn(override);
+
+        AvailabilityOverride result = overrideService.createOverride(override);
+
+        assertEquals(day, result.getEndDate());
+        verify(overrideRepository).save(override);
+    }
+
+    @Test
+    void createOverride_ShouldRejectInvalidRules() {
+        assertThrows(IllegalArgumentException.class,
+            () -> overrideService.createOverride(new AvailabilityOverride(doctor, "HOLIDAY", day, day, null, null)));
+        assertThrows(IllegalArgumentException.class,
+            () -> overrideService.createOverride(blocked(day, day.minusDays(1))));
+        assertThrows(IllegalArgumentException.class,
+            () -> overrideService.createOverride(new AvailabilityOverride(doctor, AvailabilityOverride.EXTRA, day, day, null, null)));
+        assertThrows(IllegalArgumentException.class,
+            () -> overrideService.createOverride(timed(AvailabilityOverride.BLOCKED, day, 12, 9)));
+        assertThrows(IllegalArgumentException.class,
+            () -> overrideService.createOverride(new AvailabilityOverride(doctor, AvailabilityOverride.BLOCKED,
+                day, day.plusYears(2), LocalTime.of(9, 0), LocalTime.of(10, 0))));
+        verify(overrideRepository, never()).save(any());
+    }
+
+    @Test
+    void updateOverride_ShouldThrowWhenMissing() {
+        when(overrideRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> overrideService.updateOverride(99L, blocked(day, day)));
+    }
+
+    @Test
+    void getIndex_ShouldCompileOnceUntilRulesChange() {
+        AvailabilityOverride override = blocked(day, day);
+        when(overrideRepository.findByDoctorId(1L)).thenReturn(List.of(override));
+        when(overrideRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OverrideIndex first = overrideService.getIndex(doctor);
+        assertSame(first, overrideService.getIndex(doctor));
+
+        overrideService.createOverride(timed(AvailabilityOverride.EXTRA, day.plusDays(1), 9, 10));
+        assertNull(overrideService.peekIndex(1L));
+        assertNotSame(first, overrideService.getIndex(doctor));
+        verify(overrideRepository, times(2)).findByDoctorId(1L);
+    }
+
+    @Test
+    void getIndexes_ShouldLoadMissingDoctorsWithOneQuery() {
+        Doctor other = new Doctor();
+        other.setId(2L);
+        when(overrideRepository.findByDoctorIn(List.of(doctor, other))).thenReturn(List.of(blocked(day, day)));
+
+        Map<Long, OverrideIndex> result = overrideService.getIndexes(List.of(doctor, other));
+
+        assertTrue(result.get(1L).isBlocked(day.atTime(9, 0), day.atTime(10, 0)));
+        assertSame(OverrideIndex.EMPTY, result.get(2L));
+        assertSame(result.get(1L), overrideService.getIndexes(List.of(doctor)).get(1L));
+        verify(overrideRepository, times(1)).findByDoctorIn(any());
+    }
+
+    @Test
+    void index_ShouldMergeOverlappingBlocksAndExpandExtras() {
+        OverrideIndex index = OverrideIndex.compile(List.of(
+            blocked(day, day.plusDays(2)),
+            blocked(day.plusDays(2), day.plusDays(4)),
+            timed(AvailabilityOverride.BLOCKED, day.plusDays(10), 9, 12),
+            timed(AvailabilityOverride.EXTRA, day.plusDays(6), 18, 20)));
+
+        assertTrue(index.isBlocked(day.plusDays(4).atTime(23, 0), day.plusDays(5).atStartOfDay()));
+        assertFalse(index.isBlocked(day.plusDays(5).atTime(9, 0), day.plusDays(5).atTime(10, 0)));
+        assertTrue(index.isBlocked(day.plusDays(10).atTime(11, 0), day.plusDays(10).atTime(13, 0)));
+        assertFalse(index.isBlocked(day.plusDays(10).atTime(12, 0), day.plusDays(10).atTime(13, 0)));
+        assertEquals(1, index.extrasOn(day.plusDays(6)).size());
+        assertTrue(index.extrasOn(day.plusDays(7)).isEmpty());
+        assertEquals(2, index.blockedBetween(day.plusDays(3).atStartOfDay(), day.plusDays(20).atStartOfDay()).size());
+    }
+
+    @Test
+    void index_ShouldAnswerLookupsAcrossManyRules() {
+        List<AvailabilityOverride> rules = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rules.add(timed(AvailabilityOverride.BLOCKED, day.plusDays(i), 12, 13));
+        }
+        OverrideIndex index = OverrideIndex.compile(rules);
+
+        int blockedCount = 0;
+        for (int i = 0; i < 5000; i++) {
+            if (index.isBlocked(day.plusDays(i).atTime(12, 30), day.plusDays(i).atTime(14, 0))) {
+                blockedCount++;
+            }
+        }
+
+        assertEquals(5000, blockedCount);
+        assertEquals(5000, index.size());
+        assertFalse(index.isBlocked(day.plusDays(5000).atTime(12, 30), day.plusDays(5000).atTime(14, 0)));
+    }
+}
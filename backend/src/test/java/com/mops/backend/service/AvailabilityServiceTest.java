@@ -5,6 +5,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -12,8 +13,10 @@ import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.mops.backend.model.Availability;
@@ -26,6 +29,12 @@ class AvailabilityServiceTest {
     @Mock
     private AvailabilityRepository availabilityRepository;
 
+    @Mock
+    private OccupancyCalendar occupancyCalendar;
+
+    @Spy
+    private SlotLockRegistry slotLockRegistry = new SlotLockRegistry();
+
     @InjectMocks
     private AvailabilityService availabilityService;
 
@@ -57,6 +66,142 @@ class AvailabilityServiceTest {
         verify(availabilityRepository, times(1)).save(availability);
     }
 
+    private Availability window(Long id, String day, int startHour, int startMinute, int endHour, int endMinute) {
+        Availability window = new Availability(doctor, day, LocalTime.of(startHour, startMinute), LocalTime.of(endHour, endMinute));
+        window.setId(id);
+        window.setIsActive(true);
+        return window;
+    }
+
+    @Test
+    void createAvailability_ShouldRejectOverlapWithExistingWindow() {
+        when(availabilityRepository.findByDoctorInAndIsActiveTrue(List.of(doctor)))
+            .thenReturn(List.of(window(5L, "1", 9, 0, 10, 0)));
+
+        assertThrows(IllegalStateException.class,
+            () -> availabilityService.createAvailability(window(null, "Monday", 9, 30, 10, 30)));
+        verify(availabilityRepository, never()).save(any());
+    }
+
+    @Test
+    void createAvailability_ShouldAllowTouchingWindows() {
+        when(availabilityRepository.findByDoctorInAndIsActiveTrue(List.of(doctor)))
+            .thenReturn(List.of(window(5L, "1", 9, 0, 10, 0)));
+        when(availabilityRepository.save(any(Availability.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        Availability saved = availabilityService.createAvailability(window(null, "1", 10, 0, 11, 0));
+
+        assertEquals(LocalTime.of(10, 0), saved.getStartTime());
+    }
+
+    @Test
+    void createAvailability_ShouldMergeIntoExistingWindow() {
+        Availability existing = window(5L, "1", 9, 0, 10, 0);
+        when(availabilityRepository.findByDoctorInAndIsActiveTrue(List.of(doctor))).thenReturn(List.of(existing));
+        when(availabilityRepository.save(any(Availability.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        Availability saved = availabilityService.createAvailability(window(null, "1", 9, 30, 10, 30), true);
+
+        assertEquals(5L, saved.getId());
+        assertEquals(LocalTime.of(9, 0), saved.getStartTime());
+        assertEquals(LocalTime.of(10, 30), saved.getEndTime());
+        // The merge is written through a copy; the loaded row is left as it was
+        assertNotSame(existing, saved);
+        assertEquals(LocalTime.of(10, 0), existing.getEndTime());
+    }
+
+    @Test
+    void createAvailability_ShouldNotRewriteStoredRowsThatAlreadyOverlap() {
+        Availability first = window(5L, "1", 9, 0, 11, 0);
+        Availability second = window(6L, "1", 10, 0, 12, 0);
+        when(availabilityRepository.findByDoctorInAndIsActiveTrue(List.of(doctor))).thenReturn(List.of(first, second));
+        when(availabilityRepository.save(any(Availability.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        availabilityService.createAvailability(window(null, "1", 14, 0, 15, 0), true);
+
+        assertEquals(LocalTime.of(11, 0), first.getEndTime());
+        assertEquals(LocalTime.of(10, 0), second.getStartTime());
+        verify(availabilityRepository, times(1)).save(any());
+        verify(availabilityRepository).deleteAll(List.of());
+    }
+
+    @Test
+    void createAvailability_ShouldAbsorbOverlappingStoredRowsOnlyWhenMergedInto() {
+        Availability first = window(5L, "1", 9, 0, 11, 0);
+        Availability second = window(6L, "1", 10, 0, 12, 0);
+        when(availabilityRepository.findByDoctorInAndIsActiveTrue(List.of(doctor))).thenReturn(List.of(first, second));
+        when(availabilityRepository.save(any(Availability.class))).thenAnswer(i -> i.getArguments()[0]);
+        ArgumentCaptor<Iterable<Availability>> deleted = ArgumentCaptor.captor();
+
+        Availability saved = availabilityService.createAvailability(window(null, "1", 11, 30, 13, 0), true);
+
+        assertEquals(5L, saved.getId());
+        assertEquals(LocalTime.of(9, 0), saved.getStartTime());
+        assertEquals(LocalTime.of(13, 0), saved.getEndTime());
+        verify(availabilityRepository).deleteAll(deleted.capture());
+        List<Long> deletedIds = new ArrayList<>();
+        deleted.getValue().forEach(row -> deletedIds.add(row.getId()));
+        assertEquals(List.of(6L), deletedIds);
+        assertEquals(LocalTime.of(11, 0), first.getEndTime());
+    }
+
+    @Test
+    void createAvailabilities_ShouldRejectDuplicatesInsideBatch() {
+        List<Availability> batch = List.of(window(null, "2", 9, 0, 10, 0), window(null, "Tuesday", 9, 0, 10, 0));
+
+        assertThrows(IllegalStateException.class, () -> availabilityService.createAvailabilities(batch, false));
+        verify(availabilityRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void createAvailabilities_ShouldMergeBatchAndDeleteSwallowedRows() {
+        Availability first = window(5L, "3", 9, 0, 10, 0);
+        Availability second = window(6L, "3", 11, 0, 12, 0);
+        when(availabilityRepository.findByDoctorInAndIsActiveTrue(List.of(doctor))).thenReturn(List.of(first, second));
+        when(availabilityRepository.saveAll(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        List<Availability> saved = availabilityService.createAvailabilities(
+            List.of(window(null, "3", 9, 30, 11, 30), window(null, "3", 14, 0, 15, 0)), true);
+
+        assertEquals(2, saved.size());
+        assertEquals(5L, saved.get(0).getId());
+        assertEquals(LocalTime.of(9, 0), saved.get(0).getStartTime());
+        assertEquals(LocalTime.of(12, 0), saved.get(0).getEndTime());
+        assertEquals(LocalTime.of(10, 0), first.getEndTime());
+        verify(availabilityRepository).deleteAll(argThat(rows -> {
+            List<Long> ids = new ArrayList<>();
+            rows.forEach(row -> ids.add(row.getId()));
+            return ids.equals(List.of(6L));
+        }));
+    }
+
+    @Test
+    void createAvailabilities_ShouldLoadExistingWindowsOnceForLargeBatch() {
+        List<Availability> batch = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            for (int minute = 0; minute < 24 * 60 - 10; minute += 10) {
+                batch.add(window(null, String.valueOf(day), minute / 60, minute % 60, (minute + 10) / 60, (minute + 10) % 60));
+            }
+        }
+        when(availabilityRepository.saveAll(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        List<Availability> saved = availabilityService.createAvailabilities(batch, false);
+
+        assertEquals(batch.size(), saved.size());
+        verify(availabilityRepository, times(1)).findByDoctorInAndIsActiveTrue(any());
+        verify(availabilityRepository, never()).findByDoctorAndDayOfWeek(any(), any());
+    }
+
+    @Test
+    void toggleAvailabilityStatus_ShouldRejectReactivatingOverlappingWindow() {
+        availability.setIsActive(false);
+        when(availabilityRepository.findById(1L)).thenReturn(Optional.of(availability));
+        when(availabilityRepository.findByDoctorInAndIsActiveTrue(List.of(doctor)))
+            .thenReturn(List.of(window(5L, "Monday", 12, 0, 13, 0)));
+
+        assertThrows(IllegalStateException.class, () -> availabilityService.toggleAvailabilityStatus(1L));
+    }
+
     @Test
     void getAllAvailabilities_ShouldReturnAllAvailabilities() {
         List<Availability> availabilities = Arrays.asList(availability, new Availability());
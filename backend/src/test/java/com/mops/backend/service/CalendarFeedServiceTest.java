@@ -0,0 +1,130 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mops.backend.repository.CalendarFeedRepository;
+import com.mops.backend.repository.CalendarFeedRepository.CalendarEventRow;
+import com.mops.backend.repository.CalendarFeedRepository.FeedOwner;
+
+@ExtendWith(MockitoExtension.class)
+class CalendarFeedServiceTest {
+
+    @Mock
+    private CalendarFeedRepository calendarFeedRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private CalendarFeedService calendarFeedService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(calendarFeedService, "feedSecret", "test-secret");
+        calendarFeedService.init();
+    }
+
+    @Test
+    void init_ShouldRefuseToStartWithoutASecret() {
+        ReflectionTestUtils.setField(calendarFeedService, "feedSecret", " ");
+
+        assertThrows(IllegalStateException.class, () -> calendarFeedService.init());
+    }
+
+    @Test
+    void feedPath_ShouldPointAtTheOwnersFeedWithItsToken() {
+        assertEquals("/api/calendar/doctors/7/appointments.ics?token="
+                + calendarFeedService.feedToken(FeedOwner.DOCTOR, 7L),
+                calendarFeedService.feedPath(FeedOwner.DOCTOR, 7L));
+        assertEquals("/api/calendar/patients/3/appointments.ics?token="
+                + calendarFeedService.feedToken(FeedOwner.PATIENT, 3L),
+                calendarFeedService.feedPath(FeedOwner.PATIENT, 3L));
+    }
+
+    @Test
+    void feedToken_ShouldOnlyOpenTheFeedItWasIssuedFor() {
+        String token = calendarFeedService.feedToken(FeedOwner.DOCTOR, 7L);
+
+        assertTrue(calendarFeedService.isValidToken(FeedOwner.DOCTOR, 7L, token));
+        assertFalse(calendarFeedService.isValidToken(FeedOwner.DOCTOR, 8L, token));
+        assertFalse(calendarFeedService.isValidToken(FeedOwner.PATIENT, 7L, token));
+        assertFalse(calendarFeedService.isValidToken(FeedOwner.DOCTOR, 7L, null));
+    }
+
+    @Test
+    void etag_ShouldFollowTheWindowSummaryAndTheDay() {
+        LocalDate today = LocalDate.of(2026, 3, 10);
+        when(calendarFeedRepository.fingerprint(eq(FeedOwner.DOCTOR), eq(1L), any(), any()))
+            .thenReturn("3:2:2026-03-09 10:00:00.0:42", "3:2:2026-03-09 10:00:00.0:42", "4:3:2026-03-10 08:00:00.0:57");
+
+        String first = calendarFeedService.etag(FeedOwner.DOCTOR, 1L, today);
+        assertEquals(first, calendarFeedService.etag(FeedOwner.DOCTOR, 1L, today));
+        assertNotEquals(first, calendarFeedService.etag(FeedOwner.DOCTOR, 1L, today));
+        assertTrue(first.startsWith("\"") && first.endsWith("\""));
+
+        when(calendarFeedRepository.fingerprint(eq(FeedOwner.DOCTOR), eq(1L), any(), any())).thenReturn("0:0:null:0");
+        assertNotEquals(calendarFeedService.etag(FeedOwner.DOCTOR, 1L, today),
+            calendarFeedService.etag(FeedOwner.DOCTOR, 1L, today.plusDays(1)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeFeed_ShouldStreamEachRowAsAnEvent() throws Exception {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        doAnswer(invocation -> {
+            Consumer<CalendarEventRow> consumer = invocation.getArgument(4);
+            LocalDateTime start = LocalDateTime.of(2026, 3, 12, 9, 0);
+            consumer.accept(new CalendarEventRow(11L, start, "CONFIRMED", start.minusDays(2),
+                "Ana", "Pop", "Cardiology", "Ion", "Ionescu, Jr."));
+            consumer.accept(new CalendarEventRow(12L, start.plusHours(1), "PENDING", null,
+                "Ana", "Pop", "Cardiology", "Maria", "Dan"));
+            return null;
+        }).when(calendarFeedRepository).streamEvents(eq(FeedOwner.DOCTOR), eq(1L), any(), any(), any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        calendarFeedService.writeFeed(FeedOwner.DOCTOR, 1L, LocalDate.of(2026, 3, 10), out);
+        String feed = out.toString(StandardCharsets.UTF_8);
+
+        assertTrue(feed.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(feed.endsWith("END:VCALENDAR\r\n"));
+        assertEquals(2, feed.split("BEGIN:VEVENT", -1).length - 1);
+        assertTrue(feed.contains("UID:appointment-11@mops\r\n"));
+        assertTrue(feed.contains("SUMMARY:Appointment with Ion Ionescu\\, Jr.\r\n"));
+        assertTrue(feed.contains("STATUS:CONFIRMED\r\n"));
+        assertTrue(feed.contains("STATUS:TENTATIVE\r\n"));
+    }
+
+    @Test
+    void line_ShouldFoldLongLinesWithoutSplittingCharacters() throws Exception {
+        StringWriter writer = new StringWriter();
+        CalendarFeedService.line(writer, "SUMMARY:" + "ă".repeat(60));
+
+        String[] lines = writer.toString().split("\r\n");
+        assertTrue(lines.length > 1);
+        for (String line : lines) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75);
+        }
+        assertEquals("SUMMARY:" + "ă".repeat(60), writer.toString().replace("\r\n ", "").replace("\r\n", ""));
+    }
+}
@@ -0,0 +1,98 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.mops.backend.dto.CatalogCacheStatsDTO;
+
+class CatalogCacheTest {
+
+    private final CatalogCache catalogCache = new CatalogCache();
+
+    private List<Integer> items(int count) {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+
+    @Test
+    void getList_ShouldEvictTheLeastRecentlyUsedEntryByWeight() {
+        ReflectionTestUtils.setField(catalogCache, "maxWeight", 20L);
+        AtomicInteger loads = new AtomicInteger();
+
+        catalogCache.getList("a", () -> { loads.incrementAndGet(); return items(3); }, 3);
+        catalogCache.getList("b", () -> { loads.incrementAndGet(); return items(1); }, 3);
+        catalogCache.getList("a", () -> { loads.incrementAndGet(); return items(3); }, 3);
+        // 10 + 4 + 7 > 20, so "b", the least recently used, goes
+        catalogCache.getList("c", () -> { loads.incrementAndGet(); return items(6); }, 1);
+        catalogCache.getList("a", () -> { loads.incrementAndGet(); return items(3); }, 3);
+        // Heavier than the whole cache: served but never stored
+        catalogCache.getList("huge", () -> { loads.incrementAndGet(); return items(30); }, 1);
+
+        CatalogCacheStatsDTO stats = catalogCache.getStats();
+        assertEquals(4, loads.get());
+        assertEquals(2, stats.getEntries());
+        assertEquals(17, stats.getWeight());
+        assertEquals(2, stats.getHits());
+        assertEquals(4, stats.getMisses());
+        assertEquals(1, stats.getEvictions());
+    }
+
+    @Test
+    void getList_ShouldNotStoreALoadThatOverlappedAnInvalidation() {
+        List<Integer> loaded = catalogCache.getList(CatalogCache.ALL_DOCTORS, () -> {
+            // A doctor is saved while the old listing is still being read
+            catalogCache.invalidateDoctors();
+            return items(2);
+        }, CatalogCache.DOCTOR_WEIGHT);
+
+        assertEquals(2, loaded.size());
+        assertEquals(0, catalogCache.getStats().getEntries());
+        assertThrows(UnsupportedOperationException.class, () -> loaded.add(3));
+    }
+
+    @Test
+    void getOne_ShouldNotCacheMissingRows() {
+        AtomicInteger loads = new AtomicInteger();
+
+        catalogCache.getOne(CatalogCache.specialtyKey(9L), () -> { loads.incrementAndGet(); return Optional.empty(); }, 1);
+        Optional<String> found = catalogCache.getOne(CatalogCache.specialtyKey(9L),
+                () -> { loads.incrementAndGet(); return Optional.of("Cardiology"); }, 1);
+        catalogCache.getOne(CatalogCache.specialtyKey(9L), () -> { loads.incrementAndGet(); return Optional.empty(); }, 1);
+
+        assertEquals(Optional.of("Cardiology"), found);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldDropTheKeysAgainAfterCommit() {
+        catalogCache.getList(CatalogCache.ALL_SPECIALTIES, () -> items(1), CatalogCache.SPECIALTY_WEIGHT);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            catalogCache.invalidateSpecialty(1L);
+            // A reader re-caches the not yet committed state
+            catalogCache.getList(CatalogCache.ALL_SPECIALTIES, () -> items(1), CatalogCache.SPECIALTY_WEIGHT);
+            assertEquals(1, catalogCache.getStats().getEntries());
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, catalogCache.getStats().getEntries());
+        assertEquals(2, catalogCache.getStats().getInvalidations());
+    }
+}
@@ -0,0 +1,217 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.Specialty;
+import com.mops.backend.model.User;
+import com.mops.backend.service.CatalogResponseCache.EncodedResponse;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogResponseCacheTest {
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Spy
+    private CatalogCache catalogCache = new CatalogCache();
+
+    @Mock
+    private DoctorService doctorService;
+
+    @Mock
+    private SpecialtyService specialtyService;
+
+    @InjectMocks
+    private CatalogResponseCache catalogResponseCache;
+
+    private List<Doctor> doctors(int count) {
+        List<Specialty> specialties = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            Specialty specialty = new Specialty("Specialty " + id, "Description of specialty " + id);
+            specialty.setId(id);
+            specialties.add(specialty);
+        }
+        List<Doctor> doctors = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            User user = new User();
+            user.setId(id);
+            user.setEmail("doctor" + id + "@mops.ro");
+            user.setFirstName("First" + id);
+            user.setLastName("Last" + id);
+            user.setRole("DOCTOR");
+            Doctor doctor = new Doctor();
+            doctor.setId(id);
+            doctor.setUser(user);
+            doctor.setSpecialty(specialties.get((int) (id % specialties.size())));
+            doctor.setDescription("Doctor number " + id);
+            doctor.setExperienceYears((int) (id % 30));
+            doctor.setPopularity((int) (id % 100));
+            doctors.add(doctor);
+        }
+        return doctors;
+    }
+
+    // Counts the body instead of buffering it, so the benchmark measures the handler rather than the mock
+    private static final class DiscardingResponse extends MockHttpServletResponse {
+        private long written;
+
+        private final ServletOutputStream out = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                written++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                written += len;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return out;
+        }
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void activeDoctors_ShouldEncodeOncePerCatalogGeneration() throws Exception {
+        List<Doctor> doctors = doctors(3);
+        when(doctorService.getActiveDoctors()).thenReturn(doctors);
+
+        EncodedResponse first = catalogResponseCache.activeDoctors();
+        EncodedResponse second = catalogResponseCache.activeDoctors();
+
+        assertSame(first, second);
+        assertArrayEquals(objectMapper.writeValueAsBytes(doctors), first.json());
+        assertArrayEquals(first.json(), gunzip(first.gzip()));
+        verify(doctorService, times(1)).getActiveDoctors();
+
+        catalogCache.invalidateDoctors();
+        EncodedResponse third = catalogResponseCache.activeDoctors();
+        assertNotSame(first, third);
+        verify(doctorService, times(2)).getActiveDoctors();
+    }
+
+    @Test
+    void write_ShouldPickTheEncodingAndAnswerRevalidationsWithoutABody() throws Exception {
+        when(specialtyService.getAllSpecialties()).thenReturn(List.of(new Specialty("Cardiology", "Heart")));
+        EncodedResponse encoded = catalogResponseCache.allSpecialties();
+
+        MockHttpServletRequest plainRequest = new MockHttpServletRequest();
+        MockHttpServletResponse plain = new MockHttpServletResponse();
+        catalogResponseCache.write(encoded, plainRequest, plain);
+        assertArrayEquals(encoded.json(), plain.getContentAsByteArray());
+        assertNull(plain.getHeader("Content-Encoding"));
+        assertEquals(encoded.etag(), plain.getHeader("ETag"));
+        assertEquals("application/json", plain.getContentType());
+
+        MockHttpServletRequest gzipRequest = new MockHttpServletRequest();
+        gzipRequest.addHeader("Accept-Encoding", "br;q=1.0, gzip;q=0.8");
+        MockHttpServletResponse gzipped = new MockHttpServletResponse();
+        catalogResponseCache.write(encoded, gzipRequest, gzipped);
+        assertArrayEquals(encoded.gzip(), gzipped.getContentAsByteArray());
+        assertEquals("gzip", gzipped.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", gzipped.getHeader("Vary"));
+
+        MockHttpServletRequest revalidation = new MockHttpServletRequest();
+        revalidation.addHeader("Accept-Encoding", "gzip");
+        revalidation.addHeader("If-None-Match", encoded.gzipEtag());
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        catalogResponseCache.write(encoded, revalidation, notModified);
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+    }
+
+    @Test
+    void acceptsGzip_ShouldHonourExplicitRefusals() {
+        assertTrue(CatalogResponseCache.acceptsGzip("gzip, deflate, br"));
+        assertTrue(CatalogResponseCache.acceptsGzip("deflate,GZIP"));
+        assertTrue(CatalogResponseCache.acceptsGzip("*"));
+        assertTrue(CatalogResponseCache.acceptsGzip("gzip;q=0.5"));
+        assertFalse(CatalogResponseCache.acceptsGzip(null));
+        assertFalse(CatalogResponseCache.acceptsGzip("identity"));
+        assertFalse(CatalogResponseCache.acceptsGzip("gzip;q=0"));
+        assertFalse(CatalogResponseCache.acceptsGzip("gzip;q=0.000, br"));
+        assertFalse(CatalogResponseCache.acceptsGzip("x-gzip"));
+    }
+
+    @Test
+    void activeDoctors_ShouldServeFarFasterThanSerializingEveryRequest() throws Exception {
+        List<Doctor> doctors = doctors(500);
+        when(doctorService.getActiveDoctors()).thenReturn(doctors);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "gzip");
+        int requests = 500;
+        DiscardingResponse response = new DiscardingResponse();
+        // A plain mapper for the old path, so the spy's interception does not slow the baseline down
+        ObjectMapper jackson = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        // Warm both paths up before timing them
+        for (int i = 0; i < 100; i++) {
+            jackson.writeValue(OutputStream.nullOutputStream(), doctors);
+            catalogResponseCache.write(catalogResponseCache.activeDoctors(), request, response);
+        }
+
+        long started = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            // What Spring MVC did per request before: serialize the whole entity graph
+            jackson.writeValue(OutputStream.nullOutputStream(), doctorService.getActiveDoctors());
+        }
+        long serializedMicros = (System.nanoTime() - started) / 1000;
+
+        response.written = 0;
+        started = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            catalogResponseCache.write(catalogResponseCache.activeDoctors(), request, response);
+        }
+        long cachedMicros = (System.nanoTime() - started) / 1000;
+
+        EncodedResponse encoded = catalogResponseCache.activeDoctors();
+        System.out.println("[bench] " + requests + " GET /api/doctors/active with 500 doctors: Jackson per request "
+                + serializedMicros + " us, pre-encoded gzip " + cachedMicros + " us ("
+                + encoded.json().length + " -> " + encoded.gzip().length + " bytes)");
+
+        verify(objectMapper, times(1)).writeValueAsBytes(any());
+        assertEquals((long) requests * encoded.gzip().length, response.written);
+        assertTrue(encoded.gzip().length < encoded.json().length / 4);
+    }
+}
@@ -0,0 +1,131 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.mops.backend.dto.LeaderboardEntryDTO;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.Specialty;
+import com.mops.backend.repository.DoctorRepository;
+
+@ExtendWith(MockitoExtension.class)
+class DoctorLeaderboardTest {
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @InjectMocks
+    private DoctorLeaderboard doctorLeaderboard;
+
+    private final List<Object[]> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(doctorRepository.findLeaderboardInputs()).thenReturn(rows);
+    }
+
+    private void active(long doctorId, long specialtyId, int popularity) {
+        rows.add(new Object[] {doctorId, specialtyId, popularity});
+    }
+
+    private Doctor doctor(long doctorId, long specialtyId, int popularity, boolean active) {
+        Specialty specialty = new Specialty();
+        specialty.setId(specialtyId);
+        Doctor doctor = new Doctor();
+        doctor.setId(doctorId);
+        doctor.setSpecialty(specialty);
+        doctor.setPopularity(popularity);
+        doctor.setIsActive(active);
+        return doctor;
+    }
+
+    @Test
+    void getPage_ShouldRankByScoreThenIdAndLoadOnlyOnce() {
+        active(1L, 1L, 40);
+        active(2L, 1L, 90);
+        active(3L, 1L, 40);
+        active(4L, 2L, 100);
+
+        assertEquals(List.of(2L, 1L, 3L), doctorLeaderboard.getRankedDoctorIds(1L));
+        assertEquals(List.of(new LeaderboardEntryDTO(2, 1L, 40), new LeaderboardEntryDTO(3, 3L, 40)),
+                doctorLeaderboard.getPage(1L, 1, 5));
+        assertTrue(doctorLeaderboard.getPage(3L, 0, 10).isEmpty());
+        verify(doctorRepository, times(1)).findLeaderboardInputs();
+    }
+
+    @Test
+    void getPage_ShouldRejectBadPaging() {
+        assertThrows(IllegalArgumentException.class, () -> doctorLeaderboard.getPage(1L, -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> doctorLeaderboard.getPage(1L, 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> doctorLeaderboard.getPage(1L, 0, DoctorLeaderboard.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void updatesAndEdits_ShouldMoveDoctorsWithoutReloading() {
+        active(1L, 1L, 80);
+        active(2L, 1L, 60);
+        doctorLeaderboard.rebuild();
+
+        doctorLeaderboard.updateScores(Map.of(2L, 85, 9L, 99));
+        assertEquals(List.of(2L, 1L), doctorLeaderboard.getRankedDoctorIds(1L));
+
+        // Moving to another specialty, deactivating and reactivating
+        doctorLeaderboard.put(doctor(1L, 2L, 80, true));
+        doctorLeaderboard.put(doctor(3L, 1L, 70, true));
+        assertEquals(List.of(2L, 3L), doctorLeaderboard.getRankedDoctorIds(1L));
+        assertEquals(List.of(1L), doctorLeaderboard.getRankedDoctorIds(2L));
+        doctorLeaderboard.put(doctor(2L, 1L, 85, false));
+        doctorLeaderboard.remove(1L);
+        assertEquals(List.of(3L), doctorLeaderboard.getRankedDoctorIds(1L));
+        assertTrue(doctorLeaderboard.getRankedDoctorIds(2L).isEmpty());
+        verify(doctorRepository, times(1)).findLeaderboardInputs();
+    }
+
+    @Test
+    void getRankedDoctorIds_ShouldNeverSeeADoctorTwiceWhileScoresMove() throws Exception {
+        for (long id = 1; id <= 50; id++) {
+            active(id, 1L, (int) id);
+        }
+        doctorLeaderboard.rebuild();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?> writer = executor.submit(() -> {
+            start.await();
+            for (int round = 0; round < 2_000; round++) {
+                doctorLeaderboard.updateScores(Map.of((long) (round % 50) + 1, round % 100));
+            }
+            return null;
+        });
+        Future<?> reader = executor.submit(() -> {
+            start.await();
+            while (!writer.isDone()) {
+                List<Long> ids = doctorLeaderboard.getRankedDoctorIds(1L);
+                assertEquals(ids.size(), ids.stream().distinct().count());
+            }
+            return null;
+        });
+        start.countDown();
+        writer.get();
+        reader.get();
+        executor.shutdown();
+
+        assertEquals(50, doctorLeaderboard.getRankedDoctorIds(1L).size());
+    }
+}
@@ -5,7 +5,6 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,12 +13,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.mops.backend.model.Doctor;
 import com.mops.backend.model.Specialty;
 import com.mops.backend.model.User;
-import com.mops.backend.repository.AppointmentRepository;
 import com.mops.backend.repository.DoctorRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,7 +28,13 @@ class DoctorServiceTest {
     private DoctorRepository doctorRepository;
 
     @Mock
-    private AppointmentRepository appointmentRepository;
+    private PopularityEngine popularityEngine;
+
+    @Mock
+    private DoctorLeaderboard doctorLeaderboard;
+
+    @Spy
+    private CatalogCache catalogCache = new CatalogCache();
 
     @InjectMocks
     private DoctorService doctorService;
@@ -69,18 +74,20 @@ class DoctorServiceTest {
         assertEquals("Cardiology", saved.getSpecialty().getName());
         assertEquals("Experienced cardiologist", saved.getDescription());
         verify(doctorRepository, times(1)).save(doctor);
+        verify(popularityEngine, times(1)).refreshDoctor(doctor);
     }
 
     @Test
-    void getAllDoctors_ShouldRecalculatePopularityAndReturnAll() {
+    void getAllDoctors_ShouldOnlyReadTheStoredPopularity() {
         List<Doctor> doctors = Arrays.asList(doctor);
         when(doctorRepository.findAll()).thenReturn(doctors);
-        when(appointmentRepository.countByDoctor(any(Doctor.class))).thenReturn(5L);
 
         List<Doctor> result = doctorService.getAllDoctors();
 
         assertEquals(1, result.size());
-        verify(doctorRepository, times(2)).findAll();
+        verify(doctorRepository, times(1)).findAll();
+        verify(doctorRepository, never()).saveAll(any());
+        verifyNoInteractions(popularityEngine);
     }
 
     @Test
@@ -134,16 +141,15 @@ class DoctorServiceTest {
     }
 
     @Test
-    void getDoctorsBySpecialtyOrderedByPopularity_ShouldRecalculateAndReturn() {
+    void getDoctorsBySpecialtyOrderedByPopularity_ShouldReturnWithoutWriting() {
         List<Doctor> doctors = Arrays.asList(doctor);
-        when(doctorRepository.findAll()).thenReturn(doctors);
-        when(appointmentRepository.countByDoctor(any(Doctor.class))).thenReturn(5L);
         when(doctorRepository.findBySpecialtyOrderByPopularityDesc(specialty)).thenReturn(doctors);
 
         List<Doctor> result = doctorService.getDoctorsBySpecialtyOrderedByPopularity(specialty);
 
         assertEquals(1, result.size());
         verify(doctorRepository, times(1)).findBySpecialtyOrderByPopularityDesc(specialty);
+        verify(doctorRepository, never()).saveAll(any());
     }
 
     @Test
@@ -158,16 +164,28 @@ class DoctorServiceTest {
     }
 
     @Test
-    void getActiveDoctorsBySpecialtyOrderedByPopularity_ShouldRecalculateAndReturn() {
-        List<Doctor> doctors = Arrays.asList(doctor);
-        when(doctorRepository.findAll()).thenReturn(doctors);
-        when(appointmentRepository.countByDoctor(any(Doctor.class))).thenReturn(5L);
-        when(doctorRepository.findBySpecialtyAndIsActiveTrueOrderByPopularityDesc(specialty)).thenReturn(doctors);
+    void getActiveDoctorsBySpecialtyOrderedByPopularity_ShouldKeepTheLeaderboardOrder() {
+        Doctor second = new Doctor();
+        second.setId(2L);
+        when(doctorLeaderboard.getRankedDoctorIds(1L)).thenReturn(List.of(2L, 1L));
+        when(doctorRepository.findByIsActiveTrue()).thenReturn(Arrays.asList(doctor, second));
 
         List<Doctor> result = doctorService.getActiveDoctorsBySpecialtyOrderedByPopularity(specialty);
 
-        assertEquals(1, result.size());
-        verify(doctorRepository, times(1)).findBySpecialtyAndIsActiveTrueOrderByPopularityDesc(specialty);
+        assertEquals(List.of(second, doctor), result);
+        // The second page view is answered from the cached active listing
+        doctorService.getActiveDoctorsBySpecialtyOrderedByPopularity(specialty);
+        verify(doctorRepository, times(1)).findByIsActiveTrue();
+        verify(doctorRepository, never()).findBySpecialtyAndIsActiveTrueOrderByPopularityDesc(any());
+        verify(doctorRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void getActiveDoctorsBySpecialtyOrderedByPopularity_ShouldNotQueryAnEmptySpecialty() {
+        when(doctorLeaderboard.getRankedDoctorIds(1L)).thenReturn(List.of());
+
+        assertTrue(doctorService.getActiveDoctorsBySpecialtyOrderedByPopularity(specialty).isEmpty());
+        verifyNoInteractions(doctorRepository);
     }
 
     @Test
@@ -206,40 +224,44 @@ class DoctorServiceTest {
         doctorService.deleteDoctor(1L);
 
         verify(doctorRepository, times(1)).deleteById(1L);
+        verify(doctorLeaderboard).remove(1L);
+        verify(catalogCache).invalidateDoctors();
     }
 
     @Test
-    void incrementPopularity_ShouldIncreaseValueByOne() {
-        doctor.setPopularity(10);
+    void toggleDoctorStatus_ShouldToggleFromActiveToInactive() {
+        doctor.setIsActive(true);
 
         when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
         when(doctorRepository.save(any(Doctor.class))).thenAnswer(i -> i.getArguments()[0]);
 
-        doctorService.incrementPopularity(1L);
-
-        assertEquals(11, doctor.getPopularity(), "Popularity should increase from 10 to 11");
-        verify(doctorRepository, times(1)).save(doctor);
-    }
-
-    @Test
-    void incrementPopularity_ShouldThrowExceptionWhenDoctorNotFound() {
-        when(doctorRepository.findById(99L)).thenReturn(Optional.empty());
+        Doctor result = doctorService.toggleDoctorStatus(1L);
 
-        assertThrows(RuntimeException.class, () -> {
-            doctorService.incrementPopularity(99L);
-        });
+        assertFalse(result.getIsActive());
+        verify(doctorLeaderboard).put(result);
+        verify(catalogCache).invalidateDoctors();
     }
 
     @Test
-    void toggleDoctorStatus_ShouldToggleFromActiveToInactive() {
-        doctor.setIsActive(true);
-
+    void doctorListings_ShouldBeCachedUntilADoctorChanges() {
+        when(doctorRepository.findAll()).thenReturn(Arrays.asList(doctor));
+        when(doctorRepository.findByIsActiveTrue()).thenReturn(Arrays.asList(doctor));
         when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
         when(doctorRepository.save(any(Doctor.class))).thenAnswer(i -> i.getArguments()[0]);
 
-        Doctor result = doctorService.toggleDoctorStatus(1L);
+        doctorService.getAllDoctors();
+        doctorService.getAllDoctors();
+        doctorService.getActiveDoctors();
+        doctorService.getActiveDoctors();
+        verify(doctorRepository, times(1)).findAll();
+        verify(doctorRepository, times(1)).findByIsActiveTrue();
 
-        assertFalse(result.getIsActive());
+        doctorService.toggleDoctorStatus(1L);
+        doctorService.getAllDoctors();
+        doctorService.getActiveDoctors();
+        verify(doctorRepository, times(2)).findAll();
+        verify(doctorRepository, times(2)).findByIsActiveTrue();
+        assertEquals(2, catalogCache.getStats().getHits());
     }
 
     @Test
@@ -262,62 +284,4 @@ class DoctorServiceTest {
             doctorService.toggleDoctorStatus(99L);
         });
     }
-
-    @Test
-    void recalculatePopularityForAllDoctors_ShouldHandleEmptyList() {
-        when(doctorRepository.findAll()).thenReturn(Collections.emptyList());
-
-        doctorService.recalculatePopularityForAllDoctors();
-
-        verify(doctorRepository, never()).saveAll(any());
-    }
-
-    @Test
-    void recalculatePopularityForAllDoctors_ShouldCalculateCorrectly() {
-        Doctor doctor2 = new Doctor();
-        doctor2.setId(2L);
-        doctor2.setExperienceYears(5);
-        doctor2.setPopularity(0);
-
-        doctor.setExperienceYears(10);
-
-        List<Doctor> doctors = Arrays.asList(doctor, doctor2);
-        when(doctorRepository.findAll()).thenReturn(doctors);
-        when(appointmentRepository.countByDoctor(doctor)).thenReturn(10L);
-        when(appointmentRepository.countByDoctor(doctor2)).thenReturn(5L);
-
-        doctorService.recalculatePopularityForAllDoctors();
-
-        assertEquals(100, doctor.getPopularity());
-        assertEquals(50, doctor2.getPopularity());
-        verify(doctorRepository, times(1)).saveAll(doctors);
-    }
-
-    @Test
-    void recalculatePopularityForAllDoctors_ShouldHandleNullExperience() {
-        doctor.setExperienceYears(null);
-
-        List<Doctor> doctors = Arrays.asList(doctor);
-        when(doctorRepository.findAll()).thenReturn(doctors);
-        when(appointmentRepository.countByDoctor(doctor)).thenReturn(5L);
-
-        doctorService.recalculatePopularityForAllDoctors();
-
-        assertEquals(40, doctor.getPopularity());
-        verify(doctorRepository, times(1)).saveAll(doctors);
-    }
-
-    @Test
-    void recalculatePopularityForAllDoctors_ShouldHandleZeroConsultations() {
-        doctor.setExperienceYears(10);
-
-        List<Doctor> doctors = Arrays.asList(doctor);
-        when(doctorRepository.findAll()).thenReturn(doctors);
-        when(appointmentRepository.countByDoctor(doctor)).thenReturn(0L);
-
-        doctorService.recalculatePopularityForAllDoctors();
-
-        assertEquals(60, doctor.getPopularity());
-        verify(doctorRepository, times(1)).saveAll(doctors);
-    }
 }
@@ -0,0 +1,191 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mops.backend.dto.FreeSlotDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.FollowUpSuggestion;
+import com.mops.backend.model.MedicalReport;
+import com.mops.backend.model.User;
+import com.mops.backend.repository.AppointmentRepository;
+import com.mops.backend.repository.FollowUpSuggestionRepository;
+import com.mops.backend.repository.MedicalReportRepository;
+
+@ExtendWith(MockitoExtension.class)
+class FollowUpSuggestionServiceTest {
+
+    @Mock
+    private MedicalReportRepository medicalReportRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private FollowUpSuggestionRepository followUpSuggestionRepository;
+
+    @Mock
+    private SlotService slotService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private FollowUpSuggestionService followUpSuggestionService;
+
+    private Doctor doctor;
+    private LocalDate today;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        doctor = new Doctor();
+        doctor.setId(1L);
+        today = LocalDate.of(2026, 5, 4);
+        ReflectionTestUtils.setField(followUpSuggestionService, "chunkSize", 2);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    private User patient(long id) {
+        User patient = new User();
+        patient.setId(id);
+        return patient;
+    }
+
+    private Appointment appointment(User patient, LocalDateTime date) {
+        Appointment appointment = new Appointment(patient, doctor, date);
+        appointment.setStatus("COMPLETED");
+        return appointment;
+    }
+
+    private MedicalReport report(long id, Appointment visit, LocalDate followUp) {
+        MedicalReport report = new MedicalReport(visit, "Diagnosis");
+        report.setId(id);
+        report.setFollowUpDate(followUp);
+        return report;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_ShouldSuggestUnbookedFollowUpsChunkByChunk() {
+        User ana = patient(10L);
+        User ion = patient(11L);
+        User maria = patient(12L);
+        Appointment anaVisit = appointment(ana, today.minusWeeks(4).atTime(9, 0));
+        Appointment ionVisit = appointment(ion, today.minusWeeks(2).atTime(10, 0));
+        Appointment mariaVisit = appointment(maria, today.minusWeeks(3).atTime(11, 0));
+        MedicalReport first = report(1L, anaVisit, today.plusDays(2));
+        MedicalReport second = report(2L, ionVisit, today.plusDays(3));
+        MedicalReport third = report(3L, mariaVisit, today.plusDays(3));
+        when(medicalReportRepository.findFollowUpsAfter(eq(today), eq(today.plusDays(14)), any(), any(), any(Pageable.class)))
+            .thenReturn(List.of(first, second))
+            .thenReturn(List.of(third));
+        // Ion's own visit comes back from the booking query but is not a follow-up; Ana already rebooked
+        Appointment anaRebooked = appointment(ana, today.plusDays(2).atTime(9, 0));
+        anaRebooked.setStatus("CONFIRMED");
+        when(appointmentRepository.findByPatientIdsAfter(any(), any(), any()))
+            .thenReturn(List.of(ionVisit, anaRebooked))
+            .thenReturn(List.of());
+        LocalDateTime freeAt = today.plusDays(3).atTime(14, 0);
+        when(slotService.getNextFreeSlots(any(), eq(today.plusDays(3)), anyInt()))
+            .thenReturn(Map.of(1L, new FreeSlotDTO(1L, freeAt, freeAt.plusMinutes(30))));
+
+        int suggested = followUpSuggestionService.run(today);
+
+        assertEquals(2, suggested);
+        ArgumentCaptor<List<FollowUpSuggestion>> saved = ArgumentCaptor.forClass(List.class);
+        verify(followUpSuggestionRepository, times(2)).saveAll(saved.capture());
+        List<FollowUpSuggestion> all = new ArrayList<>();
+        saved.getAllValues().forEach(all::addAll);
+        assertEquals(List.of(2L, 3L), all.stream().map(FollowUpSuggestion::getMedicalReportId).toList());
+        assertTrue(all.stream().allMatch(s -> freeAt.equals(s.getSuggestedStart())));
+
+        ArgumentCaptor<LocalDate> afterDate = ArgumentCaptor.forClass(LocalDate.class);
+        ArgumentCaptor<Long> afterId = ArgumentCaptor.forClass(Long.class);
+        verify(medicalReportRepository, times(2)).findFollowUpsAfter(any(), any(), afterDate.capture(),
+            afterId.capture(), any(Pageable.class));
+        assertEquals(today.plusDays(3), afterDate.getAllValues().get(1));
+        assertEquals(2L, afterId.getAllValues().get(1));
+        assertEquals(1, followUpSuggestionService.getStats().getLastAlreadyBooked());
+    }
+
+    @Test
+    void getOpenSuggestionsForPatient_ShouldHideBookedSuggestionsWithoutWriting() {
+        FollowUpSuggestion cardiology = new FollowUpSuggestion(1L, 10L, 1L, today.plusDays(2));
+        cardiology.setCreatedAt(today.minusDays(3).atTime(2, 30));
+        FollowUpSuggestion newer = new FollowUpSuggestion(3L, 10L, 1L, today.plusDays(20));
+        newer.setCreatedAt(today.plusDays(3).atTime(2, 30));
+        FollowUpSuggestion dermatology = new FollowUpSuggestion(2L, 10L, 2L, today.plusDays(5));
+        dermatology.setCreatedAt(today.minusDays(3).atTime(2, 30));
+        when(followUpSuggestionRepository.findByPatientIdAndStatusOrderByFollowUpDateAsc(10L, FollowUpSuggestion.OPEN))
+            .thenReturn(List.of(cardiology, dermatology, newer));
+        // Booked after the first cardiology suggestion but before the newer one
+        Appointment booked = appointment(patient(10L), today.plusDays(2).atTime(9, 0));
+        when(appointmentRepository.findByPatientIdsAfter(any(), eq(today.minusDays(3).atTime(2, 30)), any()))
+            .thenReturn(List.of(booked));
+
+        List<FollowUpSuggestion> open = followUpSuggestionService.getOpenSuggestionsForPatient(10L);
+
+        assertEquals(List.of(dermatology, newer), open);
+        assertEquals(FollowUpSuggestion.OPEN, cardiology.getStatus());
+        verify(followUpSuggestionRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void run_ShouldCloseOpenSuggestionsThatWereBookedSinceTheyWereMade() {
+        FollowUpSuggestion cardiology = new FollowUpSuggestion(1L, 10L, 1L, today.plusDays(2));
+        cardiology.setId(7L);
+        cardiology.setCreatedAt(today.minusDays(3).atTime(2, 30));
+        FollowUpSuggestion dermatology = new FollowUpSuggestion(2L, 10L, 2L, today.plusDays(5));
+        dermatology.setId(8L);
+        dermatology.setCreatedAt(today.minusDays(3).atTime(2, 30));
+        when(followUpSuggestionRepository.findByStatusAndIdGreaterThanOrderByIdAsc(eq(FollowUpSuggestion.OPEN),
+                eq(0L), any(Pageable.class)))
+            .thenReturn(List.of(cardiology, dermatology));
+        when(followUpSuggestionRepository.findByStatusAndIdGreaterThanOrderByIdAsc(eq(FollowUpSuggestion.OPEN),
+                eq(8L), any(Pageable.class)))
+            .thenReturn(List.of());
+        Appointment booked = appointment(patient(10L), today.plusDays(2).atTime(9, 0));
+        when(appointmentRepository.findByPatientIdsAfter(any(), any(), any())).thenReturn(List.of(booked));
+
+        followUpSuggestionService.run(today);
+
+        assertEquals(FollowUpSuggestion.BOOKED, cardiology.getStatus());
+        assertEquals(FollowUpSuggestion.OPEN, dermatology.getStatus());
+        verify(followUpSuggestionRepository).saveAll(List.of(cardiology));
+    }
+
+    @Test
+    void dismiss_ShouldOnlyCloseOpenSuggestions() {
+        FollowUpSuggestion suggestion = new FollowUpSuggestion(1L, 10L, 1L, today);
+        when(followUpSuggestionRepository.findById(5L)).thenReturn(Optional.of(suggestion));
+        when(followUpSuggestionRepository.save(suggestion)).thenReturn(suggestion);
+
+        assertEquals(FollowUpSuggestion.DISMISSED, followUpSuggestionService.dismiss(5L).getStatus());
+        assertThrows(IllegalStateException.class, () -> followUpSuggestionService.dismiss(5L));
+    }
+}
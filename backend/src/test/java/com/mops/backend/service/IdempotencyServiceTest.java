@@ -0,0 +1,158 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class IdempotencyServiceTest {
+
+    private final IdempotencyService idempotencyService = new IdempotencyService();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private ResponseEntity<?> book() {
+        return ResponseEntity.status(HttpStatus.CREATED).body("appointment-" + executions.incrementAndGet());
+    }
+
+    @Test
+    void execute_ShouldReplayTheStoredResponseWithoutRunningTheActionAgain() {
+        ResponseEntity<?> first = idempotencyService.execute("key-1", "create", "1:2", this::book);
+        ResponseEntity<?> retry = idempotencyService.execute("key-1", "create", "1:2", this::book);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_WithoutKey_ShouldAlwaysRunTheAction() {
+        idempotencyService.execute(null, "create", "1:2", this::book);
+        idempotencyService.execute(" ", "create", "1:2", this::book);
+
+        assertEquals(2, executions.get());
+        assertEquals(0, idempotencyService.size());
+    }
+
+    @Test
+    void execute_ShouldRejectAKeyReusedForADifferentRequest() {
+        idempotencyService.execute("key-1", "create", "1:2", this::book);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> idempotencyService.execute("key-1", "create", "1:3", this::book));
+        // The same key on another operation is a separate entry
+        idempotencyService.execute("key-1", "confirm-payment", "7", this::book);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void execute_ShouldForgetFailuresSoTheRetryRunsForReal() {
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute("key-1", "create", "1:2", () -> {
+            throw new RuntimeException("database down");
+        }));
+        idempotencyService.execute("key-2", "create", "1:2",
+            () -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+
+        idempotencyService.execute("key-1", "create", "1:2", this::book);
+        idempotencyService.execute("key-2", "create", "1:2", this::book);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void discard_ShouldKeepAMappedFailureOutOfTheStore() {
+        ResponseEntity<?> failed = idempotencyService.execute("key-1", "confirm-payment", "7", () -> {
+            idempotencyService.discard("key-1", "confirm-payment");
+            return ResponseEntity.notFound().build();
+        });
+        ResponseEntity<?> retry = idempotencyService.execute("key-1", "confirm-payment", "7", this::book);
+
+        assertEquals(HttpStatus.NOT_FOUND, failed.getStatusCode());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(1, executions.get());
+        // A finished entry is never discarded, so the stored answer is replayed
+        idempotencyService.discard("key-1", "confirm-payment");
+        idempotencyService.execute("key-1", "confirm-payment", "7", this::book);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ShouldAnswerAConcurrentDuplicateWithConflictWhileTheFirstIsRunning() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<ResponseEntity<?>> first = pool.submit(() -> idempotencyService.execute("key-1", "create", "1:2", () -> {
+            started.countDown();
+            try {
+                finish.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return book();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        ResponseEntity<?> duplicate = idempotencyService.execute("key-1", "create", "1:2", this::book);
+
+        assertEquals(HttpStatus.CONFLICT, duplicate.getStatusCode());
+        finish.countDown();
+        assertEquals(HttpStatus.CREATED, first.get(5, TimeUnit.SECONDS).getStatusCode());
+        pool.shutdown();
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void store_ShouldNotEvictARequestThatIsStillRunning() throws Exception {
+        ReflectionTestUtils.setField(idempotencyService, "maxKeys", 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<ResponseEntity<?>> running = pool.submit(() -> idempotencyService.execute("key-0", "create", "1:2", () -> {
+            started.countDown();
+            try {
+                finish.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return book();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        for (int i = 1; i <= 3; i++) {
+            idempotencyService.execute("key-" + i, "create", "1:2", this::book);
+        }
+
+        assertEquals(2, idempotencyService.size());
+        assertEquals(HttpStatus.CONFLICT,
+            idempotencyService.execute("key-0", "create", "1:2", this::book).getStatusCode());
+        finish.countDown();
+        assertEquals(HttpStatus.CREATED, running.get(5, TimeUnit.SECONDS).getStatusCode());
+        pool.shutdown();
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    void store_ShouldStayBoundedAndDropExpiredKeys() {
+        ReflectionTestUtils.setField(idempotencyService, "maxKeys", 3);
+        for (int i = 0; i < 5; i++) {
+            idempotencyService.execute("key-" + i, "create", "1:2", this::book);
+        }
+        assertEquals(3, idempotencyService.size());
+
+        // The oldest keys were evicted, so they run again
+        idempotencyService.execute("key-0", "create", "1:2", this::book);
+        assertEquals(6, executions.get());
+
+        assertEquals(3, idempotencyService.purgeExpired(System.currentTimeMillis() + 25L * 60 * 60 * 1000));
+        assertEquals(0, idempotencyService.size());
+    }
+}
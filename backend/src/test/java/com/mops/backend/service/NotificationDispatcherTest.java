@@ -0,0 +1,67 @@
+package com.mops.backend.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.User;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+
+    @Mock
+    private EmailService emailService;
+
+    @InjectMocks
+    private NotificationDispatcher notificationDispatcher;
+
+    @AfterEach
+    void tearDown() {
+        notificationDispatcher.shutdown();
+    }
+
+    @Test
+    void dispatchStatusChanges_ShouldSendCancellationsInBackground() {
+        Appointment first = new Appointment(null, null, LocalDateTime.now().plusDays(1));
+        Appointment second = new Appointment(null, null, LocalDateTime.now().plusDays(2));
+
+        notificationDispatcher.dispatchStatusChanges(List.of(first, second), "CANCELLED");
+
+        verify(emailService, timeout(1000)).sendAppointmentCancellation(first);
+        verify(emailService, timeout(1000)).sendAppointmentCancellation(second);
+    }
+
+    @Test
+    void dispatchWaitlistOffers_ShouldSendOffersInBackground() {
+        User patient = new User();
+        patient.setId(1L);
+        Doctor doctor = new Doctor();
+        doctor.setId(2L);
+        LocalDateTime slotStart = LocalDateTime.now().plusDays(1);
+        WaitlistService.SlotOffer offer = new WaitlistService.SlotOffer(3L,
+            new WaitlistService.WaitlistEntry(4L, patient, doctor, slotStart.toLocalDate()), slotStart,
+            slotStart.minusHours(2));
+
+        notificationDispatcher.dispatchWaitlistOffers(List.of(offer));
+
+        verify(emailService, timeout(1000)).sendWaitlistOffer(patient, doctor, slotStart, slotStart.minusHours(2));
+    }
+
+    @Test
+    void dispatchStatusChanges_ShouldIgnoreStatusesWithoutEmail() {
+        notificationDispatcher.dispatchStatusChanges(List.of(new Appointment()), "COMPLETED");
+
+        verify(emailService, after(100).never()).sendAppointmentCancellation(any());
+    }
+}
@@ -0,0 +1,215 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.mops.backend.dto.DayOccupancyDTO;
+import com.mops.backend.dto.OccupancyStatsDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Availability;
+import com.mops.backend.model.AvailabilityOverride;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.repository.AppointmentRepository;
+import com.mops.backend.repository.AvailabilityRepository;
+
+@ExtendWith(MockitoExtension.class)
+class OccupancyCalendarTest {
+
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AvailabilityOverrideService overrideService;
+
+    @InjectMocks
+    private OccupancyCalendar occupancyCalendar;
+
+    private Doctor doctor;
+    private LocalDate monday;
+
+    @BeforeEach
+    void setUp() {
+        doctor = new Doctor();
+        doctor.setId(1L);
+
+        monday = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        lenient().when(overrideService.getIndex(any())).thenReturn(OverrideIndex.EMPTY);
+        lenient().when(overrideService.peekIndex(any())).thenReturn(OverrideIndex.EMPTY);
+    }
+
+    private Availability window(Doctor owner, String day, int startHour, int endHour) {
+        Availability availability = new Availability(owner, day, LocalTime.of(startHour, 0), LocalTime.of(endHour, 0));
+        availability.setIsActive(true);
+        return availability;
+    }
+
+    private Appointment appointment(int hour, String status) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setAppointmentDate(monday.atTime(hour, 0));
+        appointment.setStatus(status);
+        return appointment;
+    }
+
+    private void givenMondayMorning(List<Appointment> appointments) {
+        when(availabilityRepository.findByDoctorAndIsActiveTrue(doctor))
+            .thenReturn(List.of(window(doctor, "1", 9, 10), window(doctor, "1", 10, 11)));
+        when(appointmentRepository.findByDoctorAndAppointmentDateBetween(eq(doctor), any(), any()))
+            .thenReturn(appointments);
+    }
+
+    @Test
+    void isFree_ShouldReflectAvailabilityAndBookings() {
+        givenMondayMorning(List.of(appointment(9, "CONFIRMED"), appointment(10, "CANCELLED")));
+
+        assertFalse(occupancyCalendar.isFree(doctor, monday.atTime(9, 0), monday.atTime(10, 0)));
+        assertTrue(occupancyCalendar.isFree(doctor, monday.atTime(10, 0), monday.atTime(11, 0)));
+        assertFalse(occupancyCalendar.isFree(doctor, monday.atTime(11, 0), monday.atTime(12, 0)));
+        assertTrue(occupancyCalendar.isBooked(doctor, monday.atTime(9, 30)));
+        verify(appointmentRepository, times(1)).findByDoctorAndAppointmentDateBetween(eq(doctor), any(), any());
+    }
+
+    @Test
+    void isBooked_ShouldNotLoadCalendar() {
+        assertFalse(occupancyCalendar.isBooked(doctor, monday.atTime(9, 0)));
+        verifyNoInteractions(availabilityRepository, appointmentRepository);
+    }
+
+    @Test
+    void getHeatmap_ShouldSummarizeEachDay() {
+        givenMondayMorning(List.of(appointment(9, "PENDING")));
+
+        List<DayOccupancyDTO> heatmap = occupancyCalendar.getHeatmap(doctor, monday, 1);
+
+        assertEquals(7, heatmap.size());
+        assertEquals(monday, heatmap.get(0).getDate());
+        assertEquals(120, heatmap.get(0).getAvailableMinutes());
+        assertEquals(60, heatmap.get(0).getBookedMinutes());
+        assertEquals(50, heatmap.get(0).getOccupancyPercent());
+        assertEquals(0, heatmap.get(1).getAvailableMinutes());
+    }
+
+    @Test
+    void apply_ShouldFollowStatusTransitions() {
+        givenMondayMorning(new ArrayList<>());
+        occupancyCalendar.getHeatmap(doctor, monday, 1);
+
+        Appointment booking = appointment(10, "PENDING");
+        occupancyCalendar.markBooked(booking);
+        assertTrue(occupancyCalendar.isBooked(doctor, monday.atTime(10, 0)));
+
+        booking.setStatus("REJECTED");
+        occupancyCalendar.apply(booking);
+        assertFalse(occupancyCalendar.isBooked(doctor, monday.atTime(10, 0)));
+        assertTrue(occupancyCalendar.isFree(doctor, monday.atTime(10, 0), monday.atTime(11, 0)));
+    }
+
+    @Test
+    void markReleased_ShouldKeepAGroupSessionBookedWhileOtherSeatsRemain() {
+        Appointment firstSeat = appointment(9, "CONFIRMED");
+        firstSeat.setGroupSession(true);
+        Appointment secondSeat = appointment(9, "CONFIRMED");
+        secondSeat.setGroupSession(true);
+        givenMondayMorning(List.of(firstSeat, secondSeat));
+        occupancyCalendar.getHeatmap(doctor, monday, 1);
+
+        firstSeat.setStatus("CANCELLED");
+        when(appointmentRepository.findByDoctorAndAppointmentDateBetween(eq(doctor), any(), any()))
+            .thenReturn(List.of(firstSeat, secondSeat));
+        occupancyCalendar.apply(firstSeat);
+
+        assertFalse(occupancyCalendar.isFree(doctor, monday.atTime(9, 0), monday.atTime(10, 0)));
+        assertEquals(2, occupancyCalendar.getStats().getLoads());
+    }
+
+    @Test
+    void invalidate_ShouldRebuildFromDatabase() {
+        givenMondayMorning(Collections.emptyList());
+        occupancyCalendar.getHeatmap(doctor, monday, 1);
+
+        occupancyCalendar.invalidate(doctor.getId());
+        occupancyCalendar.getHeatmap(doctor, monday, 1);
+
+        verify(availabilityRepository, times(2)).findByDoctorAndIsActiveTrue(doctor);
+        assertEquals(2, occupancyCalendar.getStats().getLoads());
+    }
+
+    @Test
+    void overrides_ShouldBlockAndAddAvailableTime() {
+        OverrideIndex overrides = OverrideIndex.compile(List.of(
+            new AvailabilityOverride(doctor, AvailabilityOverride.BLOCKED, monday, monday, LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            new AvailabilityOverride(doctor, AvailabilityOverride.EXTRA, monday, monday, LocalTime.of(14, 0), LocalTime.of(16, 0))));
+        when(overrideService.getIndex(doctor)).thenReturn(overrides);
+        when(overrideService.peekIndex(doctor.getId())).thenReturn(overrides);
+        givenMondayMorning(new ArrayList<>());
+
+        assertFalse(occupancyCalendar.isFree(doctor, monday.atTime(10, 0), monday.atTime(11, 0)));
+        assertTrue(occupancyCalendar.isFree(doctor, monday.atTime(14, 0), monday.atTime(15, 0)));
+
+        occupancyCalendar.markBooked(appointment(14, "CONFIRMED"));
+        assertFalse(occupancyCalendar.isFree(doctor, monday.atTime(15, 0), monday.atTime(16, 0)));
+        assertEquals(180, occupancyCalendar.getHeatmap(doctor, monday, 1).get(0).getAvailableMinutes());
+    }
+
+    @Test
+    void overrideChange_ShouldRebuildCalendar() {
+        givenMondayMorning(Collections.emptyList());
+        occupancyCalendar.getHeatmap(doctor, monday, 1);
+
+        when(overrideService.peekIndex(doctor.getId())).thenReturn(null);
+        occupancyCalendar.getHeatmap(doctor, monday, 1);
+
+        assertEquals(2, occupancyCalendar.getStats().getLoads());
+    }
+
+    @Test
+    void calendars_ShouldStayWithinMemoryBudget() {
+        int doctorCount = 500;
+        List<Doctor> doctors = new ArrayList<>();
+        for (long id = 1; id <= doctorCount; id++) {
+            Doctor each = new Doctor();
+            each.setId(id);
+            doctors.add(each);
+        }
+        when(availabilityRepository.findByDoctorAndIsActiveTrue(any())).thenAnswer(invocation -> {
+            Doctor owner = invocation.getArgument(0);
+            List<Availability> windows = new ArrayList<>();
+            for (int day = 1; day <= 5; day++) {
+                for (int hour = 8; hour < 16; hour++) {
+                    windows.add(window(owner, String.valueOf(day), hour, hour + 1));
+                }
+            }
+            return windows;
+        });
+        when(appointmentRepository.findByDoctorAndAppointmentDateBetween(any(), any(), any()))
+            .thenReturn(Collections.emptyList());
+
+        for (Doctor each : doctors) {
+            occupancyCalendar.getHeatmap(each, monday, 1);
+        }
+
+        OccupancyStatsDTO stats = occupancyCalendar.getStats();
+        assertEquals(doctorCount, stats.getTrackedDoctors());
+        assertTrue(stats.getEstimatedBytes() < 10L * 1024 * 1024);
+    }
+}
@@ -0,0 +1,179 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mops.backend.dto.SweepStatsDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.repository.AppointmentRepository;
+
+@ExtendWith(MockitoExtension.class)
+class PendingAppointmentSweeperTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private OccupancyCalendar occupancyCalendar;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private SlotSeatService slotSeatService;
+
+    @Mock
+    private PopularityEngine popularityEngine;
+
+    @InjectMocks
+    private PendingAppointmentSweeper sweeper;
+
+    private Doctor doctor;
+    private LocalDateTime now;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        doctor = new Doctor();
+        doctor.setId(1L);
+        now = LocalDateTime.now();
+        ReflectionTestUtils.setField(sweeper, "chunkSize", 2);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    private Appointment stale(long id) {
+        Appointment appointment = new Appointment(null, doctor, now.plusDays(id));
+        appointment.setId(id);
+        appointment.setStatus("PENDING");
+        appointment.setCreatedAt(now.minusDays(3).plusMinutes(id));
+        return appointment;
+    }
+
+    @Test
+    void sweep_ShouldWalkKeysetCursorInChunks() {
+        Appointment first = stale(1L);
+        Appointment second = stale(2L);
+        Appointment third = stale(3L);
+        when(appointmentRepository.findStaleAfter(eq("PENDING"), any(), any(), any(), any(Pageable.class)))
+            .thenReturn(List.of(first, second))
+            .thenReturn(List.of(third));
+        when(appointmentRepository.transitionStatuses(any(), eq(Set.of("PENDING")), eq("EXPIRED"), eq(now)))
+            .thenAnswer(i -> ((Collection<?>) i.getArgument(0)).size());
+
+        assertEquals(3, sweeper.sweep(now));
+
+        // The second page starts right after the last row of the first one
+        verify(appointmentRepository).findStaleAfter(eq("PENDING"), eq(now.minusMinutes(1440)),
+            eq(second.getCreatedAt()), eq(2L), any(Pageable.class));
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(occupancyCalendar, times(3)).markReleased(any());
+        assertEquals("EXPIRED", first.getStatus());
+
+        SweepStatsDTO stats = sweeper.getStats();
+        assertEquals(3, stats.getLastSwept());
+        assertEquals(2, stats.getLastChunks());
+        assertEquals(1, stats.getTotalRuns());
+        assertEquals(now, stats.getLastRunAt());
+    }
+
+    @Test
+    void sweep_ShouldOnlyReleaseRowsThatWereStillPending() {
+        Appointment paid = stale(1L);
+        Appointment unpaid = stale(2L);
+        when(appointmentRepository.findStaleAfter(eq("PENDING"), any(), any(), any(), any(Pageable.class)))
+            .thenReturn(List.of(paid, unpaid))
+            .thenReturn(List.of());
+        when(appointmentRepository.transitionStatuses(any(), any(), any(), any())).thenReturn(1);
+        Appointment reloadedPaid = stale(1L);
+        reloadedPaid.setStatus("CONFIRMED");
+        Appointment reloadedUnpaid = stale(2L);
+        reloadedUnpaid.setStatus("EXPIRED");
+        when(appointmentRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(reloadedPaid, reloadedUnpaid));
+
+        assertEquals(1, sweeper.sweep(now));
+
+        verify(occupancyCalendar).markReleased(reloadedUnpaid);
+        verify(occupancyCalendar, never()).markReleased(reloadedPaid);
+        verify(waitlistService).offerReleasedSlots(List.of(reloadedUnpaid));
+    }
+
+    @Test
+    void sweep_ShouldNeverExpireSeriesOccurrences() {
+        Appointment single = stale(1L);
+        Appointment occurrence = stale(2L);
+        occurrence.setSeriesId("series-1");
+        when(appointmentRepository.findStaleAfter(eq("PENDING"), any(), any(), any(), any(Pageable.class)))
+            .thenReturn(List.of(single, occurrence))
+            .thenReturn(List.of());
+        when(appointmentRepository.transitionStatuses(eq(List.of(1L)), any(), any(), any())).thenReturn(1);
+
+        assertEquals(1, sweeper.sweep(now));
+
+        assertEquals("EXPIRED", single.getStatus());
+        assertEquals("PENDING", occurrence.getStatus());
+        verify(occupancyCalendar, never()).markReleased(occurrence);
+        verify(waitlistService).offerReleasedSlots(List.of(single));
+        // The cursor still moves past the occurrence
+        verify(appointmentRepository).findStaleAfter(eq("PENDING"), any(), eq(occurrence.getCreatedAt()), eq(2L),
+            any(Pageable.class));
+    }
+
+    @Test
+    void sweep_ShouldDoNothingWithoutStaleRows() {
+        when(appointmentRepository.findStaleAfter(any(), any(), any(), any(), any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, sweeper.sweep(now));
+
+        verifyNoInteractions(transactionTemplate, occupancyCalendar, waitlistService);
+        assertEquals(1, sweeper.getStats().getTotalRuns());
+    }
+
+    @Test
+    void sweep_ShouldKeepEachTransactionToOneChunkForLargeBacklogs() {
+        ReflectionTestUtils.setField(sweeper, "chunkSize", 200);
+        List<List<Appointment>> pages = new ArrayList<>();
+        long id = 1;
+        for (int page = 0; page < 50; page++) {
+            List<Appointment> chunk = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                chunk.add(stale(id++));
+            }
+            pages.add(chunk);
+        }
+        pages.add(List.of());
+        var stubbing = when(appointmentRepository.findStaleAfter(any(), any(), any(), any(), any(Pageable.class)));
+        for (List<Appointment> chunk : pages) {
+            stubbing = stubbing.thenReturn(chunk);
+        }
+        when(appointmentRepository.transitionStatuses(any(), any(), any(), any()))
+            .thenAnswer(i -> ((Collection<?>) i.getArgument(0)).size());
+
+        assertEquals(10_000, sweeper.sweep(now));
+        verify(transactionTemplate, times(50)).execute(any());
+        assertEquals(50, sweeper.getStats().getLastChunks());
+    }
+}
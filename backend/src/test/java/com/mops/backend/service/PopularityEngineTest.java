@@ -0,0 +1,222 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.repository.AppointmentRepository;
+import com.mops.backend.repository.DoctorBatchRepository;
+import com.mops.backend.repository.DoctorRepository;
+
+@ExtendWith(MockitoExtension.class)
+class PopularityEngineTest {
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private DoctorBatchRepository doctorBatchRepository;
+
+    @Mock
+    private DoctorLeaderboard doctorLeaderboard;
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    @InjectMocks
+    private PopularityEngine popularityEngine;
+
+    private final List<Object[]> doctorRows = new ArrayList<>();
+    private final List<Object[]> countRows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(doctorRepository.findPopularityInputs()).thenReturn(doctorRows);
+        lenient().when(appointmentRepository.countByDoctorExcludingStatuses(any())).thenReturn(countRows);
+    }
+
+    private void doctor(long id, Integer experienceYears, int storedPopularity, long bookings) {
+        doctorRows.add(new Object[] {id, experienceYears, storedPopularity});
+        if (bookings > 0) {
+            countRows.add(new Object[] {id, bookings});
+        }
+    }
+
+    private Appointment appointmentOf(long doctorId) {
+        Doctor doctor = new Doctor();
+        doctor.setId(doctorId);
+        return new Appointment(null, doctor, null);
+    }
+
+    @Test
+    void recompute_ShouldScoreFromOneGroupedCountAndWriteOnlyChangedDoctors() {
+        doctor(1L, 10, 50, 10);
+        doctor(2L, 5, 0, 5);
+        doctor(3L, 10, 100, 10);
+
+        popularityEngine.recompute();
+
+        assertEquals(100, popularityEngine.getPopularity(1L));
+        assertEquals(50, popularityEngine.getPopularity(2L));
+        verify(appointmentRepository, times(1)).countByDoctorExcludingStatuses(any());
+        verify(appointmentRepository, never()).countByDoctor(any());
+        verify(doctorBatchRepository).updatePopularity(Map.of(1L, 100, 2L, 50));
+        verify(doctorRepository, never()).saveAll(any());
+        verify(doctorLeaderboard).rebuild();
+    }
+
+    @Test
+    void recompute_ShouldHandleMissingExperienceAndNoBookings() {
+        doctor(1L, null, 0, 5);
+        doctor(2L, 10, 0, 0);
+
+        popularityEngine.recompute();
+
+        assertEquals(40, popularityEngine.getPopularity(1L));
+        assertEquals(60, popularityEngine.getPopularity(2L));
+    }
+
+    @Test
+    void recompute_ShouldDoNothingWithoutDoctors() {
+        popularityEngine.recompute();
+
+        verify(doctorBatchRepository).updatePopularity(Map.of());
+        assertNull(popularityEngine.getPopularity(1L));
+    }
+
+    @Test
+    void recordBookingsAndReleases_ShouldOnlyWriteWhenTheRoundedScoreMoves() {
+        doctor(1L, 10, 100, 100);
+        doctor(2L, 10, 80, 50);
+        popularityEngine.recompute();
+        clearInvocations(doctorBatchRepository);
+
+        // 50 -> 51 of 100 bookings: 80.4 still rounds to 80
+        popularityEngine.recordBookings(2L, 1);
+        verifyNoInteractions(doctorBatchRepository);
+        popularityEngine.flush();
+        assertEquals(80, popularityEngine.getPopularity(2L));
+        // 51 -> 53: 81.2 rounds to 81
+        popularityEngine.recordBookings(2L, 2);
+        popularityEngine.flush();
+        assertEquals(81, popularityEngine.getPopularity(2L));
+        popularityEngine.recordReleased(List.of(appointmentOf(2L), appointmentOf(2L), appointmentOf(2L)));
+        popularityEngine.flush();
+        assertEquals(80, popularityEngine.getPopularity(2L));
+
+        verify(doctorBatchRepository).updatePopularity(Map.of());
+        verify(doctorBatchRepository).updatePopularity(Map.of(2L, 81));
+        verify(doctorBatchRepository).updatePopularity(Map.of(2L, 80));
+        verify(doctorLeaderboard).updateScores(Map.of(2L, 81));
+        verify(doctorRepository, times(1)).findPopularityInputs();
+    }
+
+    @Test
+    void flush_ShouldRescoreEveryDoctorWhenTheBestOneGrows() {
+        doctor(1L, 10, 100, 100);
+        doctor(2L, 10, 80, 50);
+        popularityEngine.recompute();
+        clearInvocations(doctorBatchRepository);
+
+        // Doctor 1 doubles to 200 bookings, so doctor 2's 50 now weigh half as much: 60 + 10 = 70
+        popularityEngine.recordBookings(1L, 100);
+        popularityEngine.flush();
+
+        assertEquals(100, popularityEngine.getPopularity(1L));
+        assertEquals(70, popularityEngine.getPopularity(2L));
+        verify(doctorBatchRepository).updatePopularity(Map.of(2L, 70));
+    }
+
+    @Test
+    void flush_ShouldKeepEveryConcurrentBookingAndWriteOnce() throws Exception {
+        doctor(1L, 10, 100, 0);
+        doctor(2L, 10, 60, 0);
+        popularityEngine.recompute();
+        clearInvocations(doctorBatchRepository);
+
+        int threads = 8;
+        int bookingsPerThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long doctorId = t % 2 == 0 ? 1L : 2L;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < bookingsPerThread; i++) {
+                    popularityEngine.recordBookings(doctorId, 1);
+                    if (doctorId == 2L && i % 2 == 0) {
+                        popularityEngine.recordReleased(List.of(appointmentOf(doctorId)));
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        // Flushing while the bookings are still coming in must not lose any of them
+        for (Future<?> future : futures) {
+            while (!future.isDone()) {
+                popularityEngine.flush();
+            }
+            future.get();
+        }
+        executor.shutdown();
+        popularityEngine.flush();
+
+        // Doctor 1 kept 20,000 bookings and doctor 2 kept 10,000, so exactly 100 and 80
+        assertEquals(100, popularityEngine.getPopularity(1L));
+        assertEquals(80, popularityEngine.getPopularity(2L));
+        assertEquals(0, popularityEngine.flush());
+    }
+
+    @Test
+    void recompute_ShouldDiscardPendingDeltasAlreadyInTheCounts() {
+        doctor(1L, 10, 100, 10);
+        doctor(2L, 10, 80, 5);
+        popularityEngine.recompute();
+
+        popularityEngine.recordBookings(2L, 5);
+        countRows.set(1, new Object[] {2L, 10L});
+        popularityEngine.recompute();
+        clearInvocations(doctorBatchRepository);
+
+        assertEquals(0, popularityEngine.flush());
+        assertEquals(100, popularityEngine.getPopularity(2L));
+        verifyNoInteractions(doctorBatchRepository);
+    }
+
+    @Test
+    void refreshDoctor_ShouldScoreANewDoctorRightAway() {
+        doctor(1L, 10, 100, 4);
+        popularityEngine.recompute();
+
+        Doctor newcomer = new Doctor();
+        newcomer.setId(2L);
+        newcomer.setExperienceYears(5);
+        newcomer.setPopularity(0);
+        popularityEngine.refreshDoctor(newcomer);
+
+        assertEquals(30, newcomer.getPopularity());
+        verify(doctorBatchRepository).updatePopularity(Map.of(2L, 30));
+    }
+}
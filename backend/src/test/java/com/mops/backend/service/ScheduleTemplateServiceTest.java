@@ -0,0 +1,231 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mops.backend.dto.TemplateApplyRequestDTO;
+import com.mops.backend.dto.TemplateApplyResultDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Availability;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.ScheduleTemplate;
+import com.mops.backend.model.ScheduleTemplateWindow;
+import com.mops.backend.model.Specialty;
+import com.mops.backend.repository.AvailabilityBatchRepository;
+import com.mops.backend.repository.AvailabilityRepository;
+import com.mops.backend.repository.DoctorRepository;
+import com.mops.backend.repository.ScheduleTemplateRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleTemplateServiceTest {
+
+    @Mock
+    private ScheduleTemplateRepository scheduleTemplateRepository;
+
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    @Mock
+    private AvailabilityBatchRepository availabilityBatchRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private SpecialtyService specialtyService;
+
+    @Mock
+    private AvailabilityImpactService impactService;
+
+    @Mock
+    private OccupancyCalendar occupancyCalendar;
+
+    @Spy
+    private SlotLockRegistry slotLockRegistry = new SlotLockRegistry();
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private ScheduleTemplateService scheduleTemplateService;
+
+    private ScheduleTemplate template;
+    private List<Doctor> doctors;
+
+    @BeforeEach
+    void setUp() {
+        template = new ScheduleTemplate("Weekdays", new ArrayList<>(List.of(
+            new ScheduleTemplateWindow("1", LocalTime.of(9, 0), LocalTime.of(10, 0)),
+            new ScheduleTemplateWindow("1", LocalTime.of(10, 0), LocalTime.of(11, 0)),
+            new ScheduleTemplateWindow("2", LocalTime.of(9, 0), LocalTime.of(10, 0)))));
+        template.setId(1L);
+
+        doctors = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Doctor doctor = new Doctor();
+            doctor.setId(id);
+            doctors.add(doctor);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void createTemplate_ShouldRejectOverlappingWindows() {
+        template.getWindows().add(new ScheduleTemplateWindow("Monday", LocalTime.of(9, 30), LocalTime.of(10, 30)));
+
+        assertThrows(IllegalArgumentException.class, () -> scheduleTemplateService.createTemplate(template));
+        verify(scheduleTemplateRepository, never()).save(any());
+    }
+
+    @Test
+    void createTemplate_ShouldRejectDuplicateName() {
+        ScheduleTemplate existing = new ScheduleTemplate("Weekdays", List.of());
+        existing.setId(7L);
+        template.setId(null);
+        when(scheduleTemplateRepository.findByName("Weekdays")).thenReturn(Optional.of(existing));
+
+        assertThrows(IllegalStateException.class, () -> scheduleTemplateService.createTemplate(template));
+    }
+
+    @Test
+    void applyTemplate_ShouldReplaceSchedulesWithOneDeleteAndOneBatchInsert() {
+        runTransactionsInline();
+        when(scheduleTemplateRepository.findById(1L)).thenReturn(Optional.of(template));
+        when(doctorRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(doctors);
+        Availability friday = new Availability(doctors.get(0), "5", LocalTime.of(9, 0), LocalTime.of(17, 0));
+        when(availabilityRepository.findByDoctorInAndIsActiveTrue(doctors)).thenReturn(List.of(friday));
+        Appointment stranded = new Appointment();
+        stranded.setId(40L);
+        when(impactService.affectedByReplacing(eq(doctors.get(0)), eq(List.of(friday)), anyList()))
+            .thenReturn(List.of(stranded));
+        when(availabilityRepository.deleteByDoctorIn(doctors)).thenReturn(10);
+        when(availabilityBatchRepository.insertAll(anyList())).thenAnswer(i -> ((List<?>) i.getArgument(0)).size());
+
+        TemplateApplyResultDTO result = scheduleTemplateService.applyTemplate(1L,
+            new TemplateApplyRequestDTO(List.of(1L, 2L, 3L), null, "replace"));
+
+        assertEquals(3, result.getDoctors());
+        assertEquals(9, result.getCreated());
+        assertEquals(10, result.getReplaced());
+        assertEquals(0, result.getSkipped());
+        assertEquals(1, result.getNeedsReschedule());
+        verify(impactService).markNeedsReschedule(List.of(stranded));
+        verify(impactService).affectedByReplacing(eq(doctors.get(2)), eq(List.of()), anyList());
+        verify(availabilityBatchRepository, times(1)).insertAll(anyList());
+        verify(availabilityRepository, never()).save(any());
+        verify(occupancyCalendar).invalidate(2L);
+    }
+
+    @Test
+    void applyTemplate_ShouldSkipWindowsOverlappingExistingScheduleInAddMode() {
+        runTransactionsInline();
+        Specialty cardiology = new Specialty("Cardiology", null);
+        Availability existing = new Availability(doctors.get(0), "Monday", LocalTime.of(9, 30), LocalTime.of(10, 30));
+        existing.setId(50L);
+        when(scheduleTemplateRepository.findById(1L)).thenReturn(Optional.of(template));
+        when(specialtyService.getSpecialtyById(4L)).thenReturn(Optional.of(cardiology));
+        when(doctorRepository.findBySpecialtyAndIsActiveTrueOrderByPopularityDesc(cardiology)).thenReturn(doctors.subList(0, 2));
+        when(availabilityRepository.findByDoctorInAndIsActiveTrue(doctors.subList(0, 2))).thenReturn(List.of(existing));
+        when(availabilityBatchRepository.insertAll(anyList())).thenAnswer(i -> ((List<?>) i.getArgument(0)).size());
+
+        TemplateApplyResultDTO result = scheduleTemplateService.applyTemplate(1L,
+            new TemplateApplyRequestDTO(null, 4L, "add"));
+
+        assertEquals(2, result.getSkipped());
+        assertEquals(4, result.getCreated());
+        assertEquals(0, result.getReplaced());
+        verify(availabilityRepository, never()).deleteByDoctorIn(any());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Availability>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(availabilityBatchRepository).insertAll(inserted.capture());
+        assertTrue(inserted.getValue().stream().allMatch(row -> row.getIsActive() && row.getId() == null));
+    }
+
+    @Test
+    void createTemplate_ShouldDefaultWindowCapacityAndRejectOutOfRange() {
+        when(scheduleTemplateRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        template.getWindows().get(0).setCapacity(null);
+
+        scheduleTemplateService.createTemplate(template);
+        assertEquals(1, template.getWindows().get(0).getCapacity());
+
+        template.getWindows().get(1).setCapacity(0);
+        assertThrows(IllegalArgumentException.class, () -> scheduleTemplateService.createTemplate(template));
+    }
+
+    @Test
+    void applyTemplate_ShouldCarryWindowCapacityIntoTheInsertedRows() {
+        runTransactionsInline();
+        template.getWindows().get(2).setCapacity(8);
+        when(scheduleTemplateRepository.findById(1L)).thenReturn(Optional.of(template));
+        when(doctorRepository.findAllById(List.of(1L))).thenReturn(doctors.subList(0, 1));
+        when(availabilityBatchRepository.insertAll(anyList())).thenAnswer(i -> ((List<?>) i.getArgument(0)).size());
+
+        scheduleTemplateService.applyTemplate(1L, new TemplateApplyRequestDTO(List.of(1L), null, "add"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Availability>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(availabilityBatchRepository).insertAll(inserted.capture());
+        assertEquals(List.of(1, 1, 8), inserted.getValue().stream().map(Availability::getCapacity).toList());
+    }
+
+    @Test
+    void applyTemplate_WithoutMode_ShouldAddRatherThanWipeTheSchedule() {
+        runTransactionsInline();
+        when(scheduleTemplateRepository.findById(1L)).thenReturn(Optional.of(template));
+        when(doctorRepository.findAllById(List.of(1L))).thenReturn(doctors.subList(0, 1));
+        when(availabilityBatchRepository.insertAll(anyList())).thenAnswer(i -> ((List<?>) i.getArgument(0)).size());
+
+        TemplateApplyResultDTO result = scheduleTemplateService.applyTemplate(1L,
+            new TemplateApplyRequestDTO(List.of(1L), null, null));
+
+        assertEquals(3, result.getCreated());
+        assertEquals(0, result.getReplaced());
+        verify(availabilityRepository, never()).deleteByDoctorIn(any());
+        verify(impactService, never()).affectedByReplacing(any(), any(), any());
+    }
+
+    @Test
+    void applyTemplate_ShouldRejectEmptyTargetAndUnknownMode() {
+        when(scheduleTemplateRepository.findById(1L)).thenReturn(Optional.of(template));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> scheduleTemplateService.applyTemplate(1L, new TemplateApplyRequestDTO(List.of(), null, "replace")));
+        assertThrows(IllegalArgumentException.class,
+            () -> scheduleTemplateService.applyTemplate(1L, new TemplateApplyRequestDTO(List.of(1L), null, "overwrite")));
+        verifyNoInteractions(availabilityBatchRepository);
+    }
+
+    @Test
+    void applyTemplate_ShouldThrowWhenTemplateMissing() {
+        when(scheduleTemplateRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class,
+            () -> scheduleTemplateService.applyTemplate(9L, new TemplateApplyRequestDTO(List.of(1L), null, null)));
+    }
+}
@@ -0,0 +1,144 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.User;
+
+class SlotHoldServiceTest {
+
+    private SlotHoldService slotHoldService;
+    private Doctor doctor;
+    private LocalDateTime slot;
+
+    @BeforeEach
+    void setUp() {
+        slotHoldService = new SlotHoldService();
+        doctor = new Doctor();
+        doctor.setId(1L);
+        slot = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    private Appointment checkout(long patientId, LocalDateTime start) {
+        User patient = new User();
+        patient.setId(patientId);
+        return new Appointment(patient, doctor, start);
+    }
+
+    private static long afterExpiry() {
+        return System.currentTimeMillis() + 30 * 60_000 + 2 * SlotHoldService.TICK_MILLIS;
+    }
+
+    private static long afterLatePaymentWindow() {
+        return afterExpiry() + 1440 * 60_000L;
+    }
+
+    @Test
+    void place_ShouldBlockOtherPatientsUntilReleased() {
+        SlotHoldService.SlotHold hold = slotHoldService.place(checkout(1L, slot));
+
+        assertTrue(slotHoldService.isHeldByOther(1L, slot, 2L));
+        assertFalse(slotHoldService.isHeldByOther(1L, slot, 1L));
+        assertThrows(IllegalStateException.class, () -> slotHoldService.place(checkout(2L, slot)));
+
+        assertTrue(slotHoldService.release(hold.getToken()));
+        assertFalse(slotHoldService.isHeldByOther(1L, slot, 2L));
+        assertNotNull(slotHoldService.place(checkout(2L, slot)));
+    }
+
+    @Test
+    void take_ShouldSucceedOnlyOnce() {
+        SlotHoldService.SlotHold hold = slotHoldService.place(checkout(1L, slot));
+
+        assertSame(hold, slotHoldService.take(hold.getToken()));
+        assertThrows(IllegalStateException.class, () -> slotHoldService.take(hold.getToken()));
+        assertEquals(0, slotHoldService.getActiveHolds());
+    }
+
+    @Test
+    void expireHolds_ShouldDropHoldsOnceTheWheelPassesTheirDeadline() {
+        SlotHoldService.SlotHold hold = slotHoldService.place(checkout(1L, slot));
+
+        assertEquals(0, slotHoldService.expireHolds(System.currentTimeMillis()));
+        assertEquals(1, slotHoldService.expireHolds(afterExpiry()));
+
+        assertEquals(0, slotHoldService.getActiveHolds());
+        assertFalse(slotHoldService.isHeldByOther(1L, slot, 2L));
+        // A payment that finishes late can still claim the booking, once
+        assertSame(hold, slotHoldService.find(hold.getToken()));
+        assertSame(hold, slotHoldService.take(hold.getToken()));
+        assertThrows(IllegalStateException.class, () -> slotHoldService.take(hold.getToken()));
+    }
+
+    @Test
+    void expireHolds_ShouldForgetExpiredHoldsAfterTheLatePaymentWindow() {
+        SlotHoldService.SlotHold hold = slotHoldService.place(checkout(1L, slot));
+        slotHoldService.expireHolds(afterExpiry());
+
+        assertEquals(1, slotHoldService.expireHolds(afterLatePaymentWindow()));
+        assertThrows(IllegalStateException.class, () -> slotHoldService.find(hold.getToken()));
+        assertThrows(IllegalStateException.class, () -> slotHoldService.take(hold.getToken()));
+    }
+
+    @Test
+    void release_ShouldDropAHoldThatExpiredDuringPayment() {
+        SlotHoldService.SlotHold hold = slotHoldService.place(checkout(1L, slot));
+        slotHoldService.expireHolds(afterExpiry());
+
+        assertTrue(slotHoldService.release(hold.getToken()));
+        assertThrows(IllegalStateException.class, () -> slotHoldService.take(hold.getToken()));
+        assertEquals(0, slotHoldService.expireHolds(afterLatePaymentWindow()));
+    }
+
+    @Test
+    void expireHolds_ShouldSkipReleasedAndConfirmedHolds() {
+        List<SlotHoldService.SlotHold> holds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            holds.add(slotHoldService.place(checkout(i, slot.plusMinutes(30L * i))));
+        }
+        slotHoldService.take(holds.get(0).getToken());
+        slotHoldService.release(holds.get(1).getToken());
+
+        assertEquals(8, slotHoldService.expireHolds(afterExpiry()));
+        assertEquals(0, slotHoldService.getActiveHolds());
+    }
+
+    @Test
+    void timingWheel_ShouldFireDeadlinesBeyondOneRevolution() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 8, 0);
+        wheel.schedule("near", 30);
+        wheel.schedule("far", 250);
+        HashedTimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 40);
+        wheel.cancel(cancelled);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(50, fired::add);
+        assertEquals(List.of("near"), fired);
+        // Tick 25 shares a bucket with ticks 1, 9 and 17 but must wait for its own revolution
+        wheel.advance(200, fired::add);
+        assertEquals(List.of("near"), fired);
+        wheel.advance(250, fired::add);
+        assertEquals(List.of("near", "far"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void expireHolds_ShouldHandleLargeNumberOfAbandonedCheckouts() {
+        int checkouts = 100_000;
+        for (int i = 0; i < checkouts; i++) {
+            slotHoldService.place(checkout(i, slot.plusMinutes(i)));
+        }
+
+        int expired = slotHoldService.expireHolds(afterExpiry());
+        assertEquals(checkouts, expired);
+        assertEquals(0, slotHoldService.getActiveHolds());
+    }
+}
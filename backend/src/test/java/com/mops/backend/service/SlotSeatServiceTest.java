@@ -0,0 +1,115 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mops.backend.dto.SlotSeatsDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Availability;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.SlotSeats;
+import com.mops.backend.repository.SlotSeatsRepository;
+
+@ExtendWith(MockitoExtension.class)
+class SlotSeatServiceTest {
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private SlotSeatsRepository slotSeatsRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private SlotSeatService slotSeatService;
+
+    private Doctor doctor;
+    private LocalDateTime session;
+
+    @BeforeEach
+    void setUp() {
+        doctor = new Doctor();
+        doctor.setId(1L);
+        session = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.WEDNESDAY)).atTime(14, 0);
+    }
+
+    private Appointment seat(LocalDateTime start, boolean group) {
+        Appointment appointment = new Appointment(null, doctor, start);
+        appointment.setGroupSession(group);
+        return appointment;
+    }
+
+    @Test
+    void capacityAt_ShouldUseTheWindowStartingAtThatTime() {
+        Availability group = new Availability(doctor, "3", LocalTime.of(14, 0), LocalTime.of(15, 0));
+        group.setCapacity(12);
+        Availability single = new Availability(doctor, "3", LocalTime.of(9, 0), LocalTime.of(10, 0));
+        when(availabilityService.getActiveAvailabilitiesByDoctor(doctor)).thenReturn(List.of(single, group));
+
+        assertEquals(12, slotSeatService.capacityAt(doctor, session));
+        assertEquals(1, slotSeatService.capacityAt(doctor, session.withHour(9)));
+        assertEquals(1, slotSeatService.capacityAt(doctor, session.plusDays(1)));
+    }
+
+    @Test
+    void takeSeat_ShouldFailWhenTheConditionalIncrementMatchesNothing() {
+        when(slotSeatsRepository.takeSeat(1L, session)).thenReturn(1, 0);
+
+        slotSeatService.takeSeat(1L, session, 2);
+        assertThrows(IllegalStateException.class, () -> slotSeatService.takeSeat(1L, session, 2));
+
+        verify(slotSeatsRepository, times(2)).ensureSeats(eq(1L), eq(session), eq(2), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void releaseSeats_ShouldDecrementOncePerSessionAndIgnoreSingleBookings() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+
+        int released = slotSeatService.releaseSeats(List.of(
+            seat(session, true), seat(session, true), seat(session.plusWeeks(1), true), seat(session, false)));
+
+        assertEquals(3, released);
+        verify(slotSeatsRepository).releaseSeats(1L, session, 2);
+        verify(slotSeatsRepository).releaseSeats(1L, session.plusWeeks(1), 1);
+        verifyNoMoreInteractions(slotSeatsRepository);
+    }
+
+    @Test
+    void getSeats_ShouldReportRemainingSeatsFromTheCounters() {
+        SlotSeats seats = new SlotSeats();
+        seats.setDoctorId(1L);
+        seats.setSlotStart(session);
+        seats.setCapacity(10);
+        seats.setBooked(7);
+        when(slotSeatsRepository.findByDoctorIdAndSlotStartBetweenOrderBySlotStartAsc(eq(1L), any(), any()))
+            .thenReturn(List.of(seats));
+
+        List<SlotSeatsDTO> result = slotSeatService.getSeats(1L, session.toLocalDate(), session.toLocalDate());
+
+        assertEquals(3, result.get(0).getRemaining());
+        assertThrows(IllegalArgumentException.class,
+            () -> slotSeatService.getSeats(1L, session.toLocalDate(), session.toLocalDate().minusDays(1)));
+    }
+}
@@ -0,0 +1,240 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.mops.backend.dto.FreeSlotDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Availability;
+import com.mops.backend.model.AvailabilityOverride;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.Specialty;
+import com.mops.backend.repository.AppointmentRepository;
+import com.mops.backend.repository.DoctorRepository;
+
+@ExtendWith(MockitoExtension.class)
+class SlotServiceTest {
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private AvailabilityOverrideService overrideService;
+
+    @InjectMocks
+    private SlotService slotService;
+
+    private Doctor doctor;
+    private LocalDate monday;
+
+    @BeforeEach
+    void setUp() {
+        doctor = new Doctor();
+        doctor.setId(1L);
+
+        monday = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        lenient().when(overrideService.getIndex(any())).thenReturn(OverrideIndex.EMPTY);
+    }
+
+    private Availability window(String day, int startHour, int endHour) {
+        Availability availability = new Availability(doctor, day, LocalTime.of(startHour, 0), LocalTime.of(endHour, 0));
+        availability.setIsActive(true);
+        return availability;
+    }
+
+    private Appointment appointment(LocalDateTime date, String status) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setAppointmentDate(date);
+        appointment.setStatus(status);
+        return appointment;
+    }
+
+    @Test
+    void getFreeSlots_ShouldSubtractActiveAppointments() {
+        when(availabilityService.getActiveAvailabilitiesByDoctor(doctor))
+            .thenReturn(Arrays.asList(window("1", 9, 10), window("1", 10, 11), window("1", 11, 12)));
+        when(appointmentRepository.findByDoctorAndAppointmentDateBetween(eq(doctor), any(), any()))
+            .thenReturn(Arrays.asList(
+                appointment(monday.atTime(9, 0), "CONFIRMED"),
+                appointment(monday.atTime(10, 0), "CANCELLED")));
+
+        List<FreeSlotDTO> result = slotService.getFreeSlots(doctor, monday, monday);
+
+        assertEquals(2, result.size());
+        assertEquals(monday.atTime(10, 0), result.get(0).getStart());
+        assertEquals(monday.atTime(11, 0), result.get(0).getEnd());
+        assertEquals(monday.atTime(11, 0), result.get(1).getStart());
+    }
+
+    @Test
+    void getFreeSlots_ShouldKeepGroupSessionOpenUntilEverySeatIsTaken() {
+        Availability group = window("1", 9, 10);
+        group.setCapacity(3);
+        Availability fullGroup = window("1", 10, 11);
+        fullGroup.setCapacity(2);
+        when(availabilityService.getActiveAvailabilitiesByDoctor(doctor)).thenReturn(Arrays.asList(group, fullGroup));
+        when(appointmentRepository.findByDoctorAndAppointmentDateBetween(eq(doctor), any(), any()))
+            .thenReturn(Arrays.asList(
+                appointment(monday.atTime(9, 0), "CONFIRMED"),
+                appointment(monday.atTime(9, 0), "PENDING"),
+                appointment(monday.atTime(10, 0), "CONFIRMED"),
+                appointment(monday.atTime(10, 0), "CONFIRMED")));
+
+        List<FreeSlotDTO> result = slotService.getFreeSlots(doctor, monday, monday);
+
+        assertEquals(1, result.size());
+        assertEquals(monday.atTime(9, 0), result.get(0).getStart());
+    }
+
+    @Test
+    void getFreeSlots_ShouldAcceptDayNamesAndNumericDays() {
+        when(availabilityService.getActiveAvailabilitiesByDoctor(doctor))
+            .thenReturn(Arrays.asList(window("Monday", 9, 10), window("0", 9, 10)));
+        when(appointmentRepository.findByDoctorAndAppointmentDateBetween(eq(doctor), any(), any()))
+            .thenReturn(Collections.emptyList());
+
+        List<FreeSlotDTO> result = slotService.getFreeSlots(doctor, monday, monday.plusDays(6));
+
+        assertEquals(2, result.size());
+        assertEquals(DayOfWeek.MONDAY, result.get(0).getStart().getDayOfWeek());
+        assertEquals(DayOfWeek.SUNDAY, result.get(1).getStart().getDayOfWeek());
+    }
+
+    @Test
+    void getFreeSlots_ShouldApplyBlockedDaysAndExtraSessions() {
+        AvailabilityOverride holiday = new AvailabilityOverride(doctor, AvailabilityOverride.BLOCKED,
+            monday, monday, null, null);
+        AvailabilityOverride extraShift = new AvailabilityOverride(doctor, AvailabilityOverride.EXTRA,
+            monday.plusDays(5), monday.plusDays(5), LocalTime.of(10, 0), LocalTime.of(11, 0));
+        when(overrideService.getIndex(doctor)).thenReturn(OverrideIndex.compile(List.of(holiday, extraShift)));
+        when(availabilityService.getActiveAvailabilitiesByDoctor(doctor))
+            .thenReturn(Arrays.asList(window("1", 9, 10)));
+        when(appointmentRepository.findByDoctorAndAppointmentDateBetween(eq(doctor), any(), any()))
+            .thenReturn(Collections.emptyList());
+
+        List<FreeSlotDTO> result = slotService.getFreeSlots(doctor, monday, monday.plusDays(7));
+
+        assertEquals(2, result.size());
+        assertEquals(monday.plusDays(5).atTime(10, 0), result.get(0).getStart());
+        assertEquals(monday.plusWeeks(1).atTime(9, 0), result.get(1).getStart());
+    }
+
+    @Test
+    void getNextFreeSlots_ShouldFindDoctorsWithOnlyExtraSessions() {
+        AvailabilityOverride extraShift = new AvailabilityOverride(doctor, AvailabilityOverride.EXTRA,
+            monday.plusDays(2), monday.plusDays(2), LocalTime.of(14, 0), LocalTime.of(15, 0));
+        when(availabilityService.getActiveAvailabilitiesByDoctors(List.of(doctor)))
+            .thenReturn(Collections.emptyList());
+        when(overrideService.getIndexes(List.of(doctor)))
+            .thenReturn(Map.of(1L, OverrideIndex.compile(List.of(extraShift))));
+        when(appointmentRepository.findByDoctorAndAppointmentDateBetween(eq(doctor), any(), any()))
+            .thenReturn(Collections.emptyList());
+
+        Map<Long, FreeSlotDTO> result = slotService.getNextFreeSlots(List.of(doctor), monday, 30);
+
+        assertEquals(monday.plusDays(2).atTime(14, 0), result.get(1L).getStart());
+    }
+
+    @Test
+    void getFreeSlots_ShouldRejectInvalidRanges() {
+        assertThrows(IllegalArgumentException.class,
+            () -> slotService.getFreeSlots(doctor, monday, monday.minusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+            () -> slotService.getFreeSlots(doctor, monday, monday.plusDays(SlotService.MAX_RANGE_DAYS)));
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    @Test
+    void getNextFreeSlots_ShouldSkipFullyBookedWeeks() {
+        when(availabilityService.getActiveAvailabilitiesByDoctors(List.of(doctor)))
+            .thenReturn(List.of(window("1", 9, 10)));
+        when(appointmentRepository.findByDoctorAndAppointmentDateBetween(eq(doctor), any(), any()))
+            .thenReturn(List.of(appointment(monday.atTime(9, 0), "PENDING")))
+            .thenReturn(Collections.emptyList());
+
+        Map<Long, FreeSlotDTO> result = slotService.getNextFreeSlots(List.of(doctor), monday, 30);
+
+        assertEquals(monday.plusWeeks(1).atTime(9, 0), result.get(1L).getStart());
+        verify(appointmentRepository, times(2)).findByDoctorAndAppointmentDateBetween(eq(doctor), any(), any());
+    }
+
+    @Test
+    void getNextFreeSlots_ShouldOmitDoctorsWithoutAvailability() {
+        when(availabilityService.getActiveAvailabilitiesByDoctors(List.of(doctor)))
+            .thenReturn(Collections.emptyList());
+
+        Map<Long, FreeSlotDTO> result = slotService.getNextFreeSlots(List.of(doctor), monday, 30);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    @Test
+    void getFirstAvailableInSpecialty_ShouldMergeDoctorsChronologically() {
+        Specialty cardiology = new Specialty("Cardiology", null);
+        Doctor second = new Doctor();
+        second.setId(2L);
+        Availability secondWindow = new Availability(second, "1", LocalTime.of(8, 0), LocalTime.of(9, 0));
+
+        when(doctorRepository.findBySpecialtyAndIsActiveTrueOrderByPopularityDesc(cardiology))
+            .thenReturn(List.of(doctor, second));
+        when(availabilityService.getActiveAvailabilitiesByDoctors(List.of(doctor, second)))
+            .thenReturn(List.of(window("1", 9, 10), window("1", 10, 11), secondWindow));
+        when(appointmentRepository.findByDoctorInAndAppointmentDateBetween(eq(List.of(doctor, second)), any(), any()))
+            .thenReturn(List.of(appointment(monday.atTime(9, 0), "CONFIRMED")));
+
+        List<FreeSlotDTO> result = slotService.getFirstAvailableInSpecialty(cardiology, monday, 2, 30);
+
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getDoctorId());
+        assertEquals(monday.atTime(8, 0), result.get(0).getStart());
+        assertEquals(1L, result.get(1).getDoctorId());
+        assertEquals(monday.atTime(10, 0), result.get(1).getStart());
+        verify(appointmentRepository, never()).findByDoctorAndAppointmentDateBetween(any(), any(), any());
+    }
+
+    @Test
+    void getFirstAvailableInSpecialty_ShouldLoadLaterWeeksLazily() {
+        Specialty cardiology = new Specialty("Cardiology", null);
+        when(doctorRepository.findBySpecialtyAndIsActiveTrueOrderByPopularityDesc(cardiology))
+            .thenReturn(List.of(doctor));
+        when(availabilityService.getActiveAvailabilitiesByDoctors(List.of(doctor)))
+            .thenReturn(List.of(window("1", 9, 10)));
+        when(appointmentRepository.findByDoctorInAndAppointmentDateBetween(eq(List.of(doctor)), any(), any()))
+            .thenReturn(Collections.emptyList());
+        when(appointmentRepository.findByDoctorAndAppointmentDateBetween(eq(doctor), any(), any()))
+            .thenReturn(Collections.emptyList());
+
+        List<FreeSlotDTO> result = slotService.getFirstAvailableInSpecialty(cardiology, monday, 2, 90);
+
+        assertEquals(monday.atTime(9, 0), result.get(0).getStart());
+        assertEquals(monday.plusWeeks(1).atTime(9, 0), result.get(1).getStart());
+        verify(appointmentRepository, times(1)).findByDoctorAndAppointmentDateBetween(eq(doctor), any(), any());
+    }
+}
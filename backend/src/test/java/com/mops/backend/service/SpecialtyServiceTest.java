@@ -13,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.mops.backend.model.Specialty;
@@ -24,6 +25,9 @@ class SpecialtyServiceTest {
     @Mock
     private SpecialtyRepository specialtyRepository;
 
+    @Spy
+    private CatalogCache catalogCache = new CatalogCache();
+
     @InjectMocks
     private SpecialtyService specialtyService;
 
@@ -111,6 +115,33 @@ class SpecialtyServiceTest {
         assertEquals("Neurology", updated.getName());
         assertEquals("Brain and nervous system", updated.getDescription());
         verify(specialtyRepository).save(specialty);
+        verify(catalogCache).invalidateSpecialty(1L);
+        verify(catalogCache).invalidateDoctors();
+    }
+
+    @Test
+    void specialtyReads_ShouldBeCachedUntilTheSpecialtyChanges() {
+        when(specialtyRepository.findAll()).thenReturn(Arrays.asList(specialty));
+        when(specialtyRepository.findById(1L)).thenReturn(Optional.of(specialty));
+        when(specialtyRepository.findById(2L)).thenReturn(Optional.empty());
+
+        specialtyService.getAllSpecialties();
+        specialtyService.getSpecialtyById(1L);
+        specialtyService.getSpecialtyById(1L);
+        specialtyService.getAllSpecialties();
+        // Unknown ids are looked up every time, so a specialty created later is found at once
+        specialtyService.getSpecialtyById(2L);
+        specialtyService.getSpecialtyById(2L);
+        verify(specialtyRepository, times(1)).findAll();
+        verify(specialtyRepository, times(1)).findById(1L);
+        verify(specialtyRepository, times(2)).findById(2L);
+
+        specialtyService.deleteSpecialty(1L);
+        specialtyService.getAllSpecialties();
+        specialtyService.getSpecialtyById(1L);
+        verify(specialtyRepository, times(2)).findAll();
+        verify(specialtyRepository, times(2)).findById(1L);
+        verify(catalogCache, never()).invalidateDoctors();
     }
 
     @Test
@@ -24,6 +24,9 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CatalogCache catalogCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -131,6 +134,7 @@ class UserServiceTest {
         assertEquals("0787654321", result.getPhoneNumber());
         assertEquals("DOCTOR", result.getRole());
         assertNotNull(result.getUpdatedAt(), "UpdatedAt should be set on update.");
+        verify(catalogCache).invalidateDoctors();
     }
 
     @Test
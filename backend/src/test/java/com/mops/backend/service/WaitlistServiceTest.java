@@ -0,0 +1,239 @@
+package com.mops.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mops.backend.dto.WaitlistEntryDTO;
+import com.mops.backend.dto.WaitlistOfferDTO;
+import com.mops.backend.model.Appointment;
+import com.mops.backend.model.Doctor;
+import com.mops.backend.model.User;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistServiceTest {
+
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
+    @InjectMocks
+    private WaitlistService waitlistService;
+
+    private Doctor doctor;
+    private LocalDate tomorrow;
+
+    @BeforeEach
+    void setUp() {
+        doctor = new Doctor();
+        doctor.setId(1L);
+
+        tomorrow = LocalDate.now().plusDays(1);
+    }
+
+    private User patient(long id) {
+        User patient = new User();
+        patient.setId(id);
+        patient.setEmail("patient" + id + "@test.com");
+        return patient;
+    }
+
+    private Appointment cancelled(int hour) {
+        Appointment appointment = new Appointment(patient(99L), doctor, tomorrow.atTime(hour, 0));
+        appointment.setStatus("CANCELLED");
+        return appointment;
+    }
+
+    @Test
+    void join_ShouldRejectDuplicatesAndPastDays() {
+        User patient = patient(1L);
+        waitlistService.join(doctor, patient, tomorrow);
+
+        assertThrows(IllegalStateException.class, () -> waitlistService.join(doctor, patient, tomorrow));
+        assertThrows(IllegalArgumentException.class,
+            () -> waitlistService.join(doctor, patient, LocalDate.now().minusDays(1)));
+    }
+
+    @Test
+    void offerReleasedSlot_ShouldOfferToFirstWaitingPatientAndHoldSlot() {
+        waitlistService.join(doctor, patient(1L), tomorrow);
+        waitlistService.join(doctor, patient(2L), tomorrow);
+
+        waitlistService.offerReleasedSlot(cancelled(9));
+
+        List<WaitlistOfferDTO> offers = waitlistService.getOffersByPatient(1L);
+        assertEquals(1, offers.size());
+        assertEquals(tomorrow.atTime(9, 0), offers.get(0).getSlotStart());
+        assertEquals(1, waitlistService.getQueue(1L, tomorrow).size());
+        assertTrue(waitlistService.isOfferedToOther(1L, tomorrow.atTime(9, 0), 2L));
+        assertFalse(waitlistService.isOfferedToOther(1L, tomorrow.atTime(9, 0), 1L));
+        verify(notificationDispatcher).dispatchWaitlistOffers(argThat(batch -> batch.size() == 1
+            && batch.get(0).getPatient().getId().equals(1L)
+            && batch.get(0).getSlotStart().equals(tomorrow.atTime(9, 0))));
+    }
+
+    @Test
+    void offerReleasedSlots_ShouldQueueTheWholeBatchOfOfferEmailsAsOneTask() {
+        for (long id = 1; id <= 3; id++) {
+            waitlistService.join(doctor, patient(id), tomorrow);
+        }
+
+        assertEquals(3, waitlistService.offerReleasedSlots(List.of(cancelled(9), cancelled(10), cancelled(11))));
+
+        verify(notificationDispatcher, times(1)).dispatchWaitlistOffers(argThat(batch -> batch.size() == 3));
+    }
+
+    @Test
+    void offerReleasedSlot_ShouldSkipPatientsWhoLeft() {
+        WaitlistEntryDTO first = waitlistService.join(doctor, patient(1L), tomorrow);
+        waitlistService.join(doctor, patient(2L), tomorrow);
+        waitlistService.leave(first.getId());
+
+        waitlistService.offerReleasedSlot(cancelled(9));
+
+        assertTrue(waitlistService.getOffersByPatient(1L).isEmpty());
+        assertEquals(1, waitlistService.getOffersByPatient(2L).size());
+    }
+
+    @Test
+    void expireOffers_ShouldFallThroughToNextPatient() {
+        ReflectionTestUtils.setField(waitlistService, "offerMinutes", 0L);
+        waitlistService.join(doctor, patient(1L), tomorrow);
+        waitlistService.join(doctor, patient(2L), tomorrow);
+        waitlistService.offerReleasedSlot(cancelled(9));
+        ReflectionTestUtils.setField(waitlistService, "offerMinutes", 15L);
+
+        waitlistService.expireOffers();
+
+        assertTrue(waitlistService.getOffersByPatient(1L).isEmpty());
+        assertEquals(1, waitlistService.getOffersByPatient(2L).size());
+        assertTrue(waitlistService.getEntriesByPatient(1L).isEmpty());
+    }
+
+    @Test
+    void expireOffers_ShouldDropEntriesOfDaysThatAreOver() {
+        User patient = patient(1L);
+        waitlistService.join(doctor, patient, tomorrow);
+
+        waitlistService.expireOffers(tomorrow.plusDays(1).atStartOfDay());
+
+        assertTrue(waitlistService.getQueue(1L, tomorrow).isEmpty());
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(waitlistService, "entries")).isEmpty());
+        // The membership went with it, so the patient could join again
+        assertDoesNotThrow(() -> waitlistService.join(doctor, patient, tomorrow));
+    }
+
+    @Test
+    void abandonClaim_ShouldOfferSlotToNextPatient() {
+        waitlistService.join(doctor, patient(1L), tomorrow);
+        waitlistService.join(doctor, patient(2L), tomorrow);
+        waitlistService.offerReleasedSlot(cancelled(9));
+        WaitlistService.SlotOffer offer =
+            waitlistService.claimOffer(waitlistService.getOffersByPatient(1L).get(0).getId(), 1L);
+
+        waitlistService.abandonClaim(offer);
+
+        assertTrue(waitlistService.getOffersByPatient(1L).isEmpty());
+        assertEquals(1, waitlistService.getOffersByPatient(2L).size());
+        assertFalse(waitlistService.isOfferedToOther(1L, offer.getSlotStart(), 2L));
+    }
+
+    @Test
+    void claimOffer_ShouldBeAtomicAndOwnedByPatient() {
+        waitlistService.join(doctor, patient(1L), tomorrow);
+        waitlistService.offerReleasedSlot(cancelled(9));
+        Long offerId = waitlistService.getOffersByPatient(1L).get(0).getId();
+
+        assertThrows(IllegalArgumentException.class, () -> waitlistService.claimOffer(offerId, 2L));
+        WaitlistService.SlotOffer offer = waitlistService.claimOffer(offerId, 1L);
+        assertThrows(IllegalStateException.class, () -> waitlistService.claimOffer(offerId, 1L));
+        assertTrue(waitlistService.isOfferedToOther(1L, offer.getSlotStart(), 2L));
+
+        waitlistService.completeClaim(offer);
+        assertFalse(waitlistService.isOfferedToOther(1L, offer.getSlotStart(), 2L));
+        assertThrows(RuntimeException.class, () -> waitlistService.claimOffer(offerId, 1L));
+    }
+
+    @Test
+    void declineOffer_ShouldOfferSlotToNextPatient() {
+        waitlistService.join(doctor, patient(1L), tomorrow);
+        waitlistService.join(doctor, patient(2L), tomorrow);
+        waitlistService.offerReleasedSlot(cancelled(9));
+
+        waitlistService.declineOffer(waitlistService.getOffersByPatient(1L).get(0).getId(), 1L);
+
+        assertEquals(1, waitlistService.getOffersByPatient(2L).size());
+    }
+
+    @Test
+    void offerReleasedSlots_ShouldHandleBurstOfConcurrentCancellations() throws Exception {
+        int patients = 200;
+        for (long id = 1; id <= patients; id++) {
+            waitlistService.join(doctor, patient(id), tomorrow);
+        }
+        List<Appointment> released = new ArrayList<>();
+        for (int i = 0; i < patients; i++) {
+            Appointment appointment = new Appointment(patient(999L), doctor, tomorrow.atTime(8, 0).plusMinutes(i));
+            appointment.setStatus("CANCELLED");
+            released.add(appointment);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            executor.submit(() -> {
+                start.await();
+                List<Appointment> share = new ArrayList<>();
+                for (int i = offset; i < released.size(); i += 8) {
+                    share.add(released.get(i));
+                }
+                // Every thread also replays a few slots another thread owns
+                share.add(released.get((offset + 1) % 8));
+                return waitlistService.offerReleasedSlots(share);
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Set<LocalDateTime> offeredSlots = new HashSet<>();
+        for (long id = 1; id <= patients; id++) {
+            List<WaitlistOfferDTO> offers = waitlistService.getOffersByPatient(id);
+            assertEquals(1, offers.size(), "patient " + id);
+            assertTrue(offeredSlots.add(offers.get(0).getSlotStart()));
+        }
+        assertTrue(waitlistService.getQueue(1L, tomorrow).isEmpty());
+    }
+
+    @Test
+    void offerReleasedSlot_ShouldIgnorePastSlots() {
+        waitlistService.join(doctor, patient(1L), LocalDate.now());
+        Appointment past = new Appointment(patient(99L), doctor, LocalDateTime.now().minusHours(1));
+
+        waitlistService.offerReleasedSlot(past);
+
+        assertTrue(waitlistService.getOffersByPatient(1L).isEmpty());
+        verifyNoInteractions(notificationDispatcher);
+    }
+}
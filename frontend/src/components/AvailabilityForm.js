@@ -9,6 +9,7 @@ function AvailabilityForm({ doctor, onCancel, onSuccess }) {
     ]);
     const [selectedDays, setSelectedDays] = useState([]);
     const [loading, setLoading] = useState(false);
+    const [capacity, setCapacity] = useState(1);
 
     const daysOfWeek = [
         { value: 1, label: 'Monday' },
@@ -70,6 +71,11 @@ function AvailabilityForm({ doctor, onCancel, onSuccess }) {
             return;
         }
 
+        if (!Number.isInteger(capacity) || capacity < 1) {
+            alert('Capacity must be at least 1');
+            return;
+        }
+
         setLoading(true);
 
         try {
@@ -83,6 +89,7 @@ function AvailabilityForm({ doctor, onCancel, onSuccess }) {
                         dayOfWeek: day,
                         startTime: slot.startTime,
                         endTime: slot.endTime,
+                        capacity: capacity,
                         isActive: true
                     });
                 }
@@ -90,27 +97,22 @@ function AvailabilityForm({ doctor, onCancel, onSuccess }) {
 
             console.log('Creating availabilities:', availabilitiesToCreate);
 
-            // Trimitem toate request-urile
-            const promises = availabilitiesToCreate.map(availability =>
-                fetch(`${API_BASE_URL}/availability`, {
-                    method: 'POST',
-                    headers: { 'Content-Type': 'application/json' },
-                    body: JSON.stringify(availability)
-                })
-            );
+            // Trimitem toate intervalele într-un singur request, validate împreună pe server
+            const response = await fetch(`${API_BASE_URL}/availability/bulk`, {
+                method: 'POST',
+                headers: { 'Content-Type': 'application/json' },
+                body: JSON.stringify(availabilitiesToCreate)
+            });
 
-            const results = await Promise.all(promises);
-            
-            const failedRequests = results.filter(res => !res.ok);
-            
-            if (failedRequests.length === 0) {
+            if (response.ok) {
                 alert(`Successfully added ${availabilitiesToCreate.length} availability slots!`);
                 setTimeSlots([{ startTime: '', endTime: '', id: Date.now() }]);
                 setSelectedDays([]);
+                setCapacity(1);
                 onSuccess();
             } else {
-                alert(`Added ${results.length - failedRequests.length} slots, but ${failedRequests.length} failed.`);
-                onSuccess();
+                const error = await response.json().catch(() => ({}));
+                alert(error.message || 'Error adding availability. Please try again.');
             }
         } catch (err) {
             console.error('Error adding availability:', err);
@@ -267,6 +269,19 @@ function AvailabilityForm({ doctor, onCancel, onSuccess }) {
                         </button>
                     </div>
 
+                    {/* Group sessions */}
+                    <div className="form-group">
+                        <label>Patients per Slot</label>
+                        <input
+                            type="number"
+                            min="1"
+                            value={capacity}
+                            onChange={(e) => setCapacity(parseInt(e.target.value, 10) || 1)}
+                            className="form-input"
+                        />
+                        <small style={{color: '#666'}}>Leave at 1 for regular appointments; use more for group sessions.</small>
+                    </div>
+
                     {/* Preview */}
                     {selectedDays.length > 0 && timeSlots.length > 0 && (
                         <div className="availability-preview">
@@ -280,6 +295,7 @@ function AvailabilityForm({ doctor, onCancel, onSuccess }) {
                                     return timeSlots.map((slot, index) => (
                                         <li key={`${day}-${index}`}>
                                             {dayName}: {slot.startTime} - {slot.endTime}
+                                            {capacity > 1 && ` (${capacity} seats)`}
                                         </li>
                                     ));
                                 })}
@@ -20,7 +20,7 @@ const CATEGORIES = [
     description:
       'These cookies enable additional functionality that improves your experience. Disabling them may affect certain features.',
     cookies: [
-      { name: 'pendingAppointmentId', purpose: 'Temporarily tracks your appointment during the payment process to confirm it once payment is complete.' },
+      { name: 'pendingHoldToken', purpose: 'Temporarily tracks the time slot reserved for you during the payment process to confirm it once payment is complete.' },
     ],
   },
 ];
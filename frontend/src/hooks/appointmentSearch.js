@@ -0,0 +1,32 @@
+const API_BASE_URL = 'http://localhost:7000/api';
+
+export const SEARCH_PAGE_SIZE = 20;
+
+// The search endpoint takes local date-times without a zone
+export function toLocalDateTime(date) {
+  const pad = (n) => String(n).padStart(2, '0');
+  return `${date.getFullYear()}-${pad(date.getMonth() + 1)}-${pad(date.getDate())}T${pad(date.getHours())}:${pad(date.getMinutes())}:${pad(date.getSeconds())}`;
+}
+
+// One keyset page; params is a list of [name, value] pairs so status can repeat
+export async function searchAppointments(params, cursor) {
+  const query = new URLSearchParams(params);
+  if (cursor) query.set('cursor', cursor);
+  const response = await fetch(`${API_BASE_URL}/appointments/search?${query}`);
+  if (!response.ok) {
+    throw new Error('Failed to fetch appointments');
+  }
+  return response.json();
+}
+
+// Follows the cursor to the end; only for sets bounded by the filters, such as upcoming bookings
+export async function searchAllAppointments(params) {
+  const items = [];
+  let cursor = null;
+  do {
+    const page = await searchAppointments([...params, ['limit', '100']], cursor);
+    items.push(...page.items);
+    cursor = page.nextCursor;
+  } while (cursor);
+  return items;
+}
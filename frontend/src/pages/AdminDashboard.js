@@ -107,13 +107,26 @@ function AdminDashboard() {
         }
     };
 
-    const handleToggleDoctorStatus = async (doctorId) => {
+    const handleToggleDoctorStatus = async (doctor) => {
         try {
-            const response = await fetch(`${API_BASE_URL}/doctors/${doctorId}/toggle-status`, {
+            let url = `${API_BASE_URL}/doctors/${doctor.id}/toggle-status`;
+            if (doctor.isActive) {
+                const cancelAppointments = window.confirm(
+                    'Also cancel all upcoming appointments of this doctor? Patients will be notified by email.'
+                );
+                url = `${API_BASE_URL}/doctors/${doctor.id}/deactivate?cancelAppointments=${cancelAppointments}`;
+            }
+            const response = await fetch(url, {
                 method: 'PUT'
             });
 
             if (response.ok) {
+                if (doctor.isActive) {
+                    const result = await response.json();
+                    if (result.cancelled > 0) {
+                        alert(`Doctor deactivated, ${result.cancelled} upcoming appointment(s) cancelled`);
+                    }
+                }
                 fetchDashboardData();
             } else {
                 alert('Failed to toggle doctor status');
@@ -189,6 +202,8 @@ function AdminDashboard() {
             case 'CONFIRMED': return 'status-confirmed';
             case 'REJECTED': return 'status-rejected';
             case 'CANCELLED': return 'status-cancelled';
+            case 'EXPIRED': return 'status-cancelled';
+            case 'NEEDS_RESCHEDULE': return 'status-pending';
             case 'COMPLETED': return 'status-completed';
             default: return '';
         }
@@ -375,7 +390,7 @@ function AdminDashboard() {
                                                         Availability
                                                     </button>
                                                     <button
-                                                        onClick={() => handleToggleDoctorStatus(doctor.id)}
+                                                        onClick={() => handleToggleDoctorStatus(doctor)}
                                                         className={`btn-toggle ${doctor.isActive ? 'btn-deactivate' : ''}`}
                                                         title={doctor.isActive ? 'Deactivate' : 'Activate'}
                                                     >
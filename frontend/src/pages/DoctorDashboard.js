@@ -3,6 +3,7 @@ import { useNavigate } from 'react-router-dom';
 import { useAuth } from '../context/AuthContext';
 import MedicalReportGenerator from '../components/MedicalReportGenerator';
 import MedicalReportViewer from '../components/MedicalReportViewer';
+import { SEARCH_PAGE_SIZE, searchAllAppointments, searchAppointments, toLocalDateTime } from '../hooks/appointmentSearch';
 import './DoctorDashboard.css';
 
 const API_BASE_URL = 'http://localhost:7000/api';
@@ -13,6 +14,10 @@ function DoctorDashboard() {
 
     const [doctorInfo, setDoctorInfo] = useState(null);
     const [appointments, setAppointments] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
+    const [bookedAppointments, setBookedAppointments] = useState([]);
+    const [statusCounts, setStatusCounts] = useState({});
     const [filteredAppointments, setFilteredAppointments] = useState([]);
     const [medicalReports, setMedicalReports] = useState({});
     const [loading, setLoading] = useState(true);
@@ -36,9 +41,21 @@ function DoctorDashboard() {
         fetchDoctorData();
     }, [user, authLoading, navigate]);
 
+    useEffect(() => {
+        if (!doctorInfo) return;
+        fetchAppointments(doctorInfo.id);
+        // eslint-disable-next-line react-hooks/exhaustive-deps
+    }, [doctorInfo, activeTab, statusFilter]);
+
+    useEffect(() => {
+        if (!doctorInfo) return;
+        fetchBookedAppointments(doctorInfo.id);
+        fetchStatusCounts(doctorInfo.id);
+    }, [doctorInfo]);
+
     useEffect(() => {
         filterAppointments();
-    }, [appointments, activeTab, statusFilter, searchQuery]);
+    }, [appointments, searchQuery]);
 
     const fetchMedicalReports = async (appointmentsData) => {
         const reportsMap = {};
@@ -56,7 +73,7 @@ function DoctorDashboard() {
             }
         }
 
-        setMedicalReports(reportsMap);
+        setMedicalReports(previous => ({ ...previous, ...reportsMap }));
     };
 
     const fetchDoctorData = async () => {
@@ -72,18 +89,6 @@ function DoctorDashboard() {
             const doctorData = await doctorResponse.json();
             setDoctorInfo(doctorData);
 
-            
-            const appointmentsResponse = await fetch(`${API_BASE_URL}/appointments/doctor/${doctorData.id}`);
-            if (!appointmentsResponse.ok) {
-                throw new Error('Failed to fetch appointments');
-            }
-            const appointmentsData = await appointmentsResponse.json();
-            setAppointments(appointmentsData);
-
-            // Fetch medical reports for completed appointments
-            await fetchMedicalReports(appointmentsData);
-
-
 
             setLoading(false);
         } catch (err) {
@@ -93,27 +98,90 @@ function DoctorDashboard() {
         }
     };
 
-    const filterAppointments = () => {
-        let filtered = [...appointments];
-
-
-        const now = new Date();
+    // Upcoming and past are separate keyset listings, sorted and filtered by status on the server
+    const listParams = (doctorId) => {
+        const now = toLocalDateTime(new Date());
+        const params = [['doctorId', doctorId], ['limit', String(SEARCH_PAGE_SIZE)]];
         if (activeTab === 'upcoming') {
-            filtered = filtered.filter(apt => new Date(apt.appointmentDate) >= now);
-
-            filtered.sort((a, b) => new Date(a.appointmentDate) - new Date(b.appointmentDate));
+            params.push(['from', now], ['sort', 'asc']);
         } else {
-            filtered = filtered.filter(apt => new Date(apt.appointmentDate) < now);
+            params.push(['to', now], ['sort', 'desc']);
+        }
+        if (statusFilter !== 'ALL') {
+            params.push(['status', statusFilter]);
+        }
+        return params;
+    };
 
-            filtered.sort((a, b) => new Date(b.appointmentDate) - new Date(a.appointmentDate));
+    const fetchAppointments = async (doctorId) => {
+        try {
+            const page = await searchAppointments(listParams(doctorId));
+            setAppointments(page.items);
+            setNextCursor(page.nextCursor);
+            // Fetch medical reports for completed appointments
+            await fetchMedicalReports(page.items);
+        } catch (err) {
+            console.error('Error fetching appointments:', err);
+            setError('Failed to load appointments. Please try again.');
         }
+    };
 
+    const handleLoadMore = async () => {
+        if (!doctorInfo || !nextCursor) return;
+        try {
+            setLoadingMore(true);
+            const page = await searchAppointments(listParams(doctorInfo.id), nextCursor);
+            setAppointments(previous => [...previous, ...page.items]);
+            setNextCursor(page.nextCursor);
+            await fetchMedicalReports(page.items);
+        } catch (err) {
+            console.error('Error fetching appointments:', err);
+            setError('Failed to load more appointments');
+            setTimeout(() => setError(null), 3000);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
 
-        if (statusFilter !== 'ALL') {
-            filtered = filtered.filter(apt => apt.status === statusFilter);
+    // Bookings from today on drive the stats, today's banner and the booked hours
+    const fetchBookedAppointments = async (doctorId) => {
+        try {
+            const today = new Date();
+            today.setHours(0, 0, 0, 0);
+            setBookedAppointments(await searchAllAppointments([
+                ['doctorId', doctorId],
+                ['from', toLocalDateTime(today)],
+                ['status', 'PENDING'],
+                ['status', 'CONFIRMED']
+            ]));
+        } catch (err) {
+            console.error('Error fetching booked appointments:', err);
         }
+    };
+
+    // All-time totals per status, counted by the server instead of over the loaded pages
+    const fetchStatusCounts = async (doctorId) => {
+        try {
+            const response = await fetch(`${API_BASE_URL}/appointments/search/counts?doctorId=${doctorId}`);
+            if (response.ok) {
+                setStatusCounts(await response.json());
+            }
+        } catch (err) {
+            console.error('Error fetching appointment counts:', err);
+        }
+    };
+
+    const refreshAppointments = () => {
+        if (!doctorInfo) return;
+        fetchAppointments(doctorInfo.id);
+        fetchBookedAppointments(doctorInfo.id);
+        fetchStatusCounts(doctorInfo.id);
+    };
+
+    // Patient names are not indexed, so the search box filters the pages already loaded
+    const filterAppointments = () => {
+        let filtered = [...appointments];
 
-        // Filter by search query (patient name or ID)
         if (searchQuery.trim()) {
             const query = searchQuery.toLowerCase().trim();
             filtered = filtered.filter(apt => {
@@ -142,7 +210,7 @@ function DoctorDashboard() {
 
             if (response.ok) {
                 setSuccess('Appointment cancelled successfully');
-                fetchDoctorData();
+                refreshAppointments();
                 setTimeout(() => setSuccess(null), 3000);
             } else {
                 setError('Failed to cancel appointment');
@@ -155,51 +223,45 @@ function DoctorDashboard() {
         }
     };
 
-    const handleCompleteAppointment = async (appointmentId) => {
-        if (!window.confirm('Mark this appointment as completed?')) {
+    const handleCopyCalendarFeed = async () => {
+        // The feed link is only issued with the login response
+        if (!user?.calendarFeedPath) {
+            setError('Please sign in again to get your calendar feed link');
+            setTimeout(() => setError(null), 3000);
             return;
         }
-
         try {
-            const response = await fetch(`${API_BASE_URL}/appointments/${appointmentId}/complete`, {
-                method: 'PUT'
-            });
-
-            if (response.ok) {
-                setSuccess('Appointment marked as completed');
-                fetchDoctorData();
-                setTimeout(() => setSuccess(null), 3000);
-            } else {
-                setError('Failed to update appointment');
-                setTimeout(() => setError(null), 3000);
-            }
+            const feedUrl = API_BASE_URL.replace(/\/api$/, '') + user.calendarFeedPath;
+            await navigator.clipboard.writeText(feedUrl);
+            setSuccess('Calendar feed link copied - add it to your calendar app as a subscription');
+            setTimeout(() => setSuccess(null), 4000);
         } catch (err) {
-            console.error('Error completing appointment:', err);
-            setError('Error updating appointment');
+            console.error('Error getting calendar feed:', err);
+            setError('Error getting calendar feed link');
             setTimeout(() => setError(null), 3000);
         }
     };
 
-    const handleMarkAsPending = async (appointmentId) => {
-        if (!window.confirm('Mark this appointment as pending?')) {
+    const handleCompleteAppointment = async (appointmentId) => {
+        if (!window.confirm('Mark this appointment as completed?')) {
             return;
         }
 
         try {
-            const response = await fetch(`${API_BASE_URL}/appointments/${appointmentId}/pending`, {
+            const response = await fetch(`${API_BASE_URL}/appointments/${appointmentId}/complete`, {
                 method: 'PUT'
             });
 
             if (response.ok) {
-                setSuccess('Appointment marked as pending');
-                fetchDoctorData();
+                setSuccess('Appointment marked as completed');
+                refreshAppointments();
                 setTimeout(() => setSuccess(null), 3000);
             } else {
                 setError('Failed to update appointment');
                 setTimeout(() => setError(null), 3000);
             }
         } catch (err) {
-            console.error('Error updating appointment:', err);
+            console.error('Error completing appointment:', err);
             setError('Error updating appointment');
             setTimeout(() => setError(null), 3000);
         }
@@ -233,13 +295,13 @@ function DoctorDashboard() {
     const handleReportCreated = (report) => {
         setSuccess('Medical report created successfully');
         setTimeout(() => setSuccess(null), 3000);
-        fetchDoctorData();
+        refreshAppointments();
     };
 
     const handleReportUpdated = (report) => {
         setSuccess('Medical report updated successfully');
         setTimeout(() => setSuccess(null), 3000);
-        fetchDoctorData();
+        refreshAppointments();
     };
 
     const formatDateTime = (dateTimeString) => {
@@ -281,6 +343,8 @@ function DoctorDashboard() {
             case 'CONFIRMED': return 'status-confirmed';
             case 'REJECTED': return 'status-rejected';
             case 'CANCELLED': return 'status-cancelled';
+            case 'EXPIRED': return 'status-cancelled';
+            case 'NEEDS_RESCHEDULE': return 'status-pending';
             case 'COMPLETED': return 'status-completed';
             default: return '';
         }
@@ -288,16 +352,13 @@ function DoctorDashboard() {
 
     const getAppointmentStats = () => {
         const now = new Date();
-        const upcoming = appointments.filter(apt => 
-            new Date(apt.appointmentDate) >= now && 
-            (apt.status === 'CONFIRMED' || apt.status === 'PENDING')
-        ).length;
-        const completed = appointments.filter(apt => apt.status === 'COMPLETED').length;
-        const cancelled = appointments.filter(apt => 
-            apt.status === 'CANCELLED' || apt.status === 'REJECTED'
-        ).length;
-
-        return { upcoming, completed, cancelled, total: appointments.length };
+        const upcoming = bookedAppointments.filter(apt => new Date(apt.appointmentDate) >= now);
+        const count = (status) => statusCounts[status] || 0;
+        const completed = count('COMPLETED');
+        const cancelled = count('CANCELLED') + count('REJECTED') + count('EXPIRED');
+        const total = Object.values(statusCounts).reduce((sum, n) => sum + n, 0);
+
+        return { upcoming: upcoming.length, completed, cancelled, total };
     };
 
     const getTodayAppointments = () => {
@@ -306,10 +367,9 @@ function DoctorDashboard() {
         const tomorrow = new Date(today);
         tomorrow.setDate(tomorrow.getDate() + 1);
 
-        return appointments.filter(apt => {
+        return bookedAppointments.filter(apt => {
             const aptDate = new Date(apt.appointmentDate);
-            return aptDate >= today && aptDate < tomorrow && 
-                   (apt.status === 'CONFIRMED' || apt.status === 'PENDING');
+            return aptDate >= today && aptDate < tomorrow;
         });
     };
 
@@ -398,7 +458,12 @@ function DoctorDashboard() {
                                 <option value="COMPLETED">Completed</option>
                                 <option value="CANCELLED">Cancelled</option>
                                 <option value="REJECTED">Rejected</option>
+                                <option value="EXPIRED">Expired</option>
+                                <option value="NEEDS_RESCHEDULE">Needs Reschedule</option>
                             </select>
+                            <button type="button" className="tab-btn" onClick={handleCopyCalendarFeed} title="Subscribe to your schedule from a calendar app">
+                                Calendar Feed
+                            </button>
                         </div>
                     </div>
 
@@ -482,7 +547,6 @@ function DoctorDashboard() {
                                                 ) : (
                                                     <button onClick={() => handleGenerateReport(appointment)} className="btn-generate-report">Generate Medical Report</button>
                                                 )}
-                                                <button onClick={() => handleMarkAsPending(appointment.id)} className="btn-mark-pending">Mark as Pending</button>
                                             </>
                                         )}
                                     </div>
@@ -490,6 +554,14 @@ function DoctorDashboard() {
                             ))}
                         </div>
                     )}
+
+                    {nextCursor && (
+                        <div style={{ display: 'flex', justifyContent: 'center', marginTop: '16px' }}>
+                            <button type="button" className="tab-btn" onClick={handleLoadMore} disabled={loadingMore}>
+                                {loadingMore ? 'Loading...' : 'Load more'}
+                            </button>
+                        </div>
+                    )}
                 </div>
             </div>
 
@@ -500,11 +572,8 @@ function DoctorDashboard() {
                         <p className="dashboard-title" style={{ whiteSpace: 'nowrap' }}>Booked Hours</p>
                     </div>
                     {(() => {
-                        const now = new Date();
-                        now.setHours(0, 0, 0, 0);
-                        const booked = appointments
-                            .filter(a => (a.status === 'CONFIRMED' || a.status === 'PENDING') && new Date(a.appointmentDate) >= now)
-                            .sort((a, b) => new Date(a.appointmentDate) - new Date(b.appointmentDate));
+                        // Already sorted by date and limited to pending and confirmed bookings by the search
+                        const booked = bookedAppointments;
 
                         if (booked.length === 0) {
                             return <p style={{ color: '#888', fontSize: '14px' }}>No upcoming booked appointments.</p>;
@@ -1,8 +1,8 @@
 import { useState, useEffect } from 'react';
 import { useNavigate, useSearchParams } from 'react-router-dom';
 import { useAuth } from '../context/AuthContext';
-import { isFunctionalAllowed } from '../hooks/useCookiePreferences';
 import MedicalReportViewer from '../components/MedicalReportViewer';
+import { SEARCH_PAGE_SIZE, searchAllAppointments, searchAppointments, toLocalDateTime } from '../hooks/appointmentSearch';
 import './OnlineAppoinment.css';
 
 const API_BASE_URL = 'http://localhost:7000/api';
@@ -17,6 +17,9 @@ function OnlineAppoinment() {
     const [doctors, setDoctors] = useState([]);
     const [filteredDoctors, setFilteredDoctors] = useState([]);
     const [myAppointments, setMyAppointments] = useState([]);
+    const [myNextCursor, setMyNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
+    const [upcomingBookings, setUpcomingBookings] = useState([]);
     const [availabilities, setAvailabilities] = useState([]);
 
     const [selectedSpecialty, setSelectedSpecialty] = useState('');
@@ -36,6 +39,7 @@ function OnlineAppoinment() {
     const [doctorAppointments, setDoctorAppointments] = useState([]);
 
     const [medicalReports, setMedicalReports] = useState([]);
+    const [followUps, setFollowUps] = useState([]);
     const [selectedReport, setSelectedReport] = useState(null);
     const [showReportViewer, setShowReportViewer] = useState(false);
 
@@ -96,52 +100,17 @@ function OnlineAppoinment() {
     useEffect(() => {
         if (sortBy !== 'firstAvailable') return;
         const compute = async () => {
-            const [availRes, apptRes] = await Promise.all([
-                fetch(`${API_BASE_URL}/availability`),
-                fetch(`${API_BASE_URL}/appointments`)
-            ]);
-            const allAvail = await availRes.json();
-            const allAppts = await apptRes.json();
-
-            const bookedSet = new Set(
-                allAppts
-                    .filter(a => a.status !== 'CANCELLED' && a.status !== 'REJECTED' && a.status !== 'COMPLETED')
-                    .map(a => {
-                        const d = new Date(a.appointmentDate);
-                        const dateStr = d.toISOString().split('T')[0];
-                        const timeStr = d.toTimeString().slice(0, 5);
-                        return `${a.doctor?.id}_${dateStr}_${timeStr}`;
-                    })
-            );
+            const res = await fetch(`${API_BASE_URL}/availability/next-slot?days=60`);
+            const nextSlots = res.ok ? await res.json() : {};
 
             const slots = {};
-            const today = new Date();
-            today.setHours(0, 0, 0, 0);
-
             doctors.filter(d => d.isActive).forEach(doctor => {
-                const doctorAvails = allAvail.filter(av => av.doctor?.id === doctor.id && av.isActive);
-                if (!doctorAvails.length) { slots[doctor.id] = Infinity; return; }
-
-                for (let i = 0; i < 60; i++) {
-                    const day = new Date(today);
-                    day.setDate(today.getDate() + i);
-                    const dayOfWeek = day.getDay();
-                    const dateStr = day.toISOString().split('T')[0];
-
-                    const match = doctorAvails.find(av => parseInt(av.dayOfWeek) === dayOfWeek);
-                    if (!match) continue;
-
-                    const timeStr = typeof match.startTime === 'string'
-                        ? match.startTime.slice(0, 5)
-                        : `${String(match.startTime.hour).padStart(2, '0')}:${String(match.startTime.minute).padStart(2, '0')}`;
-
-                    const key = `${doctor.id}_${dateStr}_${timeStr}`;
-                    if (!bookedSet.has(key)) {
-                        slots[doctor.id] = day.getTime();
-                        return;
-                    }
-                }
-                if (slots[doctor.id] === undefined) slots[doctor.id] = Infinity;
+                const next = nextSlots[doctor.id];
+                if (!next) { slots[doctor.id] = Infinity; return; }
+
+                const day = new Date(next.start);
+                day.setHours(0, 0, 0, 0);
+                slots[doctor.id] = day.getTime();
             });
 
             setDoctorNextSlots(slots);
@@ -153,39 +122,61 @@ function OnlineAppoinment() {
     useEffect(() => {
         if (selectedDoctor) {
             fetchDoctorAvailability(selectedDoctor.id);
-            fetchDoctorAppointments(selectedDoctor.id);
         } else {
             setAvailabilities([]);
-            setDoctorAppointments([]);
         }
     }, [selectedDoctor]);
 
+    useEffect(() => {
+        if (selectedDoctor && selectedDate) {
+            fetchDoctorAppointments(selectedDoctor.id, selectedDate);
+        } else {
+            setDoctorAppointments([]);
+        }
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+    }, [selectedDoctor, selectedDate]);
+
     useEffect(() => {
     const urlParams = new URLSearchParams(window.location.search);
     const paymentStatus = urlParams.get('payment');
     const activeViewParam = urlParams.get('view');
-    const pendingAppointmentId = isFunctionalAllowed() ? localStorage.getItem('pendingAppointmentId') : null;
-
-    const handlePaymentSuccess = (appointmentId) => {
-        localStorage.removeItem('pendingAppointmentId');
-        fetch(`${API_BASE_URL}/appointments/${appointmentId}/confirm-payment`, {
-            method: 'PUT'
-        }).then(() => {
-            setSuccess('Payment successful! Your appointment has been confirmed. A confirmation email has been sent.');
-            setActiveView('myappointments');
-            fetchMyAppointments();
+    // The hold token is needed to finish the booking the patient is paying for, so it is kept for this tab
+    // whatever the cookie choice; Stripe also gets it as client_reference_id to match the payment to it
+    const pendingHoldToken = urlParams.get('hold') || sessionStorage.getItem('pendingHoldToken');
+
+    const handlePaymentSuccess = (holdToken) => {
+        sessionStorage.removeItem('pendingHoldToken');
+        fetch(`${API_BASE_URL}/appointments/holds/${holdToken}/confirm-payment`, {
+            method: 'PUT',
+            // A repeated redirect or reload replays the first confirmation instead of failing on the spent hold
+            headers: { 'Idempotency-Key': holdToken }
+        }).then(response => {
+            if (response.ok) {
+                setSuccess('Payment successful! Your appointment has been confirmed. A confirmation email has been sent.');
+                setTimeout(() => setSuccess(null), 5000);
+                setActiveView('myappointments');
+                fetchMyAppointments();
+            } else {
+                response.json().catch(() => ({})).then(body => {
+                    setError(`${body.message || 'Your reserved time could not be booked.'} Your payment was received, please contact support for a new time or a refund.`);
+                    setActiveView('myappointments');
+                    fetchMyAppointments();
+                });
+            }
         });
-        setTimeout(() => setSuccess(null), 5000);
     };
 
-    if (paymentStatus === 'success' && pendingAppointmentId) {
-        handlePaymentSuccess(pendingAppointmentId);
+    if (paymentStatus === 'success' && pendingHoldToken) {
+        handlePaymentSuccess(pendingHoldToken);
         navigate('/appointments?view=myappointments', { replace: true });
-    } else if (activeViewParam === 'myappointments' && pendingAppointmentId) {
+    } else if (activeViewParam === 'myappointments' && pendingHoldToken) {
         // Stripe redirected back with ?view=myappointments after payment
-        handlePaymentSuccess(pendingAppointmentId);
+        handlePaymentSuccess(pendingHoldToken);
     } else if (paymentStatus === 'cancelled') {
-        localStorage.removeItem('pendingAppointmentId');
+        if (pendingHoldToken) {
+            fetch(`${API_BASE_URL}/appointments/holds/${pendingHoldToken}`, { method: 'DELETE' });
+        }
+        sessionStorage.removeItem('pendingHoldToken');
         setError('Payment was cancelled. Please try again or contact support.');
         navigate('/appointments?view=book', { replace: true });
         setTimeout(() => setError(null), 5000);
@@ -220,8 +211,8 @@ function OnlineAppoinment() {
             setFilteredDoctors(doctorsData);
 
             if (user.role === 'PATIENT' || user.role === 'USER') {
-                await fetchMyAppointments();
                 await fetchMedicalReports();
+                await fetchFollowUps();
             }
 
             setLoading(false);
@@ -232,46 +223,80 @@ function OnlineAppoinment() {
         }
     };
 
+    // Upcoming and past are separate keyset listings; the month filter becomes a date range on the server
+    const myListParams = () => {
+        const now = new Date();
+        const params = [['patientId', user.id], ['limit', String(SEARCH_PAGE_SIZE)]];
+        if (activeTab === 'upcoming') {
+            params.push(['from', toLocalDateTime(now)], ['sort', 'asc']);
+            if (statusFilter !== 'ALL') params.push(['status', statusFilter]);
+        } else {
+            let to = now;
+            if (monthFilter !== 'ALL') {
+                const [year, month] = monthFilter.split('-').map(Number);
+                params.push(['from', toLocalDateTime(new Date(year, month - 1, 1))]);
+                const monthEnd = new Date(year, month, 1);
+                if (monthEnd < to) to = monthEnd;
+            }
+            params.push(['to', toLocalDateTime(to)], ['sort', 'desc']);
+        }
+        return params;
+    };
+
     const fetchMyAppointments = async () => {
         try {
-            const response = await fetch(`${API_BASE_URL}/appointments/patient/${user.id}`);
-            const data = await response.json();
-            setMyAppointments(data);
+            const page = await searchAppointments(myListParams());
+            setMyAppointments(page.items);
+            setMyNextCursor(page.nextCursor);
+            setUpcomingBookings(await searchAllAppointments([
+                ['patientId', user.id],
+                ['from', toLocalDateTime(new Date())],
+                ['status', 'PENDING'],
+                ['status', 'CONFIRMED']
+            ]));
         } catch (err) {
             console.error('Error fetching appointments:', err);
         }
     };
 
-    useEffect(() => {
-        const now = new Date();
-        let filtered = [...myAppointments];
-        if (activeTab === 'upcoming') {
-            filtered = filtered.filter(apt => new Date(apt.appointmentDate) >= now);
-            filtered.sort((a, b) => new Date(a.appointmentDate) - new Date(b.appointmentDate));
-            if (statusFilter !== 'ALL') filtered = filtered.filter(apt => apt.status === statusFilter);
-        } else {
-            filtered = filtered.filter(apt => new Date(apt.appointmentDate) < now);
-            filtered.sort((a, b) => new Date(b.appointmentDate) - new Date(a.appointmentDate));
-            if (monthFilter !== 'ALL') {
-                filtered = filtered.filter(apt => {
-                    const d = new Date(apt.appointmentDate);
-                    return `${d.getFullYear()}-${String(d.getMonth() + 1).padStart(2, '0')}` === monthFilter;
-                });
-            }
+    const handleLoadMoreAppointments = async () => {
+        if (!myNextCursor) return;
+        try {
+            setLoadingMore(true);
+            const page = await searchAppointments(myListParams(), myNextCursor);
+            setMyAppointments(previous => [...previous, ...page.items]);
+            setMyNextCursor(page.nextCursor);
+        } catch (err) {
+            console.error('Error fetching appointments:', err);
+        } finally {
+            setLoadingMore(false);
         }
-        setFilteredAppointments(filtered);
-    }, [myAppointments, activeTab, statusFilter, monthFilter]);
+    };
 
-    const getAppointmentStats = () => {
-        const now = new Date();
-        const upcoming = myAppointments.filter(apt =>
-            new Date(apt.appointmentDate) >= now && (apt.status === 'CONFIRMED' || apt.status === 'PENDING')
-        ).length;
-        const completed = myAppointments.filter(apt => apt.status === 'COMPLETED').length;
-        const cancelled = myAppointments.filter(apt => apt.status === 'CANCELLED' || apt.status === 'REJECTED').length;
-        return { upcoming, completed, cancelled, total: myAppointments.length };
+    useEffect(() => {
+        if (!user || (user.role !== 'PATIENT' && user.role !== 'USER')) return;
+        fetchMyAppointments();
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+    }, [user, activeTab, statusFilter, monthFilter]);
+
+    useEffect(() => {
+        setFilteredAppointments(myAppointments);
+    }, [myAppointments]);
+
+    // The last twelve months; older history is still reachable with "All Months" and paging
+    const getRecentMonths = () => {
+        const months = [];
+        const date = new Date();
+        date.setDate(1);
+        for (let i = 0; i < 12; i++) {
+            months.push(`${date.getFullYear()}-${String(date.getMonth() + 1).padStart(2, '0')}`);
+            date.setMonth(date.getMonth() - 1);
+        }
+        return months;
     };
 
+    const getAppointmentStats = () => ({ upcoming: upcomingBookings.length });
+
     const fetchMedicalReports = async () => {
         try {
             const response = await fetch(`${API_BASE_URL}/medical-reports/patient/${user.id}`);
@@ -301,31 +326,40 @@ function OnlineAppoinment() {
         }
     };
 
-    const fetchDoctorAppointments = async (doctorId) => {
+    // Only the selected day's bookings are needed to count taken seats
+    const fetchDoctorAppointments = async (doctorId, date) => {
         try {
-            const response = await fetch(`${API_BASE_URL}/appointments/doctor/${doctorId}`);
-            if (response.ok) {
-                const data = await response.json();
-                setDoctorAppointments(data);
-            }
+            const dayStart = new Date(`${date}T00:00:00`);
+            const dayEnd = new Date(dayStart);
+            dayEnd.setDate(dayEnd.getDate() + 1);
+            setDoctorAppointments(await searchAllAppointments([
+                ['doctorId', doctorId],
+                ['from', toLocalDateTime(dayStart)],
+                ['to', toLocalDateTime(dayEnd)]
+            ]));
         } catch (err) {
             console.error('Error fetching doctor appointments:', err);
         }
     };
 
-    const isSlotBooked = (startTime) => {
-        if (!selectedDate || !doctorAppointments.length) return false;
-        return doctorAppointments.some(apt => {
-            if (apt.status === 'CANCELLED' || apt.status === 'REJECTED' || apt.status === 'COMPLETED') return false;
+    const countSlotBookings = (startTime) => {
+        if (!selectedDate || !doctorAppointments.length) return 0;
+        return doctorAppointments.filter(apt => {
+            if (apt.status === 'CANCELLED' || apt.status === 'REJECTED' || apt.status === 'EXPIRED' || apt.status === 'COMPLETED') return false;
             const aptDate = new Date(apt.appointmentDate);
             const aptDateStr = aptDate.toISOString().split('T')[0];
             if (aptDateStr !== selectedDate) return false;
             const aptTime = aptDate.toTimeString().slice(0, 5);
             const slotTime = startTime.slice(0, 5);
             return aptTime === slotTime;
-        });
+        }).length;
     };
 
+    // Group sessions stay bookable until every seat is taken
+    const isSlotBooked = (availability) => countSlotBookings(availability.startTime) >= (availability.capacity || 1);
+
+    const seatsLeft = (availability) => (availability.capacity || 1) - countSlotBookings(availability.startTime);
+
     const fetchDoctorAvailability = async (doctorId) => {
         try {
             const response = await fetch(`${API_BASE_URL}/availability/doctor/${doctorId}`);
@@ -345,7 +379,12 @@ function OnlineAppoinment() {
             return;
         }
 
-        if (isRescheduling && reschedulingAppointment) {
+        // A cancelled, rejected or expired booking stays in the history; its new time is a new booking with
+        // its own id, paid through checkout like any other
+        const released = reschedulingAppointment
+            && ['CANCELLED', 'REJECTED', 'EXPIRED'].includes(reschedulingAppointment.status);
+
+        if (isRescheduling && reschedulingAppointment && !released) {
             try {
                 setLoading(true);
                 setError(null);
@@ -358,7 +397,10 @@ function OnlineAppoinment() {
                         doctor: { id: selectedDoctor.id },
                         appointmentDate: appointmentDateTime,
                         notes: notes || reschedulingAppointment.notes || '',
-                        status: 'CONFIRMED',
+                        // A new time keeps the booking's status; confirming stays with payment and the doctor
+                        status: reschedulingAppointment.status === 'NEEDS_RESCHEDULE'
+                            ? (reschedulingAppointment.previousStatus || 'PENDING')
+                            : reschedulingAppointment.status,
                         cost: reschedulingAppointment.cost || 150
                     })
                 });
@@ -371,7 +413,8 @@ function OnlineAppoinment() {
                     setActiveView('myappointments');
                     setTimeout(() => setSuccess(null), 3000);
                 } else {
-                    setError('Error rescheduling appointment.');
+                    const body = await response.json().catch(() => ({}));
+                    setError(body.message || 'Error rescheduling appointment.');
                 }
             } catch (err) {
                 setError('Server connection error.');
@@ -388,7 +431,7 @@ function OnlineAppoinment() {
             setLoading(true);
             setError(null);
             const appointmentDateTime = `${selectedDate}T${selectedTime}`;
-            const response = await fetch(`${API_BASE_URL}/appointments`, {
+            const response = await fetch(`${API_BASE_URL}/appointments/holds`, {
                 method: 'POST',
                 headers: { 'Content-Type': 'application/json' },
                 body: JSON.stringify({
@@ -396,14 +439,16 @@ function OnlineAppoinment() {
                     doctor: { id: selectedDoctor.id },
                     appointmentDate: appointmentDateTime,
                     notes: notes || '',
-                    status: 'CONFIRMED',
                     cost: selectedDoctor.appointmentCost || 150
                 })
             });
             if (response.ok) {
-                const newAppointment = await response.json();
-                if (isFunctionalAllowed()) localStorage.setItem('pendingAppointmentId', newAppointment.id);
-                window.location.href = 'https://buy.stripe.com/test_28EcN432ycud6Km8YjcjS00';
+                const hold = await response.json();
+                sessionStorage.setItem('pendingHoldToken', hold.token);
+                window.location.href = `https://buy.stripe.com/test_28EcN432ycud6Km8YjcjS00?client_reference_id=${encodeURIComponent(hold.token)}`;
+            } else if (response.status === 409) {
+                const body = await response.json();
+                setError(body.message || 'This time slot is no longer available.');
             } else {
                 setError('Error creating appointment.');
             }
@@ -414,6 +459,45 @@ function OnlineAppoinment() {
         }
     };
 
+    const fetchFollowUps = async () => {
+        try {
+            const response = await fetch(`${API_BASE_URL}/follow-ups/patient/${user.id}`);
+            if (response.ok) {
+                setFollowUps(await response.json());
+            }
+        } catch (err) {
+            console.error('Error fetching follow-ups:', err);
+        }
+    };
+
+    const handleBookFollowUp = (followUp) => {
+        const doctor = doctors.find(d => d.id === followUp.doctorId);
+        if (!doctor) {
+            setError('This doctor is no longer taking appointments.');
+            return;
+        }
+        setIsRescheduling(false);
+        setReschedulingAppointment(null);
+        setSelectedDoctor(doctor);
+        setSelectedSpecialty(doctor.specialty?.id?.toString() || '');
+        setSelectedDate(followUp.suggestedStart ? followUp.suggestedStart.split('T')[0] : followUp.followUpDate);
+        setSelectedTime(followUp.suggestedStart ? followUp.suggestedStart.split('T')[1] : '');
+        setNotes('Follow-up visit');
+        setActiveView('book');
+        window.scrollTo({ top: 0, behavior: 'smooth' });
+    };
+
+    const handleDismissFollowUp = async (followUpId) => {
+        try {
+            const response = await fetch(`${API_BASE_URL}/follow-ups/${followUpId}/dismiss`, { method: 'PUT' });
+            if (response.ok) {
+                setFollowUps(followUps.filter(f => f.id !== followUpId));
+            }
+        } catch (err) {
+            console.error('Error dismissing follow-up:', err);
+        }
+    };
+
     const handleRescheduleAppointment = (appointment) => {
         setIsRescheduling(true);
         setReschedulingAppointment(appointment);
@@ -494,6 +578,8 @@ function OnlineAppoinment() {
             case 'CONFIRMED': return 'status-confirmed';
             case 'REJECTED': return 'status-rejected';
             case 'CANCELLED': return 'status-cancelled';
+            case 'EXPIRED': return 'status-cancelled';
+            case 'NEEDS_RESCHEDULE': return 'status-pending';
             case 'COMPLETED': return 'status-completed';
             default: return '';
         }
@@ -719,7 +805,7 @@ function OnlineAppoinment() {
                                                     {getAvailableTimesForDate().length > 0 ? (
                                                         <div className="time-slots">
                                                             {getAvailableTimesForDate().map((availability, index) => {
-                                                                const booked = isSlotBooked(availability.startTime);
+                                                                const booked = isSlotBooked(availability);
                                                                 return (
                                                                 <button
                                                                     key={index}
@@ -730,6 +816,9 @@ function OnlineAppoinment() {
                                                                 >
                                                                     {availability.startTime} - {availability.endTime}
                                                                     {booked && <span className="booked-label"> (Booked)</span>}
+                                                                    {!booked && availability.capacity > 1 && (
+                                                                        <span className="seats-label"> ({seatsLeft(availability)} of {availability.capacity} seats left)</span>
+                                                                    )}
                                                                 </button>
                                                                 );
                                                             })}
@@ -842,18 +931,10 @@ function OnlineAppoinment() {
                                             <svg width="10" height="10" viewBox="0 0 24 24" fill="none" stroke="#7c6bc9" strokeWidth="2" strokeLinecap="round" strokeLinejoin="round"><rect x="3" y="4" width="18" height="18" rx="2"/><line x1="16" y1="2" x2="16" y2="6"/><line x1="8" y1="2" x2="8" y2="6"/><line x1="3" y1="10" x2="21" y2="10"/></svg>
                                             <span className="stat-label">Upcoming</span><span className="stat-number">{stats.upcoming}</span>
                                         </div>
-                                        <div className="stat-card">
-                                            <svg width="10" height="10" viewBox="0 0 24 24" fill="none" stroke="#7c6bc9" strokeWidth="2" strokeLinecap="round" strokeLinejoin="round"><circle cx="12" cy="12" r="10"/><polyline points="9 12 11 14 15 10"/></svg>
-                                            <span className="stat-label">Completed</span><span className="stat-number">{stats.completed}</span>
-                                        </div>
                                         <div className="stat-card">
                                             <svg width="10" height="10" viewBox="0 0 24 24" fill="none" stroke="#7c6bc9" strokeWidth="2" strokeLinecap="round" strokeLinejoin="round"><path d="M14 2H6a2 2 0 0 0-2 2v16a2 2 0 0 0 2 2h12a2 2 0 0 0 2-2V8z"/><polyline points="14 2 14 8 20 8"/><line x1="16" y1="13" x2="8" y2="13"/><line x1="16" y1="17" x2="8" y2="17"/></svg>
                                             <span className="stat-label">Medical Reports</span><span className="stat-number">{medicalReports.length}</span>
                                         </div>
-                                        <div className="stat-card">
-                                            <svg width="10" height="10" viewBox="0 0 24 24" fill="none" stroke="#7c6bc9" strokeWidth="2" strokeLinecap="round" strokeLinejoin="round"><line x1="8" y1="6" x2="21" y2="6"/><line x1="8" y1="12" x2="21" y2="12"/><line x1="8" y1="18" x2="21" y2="18"/><line x1="3" y1="6" x2="3.01" y2="6"/><line x1="3" y1="12" x2="3.01" y2="12"/><line x1="3" y1="18" x2="3.01" y2="18"/></svg>
-                                            <span className="stat-label">Total</span><span className="stat-number">{stats.total}</span>
-                                        </div>
                                     </>); })()}
                                 </div>
                             </div>
@@ -870,18 +951,13 @@ function OnlineAppoinment() {
                                         <option value="COMPLETED">Completed</option>
                                         <option value="CANCELLED">Cancelled</option>
                                         <option value="REJECTED">Rejected</option>
+                                        <option value="EXPIRED">Expired</option>
+                                        <option value="NEEDS_RESCHEDULE">Needs Reschedule</option>
                                     </select>
                                 ) : (
                                     <select value={monthFilter} onChange={e => setMonthFilter(e.target.value)} className="status-filter">
                                         <option value="ALL">All Months</option>
-                                        {[...new Set(
-                                            myAppointments
-                                                .filter(apt => new Date(apt.appointmentDate) < new Date())
-                                                .map(apt => {
-                                                    const d = new Date(apt.appointmentDate);
-                                                    return `${d.getFullYear()}-${String(d.getMonth() + 1).padStart(2, '0')}`;
-                                                })
-                                        )].sort((a, b) => b.localeCompare(a)).map(ym => {
+                                        {getRecentMonths().map(ym => {
                                             const [year, month] = ym.split('-');
                                             const label = new Date(year, month - 1).toLocaleString('en-US', { month: 'long', year: 'numeric' });
                                             return <option key={ym} value={ym}>{label}</option>;
@@ -891,6 +967,20 @@ function OnlineAppoinment() {
                             </div>
                         </div>
 
+                        {followUps.map(followUp => {
+                            const doctor = doctors.find(d => d.id === followUp.doctorId);
+                            return (
+                                <div key={followUp.id} className="cancellation-notice">
+                                    <span className="notice-text">
+                                        Your follow-up with Dr. {doctor?.user?.firstName} {doctor?.user?.lastName} is due on {new Date(followUp.followUpDate).toLocaleDateString()}.
+                                        {followUp.suggestedStart && ` The first free time is ${formatDateTime(followUp.suggestedStart)}.`}
+                                    </span>
+                                    <button onClick={() => handleBookFollowUp(followUp)} className="btn-reschedule">Book</button>
+                                    <button onClick={() => handleDismissFollowUp(followUp.id)} className="btn-cancel">Dismiss</button>
+                                </div>
+                            );
+                        })}
+
                         {filteredAppointments.length === 0 ? (
                             <div className="no-appointments">
                                 <p>No appointments found.</p>
@@ -905,7 +995,7 @@ function OnlineAppoinment() {
                                             </span>
                                         </div>
 
-                                        {(appointment.status === 'CANCELLED' || appointment.status === 'REJECTED') && (
+                                        {(appointment.status === 'CANCELLED' || appointment.status === 'REJECTED' || appointment.status === 'EXPIRED') && (
                                             <div className="cancellation-notice">
                                                 <span className="notice-text">
                                                     This appointment has been {appointment.status.toLowerCase()}. 
@@ -914,6 +1004,14 @@ function OnlineAppoinment() {
                                             </div>
                                         )}
 
+                                        {appointment.status === 'NEEDS_RESCHEDULE' && (
+                                            <div className="cancellation-notice">
+                                                <span className="notice-text">
+                                                    The doctor's hours have changed and this time is no longer available. Please choose a new time below.
+                                                </span>
+                                            </div>
+                                        )}
+
                                         <div className="appointment-body">
                                             <div className="appointment-main-info">
                                                 <div className="doctor-info">
@@ -959,7 +1057,7 @@ function OnlineAppoinment() {
                                                     View Medical Report
                                                 </button>
                                             )}
-                                            {(appointment.status === 'CANCELLED' || appointment.status === 'REJECTED') && (
+                                            {(appointment.status === 'CANCELLED' || appointment.status === 'REJECTED' || appointment.status === 'EXPIRED' || appointment.status === 'NEEDS_RESCHEDULE') && (
                                                 <button
                                                     onClick={() => handleRescheduleAppointment(appointment)}
                                                     className="btn-reschedule"
@@ -967,7 +1065,7 @@ function OnlineAppoinment() {
                                                     Reschedule Appointment
                                                 </button>
                                             )}
-                                            {(appointment.status === 'PENDING' || appointment.status === 'CONFIRMED') && (
+                                            {(appointment.status === 'PENDING' || appointment.status === 'CONFIRMED' || appointment.status === 'NEEDS_RESCHEDULE') && (
                                                 <button
                                                     onClick={() => handleCancelAppointment(appointment.id)}
                                                     className="btn-cancel"
@@ -980,6 +1078,14 @@ function OnlineAppoinment() {
                                 ))}
                             </div>
                         )}
+
+                        {myNextCursor && (
+                            <div style={{ display: 'flex', justifyContent: 'center', marginTop: '16px' }}>
+                                <button type="button" className="tab-btn" onClick={handleLoadMoreAppointments} disabled={loadingMore}>
+                                    {loadingMore ? 'Loading...' : 'Load more'}
+                                </button>
+                            </div>
+                        )}
                     </div>
                 </div>
             )}